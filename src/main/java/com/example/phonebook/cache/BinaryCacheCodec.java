@@ -0,0 +1,544 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 共享缓存的紧凑二进制编码
+ *
+ * 缓存值只有几种固定形态（联系人、分页、切片、列表、统计表），逐字段写入变长整数和 UTF-8 字符串，
+ * 空字段用位图标记，体积约为 Java 序列化的五分之一，也不依赖类的 serialVersionUID。
+ * 不支持的值类型编码结果为 null，调用方只缓存在本地。
+ */
+public final class BinaryCacheCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TYPE_CONTACT = 1;
+    private static final byte TYPE_PAGE = 2;
+    private static final byte TYPE_SLICE = 3;
+    private static final byte TYPE_LIST = 4;
+    private static final byte TYPE_COUNTS = 5;
+
+    private static final byte MESSAGE_CHANGE = 1;
+    private static final byte MESSAGE_CLEAR = 2;
+    private static final byte MESSAGE_CHANGES = 3;
+
+    private BinaryCacheCodec() {
+    }
+
+    /**
+     * 编码缓存值，stamp 为加载开始时的共享缓存序号
+     */
+    public static byte[] encode(Object value, long stamp) {
+        Output out = new Output(256);
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarLong(stamp);
+        if (value instanceof ContactDTO) {
+            out.writeByte(TYPE_CONTACT);
+            writeContact(out, (ContactDTO) value);
+        } else if (value instanceof Page) {
+            Page<?> page = (Page<?>) value;
+            if (!isContactList(page.getContent())) {
+                return null;
+            }
+            out.writeByte(TYPE_PAGE);
+            writePageable(out, page.getPageable());
+            out.writeVarLong(page.getTotalElements());
+            writeContacts(out, page.getContent());
+        } else if (value instanceof Slice) {
+            Slice<?> slice = (Slice<?>) value;
+            if (!isContactList(slice.getContent())) {
+                return null;
+            }
+            out.writeByte(TYPE_SLICE);
+            writePageable(out, slice.getPageable());
+            out.writeBoolean(slice.hasNext());
+            writeContacts(out, slice.getContent());
+        } else if (value instanceof List && isContactList((List<?>) value)) {
+            out.writeByte(TYPE_LIST);
+            writeContacts(out, (List<?>) value);
+        } else if (value instanceof Map && isCounts((Map<?, ?>) value)) {
+            out.writeByte(TYPE_COUNTS);
+            Map<?, ?> counts = (Map<?, ?>) value;
+            out.writeVarInt(counts.size());
+            for (Map.Entry<?, ?> entry : counts.entrySet()) {
+                out.writeString((String) entry.getKey());
+                out.writeVarLong(zigZag((Long) entry.getValue()));
+            }
+        } else {
+            return null;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码缓存值；格式版本不符或数据损坏时抛出 IllegalArgumentException
+     */
+    public static Entry decode(byte[] bytes) {
+        Input in = new Input(bytes);
+        if (in.readByte() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的缓存编码版本");
+        }
+        long stamp = in.readVarLong();
+        byte type = in.readByte();
+        Object value;
+        switch (type) {
+            case TYPE_CONTACT:
+                value = readContact(in);
+                break;
+            case TYPE_PAGE: {
+                Pageable pageable = readPageable(in);
+                long total = in.readVarLong();
+                value = new PageImpl<>(readContacts(in), pageable, total);
+                break;
+            }
+            case TYPE_SLICE: {
+                Pageable pageable = readPageable(in);
+                boolean hasNext = in.readBoolean();
+                value = new SliceImpl<>(readContacts(in), pageable, hasNext);
+                break;
+            }
+            case TYPE_LIST:
+                value = readContacts(in);
+                break;
+            case TYPE_COUNTS: {
+                int size = in.readVarInt();
+                Map<String, Long> counts = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    counts.put(in.readString(), unZigZag(in.readVarLong()));
+                }
+                value = counts;
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("未知的缓存值类型: " + type);
+        }
+        return new Entry(stamp, value);
+    }
+
+    /**
+     * 编码联系人变更通知
+     */
+    public static byte[] encodeChange(long nodeId, long sequence, ContactChangedEvent event) {
+        Output out = new Output(128);
+        writeMessageHeader(out, MESSAGE_CHANGE, nodeId, sequence);
+        writeEvent(out, event);
+        return out.toByteArray();
+    }
+
+    /**
+     * 编码同一事务提交的多条联系人变更，接收方一次处理
+     */
+    public static byte[] encodeChanges(long nodeId, long sequence, List<ContactChangedEvent> events) {
+        Output out = new Output(32 + 96 * events.size());
+        writeMessageHeader(out, MESSAGE_CHANGES, nodeId, sequence);
+        out.writeVarLong(events.size());
+        for (ContactChangedEvent event : events) {
+            writeEvent(out, event);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 编码清空通知，cacheName 为空表示全部缓存
+     */
+    public static byte[] encodeClear(long nodeId, long sequence, String cacheName) {
+        Output out = new Output(32);
+        writeMessageHeader(out, MESSAGE_CLEAR, nodeId, sequence);
+        out.writeString(cacheName);
+        return out.toByteArray();
+    }
+
+    public static Message decodeMessage(byte[] bytes) {
+        Input in = new Input(bytes);
+        if (in.readByte() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("不支持的通知编码版本");
+        }
+        byte kind = in.readByte();
+        long nodeId = in.readLong();
+        long sequence = in.readVarLong();
+        if (kind == MESSAGE_CHANGE) {
+            return new Message(nodeId, sequence, Collections.singletonList(readEvent(in)), null);
+        }
+        if (kind == MESSAGE_CHANGES) {
+            int count = (int) in.readVarLong();
+            List<ContactChangedEvent> events = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                events.add(readEvent(in));
+            }
+            return new Message(nodeId, sequence, events, null);
+        }
+        if (kind == MESSAGE_CLEAR) {
+            return new Message(nodeId, sequence, null, in.readString());
+        }
+        throw new IllegalArgumentException("未知的通知类型: " + kind);
+    }
+
+    private static void writeEvent(Output out, ContactChangedEvent event) {
+        out.writeBoolean(event.getBefore() != null);
+        if (event.getBefore() != null) {
+            writeSnapshot(out, event.getBefore());
+        }
+        out.writeBoolean(event.getAfter() != null);
+        if (event.getAfter() != null) {
+            writeSnapshot(out, event.getAfter());
+        }
+    }
+
+    private static ContactChangedEvent readEvent(Input in) {
+        ContactSnapshot before = in.readBoolean() ? readSnapshot(in) : null;
+        ContactSnapshot after = in.readBoolean() ? readSnapshot(in) : null;
+        return new ContactChangedEvent(before, after);
+    }
+
+    private static void writeMessageHeader(Output out, byte kind, long nodeId, long sequence) {
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(kind);
+        out.writeLong(nodeId);
+        out.writeVarLong(sequence);
+    }
+
+    private static boolean isContactList(List<?> items) {
+        for (Object item : items) {
+            if (!(item instanceof ContactDTO)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isCounts(Map<?, ?> map) {
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof Long)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeContacts(Output out, List<?> contacts) {
+        out.writeVarInt(contacts.size());
+        for (Object contact : contacts) {
+            writeContact(out, (ContactDTO) contact);
+        }
+    }
+
+    private static List<ContactDTO> readContacts(Input in) {
+        int size = in.readVarInt();
+        List<ContactDTO> contacts = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            contacts.add(readContact(in));
+        }
+        return contacts;
+    }
+
+    // 位图依次对应 id、createdAt、updatedAt、score 是否存在，字符串字段自带空标记
+    private static void writeContact(Output out, ContactDTO dto) {
+        int present = (dto.getId() != null ? 1 : 0)
+                | (dto.getCreatedAt() != null ? 2 : 0)
+                | (dto.getUpdatedAt() != null ? 4 : 0)
+                | (dto.getScore() != null ? 8 : 0);
+        out.writeByte((byte) present);
+        if (dto.getId() != null) {
+            out.writeVarLong(zigZag(dto.getId()));
+        }
+        out.writeString(dto.getName());
+        out.writeString(dto.getPhoneNumber());
+        out.writeString(dto.getEmail());
+        out.writeString(dto.getAddress());
+        out.writeString(dto.getCategory());
+        out.writeString(dto.getNotes());
+        if (dto.getCreatedAt() != null) {
+            writeDateTime(out, dto.getCreatedAt());
+        }
+        if (dto.getUpdatedAt() != null) {
+            writeDateTime(out, dto.getUpdatedAt());
+        }
+        if (dto.getScore() != null) {
+            out.writeVarLong(zigZag(dto.getScore()));
+        }
+    }
+
+    private static ContactDTO readContact(Input in) {
+        int present = in.readByte();
+        ContactDTO dto = new ContactDTO();
+        if ((present & 1) != 0) {
+            dto.setId(unZigZag(in.readVarLong()));
+        }
+        dto.setName(in.readString());
+        dto.setPhoneNumber(in.readString());
+        dto.setEmail(in.readString());
+        dto.setAddress(in.readString());
+        dto.setCategory(in.readString());
+        dto.setNotes(in.readString());
+        if ((present & 2) != 0) {
+            dto.setCreatedAt(readDateTime(in));
+        }
+        if ((present & 4) != 0) {
+            dto.setUpdatedAt(readDateTime(in));
+        }
+        if ((present & 8) != 0) {
+            dto.setScore((int) unZigZag(in.readVarLong()));
+        }
+        return dto;
+    }
+
+    private static void writeSnapshot(Output out, ContactSnapshot snapshot) {
+        out.writeVarLong(zigZag(snapshot.getId()));
+        out.writeString(snapshot.getName());
+        out.writeString(snapshot.getPhoneNumber());
+        out.writeString(snapshot.getEmail());
+        out.writeString(snapshot.getCategory());
+        out.writeString(snapshot.getNamePinyin());
+        out.writeString(snapshot.getNameInitials());
+    }
+
+    private static ContactSnapshot readSnapshot(Input in) {
+        return new ContactSnapshot(unZigZag(in.readVarLong()), in.readString(), in.readString(), in.readString(),
+                in.readString(), in.readString(), in.readString());
+    }
+
+    private static void writeDateTime(Output out, LocalDateTime dateTime) {
+        out.writeVarLong(zigZag(dateTime.toEpochSecond(ZoneOffset.UTC)));
+        out.writeVarInt(dateTime.getNano());
+    }
+
+    private static LocalDateTime readDateTime(Input in) {
+        long seconds = unZigZag(in.readVarLong());
+        return LocalDateTime.ofEpochSecond(seconds, in.readVarInt(), ZoneOffset.UTC);
+    }
+
+    // 分页参数：是否分页、页码、页大小、排序字段和方向
+    private static void writePageable(Output out, Pageable pageable) {
+        out.writeBoolean(pageable.isPaged());
+        if (pageable.isUnpaged()) {
+            return;
+        }
+        out.writeVarInt(pageable.getPageNumber());
+        out.writeVarInt(pageable.getPageSize());
+        List<Sort.Order> orders = pageable.getSort().toList();
+        out.writeVarInt(orders.size());
+        for (Sort.Order order : orders) {
+            out.writeString(order.getProperty());
+            out.writeBoolean(order.isAscending());
+        }
+    }
+
+    private static Pageable readPageable(Input in) {
+        if (!in.readBoolean()) {
+            return Pageable.unpaged();
+        }
+        int page = in.readVarInt();
+        int size = in.readVarInt();
+        int orderCount = in.readVarInt();
+        Sort.Order[] orders = new Sort.Order[orderCount];
+        for (int i = 0; i < orderCount; i++) {
+            String property = in.readString();
+            orders[i] = in.readBoolean() ? Sort.Order.asc(property) : Sort.Order.desc(property);
+        }
+        return PageRequest.of(page, size, Sort.by(orders));
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 解码后的缓存值及其写入序号
+     */
+    public static final class Entry {
+        private final long stamp;
+        private final Object value;
+
+        Entry(long stamp, Object value) {
+            this.stamp = stamp;
+            this.value = value;
+        }
+
+        public long getStamp() {
+            return stamp;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * 解码后的失效通知：联系人变更（events，一条或同一事务的多条）或清空缓存（clearedCache 为 null 表示全部缓存）
+     */
+    public static final class Message {
+        private final long nodeId;
+        private final long sequence;
+        private final List<ContactChangedEvent> events;
+        private final String clearedCache;
+
+        Message(long nodeId, long sequence, List<ContactChangedEvent> events, String clearedCache) {
+            this.nodeId = nodeId;
+            this.sequence = sequence;
+            this.events = events;
+            this.clearedCache = clearedCache;
+        }
+
+        public long getNodeId() {
+            return nodeId;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public List<ContactChangedEvent> getEvents() {
+            return events;
+        }
+
+        public boolean isClear() {
+            return events == null;
+        }
+
+        public String getClearedCache() {
+            return clearedCache;
+        }
+    }
+
+    private static final class Output {
+        private byte[] buffer;
+        private int length;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buffer[length++] = b;
+        }
+
+        void writeBoolean(boolean b) {
+            writeByte(b ? (byte) 1 : (byte) 0);
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[length++] = (byte) value;
+        }
+
+        // 长度加一后写入，0 表示 null
+        void writeString(String s) {
+            if (s == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, length);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+            }
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        byte readByte() {
+            if (position >= buffer.length) {
+                throw new IllegalArgumentException("缓存数据不完整");
+            }
+            return buffer[position++];
+        }
+
+        boolean readBoolean() {
+            return readByte() != 0;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (readByte() & 0xFF);
+            }
+            return value;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("变长整数格式错误");
+        }
+
+        String readString() {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length > buffer.length - position) {
+                throw new IllegalArgumentException("缓存数据不完整");
+            }
+            String s = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.dto.ContactDTO;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 记录每个缓存项依赖的联系人ID，并为缓存项分配版本号
+ *
+ * 缓存未命中时登记一个带版本号的"加载中"条目，加载完成写入时版本号必须仍然有效；
+ * 加载期间如果发生了失效，条目被作废，过期的加载结果不会写进缓存。
+ * 写入和失效对同一条目加锁，二者不会交错。
+ */
+@Component
+public class CacheDependencyTracker {
+
+    private final ConcurrentMap<String, ConcurrentMap<Object, Tracked>> caches = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * 缓存未命中、开始加载时调用，返回本次加载的版本号
+     */
+    public long beginLoad(String cacheName, Object key) {
+        return entries(cacheName).computeIfAbsent(key, k -> new Tracked(versions.incrementAndGet())).version;
+    }
+
+    /**
+     * 版本仍然有效时执行写入并记录依赖的联系人ID；loadVersion 为空表示没有经过加载的直接写入（如 @CachePut）
+     */
+    public boolean put(String cacheName, Object key, Object value, Long loadVersion, Runnable write) {
+        ConcurrentMap<Object, Tracked> entries = entries(cacheName);
+        Tracked tracked = loadVersion == null
+                ? entries.computeIfAbsent(key, k -> new Tracked(versions.incrementAndGet()))
+                : entries.get(key);
+        if (tracked == null) {
+            return false;
+        }
+        synchronized (tracked) {
+            if (tracked.invalidated || (loadVersion != null && tracked.version != loadVersion)) {
+                return false;
+            }
+            tracked.ids = idsOf(value);
+            write.run();
+            return true;
+        }
+    }
+
+    /**
+     * 作废满足条件的缓存项并调用 evict 删除；仍在加载中的条目不知道会包含哪些联系人，一律作废
+     */
+    public int invalidate(String cacheName, BiPredicate<Object, long[]> affected, Consumer<Object> evict) {
+        ConcurrentMap<Object, Tracked> entries = entries(cacheName);
+        int count = 0;
+        for (Map.Entry<Object, Tracked> entry : entries.entrySet()) {
+            Tracked tracked = entry.getValue();
+            long[] ids = tracked.ids;
+            if (ids != null && !affected.test(entry.getKey(), ids)) {
+                continue;
+            }
+            synchronized (tracked) {
+                tracked.invalidated = true;
+                entries.remove(entry.getKey(), tracked);
+                evict.accept(entry.getKey());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 缓存项被显式删除后不再跟踪
+     */
+    public void forget(String cacheName, Object key) {
+        Tracked tracked = entries(cacheName).remove(key);
+        if (tracked != null) {
+            synchronized (tracked) {
+                tracked.invalidated = true;
+            }
+        }
+    }
+
+    public void forgetAll(String cacheName) {
+        for (Object key : entries(cacheName).keySet()) {
+            forget(cacheName, key);
+        }
+    }
+
+    /**
+     * 清理值已被容量淘汰或过期删除的条目，present 判断键是否仍在缓存中；加载中的条目保留
+     */
+    public void prune(String cacheName, Predicate<Object> present) {
+        ConcurrentMap<Object, Tracked> entries = entries(cacheName);
+        for (Map.Entry<Object, Tracked> entry : entries.entrySet()) {
+            Tracked tracked = entry.getValue();
+            if (tracked.ids == null) {
+                continue;
+            }
+            synchronized (tracked) {
+                if (!present.test(entry.getKey())) {
+                    tracked.invalidated = true;
+                    entries.remove(entry.getKey(), tracked);
+                }
+            }
+        }
+    }
+
+    public int trackedCount(String cacheName) {
+        return entries(cacheName).size();
+    }
+
+    /**
+     * 判断缓存项是否包含指定联系人，ids 已排序
+     */
+    public static boolean contains(long[] ids, long id) {
+        return Arrays.binarySearch(ids, id) >= 0;
+    }
+
+    private ConcurrentMap<Object, Tracked> entries(String cacheName) {
+        return caches.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+    }
+
+    private static long[] idsOf(Object value) {
+        Collection<?> items;
+        if (value instanceof Slice) {
+            items = ((Slice<?>) value).getContent();
+        } else if (value instanceof Collection) {
+            items = (Collection<?>) value;
+        } else if (value instanceof ContactDTO) {
+            items = Collections.singletonList(value);
+        } else {
+            return new long[0];
+        }
+        long[] ids = new long[items.size()];
+        int count = 0;
+        for (Object item : items) {
+            if (item instanceof ContactDTO && ((ContactDTO) item).getId() != null) {
+                ids[count++] = ((ContactDTO) item).getId();
+            }
+        }
+        ids = Arrays.copyOf(ids, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static final class Tracked {
+        final long version;
+        volatile long[] ids;
+        boolean invalidated;
+
+        Tracked(long version) {
+            this.version = version;
+        }
+    }
+}
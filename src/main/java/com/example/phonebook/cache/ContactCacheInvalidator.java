@@ -0,0 +1,325 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.index.ContactRanker;
+import com.example.phonebook.index.FuzzyNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * 按依赖关系精确失效缓存，替代写操作上的 allEntries 清空
+ *
+ * 事务提交后根据变更前后的快照判断：
+ * 列表页 —— 增删时全部失效，修改时只失效包含该联系人的页以及排序字段发生变化的页；
+ * 分类页 —— 只失效涉及的分类（增删或改了分类时整类失效，否则同列表页）；
+ * 搜索结果 —— 只失效关键字命中变更前或变更后联系人的条目，以及包含该联系人的条目；
+ * 联系人详情 —— 删除时失效。分类统计由 ContactCounters 增量维护，不经过缓存。
+ * 同一事务发布的变更在提交后合并为一次遍历：批量写入每块只扫描一遍缓存项，每个搜索关键字只打分一次，
+ * 一次变更超过 MAX_SCORED_CHANGES 个联系人时不再逐个打分，搜索结果全部失效。
+ * 启用 Redis 二级缓存时，本地失效前先递增共享序号，失效后把这批变更作为一条通知广播给其他实例，
+ * 其他实例按同样的规则只失效本地副本。
+ */
+@Component
+public class ContactCacheInvalidator implements RedisCacheStore.InvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactCacheInvalidator.class);
+
+    // 快照中带有的字段，其余字段（地址、备注、更新时间）是否变化无从得知
+    private static final List<String> SNAPSHOT_FIELDS = Arrays.asList("name", "phoneNumber", "email", "category");
+    // 不会因修改而改变的排序字段
+    private static final List<String> IMMUTABLE_FIELDS = Arrays.asList("id", "createdAt");
+    // 超过这个数目时逐个关键字打分的代价高于重算搜索结果
+    static final int MAX_SCORED_CHANGES = 100;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheDependencyTracker tracker;
+
+    @Autowired(required = false)
+    private RedisCacheStore redisCacheStore;
+
+    @PostConstruct
+    public void subscribe() {
+        if (redisCacheStore != null) {
+            redisCacheStore.addListener(this);
+        }
+    }
+
+    /**
+     * 事务内的变更先暂存，提交后一起处理；回滚时丢弃。没有事务时立即处理
+     */
+    @EventListener
+    public void onContactChanged(ContactChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || !TransactionSynchronizationManager.isActualTransactionActive()) {
+            changed(Collections.singletonList(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<ContactChangedEvent> pending = (List<ContactChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<ContactChangedEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changed(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ContactCacheInvalidator.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    @Override
+    public void onRemoteChange(ContactChangedEvent event) {
+        apply(Collections.singletonList(event), true);
+    }
+
+    @Override
+    public void onRemoteChanges(List<ContactChangedEvent> events) {
+        apply(events, true);
+    }
+
+    @Override
+    public void onRemoteClear(String cacheName) {
+        Collection<String> names = cacheName != null
+                ? Collections.singletonList(cacheName) : cacheManager.getCacheNames();
+        for (String name : names) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof TwoTierCache) {
+                ((TwoTierCache) cache).clearLocal();
+            } else if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private void changed(List<ContactChangedEvent> events) {
+        if (redisCacheStore == null) {
+            apply(events, false);
+            return;
+        }
+        long sequence = redisCacheStore.nextSequence();
+        apply(events, false);
+        redisCacheStore.publishChanges(sequence, events);
+    }
+
+    private void apply(List<ContactChangedEvent> events, boolean remote) {
+        Change change = new Change(events);
+        int evicted = invalidate("contacts", (key, ids) -> affectsPage(key, ids, change), remote)
+                + invalidate("searchResults", (key, ids) -> affectsSearch(key, ids, change), remote);
+        for (Long id : change.deleted) {
+            evict("contact", id, remote);
+        }
+        logger.debug("{} 个联系人变更{}，失效 {} 个缓存项", change.ids.size(), remote ? "（其他实例）" : "", evicted);
+    }
+
+    private int invalidate(String cacheName, BiPredicate<Object, long[]> affected, boolean remote) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return 0;
+        }
+        return tracker.invalidate(cacheName, affected, evictor(cache, remote));
+    }
+
+    private void evict(String cacheName, Object key, boolean remote) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            evictor(cache, remote).accept(key);
+        }
+    }
+
+    // 其他实例发来的变更只删本地副本，共享缓存已由发起方处理
+    private static Consumer<Object> evictor(Cache cache, boolean remote) {
+        if (remote && cache instanceof TwoTierCache) {
+            return ((TwoTierCache) cache)::evictLocal;
+        }
+        return cache::evict;
+    }
+
+    private static boolean affectsPage(Object key, long[] ids, Change change) {
+        if (!(key instanceof ContactCacheKey) || change.containsAny(ids)) {
+            return true;
+        }
+        ContactCacheKey pageKey = (ContactCacheKey) key;
+        switch (pageKey.getScope()) {
+            case ALL:
+                return change.membershipChanged || sortAffected(pageKey.getSort(), change.changed);
+            case CATEGORY:
+                if (!change.known) {
+                    return true;
+                }
+                if (!change.categories.contains(pageKey.getValue())) {
+                    return false;
+                }
+                return change.membershipChanged || change.changed.contains("category")
+                        || sortAffected(pageKey.getSort(), change.changed);
+            default:
+                return true;
+        }
+    }
+
+    private static boolean affectsSearch(Object key, long[] ids, Change change) {
+        if (!(key instanceof ContactCacheKey) || !change.known || change.snapshots.size() > MAX_SCORED_CHANGES
+                || change.containsAny(ids)) {
+            return true;
+        }
+        ContactCacheKey searchKey = (ContactCacheKey) key;
+        boolean fuzzy = searchKey.getScope() == ContactCacheKey.Scope.FUZZY;
+        // 同一关键字的不同分页和变体共用一次打分结果
+        return (fuzzy ? change.fuzzyMatches : change.matches).computeIfAbsent(searchKey.getValue(),
+                keyword -> matchesAny(keyword, change.snapshots, fuzzy));
+    }
+
+    private static boolean matchesAny(String keyword, List<ContactSnapshot> contacts, boolean fuzzy) {
+        if (keyword == null) {
+            return false;
+        }
+        ContactRanker ranker = new ContactRanker(keyword);
+        String digits = phoneDigitsOf(keyword);
+        for (ContactSnapshot contact : contacts) {
+            if (matches(ranker, digits, keyword, contact, fuzzy)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 与搜索路径的命中规则保持一致：子串/前缀/拼音由打分器判断，号码另按数字子串判断
+    private static boolean matches(ContactRanker ranker, String digits, String keyword, ContactSnapshot contact,
+                                   boolean fuzzy) {
+        if (ranker.score(contact) > 0) {
+            return true;
+        }
+        if (!digits.isEmpty() && contact.getPhoneNumber() != null
+                && phoneDigitsOf(contact.getPhoneNumber()).contains(digits)) {
+            return true;
+        }
+        return fuzzy && FuzzyNameIndex.matches(keyword, contact);
+    }
+
+    // 排序字段是否可能因本次修改而变化：未知字段按已变化处理
+    private static boolean sortAffected(Sort sort, Set<String> changed) {
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if (IMMUTABLE_FIELDS.contains(property)) {
+                continue;
+            }
+            if (!SNAPSHOT_FIELDS.contains(property) || changed.contains(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 关键字只含数字和号码分隔符时返回其中的数字，否则返回空串
+    private static String phoneDigitsOf(String text) {
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != ' ' && c != '-' && c != '+' && c != '(' && c != ')') {
+                return "";
+            }
+        }
+        return digits.toString();
+    }
+
+    // 一批变更的汇总：任一联系人满足条件即视为满足
+    private static final class Change {
+        final Set<Long> ids = new HashSet<>();
+        final List<Long> deleted = new ArrayList<>();
+        // 变更前后的快照，搜索结果按关键字是否命中其中任一个判断
+        final List<ContactSnapshot> snapshots = new ArrayList<>();
+        final Set<String> changed = new HashSet<>();
+        final Set<String> categories = new HashSet<>();
+        // 只有ID的删除快照不知道任何字段，按最坏情况处理
+        boolean known = true;
+        boolean membershipChanged;
+        // 本次遍历中各关键字的命中结果
+        final Map<String, Boolean> matches = new HashMap<>();
+        final Map<String, Boolean> fuzzyMatches = new HashMap<>();
+
+        Change(List<ContactChangedEvent> events) {
+            for (ContactChangedEvent event : events) {
+                add(event);
+            }
+        }
+
+        boolean containsAny(long[] contactIds) {
+            for (long id : contactIds) {
+                if (ids.contains(id)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void add(ContactChangedEvent event) {
+            ContactSnapshot before = event.getBefore();
+            ContactSnapshot after = event.getAfter();
+            ids.add(event.getContactId());
+            if (event.isDeleted()) {
+                deleted.add(event.getContactId());
+            }
+            known &= before == null || before.getName() != null;
+            membershipChanged |= event.isCreated() || event.isDeleted();
+            if (before == null || after == null) {
+                changed.addAll(SNAPSHOT_FIELDS);
+            } else {
+                if (!Objects.equals(before.getName(), after.getName())) {
+                    changed.add("name");
+                }
+                if (!Objects.equals(before.getPhoneNumber(), after.getPhoneNumber())) {
+                    changed.add("phoneNumber");
+                }
+                if (!Objects.equals(before.getEmail(), after.getEmail())) {
+                    changed.add("email");
+                }
+                if (!Objects.equals(before.getCategory(), after.getCategory())) {
+                    changed.add("category");
+                }
+            }
+            if (before != null) {
+                categories.add(before.getCategory());
+                snapshots.add(before);
+            }
+            if (after != null) {
+                categories.add(after.getCategory());
+                snapshots.add(after);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.phonebook.cache;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * contacts / searchResults 缓存的键，携带失效判断需要的依赖信息
+ *
+ * scope 说明缓存项依赖的范围：全部联系人、某个分类或某个搜索关键字；
+ * variant 区分同一范围下的不同查询（Page、Slice、容错搜索等）。
+ */
+public final class ContactCacheKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Scope {
+        ALL, CATEGORY, KEYWORD, FUZZY
+    }
+
+    private final Scope scope;
+    private final String value;
+    private final String variant;
+    private final int page;
+    private final int size;
+    private final Sort sort;
+
+    private ContactCacheKey(Scope scope, String value, String variant, Pageable pageable) {
+        this.scope = scope;
+        this.value = value;
+        this.variant = variant;
+        this.page = pageable.getPageNumber();
+        this.size = pageable.getPageSize();
+        this.sort = pageable.getSort();
+    }
+
+    public static ContactCacheKey list(String variant, Pageable pageable) {
+        return new ContactCacheKey(Scope.ALL, null, variant, pageable);
+    }
+
+    public static ContactCacheKey category(String variant, String category, Pageable pageable) {
+        return new ContactCacheKey(Scope.CATEGORY, category, variant, pageable);
+    }
+
+    public static ContactCacheKey keyword(String variant, String keyword, Pageable pageable) {
+        return new ContactCacheKey(Scope.KEYWORD, keyword, variant, pageable);
+    }
+
+    public static ContactCacheKey fuzzy(String keyword, Pageable pageable) {
+        return new ContactCacheKey(Scope.FUZZY, keyword, "fuzzy", pageable);
+    }
+
+    public Scope getScope() {
+        return scope;
+    }
+
+    /**
+     * 分类名或搜索关键字，scope 为 ALL 时为 null
+     */
+    public String getValue() {
+        return value;
+    }
+
+    public String getVariant() {
+        return variant;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ContactCacheKey)) {
+            return false;
+        }
+        ContactCacheKey that = (ContactCacheKey) o;
+        return page == that.page && size == that.size && scope == that.scope
+                && Objects.equals(value, that.value) && Objects.equals(variant, that.variant)
+                && Objects.equals(sort, that.sort);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scope, value, variant, page, size, sort);
+    }
+
+    @Override
+    public String toString() {
+        return scope + ":" + (value == null ? "" : value) + ":" + variant + ":" + page + "_" + size + "_" + sort;
+    }
+}
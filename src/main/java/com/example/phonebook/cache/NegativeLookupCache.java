@@ -0,0 +1,170 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.util.PhoneNumbers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按电话号码、邮箱、ID 查询未命中的结果缓存，重复查询不存在的值时不访问数据库
+ *
+ * 号码按归一化键记录，同一号码的不同写法共用一条。新增或修改联系人提交后，
+ * 立即删除与其ID、号码、邮箱相同的记录；删除只会让更多值不存在，无需处理。
+ * 查询前取一个令牌，查询期间发生过任何变更时不记录结果，避免把刚写入的值记成不存在。
+ */
+@Component
+public class NegativeLookupCache implements RedisCacheStore.InvalidationListener, MeterBinder {
+
+    @Value("${phonebook.negative-cache.ttl:30s}")
+    private Duration ttl;
+
+    @Value("${phonebook.negative-cache.max-entries:100000}")
+    private long maxEntries;
+
+    @Autowired(required = false)
+    private RedisCacheStore redisCacheStore;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong phoneHits = new AtomicLong();
+    private final AtomicLong emailHits = new AtomicLong();
+    private final AtomicLong idHits = new AtomicLong();
+
+    private Cache<Object, Boolean> phones;
+    private Cache<String, Boolean> emails;
+    private Cache<Long, Boolean> ids;
+
+    @PostConstruct
+    public void init() {
+        phones = newCache();
+        emails = newCache();
+        ids = newCache();
+        if (redisCacheStore != null) {
+            redisCacheStore.addListener(this);
+        }
+    }
+
+    /**
+     * 查询数据库之前调用，返回值传给 record* 方法
+     */
+    public long begin() {
+        return generation.get();
+    }
+
+    public boolean isMissingPhone(String phoneNumber) {
+        return hit(phones, phoneKeyOf(phoneNumber), phoneHits);
+    }
+
+    public void recordMissingPhone(String phoneNumber, long token) {
+        record(phones, phoneKeyOf(phoneNumber), token);
+    }
+
+    public boolean isMissingEmail(String email) {
+        return hit(emails, email, emailHits);
+    }
+
+    public void recordMissingEmail(String email, long token) {
+        record(emails, email, token);
+    }
+
+    public boolean isMissingId(Long id) {
+        return hit(ids, id, idHits);
+    }
+
+    public void recordMissingId(Long id, long token) {
+        record(ids, id, token);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContactChanged(ContactChangedEvent event) {
+        // 先推进令牌再删除，删除之后开始的查询已能读到本次提交
+        generation.incrementAndGet();
+        ids.invalidate(event.getContactId());
+        ContactSnapshot after = event.getAfter();
+        if (after == null) {
+            return;
+        }
+        if (after.getPhoneNumber() != null) {
+            phones.invalidate(phoneKeyOf(after.getPhoneNumber()));
+        }
+        if (after.getEmail() != null) {
+            emails.invalidate(after.getEmail());
+        }
+    }
+
+    @Override
+    public void onRemoteChange(ContactChangedEvent event) {
+        onContactChanged(event);
+    }
+
+    @Override
+    public void onRemoteClear(String cacheName) {
+        // 断线期间可能漏收了其他实例的新增
+        if (cacheName == null) {
+            generation.incrementAndGet();
+            phones.invalidateAll();
+            emails.invalidateAll();
+            ids.invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "phone", phoneHits);
+        bind(registry, "email", emailHits);
+        bind(registry, "id", idHits);
+    }
+
+    private static void bind(MeterRegistry registry, String field, AtomicLong counter) {
+        FunctionCounter.builder("phonebook.cache.negative.hits", counter, AtomicLong::get)
+                .description("命中不存在记录、未访问数据库的查询数")
+                .tag("field", field)
+                .register(registry);
+    }
+
+    private <K> Cache<K, Boolean> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    private static <K> boolean hit(Cache<K, Boolean> cache, K key, AtomicLong hits) {
+        if (key == null || cache.getIfPresent(key) == null) {
+            return false;
+        }
+        hits.incrementAndGet();
+        return true;
+    }
+
+    private <K> void record(Cache<K, Boolean> cache, K key, long token) {
+        if (key == null) {
+            return;
+        }
+        cache.put(key, Boolean.TRUE);
+        // 写入与变更交错时撤销，宁可少缓存也不缓存错误的结果
+        if (generation.get() != token) {
+            cache.invalidate(key);
+        }
+    }
+
+    // 可归一化的号码按 E.164 键记录，其余按原样
+    private static Object phoneKeyOf(String phoneNumber) {
+        if (phoneNumber == null) {
+            return null;
+        }
+        long key = PhoneNumbers.toKey(phoneNumber);
+        return key != PhoneNumbers.INVALID ? (Object) key : phoneNumber;
+    }
+}
@@ -0,0 +1,432 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.config.CacheSpecProperties;
+import com.example.phonebook.event.ContactChangedEvent;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Redis 二级缓存和跨实例失效通知
+ *
+ * 所有实例共用一个写入序号：每次联系人变更提交后 INCR 序号并在频道上广播变更，
+ * 各实例据此失效自己的本地缓存。二级缓存的值带有加载开始时的序号，
+ * 早于当前已知序号的值视为过期，因此无需知道二级缓存里有哪些键也能保证一致。
+ * Redis 不可用时读写按未命中处理，应用退化为只有本地缓存。连接在后台建立并按间隔重试，
+ * 启动时 Redis 不可达也不影响应用启动；连上之前漏收的通知无从得知，因此每次连上时清空本地缓存。
+ */
+@Component
+@ConditionalOnProperty(name = "phonebook.cache.redis.enabled", havingValue = "true")
+public class RedisCacheStore implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheStore.class);
+
+    /**
+     * 其他实例发来的失效通知
+     */
+    public interface InvalidationListener {
+
+        void onRemoteChange(ContactChangedEvent event);
+
+        /**
+         * 其他实例同一事务提交的多条变更，默认逐条处理
+         */
+        default void onRemoteChanges(List<ContactChangedEvent> events) {
+            for (ContactChangedEvent event : events) {
+                onRemoteChange(event);
+            }
+        }
+
+        /**
+         * cacheName 为 null 表示全部缓存（例如断线重连后可能漏收了通知）
+         */
+        void onRemoteClear(String cacheName);
+    }
+
+    @Autowired
+    private CacheSpecProperties cacheSpecProperties;
+
+    private final long nodeId = ThreadLocalRandom.current().nextLong();
+    private final AtomicLong sequence = new AtomicLong();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean healthy = new AtomicBoolean(true);
+    private final AtomicBoolean subscribedOnce = new AtomicBoolean();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong receivedMessages = new AtomicLong();
+
+    private CacheSpecProperties.Redis config;
+    private RedisClient client;
+    private ScheduledExecutorService connector;
+    private volatile StatefulRedisConnection<String, byte[]> connection;
+    private volatile StatefulRedisPubSubConnection<String, byte[]> pubSub;
+
+    @PostConstruct
+    public void start() {
+        config = cacheSpecProperties.getRedis();
+        RedisURI.Builder uri = RedisURI.builder()
+                .withHost(config.getHost())
+                .withPort(config.getPort())
+                .withDatabase(config.getDatabase())
+                .withTimeout(config.getTimeout());
+        if (config.getPassword() != null && !config.getPassword().isEmpty()) {
+            uri.withPassword(config.getPassword().toCharArray());
+        }
+        client = RedisClient.create(uri.build());
+        // 断线期间直接拒绝命令，不在客户端排队，请求按未命中回源
+        client.setOptions(ClientOptions.builder()
+                .autoReconnect(true)
+                .disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+                .build());
+        connector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-cache-connector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connector.execute(this::connect);
+    }
+
+    // 首次连接不能依赖 Lettuce 的自动重连，失败后自己按间隔重试，期间所有读写按未命中处理
+    private void connect() {
+        RedisCodec<String, byte[]> codec = RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE);
+        StatefulRedisConnection<String, byte[]> newConnection = null;
+        StatefulRedisPubSubConnection<String, byte[]> newPubSub = null;
+        try {
+            newConnection = client.connect(codec);
+            newPubSub = client.connectPubSub(codec);
+            newPubSub.addListener(new RedisPubSubAdapter<String, byte[]>() {
+                @Override
+                public void message(String channel, byte[] message) {
+                    onMessage(message);
+                }
+
+                @Override
+                public void subscribed(String channel, long count) {
+                    onSubscribed();
+                }
+            });
+            newPubSub.sync().subscribe(config.getChannel());
+        } catch (RuntimeException e) {
+            closeQuietly(newPubSub);
+            closeQuietly(newConnection);
+            failed("连接", e);
+            if (!connector.isShutdown()) {
+                connector.schedule(this::connect, config.getConnectRetryInterval().toMillis(), TimeUnit.MILLISECONDS);
+            }
+            return;
+        }
+        connection = newConnection;
+        pubSub = newPubSub;
+        refreshSequence();
+        succeeded();
+        logger.info("Redis 二级缓存已连接: {}:{}，节点 {}", config.getHost(), config.getPort(), Long.toHexString(nodeId));
+        // 连上之前已开始处理请求，本地缓存的值可能错过了其他实例的变更
+        clearLocalCaches();
+    }
+
+    /**
+     * 是否已连上 Redis；未连上时二级缓存读写都按未命中处理
+     */
+    public boolean isConnected() {
+        StatefulRedisConnection<String, byte[]> current = connection;
+        return current != null && current.isOpen();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (connector != null) {
+            connector.shutdownNow();
+        }
+        if (pubSub != null) {
+            pubSub.close();
+        }
+        if (connection != null) {
+            connection.close();
+        }
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    public void addListener(InvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 当前已知的最新写入序号，作为加载开始时的版本
+     */
+    public long currentSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * 缓存键在 Redis 中的键名；只支持可稳定转成字符串的键，其余键只缓存在本地
+     */
+    public String keyOf(String cacheName, Object key) {
+        if (key instanceof ContactCacheKey || key instanceof String || key instanceof Number) {
+            return config.getKeyPrefix() + cacheName + ":" + key;
+        }
+        return null;
+    }
+
+    /**
+     * 读取二级缓存，序号早于当前已知序号的值按未命中处理
+     */
+    public Object get(String redisKey) {
+        byte[] bytes;
+        try {
+            bytes = connection().sync().get(redisKey);
+            succeeded();
+        } catch (RuntimeException e) {
+            failed("读取", e);
+            return null;
+        }
+        if (bytes == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        BinaryCacheCodec.Entry entry;
+        try {
+            entry = BinaryCacheCodec.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            logger.debug("二级缓存值无法解码，按未命中处理: {}", redisKey, e);
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.getStamp() < sequence.get()) {
+            staleHits.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.getValue();
+    }
+
+    /**
+     * 异步写入二级缓存，同一连接上的命令按发送顺序执行，随后的删除不会被这次写入覆盖
+     */
+    public void put(String redisKey, Object value, long stamp, Duration ttl) {
+        byte[] bytes = BinaryCacheCodec.encode(value, stamp);
+        if (bytes == null) {
+            return;
+        }
+        try {
+            connection().async().set(redisKey, bytes, SetArgs.Builder.px(ttl.toMillis()))
+                    .whenComplete((result, e) -> completed("写入", e));
+        } catch (RuntimeException e) {
+            failed("写入", e);
+        }
+    }
+
+    public void delete(String redisKey) {
+        try {
+            connection().async().del(redisKey).whenComplete((result, e) -> completed("删除", e));
+        } catch (RuntimeException e) {
+            failed("删除", e);
+        }
+    }
+
+    /**
+     * 联系人变更提交后调用：递增共享序号，此后写入二级缓存的值都带新序号
+     */
+    public long nextSequence() {
+        try {
+            long next = connection().sync().incr(sequenceKey());
+            advance(next);
+            succeeded();
+            return next;
+        } catch (RuntimeException e) {
+            failed("递增序号", e);
+            return sequence.get();
+        }
+    }
+
+    /**
+     * 广播同一事务提交的联系人变更，多条时合并为一条通知
+     */
+    public void publishChanges(long sequenceNumber, List<ContactChangedEvent> events) {
+        publish(events.size() == 1
+                ? BinaryCacheCodec.encodeChange(nodeId, sequenceNumber, events.get(0))
+                : BinaryCacheCodec.encodeChanges(nodeId, sequenceNumber, events));
+    }
+
+    /**
+     * 清空某个缓存：递增序号使二级缓存中的旧值全部过期，并通知其他实例清空本地缓存
+     */
+    public void publishClear(String cacheName) {
+        publish(BinaryCacheCodec.encodeClear(nodeId, nextSequence(), cacheName));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindGets(registry, "hit", hits);
+        bindGets(registry, "miss", misses);
+        bindGets(registry, "stale", staleHits);
+        bindGets(registry, "error", errors);
+        bindMessages(registry, "sent", sentMessages);
+        bindMessages(registry, "received", receivedMessages);
+    }
+
+    private void bindGets(MeterRegistry registry, String result, AtomicLong counter) {
+        FunctionCounter.builder("phonebook.cache.l2.gets", counter, AtomicLong::get)
+                .description("二级缓存读取次数")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void bindMessages(MeterRegistry registry, String direction, AtomicLong counter) {
+        FunctionCounter.builder("phonebook.cache.invalidation.messages", counter, AtomicLong::get)
+                .description("跨实例缓存失效通知数")
+                .tag("direction", direction)
+                .register(registry);
+    }
+
+    private void publish(byte[] message) {
+        try {
+            connection().async().publish(config.getChannel(), message)
+                    .whenComplete((result, e) -> completed("发布失效通知", e));
+            sentMessages.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed("发布失效通知", e);
+        }
+    }
+
+    private void onMessage(byte[] bytes) {
+        BinaryCacheCodec.Message message;
+        try {
+            message = BinaryCacheCodec.decodeMessage(bytes);
+        } catch (IllegalArgumentException e) {
+            logger.warn("无法解码的缓存失效通知，已忽略", e);
+            return;
+        }
+        advance(message.getSequence());
+        if (message.getNodeId() == nodeId) {
+            return;
+        }
+        receivedMessages.incrementAndGet();
+        for (InvalidationListener listener : listeners) {
+            try {
+                if (message.isClear()) {
+                    listener.onRemoteClear(message.getClearedCache());
+                } else {
+                    listener.onRemoteChanges(message.getEvents());
+                }
+            } catch (RuntimeException e) {
+                logger.error("处理缓存失效通知失败", e);
+            }
+        }
+    }
+
+    // 首次订阅之后的再次订阅说明断线重连过，期间的通知可能已丢失，清空本地缓存并重新读取序号
+    private void onSubscribed() {
+        if (!subscribedOnce.compareAndSet(false, true)) {
+            logger.warn("失效通知频道重新订阅，清空本地缓存");
+            refreshSequence();
+            clearLocalCaches();
+        }
+    }
+
+    private void clearLocalCaches() {
+        for (InvalidationListener listener : listeners) {
+            try {
+                listener.onRemoteClear(null);
+            } catch (RuntimeException e) {
+                logger.error("清空本地缓存失败", e);
+            }
+        }
+    }
+
+    private StatefulRedisConnection<String, byte[]> connection() {
+        StatefulRedisConnection<String, byte[]> current = connection;
+        if (current == null) {
+            throw new RedisConnectionException("Redis 尚未连接");
+        }
+        return current;
+    }
+
+    private static void closeQuietly(StatefulConnection<?, ?> connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (RuntimeException e) {
+            logger.debug("关闭 Redis 连接失败", e);
+        }
+    }
+
+    private void refreshSequence() {
+        try {
+            byte[] value = connection().sync().get(sequenceKey());
+            if (value != null) {
+                advance(Long.parseLong(new String(value, StandardCharsets.US_ASCII)));
+            }
+        } catch (RuntimeException e) {
+            failed("读取序号", e);
+        }
+    }
+
+    private void advance(long value) {
+        sequence.accumulateAndGet(value, Math::max);
+    }
+
+    private String sequenceKey() {
+        return config.getKeyPrefix() + "sequence";
+    }
+
+    private void succeeded() {
+        if (healthy.compareAndSet(false, true)) {
+            logger.info("Redis 二级缓存恢复可用");
+        }
+    }
+
+    private void completed(String operation, Throwable e) {
+        if (e == null) {
+            succeeded();
+        } else {
+            failed(operation, e);
+        }
+    }
+
+    private void failed(String operation, Throwable e) {
+        errors.incrementAndGet();
+        if (healthy.compareAndSet(true, false)) {
+            logger.warn("Redis 二级缓存{}失败，暂时只使用本地缓存: {}", operation, e.getMessage());
+        } else {
+            logger.debug("Redis 二级缓存{}失败", operation, e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.phonebook.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * 缓存的过期后续用（stale-while-revalidate）和提前刷新（refresh-ahead）参数
+ *
+ * ttl 是缓存值的有效期；超过有效期或被依赖失效删除后，旧值在 maxStale 内仍可返回，
+ * 同时在 executor 上后台重新加载。refreshAfterWrite 是值仍有效时提前后台刷新的时间点。
+ * 两者都只对带加载器的读取（@Cacheable(sync = true)）生效。
+ */
+public final class RefreshPolicy {
+
+    private static final RefreshPolicy NONE = new RefreshPolicy(null, null, null, null);
+
+    final Duration ttl;
+    final Duration maxStale;
+    final Duration refreshAfterWrite;
+    final Executor executor;
+
+    public RefreshPolicy(Duration ttl, Duration maxStale, Duration refreshAfterWrite, Executor executor) {
+        this.ttl = ttl;
+        this.maxStale = maxStale;
+        this.refreshAfterWrite = refreshAfterWrite;
+        this.executor = executor;
+    }
+
+    public static RefreshPolicy none() {
+        return NONE;
+    }
+
+    boolean servesStale() {
+        return executor != null && maxStale != null && !maxStale.isZero() && !maxStale.isNegative();
+    }
+
+    boolean refreshesAhead() {
+        return executor != null && refreshAfterWrite != null;
+    }
+}
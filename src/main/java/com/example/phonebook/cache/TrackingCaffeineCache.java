@@ -0,0 +1,377 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.dto.ContactDTO;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 带依赖跟踪和版本校验的 Caffeine 缓存
+ *
+ * @Cacheable 的执行顺序是 get 未命中 → 执行方法 → put，三步在同一线程内完成，
+ * 因此在 get 未命中时登记版本号并暂存在线程本地，put 时交给 CacheDependencyTracker 校验。
+ * 联系人详情另按 updatedAt 比较，较旧的 @CachePut 结果不会覆盖较新的。
+ *
+ * @Cacheable(sync = true) 走 get(key, valueLoader)：同一个键同时只有一个线程执行加载，
+ * 其余线程等待同一个结果，避免缓存失效瞬间的并发请求同时打到数据库。
+ * 等待超过 loadWaitTimeout 的线程自行加载（结果不写缓存），加载失败时等待者收到同样的异常。
+ *
+ * 配置了 RefreshPolicy 时，超过有效期或被失效删除的值转为旧值，带加载器的读取在 maxStale 内直接返回旧值，
+ * 并在线程池上后台重新加载；值仍有效但已超过 refreshAfterWrite 时同样提前后台刷新。
+ * 后台加载也登记版本号，加载期间再次失效时结果不写缓存，旧值继续使用到 maxStale 为止。
+ */
+public class TrackingCaffeineCache extends CaffeineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackingCaffeineCache.class);
+
+    private static final int MAX_PENDING_LOADS = 64;
+    private static final int MAX_STALE_ENTRIES = 10000;
+    private static final int PRUNE_INTERVAL = 1024;
+    public static final Duration DEFAULT_LOAD_WAIT_TIMEOUT = Duration.ofSeconds(5);
+
+    private final CacheDependencyTracker tracker;
+    private final ThreadLocal<Map<Object, PendingLoad>> pendingLoads = ThreadLocal.withInitial(HashMap::new);
+    private final AtomicInteger misses = new AtomicInteger();
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Duration loadWaitTimeout;
+    private final AtomicLong coalescedLoads = new AtomicLong();
+    private final AtomicLong loadWaitTimeouts = new AtomicLong();
+    private final RefreshPolicy refreshPolicy;
+    // 0 表示不按有效期判断旧值 / 不提前刷新
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final long refreshAfterNanos;
+    // 未开启过期后续用时为 null
+    private final com.github.benmanes.caffeine.cache.Cache<Object, StaleValue> staleValues;
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    public TrackingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                 boolean allowNullValues, CacheDependencyTracker tracker) {
+        this(name, cache, allowNullValues, tracker, DEFAULT_LOAD_WAIT_TIMEOUT);
+    }
+
+    public TrackingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                 boolean allowNullValues, CacheDependencyTracker tracker, Duration loadWaitTimeout) {
+        this(name, cache, allowNullValues, tracker, loadWaitTimeout, RefreshPolicy.none());
+    }
+
+    /**
+     * 开启过期后续用时，cache 的写入过期时间应为 ttl + maxStale，超过 ttl 的部分由本类按旧值处理
+     */
+    public TrackingCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                 boolean allowNullValues, CacheDependencyTracker tracker, Duration loadWaitTimeout,
+                                 RefreshPolicy refreshPolicy) {
+        super(name, cache, allowNullValues);
+        this.tracker = tracker;
+        this.loadWaitTimeout = loadWaitTimeout;
+        this.refreshPolicy = refreshPolicy;
+        boolean servesStale = refreshPolicy.servesStale();
+        this.ttlNanos = servesStale && refreshPolicy.ttl != null ? refreshPolicy.ttl.toNanos() : 0;
+        this.maxStaleNanos = servesStale ? refreshPolicy.maxStale.toNanos() : 0;
+        this.refreshAfterNanos = refreshPolicy.refreshesAhead() ? refreshPolicy.refreshAfterWrite.toNanos() : 0;
+        this.staleValues = servesStale
+                ? Caffeine.newBuilder().maximumSize(MAX_STALE_ENTRIES).expireAfterWrite(refreshPolicy.maxStale).build()
+                : null;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = super.get(key);
+        if (value != null && ttlNanos > 0 && ageNanos(key) > ttlNanos) {
+            // 超过有效期的值转为旧值，只有带加载器的读取会返回它
+            retainStale(key);
+            getNativeCache().asMap().remove(key, value.get());
+            value = null;
+        }
+        if (value == null) {
+            beginLoad(key);
+            // 容量淘汰和过期不经过 evict，定期清理这些键的跟踪记录
+            if (misses.incrementAndGet() % PRUNE_INTERVAL == 0) {
+                tracker.prune(getName(), cached -> getNativeCache().asMap().containsKey(cached));
+            }
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            if (refreshAfterNanos > 0 && ageNanos(key) > refreshAfterNanos) {
+                refreshAsync(key, valueLoader);
+            }
+            return (T) cached.get();
+        }
+        Object stale = staleValue(key);
+        if (stale != null) {
+            takePendingLoad(key);
+            staleServed.incrementAndGet();
+            refreshAsync(key, valueLoader);
+            return (T) stale;
+        }
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            // 由正在加载的线程写缓存，本线程登记的加载作废
+            takePendingLoad(key);
+            coalescedLoads.incrementAndGet();
+            return (T) awaitLeader(key, leader, valueLoader);
+        }
+        return load(key, valueLoader, flight);
+    }
+
+    /**
+     * 因其他线程正在加载同一个键而合并掉的加载次数
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads.get();
+    }
+
+    /**
+     * 等待其他线程加载超时、改为自行加载的次数
+     */
+    public long getLoadWaitTimeouts() {
+        return loadWaitTimeouts.get();
+    }
+
+    /**
+     * 返回旧值（同时触发后台刷新）的次数
+     */
+    public long getStaleServed() {
+        return staleServed.get();
+    }
+
+    public long getRefreshes() {
+        return refreshes.get();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.get();
+    }
+
+    private <T> T load(Object key, Callable<T> valueLoader, CompletableFuture<Object> flight) {
+        try {
+            T value = valueLoader.call();
+            if (value != null || isAllowNullValues()) {
+                put(key, value);
+            } else {
+                takePendingLoad(key);
+            }
+            flight.complete(value);
+            return value;
+        } catch (Throwable ex) {
+            takePendingLoad(key);
+            flight.completeExceptionally(ex);
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // 同一个键已在加载时不重复提交，正在加载的 future 也供此后未命中的请求等待
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, flight) != null) {
+            return;
+        }
+        try {
+            refreshPolicy.executor.execute(() -> {
+                beginLoad(key);
+                try {
+                    load(key, valueLoader, flight);
+                    refreshes.incrementAndGet();
+                } catch (ValueRetrievalException e) {
+                    refreshFailures.incrementAndGet();
+                    logger.warn("缓存 {} 后台刷新失败，键 {}: {}", getName(), key, e.getCause().toString());
+                }
+            });
+        } catch (RuntimeException e) {
+            // 线程池已关闭，下一次读取会重新尝试
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            refreshFailures.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        PendingLoad load = takePendingLoad(key);
+        long stamp = load != null ? load.stamp : loadStamp();
+        tracker.put(getName(), key, value, load != null ? load.version : null, () -> store(key, value, stamp));
+    }
+
+    @Override
+    public void evict(Object key) {
+        tracker.forget(getName(), key);
+        retainStale(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        tracker.forget(getName(), key);
+        retainStale(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        tracker.forgetAll(getName());
+        clearStale();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        tracker.forgetAll(getName());
+        clearStale();
+        return super.invalidate();
+    }
+
+    /**
+     * 加载开始时的外部版本号，随缓存值一起写入；只有本地缓存时不需要
+     */
+    protected long loadStamp() {
+        return 0;
+    }
+
+    /**
+     * 通过版本校验后的实际写入，在 CacheDependencyTracker 的条目锁内执行
+     */
+    protected void store(Object key, Object value, long stamp) {
+        storeLocal(key, value);
+    }
+
+    /**
+     * 取出当前线程在 get 未命中时登记的加载，没有时返回 null
+     */
+    protected PendingLoad takePendingLoad(Object key) {
+        return pendingLoads.get().remove(key);
+    }
+
+    protected CacheDependencyTracker getTracker() {
+        return tracker;
+    }
+
+    protected final void storeLocal(Object key, Object value) {
+        if (value instanceof ContactDTO) {
+            Object existing = getNativeCache().getIfPresent(key);
+            if (existing instanceof ContactDTO && isNewer((ContactDTO) existing, (ContactDTO) value)) {
+                return;
+            }
+        }
+        super.put(key, value);
+        if (staleValues != null) {
+            staleValues.invalidate(key);
+        }
+    }
+
+    private void beginLoad(Object key) {
+        Map<Object, PendingLoad> loads = pendingLoads.get();
+        // 方法抛异常时不会有对应的 put，防止线程本地数据无限增长
+        if (loads.size() >= MAX_PENDING_LOADS) {
+            loads.clear();
+        }
+        loads.put(key, new PendingLoad(tracker.beginLoad(getName(), key), loadStamp()));
+    }
+
+    // 删除前保留当前值作为旧值；已超过有效期的部分从可用时长中扣除
+    private void retainStale(Object key) {
+        if (staleValues == null) {
+            return;
+        }
+        Object value = getNativeCache().getIfPresent(key);
+        if (value == null) {
+            return;
+        }
+        long overdue = ttlNanos > 0 ? Math.max(0, ageNanos(key) - ttlNanos) : 0;
+        staleValues.put(key, new StaleValue(value, System.nanoTime() + maxStaleNanos - overdue));
+    }
+
+    private Object staleValue(Object key) {
+        if (staleValues == null) {
+            return null;
+        }
+        StaleValue stale = staleValues.getIfPresent(key);
+        if (stale == null) {
+            return null;
+        }
+        if (System.nanoTime() - stale.deadline > 0) {
+            staleValues.asMap().remove(key, stale);
+            return null;
+        }
+        return stale.value;
+    }
+
+    private void clearStale() {
+        if (staleValues != null) {
+            staleValues.invalidateAll();
+        }
+    }
+
+    // 写入后经过的时间，缓存未配置写入过期时为 0
+    private long ageNanos(Object key) {
+        return getNativeCache().policy().expireAfterWrite()
+                .map(expiration -> expiration.ageOf(key, TimeUnit.NANOSECONDS).orElse(0L))
+                .orElse(0L);
+    }
+
+    private Object awaitLeader(Object key, CompletableFuture<Object> leader, Callable<?> valueLoader) {
+        try {
+            return leader.get(loadWaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (TimeoutException e) {
+            loadWaitTimeouts.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            return valueLoader.call();
+        } catch (Throwable ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+    }
+
+    private static boolean isNewer(ContactDTO existing, ContactDTO value) {
+        return existing.getUpdatedAt() != null && value.getUpdatedAt() != null
+                && existing.getUpdatedAt().isAfter(value.getUpdatedAt());
+    }
+
+    private static final class StaleValue {
+        final Object value;
+        final long deadline;
+
+        StaleValue(Object value, long deadline) {
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    protected static final class PendingLoad {
+        final long version;
+        final long stamp;
+
+        PendingLoad(long version, long stamp) {
+            this.version = version;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.phonebook.cache;
+
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+
+/**
+ * 本地 Caffeine（L1）+ Redis（L2）两级缓存
+ *
+ * 读：L1 未命中时查 L2，命中则经版本校验回填 L1；都未命中才执行被缓存的方法。
+ * 写：通过版本校验后同时写 L1 和 L2，L2 的值带加载开始时的共享序号。
+ * 失效：evict 同时删除 L2；收到其他实例的通知时只需 evictLocal，L2 已由发起方删除或因序号过期。
+ */
+public class TwoTierCache extends TrackingCaffeineCache {
+
+    private final RedisCacheStore store;
+    private final Duration ttl;
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                        boolean allowNullValues, CacheDependencyTracker tracker, Duration loadWaitTimeout,
+                        RefreshPolicy refreshPolicy, RedisCacheStore store, Duration ttl) {
+        super(name, cache, allowNullValues, tracker, loadWaitTimeout, refreshPolicy);
+        this.store = store;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper local = super.get(key);
+        if (local != null) {
+            return local;
+        }
+        String redisKey = store.keyOf(getName(), key);
+        if (redisKey == null) {
+            return null;
+        }
+        Object remote = store.get(redisKey);
+        if (remote == null) {
+            return null;
+        }
+        // L2 命中相当于一次完成的加载，回填 L1 时同样要求加载期间没有发生失效
+        PendingLoad load = takePendingLoad(key);
+        getTracker().put(getName(), key, remote, load != null ? load.version : null, () -> storeLocal(key, remote));
+        return new SimpleValueWrapper(remote);
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        deleteRemote(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = super.evictIfPresent(key);
+        deleteRemote(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        store.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = super.invalidate();
+        store.publishClear(getName());
+        return notEmpty;
+    }
+
+    /**
+     * 只删除本地副本，用于处理其他实例发来的失效通知
+     */
+    public void evictLocal(Object key) {
+        super.evict(key);
+    }
+
+    public void clearLocal() {
+        super.clear();
+    }
+
+    @Override
+    protected long loadStamp() {
+        return store.currentSequence();
+    }
+
+    @Override
+    protected void store(Object key, Object value, long stamp) {
+        storeLocal(key, value);
+        String redisKey = store.keyOf(getName(), key);
+        if (redisKey != null) {
+            store.put(redisKey, value, stamp, ttl);
+        }
+    }
+
+    private void deleteRemote(Object key) {
+        String redisKey = store.keyOf(getName(), key);
+        if (redisKey != null) {
+            store.delete(redisKey);
+        }
+    }
+}
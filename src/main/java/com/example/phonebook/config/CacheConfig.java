@@ -1,32 +1,168 @@
 package com.example.phonebook.config;
 
+import com.example.phonebook.cache.CacheDependencyTracker;
+import com.example.phonebook.cache.RedisCacheStore;
+import com.example.phonebook.cache.RefreshPolicy;
+import com.example.phonebook.cache.TrackingCaffeineCache;
+import com.example.phonebook.cache.TwoTierCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Slice;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties({CacheSpecProperties.class, WarmUpProperties.class})
 public class CacheConfig {
 
+    private static final List<String> CACHE_NAMES = Arrays.asList(
+        "contacts",        // 联系人列表缓存
+        "contact",         // 联系人详情缓存
+        "searchResults"    // 搜索结果缓存
+    );
+
+    @Autowired
+    private CacheSpecProperties cacheSpecProperties;
+
+    @Autowired
+    private CacheDependencyTracker cacheDependencyTracker;
+
+    // 仅在 phonebook.cache.redis.enabled=true 时存在
+    @Autowired(required = false)
+    private RedisCacheStore redisCacheStore;
+
+    // 过期后续用和提前刷新的后台加载
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    /**
+     * Caffeine 有界缓存：W-TinyLFU 准入 + 按权重淘汰，容量和过期时间按缓存名分别配置
+     *
+     * 开启 recordStats 后，Actuator 会把命中、未命中、淘汰和大小指标注册到 Micrometer。
+     * 每个缓存都包装为 TrackingCaffeineCache，以便按依赖精确失效并丢弃过期的加载结果；
+     * 启用 Redis 时包装为 TwoTierCache，本地缓存作为 L1，Redis 作为各实例共享的 L2。
+     * 配置了 max-stale 的缓存在过期或失效后继续返回旧值并在 taskExecutor 上后台刷新。
+     */
     @Bean
     public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        
-        // 设置缓存名称
-        cacheManager.setCacheNames(Arrays.asList(
-            "contacts",        // 联系人列表缓存
-            "contact",         // 联系人详情缓存
-            "searchResults",   // 搜索结果缓存
-            "categoryStats"    // 分类统计缓存
-        ));
-        
-        // 允许运行时创建新的缓存
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                Duration loadWaitTimeout = cacheSpecProperties.getLoadWaitTimeout();
+                CacheSpecProperties.Spec spec = cacheSpecProperties.specFor(name);
+                RefreshPolicy refreshPolicy = new RefreshPolicy(spec.getExpireAfterWrite(), spec.getMaxStale(),
+                        spec.getRefreshAfterWrite(), taskExecutor);
+                if (redisCacheStore != null) {
+                    return new TwoTierCache(name, cache, isAllowNullValues(), cacheDependencyTracker, loadWaitTimeout,
+                            refreshPolicy, redisCacheStore, remoteTtl(spec));
+                }
+                return new TrackingCaffeineCache(name, cache, isAllowNullValues(), cacheDependencyTracker,
+                        loadWaitTimeout, refreshPolicy);
+            }
+        };
         cacheManager.setAllowNullValues(false);
-        
+        for (String name : CACHE_NAMES) {
+            cacheManager.registerCustomCache(name, newCache(cacheSpecProperties.specFor(name)));
+        }
+        // 运行时按名称新建的缓存使用默认配置
+        cacheManager.setCaffeine(builder(cacheSpecProperties.getDefaults()));
         return cacheManager;
     }
+
+    /**
+     * 单飞加载指标：被合并的并发加载次数、等待超时后自行加载的次数；
+     * 以及返回旧值的次数和后台刷新的成功、失败次数
+     */
+    @Bean
+    public MeterBinder cacheLoadMetrics(CacheManager cacheManager) {
+        return registry -> {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(name);
+                if (!(cache instanceof TrackingCaffeineCache)) {
+                    continue;
+                }
+                TrackingCaffeineCache tracking = (TrackingCaffeineCache) cache;
+                FunctionCounter.builder("phonebook.cache.loads.coalesced", tracking, TrackingCaffeineCache::getCoalescedLoads)
+                        .description("等待同一键的加载结果而未访问数据库的请求数")
+                        .tag("cache", name)
+                        .register(registry);
+                FunctionCounter.builder("phonebook.cache.loads.wait.timeouts", tracking, TrackingCaffeineCache::getLoadWaitTimeouts)
+                        .description("等待加载超时后自行加载的请求数")
+                        .tag("cache", name)
+                        .register(registry);
+                FunctionCounter.builder("phonebook.cache.stale.served", tracking, TrackingCaffeineCache::getStaleServed)
+                        .description("过期或失效后返回旧值的请求数")
+                        .tag("cache", name)
+                        .register(registry);
+                FunctionCounter.builder("phonebook.cache.refreshes", tracking, TrackingCaffeineCache::getRefreshes)
+                        .description("后台刷新次数")
+                        .tag("cache", name)
+                        .tag("result", "success")
+                        .register(registry);
+                FunctionCounter.builder("phonebook.cache.refreshes", tracking, TrackingCaffeineCache::getRefreshFailures)
+                        .description("后台刷新次数")
+                        .tag("cache", name)
+                        .tag("result", "failure")
+                        .register(registry);
+            }
+        };
+    }
+
+    // L2 的存活时间沿用该缓存的过期配置
+    private Duration remoteTtl(CacheSpecProperties.Spec spec) {
+        if (spec.getExpireAfterWrite() != null) {
+            return spec.getExpireAfterWrite();
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            return spec.getExpireAfterAccess();
+        }
+        return cacheSpecProperties.getRedis().getDefaultTtl();
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> newCache(CacheSpecProperties.Spec spec) {
+        return builder(spec).build();
+    }
+
+    private static Caffeine<Object, Object> builder(CacheSpecProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight())
+                .weigher((Object key, Object value) -> weigh(value))
+                .recordStats();
+        if (spec.getExpireAfterWrite() != null) {
+            // 返回旧值的时段内值仍需留在缓存中，是否过期由 TrackingCaffeineCache 按写入时间判断
+            Duration maxStale = spec.getMaxStale() != null ? spec.getMaxStale() : Duration.ZERO;
+            builder.expireAfterWrite(spec.getExpireAfterWrite().plus(maxStale));
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder;
+    }
+
+    // 分页和列表按包含的条数计重，其余值（单个联系人、统计结果）计 1
+    private static int weigh(Object value) {
+        if (value instanceof Slice) {
+            return Math.max(1, ((Slice<?>) value).getNumberOfElements());
+        }
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection<?>) value).size());
+        }
+        return 1;
+    }
 }
@@ -0,0 +1,229 @@
+package com.example.phonebook.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 各个缓存的容量和过期策略，对应 application.yml 中的 phonebook.cache
+ *
+ * 未在 specs 中列出的缓存使用 defaults；redis 为多实例共享的二级缓存。
+ */
+@ConfigurationProperties(prefix = "phonebook.cache")
+public class CacheSpecProperties {
+
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    private Redis redis = new Redis();
+
+    // 缓存未命中时等待其他线程加载同一个键的最长时间，超时后自行加载
+    private Duration loadWaitTimeout = Duration.ofSeconds(5);
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Spec> getSpecs() {
+        return specs;
+    }
+
+    public void setSpecs(Map<String, Spec> specs) {
+        this.specs = specs;
+    }
+
+    public Redis getRedis() {
+        return redis;
+    }
+
+    public void setRedis(Redis redis) {
+        this.redis = redis;
+    }
+
+    public Duration getLoadWaitTimeout() {
+        return loadWaitTimeout;
+    }
+
+    public void setLoadWaitTimeout(Duration loadWaitTimeout) {
+        this.loadWaitTimeout = loadWaitTimeout;
+    }
+
+    public Spec specFor(String cacheName) {
+        Spec spec = specs.get(cacheName);
+        return spec != null ? spec : defaults;
+    }
+
+    public static class Spec {
+
+        // 最大权重，权重按缓存值中包含的联系人条数计算
+        private long maximumWeight = 10000;
+
+        // 写入后过期时间，为空表示不过期
+        private Duration expireAfterWrite;
+
+        // 最后一次访问后过期时间，为空表示不过期
+        private Duration expireAfterAccess;
+
+        // 写入过期或被失效删除后仍可返回旧值的最长时间，期间在后台重新加载；为空表示不返回旧值
+        private Duration maxStale;
+
+        // 写入后超过该时间的值在下一次读取时提前后台刷新，为空表示不提前刷新
+        private Duration refreshAfterWrite;
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public Duration getMaxStale() {
+            return maxStale;
+        }
+
+        public void setMaxStale(Duration maxStale) {
+            this.maxStale = maxStale;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+    }
+
+    public static class Redis {
+
+        // 是否启用 Redis 二级缓存和跨实例失效通知，关闭时只有本地缓存
+        private boolean enabled = false;
+
+        private String host = "localhost";
+
+        private int port = 6379;
+
+        private String password;
+
+        private int database = 0;
+
+        // 命令超时，超时按未命中处理，不阻塞请求
+        private Duration timeout = Duration.ofMillis(200);
+
+        // 启动时或连接建立前 Redis 不可用，按这个间隔在后台重试
+        private Duration connectRetryInterval = Duration.ofSeconds(5);
+
+        // 缓存键前缀，后接缓存名和键
+        private String keyPrefix = "phonebook:cache:";
+
+        // 失效通知频道
+        private String channel = "phonebook:cache:invalidation";
+
+        // 缓存未配置过期时间时二级缓存的存活时间
+        private Duration defaultTtl = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public void setHost(String host) {
+            this.host = host;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getDatabase() {
+            return database;
+        }
+
+        public void setDatabase(int database) {
+            this.database = database;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public Duration getConnectRetryInterval() {
+            return connectRetryInterval;
+        }
+
+        public void setConnectRetryInterval(Duration connectRetryInterval) {
+            this.connectRetryInterval = connectRetryInterval;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public Duration getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.phonebook.config;
+
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Hibernate 二级缓存：实体缓存 + 查询缓存，JCache 接口、内嵌 Ehcache 3 实现
+ *
+ * 所有区域在启动时按配置创建，未配置的区域名直接启动失败，避免出现不受容量限制的缓存。
+ * 查询缓存依赖时间戳区域判断结果是否过期，该区域不设容量淘汰和过期时间。
+ */
+@Configuration
+@EnableConfigurationProperties(HibernateCacheProperties.class)
+public class HibernateCacheConfig {
+
+    public static final String ENTITY_REGION = "contact";
+
+    // 与 ContactRepository 查询提示中的 cacheRegion 对应，未指定区域的查询使用默认区域
+    public static final List<String> QUERY_REGIONS = Arrays.asList(
+        "contacts",
+        "searchResults",
+        "categoryStats",
+        "default-query-results-region"
+    );
+
+    public static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final long TIMESTAMPS_MAX_ENTRIES = 1000;
+
+    @Autowired
+    private HibernateCacheProperties hibernateCacheProperties;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        ConfigurationBuilder configuration = ConfigurationBuilder.newConfigurationBuilder();
+        for (String region : regionNames()) {
+            configuration = configuration.withCache(region, regionConfiguration(hibernateCacheProperties.regionFor(region)));
+        }
+        configuration = configuration.withCache(TIMESTAMPS_REGION, CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class, Object.class, ResourcePoolsBuilder.heap(TIMESTAMPS_MAX_ENTRIES)));
+
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(
+                EhcacheCachingProvider.class.getName());
+        // 每个 SessionFactory 使用独立的缓存管理器，测试中多个上下文并存时互不影响
+        return provider.getCacheManager(URI.create("urn:phonebook:hibernate:" + UUID.randomUUID()), configuration.build());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            boolean enabled = hibernateCacheProperties.isEnabled();
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, hibernateCacheProperties.isStatistics());
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, JCacheRegionFactory.class.getName());
+                properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    private Set<String> regionNames() {
+        Set<String> names = new LinkedHashSet<>();
+        names.add(ENTITY_REGION);
+        names.addAll(QUERY_REGIONS);
+        names.addAll(hibernateCacheProperties.getRegions().keySet());
+        names.remove(TIMESTAMPS_REGION);
+        return names;
+    }
+
+    private static CacheConfigurationBuilder<Object, Object> regionConfiguration(HibernateCacheProperties.Region region) {
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder.newCacheConfigurationBuilder(
+                Object.class, Object.class, ResourcePoolsBuilder.heap(region.getMaxEntries()));
+        if (region.getExpireAfterWrite() != null) {
+            builder = builder.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(region.getExpireAfterWrite()));
+        }
+        return builder;
+    }
+}
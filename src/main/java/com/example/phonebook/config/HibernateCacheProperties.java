@@ -0,0 +1,88 @@
+package com.example.phonebook.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate 二级缓存各区域的容量和过期时间，对应 application.yml 中的 phonebook.hibernate-cache
+ *
+ * 区域名即实体上 @Cache 的 region 和查询提示中的 cacheRegion；未列出的区域使用 defaults。
+ */
+@ConfigurationProperties(prefix = "phonebook.hibernate-cache")
+public class HibernateCacheProperties {
+
+    // 是否启用实体缓存和查询缓存
+    private boolean enabled = true;
+
+    // 是否收集统计信息，按区域的命中/未命中/写入次数通过 Micrometer 导出
+    private boolean statistics = true;
+
+    private Region defaults = new Region();
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(boolean statistics) {
+        this.statistics = statistics;
+    }
+
+    public Region getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Region defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    public void setRegions(Map<String, Region> regions) {
+        this.regions = regions;
+    }
+
+    public Region regionFor(String name) {
+        Region region = regions.get(name);
+        return region != null ? region : defaults;
+    }
+
+    public static class Region {
+
+        // 堆内最多缓存的条目数
+        private long maxEntries = 1000;
+
+        // 写入后过期时间，为空表示不过期
+        private Duration expireAfterWrite;
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.phonebook.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 启动缓存预热的查询范围和并发度，对应 application.yml 中的 phonebook.warm-up
+ */
+@ConfigurationProperties(prefix = "phonebook.warm-up")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+
+    // 预热线程数，与线上请求共用数据库连接池，不宜过大
+    private int parallelism = 4;
+
+    // 与列表接口默认的每页条数一致，缓存键才能对上
+    private int pageSize = 10;
+
+    // 每种排序预热的页数
+    private int pages = 3;
+
+    // 列表排序，格式为 字段,方向
+    private List<String> sorts = new ArrayList<>(Arrays.asList("name,asc", "createdAt,desc"));
+
+    // 按联系人数量预热前几个分类的第一页
+    private int topCategories = 5;
+
+    // 预热近期搜索次数最多的关键字的第一页
+    private int topKeywords = 20;
+
+    // 额外固定预热的关键字
+    private List<String> keywords = new ArrayList<>();
+
+    // 等待内存索引就绪的最长时间，超时后照常预热（查询回退到数据库）
+    private Duration indexWaitTimeout = Duration.ofMinutes(1);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public void setPages(int pages) {
+        this.pages = pages;
+    }
+
+    public List<String> getSorts() {
+        return sorts;
+    }
+
+    public void setSorts(List<String> sorts) {
+        this.sorts = sorts;
+    }
+
+    public int getTopCategories() {
+        return topCategories;
+    }
+
+    public void setTopCategories(int topCategories) {
+        this.topCategories = topCategories;
+    }
+
+    public int getTopKeywords() {
+        return topKeywords;
+    }
+
+    public void setTopKeywords(int topKeywords) {
+        this.topKeywords = topKeywords;
+    }
+
+    public List<String> getKeywords() {
+        return keywords;
+    }
+
+    public void setKeywords(List<String> keywords) {
+        this.keywords = keywords;
+    }
+
+    public Duration getIndexWaitTimeout() {
+        return indexWaitTimeout;
+    }
+
+    public void setIndexWaitTimeout(Duration indexWaitTimeout) {
+        this.indexWaitTimeout = indexWaitTimeout;
+    }
+}
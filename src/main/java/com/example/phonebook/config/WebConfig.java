@@ -1,12 +1,44 @@
 package com.example.phonebook.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+
+    // 流式响应（联系人导出）写完之前的最长时间
+    @Value("${phonebook.export.timeout:PT30M}")
+    private Duration streamingTimeout;
+
+    @Value("${phonebook.export.max-concurrent:4}")
+    private int maxConcurrentStreams;
+
+    /**
+     * 流式响应的写出线程，与 taskExecutor 分开，长时间的导出不占用后台任务线程；满了直接拒绝
+     */
+    @Bean
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrentStreams);
+        executor.setMaxPoolSize(maxConcurrentStreams);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("PhonebookStream-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(streamingExecutor());
+        configurer.setDefaultTimeout(streamingTimeout.toMillis());
+    }
     
     @Override
     public void addCorsMappings(CorsRegistry registry) {
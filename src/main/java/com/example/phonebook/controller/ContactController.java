@@ -1,25 +1,52 @@
 package com.example.phonebook.controller;
 
+import com.example.phonebook.dto.ContactBatchUpdateRequest;
 import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.dto.ContactSuggestionDTO;
+import com.example.phonebook.dto.CursorPage;
+import com.example.phonebook.index.PhoneSuffixIndex;
+import com.example.phonebook.job.ContactImportJob;
+import com.example.phonebook.service.BatchWriteException;
 import com.example.phonebook.service.ContactService;
+import com.example.phonebook.stats.SearchKeywordStats;
+import com.example.phonebook.util.VCardWriter;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
+import javax.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @RestController
@@ -29,6 +56,16 @@ public class ContactController {
     
     @Autowired
     private ContactService contactService;
+
+    @Autowired
+    private SearchKeywordStats searchKeywordStats;
+
+    // 请求体是列表时 @Valid 不会逐条校验，批量创建手动校验
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ContactImportJob contactImportJob;
     
     private final Counter createContactCounter;
     private final Counter searchContactCounter;
@@ -43,30 +80,19 @@ public class ContactController {
     }
     
     /**
-     * 创建新联系人
+     * 创建新联系人，号码和邮箱的唯一性由服务层写入时判定
      */
     @PostMapping
     @Timed(value = "contacts.create", description = "Time taken to create contact")
     public ResponseEntity<?> createContact(@Valid @RequestBody ContactDTO contactDTO) {
         try {
-            // 检查电话号码是否已存在
-            if (contactService.isPhoneNumberExists(contactDTO.getPhoneNumber(), null)) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "电话号码已存在");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            // 检查邮箱是否已存在
-            if (contactDTO.getEmail() != null && !contactDTO.getEmail().isEmpty() && 
-                contactService.isEmailExists(contactDTO.getEmail(), null)) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "邮箱已存在");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            createContactCounter.increment();
             ContactDTO createdContact = contactService.createContact(contactDTO);
+            createContactCounter.increment();
             return ResponseEntity.status(HttpStatus.CREATED).body(createdContact);
+        } catch (DuplicateKeyException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "创建联系人失败: " + e.getMessage());
@@ -75,7 +101,132 @@ public class ContactController {
     }
     
     /**
-     * 获取所有联系人（分页）- 添加缓存控制
+     * 批量创建联系人：逐条校验后整批检查唯一性，任一条不通过则整批不创建。
+     * 写入分块提交，某块失败时之前的块已提交，错误响应里的 created 是已创建的条数，
+     * failedIndex 是第一个未创建项的下标，可以从这一项重试
+     */
+    @PostMapping("/batch")
+    @Timed(value = "contacts.batch.create", description = "Time taken to batch create contacts")
+    public ResponseEntity<?> batchCreateContacts(@RequestBody List<ContactDTO> contactDTOs) {
+        for (int i = 0; i < contactDTOs.size(); i++) {
+            ContactDTO contactDTO = contactDTOs.get(i);
+            String message = contactDTO == null ? "联系人不能为空" : firstViolation(validator.validate(contactDTO));
+            if (message != null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "第 " + (i + 1) + " 个联系人: " + message);
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
+        try {
+            List<ContactDTO> createdContacts = contactService.createContacts(contactDTOs);
+            createContactCounter.increment(createdContacts.size());
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "成功创建 " + createdContacts.size() + " 个联系人");
+            response.put("contacts", createdContacts);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (BatchWriteException e) {
+            createContactCounter.increment(e.getCompleted());
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "批量创建失败: " + e.getMessage());
+            error.put("created", e.getCompleted());
+            error.put("failedIndex", e.getFailedIndex());
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "批量创建失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * 导入联系人：边读请求体边写入，读完返回任务结果和行级错误
+     *
+     * Content-Type 为 text/vcard、text/x-vcard 时按 vCard 名片读取，否则按 CSV 读取（首行为表头），
+     * 也可用 format=csv|vcard 指定。校验不通过、文件内或库中已有相同电话号码/邮箱的条目跳过并记录，
+     * 其余照常创建；Excel 导出的 GBK 文件可通过 charset 参数指定编码。
+     * 响应要等导入结束才返回，需要在上传过程中查询进度时用 jobId 参数指定任务ID，再轮询 GET /import/{jobId}
+     */
+    @PostMapping("/import")
+    @Timed(value = "contacts.import", description = "Time taken to import contacts")
+    public ResponseEntity<?> importContacts(InputStream body,
+                                            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                            @RequestParam(required = false) String format,
+                                            @RequestParam(defaultValue = "UTF-8") String charset,
+                                            @RequestParam(required = false) String jobId) {
+        Map<String, String> error = new HashMap<>();
+        try {
+            boolean vcard = format != null ? "vcard".equalsIgnoreCase(format)
+                    : contentType != null && contentType.toLowerCase().contains("vcard");
+            Map<String, Object> result = vcard
+                    ? contactImportJob.importVCard(body, Charset.forName(charset), jobId)
+                    : contactImportJob.importCsv(body, Charset.forName(charset), jobId);
+            createContactCounter.increment(((Number) result.get("created")).doubleValue());
+            return ResponseEntity.ok(result);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            error.put("error", "不支持的编码: " + charset);
+            return ResponseEntity.badRequest().body(error);
+        } catch (IllegalStateException e) {
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+        } catch (IllegalArgumentException | IOException e) {
+            error.put("error", "导入失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * 导入任务的进度和结果，导入过程中也可查询
+     */
+    @GetMapping("/import/{jobId}")
+    public ResponseEntity<?> getImportStatus(@PathVariable String jobId) {
+        Optional<Map<String, Object>> status = contactImportJob.status(jobId);
+        if (status.isPresent()) {
+            return ResponseEntity.ok(status.get());
+        }
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "导入任务不存在");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+    }
+
+    /**
+     * 最近的导入任务（不含行级错误）
+     */
+    @GetMapping("/import")
+    public ResponseEntity<List<Map<String, Object>>> getImportJobs() {
+        return ResponseEntity.ok(contactImportJob.recent());
+    }
+
+    /**
+     * 导出全部联系人为 vCard 3.0 文件：按ID顺序分块查询，边查边写出，不在内存中保留整表
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportContacts() {
+        StreamingResponseBody body = output -> {
+            VCardWriter writer = new VCardWriter(new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)));
+            try {
+                contactService.exportContacts(chunk -> {
+                    try {
+                        for (ContactDTO contactDTO : chunk) {
+                            writer.write(contactDTO);
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // 客户端断开时停止查询
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/vcard;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"contacts.vcf\"")
+                .body(body);
+    }
+    
+    /**
+     * 获取所有联系人（分页）- 添加缓存控制；传 after 参数时改用游标分页
      */
     @GetMapping
     @Timed(value = "contacts.list", description = "Time taken to list contacts")
@@ -83,7 +234,24 @@ public class ContactController {
             @RequestParam(required = false) Integer page,
             @RequestParam(required = false) Integer size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        
+        // 带 after 参数时走键集分页，深分页的开销与第一页相同
+        if (after != null) {
+            try {
+                CursorPage<ContactDTO> cursorPage = contactService.getContactsAfter(
+                        sortBy, sortDir, after, size != null ? size : 10);
+                return ResponseEntity.ok()
+                        .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                        .body(cursorResponse("content", cursorPage));
+            } catch (IllegalArgumentException e) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
         
         // 如果没有分页参数，返回所有联系人的简单数组
         if (page == null && size == null) {
@@ -101,6 +269,24 @@ public class ContactController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(pageNum, pageSize, sort);
+        
+        // withTotal=false 时只返回是否有下一页，省掉总数
+        if (!withTotal) {
+            Slice<ContactDTO> contactSlice = contactService.getAllContactsSlice(pageable);
+            Map<String, Object> response = new HashMap<>();
+            response.put("content", contactSlice.getContent());
+            response.put("number", contactSlice.getNumber());
+            response.put("size", contactSlice.getSize());
+            response.put("numberOfElements", contactSlice.getNumberOfElements());
+            response.put("first", contactSlice.isFirst());
+            response.put("last", contactSlice.isLast());
+            response.put("hasNext", contactSlice.hasNext());
+            response.put("empty", contactSlice.isEmpty());
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                    .body(response);
+        }
+        
         Page<ContactDTO> contactPage = contactService.getAllContacts(pageable);
         
         Map<String, Object> response = new HashMap<>();
@@ -152,36 +338,20 @@ public class ContactController {
     }
     
     /**
-     * 更新联系人
+     * 更新联系人，联系人不存在或号码、邮箱被占用由服务层在同一事务内判定
      */
     @PutMapping("/{id}")
     @Timed(value = "contacts.update", description = "Time taken to update contact")
     public ResponseEntity<?> updateContact(@PathVariable Long id, @Valid @RequestBody ContactDTO contactDTO) {
         try {
-            // 检查联系人是否存在
-            if (!contactService.getContactById(id).isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "联系人不存在");
-                return ResponseEntity.notFound().build();
-            }
-            
-            // 检查电话号码是否已被其他联系人使用
-            if (contactService.isPhoneNumberExists(contactDTO.getPhoneNumber(), id)) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "电话号码已被其他联系人使用");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
-            // 检查邮箱是否已被其他联系人使用
-            if (contactDTO.getEmail() != null && !contactDTO.getEmail().isEmpty() && 
-                contactService.isEmailExists(contactDTO.getEmail(), id)) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "邮箱已被其他联系人使用");
-                return ResponseEntity.badRequest().body(error);
-            }
-            
             ContactDTO updatedContact = contactService.updateContact(id, contactDTO);
             return ResponseEntity.ok(updatedContact);
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
+        } catch (DuplicateKeyException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "更新联系人失败: " + e.getMessage());
@@ -196,14 +366,10 @@ public class ContactController {
     @Timed(value = "contacts.delete", description = "Time taken to delete contact")
     public ResponseEntity<?> deleteContact(@PathVariable Long id) {
         try {
-            if (!contactService.getContactById(id).isPresent()) {
-                Map<String, String> error = new HashMap<>();
-                error.put("error", "联系人不存在");
-                return ResponseEntity.notFound().build();
-            }
-            
             contactService.deleteContact(id);
             return ResponseEntity.noContent().build();
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "删除联系人失败: " + e.getMessage());
@@ -212,30 +378,66 @@ public class ContactController {
     }
     
     /**
-     * 搜索联系人
+     * 搜索联系人，fuzzy=true 时容忍姓名或邮箱中的拼写错误；withTotal=false 时不返回总数
      */
     @GetMapping("/search")
     @Timed(value = "contacts.search", description = "Time taken to search contacts")
     public ResponseEntity<Map<String, Object>> searchContacts(
             @RequestParam(required = false, defaultValue = "") String keyword,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean fuzzy,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         
         searchContactCounter.increment();
+        searchKeywordStats.record(keyword);
+        
+        if (after != null && !fuzzy) {
+            try {
+                Map<String, Object> response = cursorResponse("contacts",
+                        contactService.searchContactsAfter(keyword, after, size));
+                response.put("keyword", keyword);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
         
         Pageable pageable = PageRequest.of(page, size);
-        Page<ContactDTO> contactPage = contactService.searchContacts(keyword, pageable);
+        Slice<ContactDTO> contactSlice;
+        if (fuzzy) {
+            contactSlice = contactService.fuzzySearchContacts(keyword, pageable);
+        } else if (withTotal) {
+            contactSlice = contactService.searchContacts(keyword, pageable);
+        } else {
+            contactSlice = contactService.searchContactsSlice(keyword, pageable);
+        }
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("contacts", contactPage.getContent());
-        response.put("currentPage", contactPage.getNumber());
-        response.put("totalItems", contactPage.getTotalElements());
-        response.put("totalPages", contactPage.getTotalPages());
+        Map<String, Object> response = sliceResponse(contactSlice, withTotal);
         response.put("keyword", keyword);
+        response.put("fuzzy", fuzzy);
         
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 搜索框输入联想
+     */
+    @GetMapping("/suggest")
+    @Timed(value = "contacts.suggest", description = "Time taken to suggest contacts")
+    public ResponseEntity<List<ContactSuggestionDTO>> suggestContacts(
+            @RequestParam(required = false, defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "8") int limit) {
+        
+        List<ContactSuggestionDTO> suggestions = contactService.suggest(prefix, Math.max(1, Math.min(limit, 50)));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(10, TimeUnit.SECONDS).cachePrivate())
+                .body(suggestions);
+    }
+    
     /**
      * 根据分类获取联系人
      */
@@ -244,18 +446,29 @@ public class ContactController {
     public ResponseEntity<Map<String, Object>> getContactsByCategory(
             @PathVariable String category,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
+        
+        if (after != null) {
+            try {
+                Map<String, Object> response = cursorResponse("contacts",
+                        contactService.getContactsByCategoryAfter(category, after, size));
+                response.put("category", category);
+                return ResponseEntity.ok(response);
+            } catch (IllegalArgumentException e) {
+                Map<String, Object> error = new HashMap<>();
+                error.put("error", e.getMessage());
+                return ResponseEntity.badRequest().body(error);
+            }
+        }
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        Page<ContactDTO> contactPage = contactService.getContactsByCategory(category, pageable);
+        Slice<ContactDTO> contactSlice = withTotal
+                ? contactService.getContactsByCategory(category, pageable)
+                : contactService.getContactsByCategorySlice(category, pageable);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("contacts", contactPage.getContent());
-        response.put("currentPage", contactPage.getNumber());
-        response.put("totalItems", contactPage.getTotalElements());
-        response.put("totalPages", contactPage.getTotalPages());
-        response.put("hasNext", contactPage.hasNext());
-        response.put("hasPrevious", contactPage.hasPrevious());
+        Map<String, Object> response = sliceResponse(contactSlice, withTotal);
         response.put("category", category);
         
         return ResponseEntity.ok(response);
@@ -274,6 +487,28 @@ public class ContactController {
         }
     }
     
+    /**
+     * 根据电话号码尾号查找联系人
+     */
+    @GetMapping("/phone-suffix/{digits}")
+    @Timed(value = "contacts.phone.suffix", description = "Time taken to find contacts by phone suffix")
+    public ResponseEntity<?> getContactsByPhoneSuffix(
+            @PathVariable String digits,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        if (!PhoneSuffixIndex.isSuffixQuery(digits)) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "尾号必须是至少" + PhoneSuffixIndex.MIN_SUFFIX_LENGTH + "位数字");
+            return ResponseEntity.badRequest().body(error);
+        }
+        
+        List<ContactDTO> contacts = contactService.findByPhoneSuffix(digits, Math.max(1, Math.min(limit, 100)));
+        Map<String, Object> response = new HashMap<>();
+        response.put("contacts", contacts);
+        response.put("digits", digits);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * 检查邮箱是否存在
      */
@@ -331,4 +566,105 @@ public class ContactController {
             return ResponseEntity.badRequest().body(error);
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * 批量修改联系人，两种写法：
+     * {"updates": [{"id": 1, "category": "同事"}, ...]} 按ID逐条修改给出的字段；
+     * {"filter": {"category": "同学"}, "changes": {"category": "朋友"}} 把该分类下的联系人改成同样的值。
+     * 分块在各自的事务内成批 UPDATE，某块失败时之前的块已提交，错误响应里的 updated 是已修改的条数，
+     * failedIndex（按ID修改时）是第一个未修改项的下标，可以从这一项重试；成功时返回实际修改的条数
+     */
+    @PatchMapping("/batch")
+    @Timed(value = "contacts.batch.update", description = "Time taken to batch update contacts")
+    public ResponseEntity<?> batchUpdateContacts(@RequestBody ContactBatchUpdateRequest request) {
+        boolean byFilter = request.getFilter() != null;
+        String message = null;
+        if (byFilter == (request.getUpdates() != null)) {
+            message = "updates 和 filter 必须且只能提供一个";
+        } else if (byFilter) {
+            message = patchViolation(request.getChanges());
+        } else {
+            for (int i = 0; i < request.getUpdates().size() && message == null; i++) {
+                String violation = patchViolation(request.getUpdates().get(i));
+                message = violation == null ? null : "第 " + (i + 1) + " 项: " + violation;
+            }
+        }
+        if (message != null) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", message);
+            return ResponseEntity.badRequest().body(error);
+        }
+        try {
+            int updated = byFilter
+                    ? contactService.updateContactsByCategory(request.getFilter().getCategory(), request.getChanges())
+                    : contactService.updateContacts(request.getUpdates());
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "成功修改 " + updated + " 个联系人");
+            response.put("updated", updated);
+            return ResponseEntity.ok(response);
+        } catch (BatchWriteException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "批量修改失败: " + e.getMessage());
+            error.put("updated", e.getCompleted());
+            if (e.getFailedIndex() != null) {
+                error.put("failedIndex", e.getFailedIndex());
+            }
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "批量修改失败: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    // 批量修改只校验给出的字段，未给出的字段不修改
+    private String patchViolation(ContactDTO changes) {
+        if (changes == null) {
+            return "修改内容不能为空";
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("name", changes.getName());
+        fields.put("phoneNumber", changes.getPhoneNumber());
+        fields.put("email", changes.getEmail());
+        fields.put("address", changes.getAddress());
+        fields.put("category", changes.getCategory());
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            if (field.getValue() != null) {
+                String message = firstViolation(validator.validateValue(ContactDTO.class, field.getKey(), field.getValue()));
+                if (message != null) {
+                    return message;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static String firstViolation(Set<ConstraintViolation<ContactDTO>> violations) {
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+    
+    // 页码分页的统一响应，只有 Page 才带总数
+    private static Map<String, Object> sliceResponse(Slice<ContactDTO> contactSlice, boolean withTotal) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("contacts", contactSlice.getContent());
+        response.put("currentPage", contactSlice.getNumber());
+        response.put("hasNext", contactSlice.hasNext());
+        response.put("hasPrevious", contactSlice.hasPrevious());
+        if (withTotal && contactSlice instanceof Page) {
+            Page<ContactDTO> contactPage = (Page<ContactDTO>) contactSlice;
+            response.put("totalItems", contactPage.getTotalElements());
+            response.put("totalPages", contactPage.getTotalPages());
+        }
+        return response;
+    }
+    
+    // 键集分页的统一响应：当前页、下一页游标和是否还有下一页
+    private static Map<String, Object> cursorResponse(String contentKey, CursorPage<ContactDTO> cursorPage) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(contentKey, cursorPage.getContent());
+        response.put("nextCursor", cursorPage.getNextCursor());
+        response.put("hasNext", cursorPage.hasNext());
+        response.put("size", cursorPage.getContent().size());
+        return response;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.phonebook.dto;
+
+import java.util.List;
+
+/**
+ * 批量修改请求，updates 与 filter 二选一
+ *
+ * updates 按ID逐条修改，每项带 id，只修改非空字段；
+ * filter 加 changes 把满足条件的联系人的字段改成同样的值，例如把某个分类整体改名。
+ */
+public class ContactBatchUpdateRequest {
+
+    private List<ContactDTO> updates;
+
+    private Filter filter;
+
+    private ContactDTO changes;
+
+    public List<ContactDTO> getUpdates() {
+        return updates;
+    }
+
+    public void setUpdates(List<ContactDTO> updates) {
+        this.updates = updates;
+    }
+
+    public Filter getFilter() {
+        return filter;
+    }
+
+    public void setFilter(Filter filter) {
+        this.filter = filter;
+    }
+
+    public ContactDTO getChanges() {
+        return changes;
+    }
+
+    public void setChanges(ContactDTO changes) {
+        this.changes = changes;
+    }
+
+    /**
+     * 筛选条件，目前只支持按分类
+     */
+    public static class Filter {
+
+        private String category;
+
+        public String getCategory() {
+            return category;
+        }
+
+        public void setCategory(String category) {
+            this.category = category;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.phonebook.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
@@ -34,6 +36,10 @@ public class ContactDTO {
     
     private LocalDateTime updatedAt;
     
+    // 搜索相关度分数，仅在搜索结果中返回，便于排查排序问题
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer score;
+    
     // 默认构造函数
     public ContactDTO() {}
     
@@ -134,6 +140,14 @@ public class ContactDTO {
         this.updatedAt = updatedAt;
     }
     
+    public Integer getScore() {
+        return score;
+    }
+    
+    public void setScore(Integer score) {
+        this.score = score;
+    }
+    
     @Override
     public String toString() {
         return "ContactDTO{" +
@@ -0,0 +1,57 @@
+package com.example.phonebook.dto;
+
+/**
+ * 搜索框输入联想结果，只携带展示所需的最少字段
+ */
+public class ContactSuggestionDTO {
+    
+    private Long id;
+    
+    private String name;
+    
+    private String phoneNumber;
+    
+    // 默认构造函数
+    public ContactSuggestionDTO() {}
+    
+    // 构造函数
+    public ContactSuggestionDTO(Long id, String name, String phoneNumber) {
+        this.id = id;
+        this.name = name;
+        this.phoneNumber = phoneNumber;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+    
+    public void setPhoneNumber(String phoneNumber) {
+        this.phoneNumber = phoneNumber;
+    }
+    
+    @Override
+    public String toString() {
+        return "ContactSuggestionDTO{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", phoneNumber='" + phoneNumber + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.phonebook.dto;
+
+import java.util.List;
+
+/**
+ * 键集分页结果：当前页内容和取下一页用的游标（没有下一页时为 null）
+ */
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -5,9 +5,13 @@ import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.example.phonebook.util.PhoneNumbers;
+import com.example.phonebook.util.PinyinUtils;
 
 import java.time.LocalDateTime;
 
@@ -15,18 +19,31 @@ import java.time.LocalDateTime;
 @Table(name = "contacts", 
        indexes = {
            @Index(name = "idx_phone_number", columnList = "phone_number", unique = true),
-           @Index(name = "idx_email", columnList = "email"),
+           @Index(name = "idx_phone_key", columnList = "phone_key"),
+           @Index(name = "idx_email", columnList = "email", unique = true),
            @Index(name = "idx_name", columnList = "name"),
            @Index(name = "idx_category", columnList = "category"),
            @Index(name = "idx_created_at", columnList = "created_at"),
            @Index(name = "idx_name_phone", columnList = "name, phone_number"),
-           @Index(name = "idx_category_name", columnList = "category, name")
+           @Index(name = "idx_category_name", columnList = "category, name"),
+           @Index(name = "idx_name_pinyin", columnList = "name_pinyin"),
+           @Index(name = "idx_name_initials", columnList = "name_initials")
        })
-@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "contact")
 public class Contact {
     
+    // ID 由 id_generators 表每次分配 50 个（pooled-lo，last_val 记录已分配的最大 ID），MySQL 没有序列也能用；
+    // INSERT 不依赖数据库自增，Hibernate 才能按 JDBC 批量写入。启动时 ContactIdSeeder 把 last_val 推到现有最大 ID
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "contact_id")
+    @GenericGenerator(name = "contact_id", strategy = "org.hibernate.id.enhanced.TableGenerator", parameters = {
+        @Parameter(name = "table_name", value = "id_generators"),
+        @Parameter(name = "segment_column_name", value = "name"),
+        @Parameter(name = "value_column_name", value = "last_val"),
+        @Parameter(name = "segment_value", value = "contacts"),
+        @Parameter(name = "increment_size", value = "50"),
+        @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     private Long id;
     
     @NotBlank(message = "姓名不能为空")
@@ -39,6 +56,10 @@ public class Contact {
     @Column(name = "phone_number", nullable = false, length = 20)
     private String phoneNumber;
     
+    // 号码归一化后的 E.164 键，无法识别的号码为 0
+    @Column(name = "phone_key")
+    private Long phoneKey;
+    
     @Email(message = "邮箱格式不正确")
     @Size(max = 100, message = "邮箱长度不能超过100个字符")
     @Column(name = "email", length = 100)
@@ -55,6 +76,13 @@ public class Contact {
     @Column(name = "notes", columnDefinition = "TEXT")
     private String notes;
     
+    // 由姓名派生的全拼和首字母，随姓名一起维护
+    @Column(name = "name_pinyin", length = 600)
+    private String namePinyin;
+    
+    @Column(name = "name_initials", length = 100)
+    private String nameInitials;
+    
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
@@ -91,6 +119,7 @@ public class Contact {
     
     public void setName(String name) {
         this.name = name;
+        refreshNameDerivedFields();
     }
     
     public String getPhoneNumber() {
@@ -99,6 +128,11 @@ public class Contact {
     
     public void setPhoneNumber(String phoneNumber) {
         this.phoneNumber = phoneNumber;
+        this.phoneKey = PhoneNumbers.toKey(phoneNumber);
+    }
+    
+    public Long getPhoneKey() {
+        return phoneKey;
     }
     
     public String getEmail() {
@@ -133,6 +167,27 @@ public class Contact {
         this.notes = notes;
     }
     
+    public String getNamePinyin() {
+        return namePinyin;
+    }
+    
+    public String getNameInitials() {
+        return nameInitials;
+    }
+    
+    // 持久化前重新计算派生字段，覆盖通过构造函数或字段直接赋值的情况
+    @PrePersist
+    @PreUpdate
+    public void refreshDerivedFields() {
+        refreshNameDerivedFields();
+        this.phoneKey = PhoneNumbers.toKey(phoneNumber);
+    }
+    
+    public void refreshNameDerivedFields() {
+        this.namePinyin = PinyinUtils.toPinyin(name);
+        this.nameInitials = PinyinUtils.toInitials(name);
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
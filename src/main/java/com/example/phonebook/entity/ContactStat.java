@@ -0,0 +1,60 @@
+package com.example.phonebook.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 联系人统计汇总表中的一行，键为 total 或 category:分类名
+ */
+@Entity
+@Table(name = "contact_stats")
+public class ContactStat {
+
+    public static final String TOTAL_KEY = "total";
+    public static final String CATEGORY_PREFIX = "category:";
+
+    @Id
+    @Column(name = "stat_key", length = 64)
+    private String key;
+
+    @Column(name = "stat_value", nullable = false)
+    private long value;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ContactStat() {}
+
+    public ContactStat(String key, long value, LocalDateTime updatedAt) {
+        this.key = key;
+        this.value = value;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
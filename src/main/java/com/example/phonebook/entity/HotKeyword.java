@@ -0,0 +1,59 @@
+package com.example.phonebook.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 近期热门搜索关键字及其（衰减后的）搜索次数
+ */
+@Entity
+@Table(name = "hot_keywords")
+public class HotKeyword {
+
+    public static final int MAX_LENGTH = 100;
+
+    @Id
+    @Column(name = "keyword", length = MAX_LENGTH)
+    private String keyword;
+
+    @Column(name = "hits", nullable = false)
+    private long hits;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public HotKeyword() {}
+
+    public HotKeyword(String keyword, long hits, LocalDateTime updatedAt) {
+        this.keyword = keyword;
+        this.hits = hits;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getKeyword() {
+        return keyword;
+    }
+
+    public void setKeyword(String keyword) {
+        this.keyword = keyword;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
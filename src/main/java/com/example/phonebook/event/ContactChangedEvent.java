@@ -0,0 +1,58 @@
+package com.example.phonebook.event;
+
+/**
+ * 联系人变更事件，before 为空表示新建，after 为空表示删除
+ */
+public class ContactChangedEvent {
+
+    private final ContactSnapshot before;
+    private final ContactSnapshot after;
+
+    public ContactChangedEvent(ContactSnapshot before, ContactSnapshot after) {
+        if (before == null && after == null) {
+            throw new IllegalArgumentException("before 和 after 不能同时为空");
+        }
+        this.before = before;
+        this.after = after;
+    }
+
+    public static ContactChangedEvent created(ContactSnapshot after) {
+        return new ContactChangedEvent(null, after);
+    }
+
+    public static ContactChangedEvent updated(ContactSnapshot before, ContactSnapshot after) {
+        return new ContactChangedEvent(before, after);
+    }
+
+    public static ContactChangedEvent deleted(ContactSnapshot before) {
+        return new ContactChangedEvent(before, null);
+    }
+
+    public Long getContactId() {
+        return after != null ? after.getId() : before.getId();
+    }
+
+    public ContactSnapshot getBefore() {
+        return before;
+    }
+
+    public ContactSnapshot getAfter() {
+        return after;
+    }
+
+    public boolean isCreated() {
+        return before == null;
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ContactChangedEvent{" +
+                "before=" + before +
+                ", after=" + after +
+                '}';
+    }
+}
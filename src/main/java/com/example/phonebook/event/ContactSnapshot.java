@@ -0,0 +1,110 @@
+package com.example.phonebook.event;
+
+import com.example.phonebook.entity.Contact;
+import com.example.phonebook.util.PinyinUtils;
+
+import java.time.LocalDateTime;
+
+/**
+ * 联系人的不可变快照，用于在事务提交后把变更传递给内存索引
+ */
+public final class ContactSnapshot {
+
+    private final Long id;
+    private final String name;
+    private final String phoneNumber;
+    private final String email;
+    private final String category;
+    private final String namePinyin;
+    private final String nameInitials;
+    private final LocalDateTime updatedAt;
+
+    public ContactSnapshot(Long id, String name, String phoneNumber, String email, String category,
+                           String namePinyin, String nameInitials) {
+        this(id, name, phoneNumber, email, category, namePinyin, nameInitials, null);
+    }
+
+    /**
+     * @param updatedAt 快照对应的最后修改时间，用于识别乱序到达的旧快照；未知时为 null
+     */
+    public ContactSnapshot(Long id, String name, String phoneNumber, String email, String category,
+                           String namePinyin, String nameInitials, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.phoneNumber = phoneNumber;
+        this.email = email;
+        this.category = category;
+        this.namePinyin = namePinyin;
+        this.nameInitials = nameInitials;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * 历史数据的拼音列可能尚未回填，此时按姓名现场计算
+     */
+    public static ContactSnapshot of(Contact contact) {
+        String namePinyin = contact.getNamePinyin() != null
+                ? contact.getNamePinyin() : PinyinUtils.toPinyin(contact.getName());
+        String nameInitials = contact.getNameInitials() != null
+                ? contact.getNameInitials() : PinyinUtils.toInitials(contact.getName());
+        return new ContactSnapshot(contact.getId(), contact.getName(), contact.getPhoneNumber(),
+                contact.getEmail(), contact.getCategory(), namePinyin, nameInitials, contact.getUpdatedAt());
+    }
+
+    /**
+     * 只知道ID的快照（例如索引尚未就绪时的删除）
+     */
+    public static ContactSnapshot ofId(Long id) {
+        return new ContactSnapshot(id, null, null, null, null, null, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getNamePinyin() {
+        return namePinyin;
+    }
+
+    public String getNameInitials() {
+        return nameInitials;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * 两个快照都带修改时间且本快照严格更早时返回 true
+     */
+    public boolean isOlderThan(ContactSnapshot other) {
+        return other != null && updatedAt != null && other.updatedAt != null && updatedAt.isBefore(other.updatedAt);
+    }
+
+    @Override
+    public String toString() {
+        return "ContactSnapshot{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", phoneNumber='" + phoneNumber + '\'' +
+                ", email='" + email + '\'' +
+                ", category='" + category + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.phonebook.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 按编辑距离组织的BK树，用于容错（拼写错误）查询，词条映射到一组 long ID
+ *
+ * 子节点按与父节点的编辑距离分桶，查询距离 d 时只需访问距离落在 [dist - d, dist + d]
+ * 区间内的子树（三角不等式），无需对每个词条逐一计算编辑距离。
+ * 删除只清空词条的ID而保留节点用于路由，空节点在下次 clear() 重建时回收。
+ */
+public class BKTree {
+
+    private Node root;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int termCount;
+
+    public void add(String term, long id) {
+        if (term == null || term.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (root == null) {
+                root = new Node(term);
+            }
+            Node node = root;
+            while (true) {
+                int distance = distance(term, node.term);
+                if (distance == 0) {
+                    break;
+                }
+                Node child = node.child(distance);
+                if (child == null) {
+                    child = new Node(term);
+                    node.setChild(distance, child);
+                    node = child;
+                    break;
+                }
+                node = child;
+            }
+            if (node.ids == null) {
+                node.ids = new LongPostingList();
+            }
+            if (node.ids.isEmpty()) {
+                termCount++;
+            }
+            node.ids.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String term, long id) {
+        if (term == null || term.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            while (node != null) {
+                int distance = distance(term, node.term);
+                if (distance == 0) {
+                    if (node.ids != null && node.ids.remove(id) && node.ids.isEmpty()) {
+                        node.ids = null;
+                        termCount--;
+                    }
+                    return;
+                }
+                node = node.child(distance);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root = null;
+            termCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 有ID的词条数量
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 返回与 query 编辑距离不超过 maxDistance 的词条所对应的ID，以及各ID的最小距离
+     */
+    public Map<Long, Integer> search(String query, int maxDistance) {
+        Map<Long, Integer> result = new HashMap<>();
+        if (query == null || query.isEmpty() || maxDistance < 0) {
+            return result;
+        }
+        lock.readLock().lock();
+        try {
+            if (root == null) {
+                return result;
+            }
+            int[] previous = new int[query.length() + 1];
+            int[] current = new int[query.length() + 1];
+            Deque<Node> stack = new ArrayDeque<>();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                int distance = distance(query, node.term, previous, current);
+                if (distance <= maxDistance && node.ids != null) {
+                    for (int i = 0; i < node.ids.size(); i++) {
+                        result.merge(node.ids.get(i), distance, Math::min);
+                    }
+                }
+                if (node.children == null) {
+                    continue;
+                }
+                int from = Math.max(1, distance - maxDistance);
+                int to = Math.min(node.children.length - 1, distance + maxDistance);
+                for (int d = from; d <= to; d++) {
+                    if (node.children[d] != null) {
+                        stack.push(node.children[d]);
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static int distance(String a, String b) {
+        return distance(a, b, new int[a.length() + 1], new int[a.length() + 1]);
+    }
+
+    // 两行滚动数组计算 Levenshtein 距离，previous/current 长度至少为 a.length() + 1
+    private static int distance(String a, String b, int[] previous, int[] current) {
+        int n = a.length();
+        for (int i = 0; i <= n; i++) {
+            previous[i] = i;
+        }
+        for (int j = 1; j <= b.length(); j++) {
+            current[0] = j;
+            char cb = b.charAt(j - 1);
+            for (int i = 1; i <= n; i++) {
+                int cost = a.charAt(i - 1) == cb ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[n];
+    }
+
+    private static final class Node {
+        final String term;
+        Node[] children;
+        LongPostingList ids;
+
+        Node(String term) {
+            this.term = term;
+        }
+
+        Node child(int distance) {
+            return children == null || distance >= children.length ? null : children[distance];
+        }
+
+        void setChild(int distance, Node child) {
+            if (children == null) {
+                children = new Node[Math.max(distance + 1, 4)];
+            } else if (distance >= children.length) {
+                children = Arrays.copyOf(children, Math.max(distance + 1, children.length * 2));
+            }
+            children[distance] = child;
+        }
+    }
+}
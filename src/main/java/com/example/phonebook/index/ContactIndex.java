@@ -0,0 +1,24 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+
+/**
+ * 由 ContactIndexManager 统一维护的内存索引
+ */
+public interface ContactIndex {
+
+    /**
+     * 添加或替换联系人
+     */
+    void add(ContactSnapshot contact);
+
+    /**
+     * 移除联系人，快照可能只包含ID
+     */
+    void remove(ContactSnapshot contact);
+
+    /**
+     * 清空索引，重建前调用
+     */
+    void clear();
+}
@@ -0,0 +1,173 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.entity.Contact;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.repository.ContactRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 统一维护所有内存索引：启动时分块全量重建，运行期在事务提交后应用联系人变更
+ *
+ * 重建期间到达的变更先排队，重建完成后按顺序回放，避免旧数据覆盖新数据。
+ * 各事务的提交后回调可能乱序执行，因此变更统一在 pendingLock 下串行应用，
+ * 并丢弃修改时间早于已索引快照的事件；已删除的联系人记录墓碑，迟到的更新不会使其复活。
+ * 索引就绪前 isReady() 返回 false，调用方应回退到数据库查询。
+ */
+@Component
+public class ContactIndexManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactIndexManager.class);
+
+    /**
+     * 保留的删除墓碑上限，只需覆盖提交回调乱序的短暂窗口
+     */
+    private static final int MAX_TOMBSTONES = 10000;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private List<ContactIndex> indexes;
+
+    @Value("${phonebook.index.rebuild-chunk-size:1000}")
+    private int rebuildChunkSize;
+
+    private final Map<Long, ContactSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final List<ContactChangedEvent> pendingEvents = new ArrayList<>();
+    private final Map<Long, Boolean> tombstones = new LinkedHashMap<Long, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > MAX_TOMBSTONES;
+        }
+    };
+    private final Object rebuildLock = new Object();
+    private final Object pendingLock = new Object();
+
+    private volatile boolean ready;
+    private boolean rebuilding;
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * 按ID分块从数据库全量重建所有索引
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long start = System.currentTimeMillis();
+            synchronized (pendingLock) {
+                ready = false;
+                rebuilding = true;
+            }
+            snapshots.clear();
+            for (ContactIndex index : indexes) {
+                index.clear();
+            }
+
+            long lastId = 0L;
+            List<Contact> chunk;
+            do {
+                chunk = contactRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, rebuildChunkSize));
+                for (Contact contact : chunk) {
+                    add(ContactSnapshot.of(contact));
+                    lastId = contact.getId();
+                }
+            } while (chunk.size() == rebuildChunkSize);
+
+            synchronized (pendingLock) {
+                for (ContactChangedEvent event : pendingEvents) {
+                    apply(event);
+                }
+                pendingEvents.clear();
+                rebuilding = false;
+                ready = true;
+            }
+            logger.info("联系人索引重建完成，共 {} 条，耗时 {} ms", snapshots.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContactChanged(ContactChangedEvent event) {
+        synchronized (pendingLock) {
+            if (rebuilding) {
+                pendingEvents.add(event);
+                return;
+            }
+            apply(event);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 获取索引中的联系人快照，不存在时返回 null
+     */
+    public ContactSnapshot getSnapshot(Long id) {
+        return id == null ? null : snapshots.get(id);
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    /**
+     * 调用方必须持有 pendingLock
+     */
+    private void apply(ContactChangedEvent event) {
+        ContactSnapshot after = event.getAfter();
+        if (after != null) {
+            if (tombstones.containsKey(after.getId())) {
+                logger.debug("忽略已删除联系人的迟到变更: {}", after.getId());
+                return;
+            }
+            if (after.isOlderThan(snapshots.get(after.getId()))) {
+                logger.debug("忽略乱序到达的旧快照: {}", after);
+                return;
+            }
+        } else if (event.getBefore() != null) {
+            tombstones.put(event.getBefore().getId(), Boolean.TRUE);
+        }
+        if (event.getBefore() != null) {
+            remove(event.getBefore());
+        }
+        if (event.getAfter() != null) {
+            add(event.getAfter());
+        }
+    }
+
+    private void add(ContactSnapshot contact) {
+        snapshots.put(contact.getId(), contact);
+        for (ContactIndex index : indexes) {
+            index.add(contact);
+        }
+    }
+
+    private void remove(ContactSnapshot contact) {
+        ContactSnapshot existing = snapshots.remove(contact.getId());
+        ContactSnapshot target = existing != null ? existing : contact;
+        for (ContactIndex index : indexes) {
+            index.remove(target);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * 搜索结果相关度打分，一个实例对应一次查询
+ *
+ * 各规则取最高分：号码完全相同 > 姓名完全相同 > 姓名前缀 > 拼音前缀 > 号码前缀 >
+ * 姓名包含 > 号码包含 > 邮箱前缀 > 邮箱包含 > 容错匹配。同分时按姓名、ID排序。
+ */
+public class ContactRanker {
+
+    public static final int EXACT_PHONE = 100;
+    public static final int EXACT_NAME = 90;
+    public static final int NAME_PREFIX = 80;
+    public static final int PINYIN_PREFIX = 70;
+    public static final int PHONE_PREFIX = 60;
+    public static final int NAME_CONTAINS = 50;
+    public static final int PHONE_CONTAINS = 40;
+    public static final int EMAIL_PREFIX = 30;
+    public static final int EMAIL_CONTAINS = 20;
+    /**
+     * 仅靠容错匹配命中时的基础分，再减去编辑距离
+     */
+    public static final int FUZZY_MATCH = 10;
+
+    /**
+     * 从优到劣：分数降序，然后姓名升序（空值在后）、ID升序
+     */
+    public static final Comparator<Scored> BEST_FIRST = Comparator
+            .comparingInt(Scored::getScore).reversed()
+            .thenComparing(scored -> scored.getSnapshot().getName(), Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(scored -> scored.getSnapshot().getId());
+
+    private final String keyword;
+    private final String digits;
+
+    public ContactRanker(String keyword) {
+        this.keyword = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        this.digits = digitsOf(this.keyword);
+    }
+
+    public Scored rank(ContactSnapshot contact) {
+        return new Scored(contact, score(contact));
+    }
+
+    public int score(ContactSnapshot contact) {
+        if (keyword.isEmpty()) {
+            return 0;
+        }
+        String name = lower(contact.getName());
+        String phone = contact.getPhoneNumber() == null ? "" : contact.getPhoneNumber();
+        String email = lower(contact.getEmail());
+
+        if (phone.equals(keyword) || (!digits.isEmpty() && digits.length() == keyword.length()
+                && digitsOf(phone).equals(digits))) {
+            return EXACT_PHONE;
+        }
+        if (name.equals(keyword)) {
+            return EXACT_NAME;
+        }
+        if (name.startsWith(keyword)) {
+            return NAME_PREFIX;
+        }
+        if (startsWith(contact.getNamePinyin(), keyword) || startsWith(contact.getNameInitials(), keyword)) {
+            return PINYIN_PREFIX;
+        }
+        if (phone.startsWith(keyword)) {
+            return PHONE_PREFIX;
+        }
+        if (name.contains(keyword)) {
+            return NAME_CONTAINS;
+        }
+        if (phone.contains(keyword)) {
+            return PHONE_CONTAINS;
+        }
+        if (email.startsWith(keyword)) {
+            return EMAIL_PREFIX;
+        }
+        if (email.contains(keyword)) {
+            return EMAIL_CONTAINS;
+        }
+        return 0;
+    }
+
+    private static boolean startsWith(String value, String prefix) {
+        return value != null && value.startsWith(prefix);
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static String digitsOf(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 带分数的联系人快照
+     */
+    public static final class Scored {
+
+        private final ContactSnapshot snapshot;
+        private final int score;
+
+        public Scored(ContactSnapshot snapshot, int score) {
+            this.snapshot = snapshot;
+            this.score = score;
+        }
+
+        public ContactSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public int getScore() {
+            return score;
+        }
+    }
+}
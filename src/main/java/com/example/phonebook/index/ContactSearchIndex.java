@@ -0,0 +1,39 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.springframework.stereotype.Component;
+
+/**
+ * 联系人子串搜索索引，覆盖姓名、电话号码和邮箱
+ */
+@Component
+public class ContactSearchIndex implements ContactIndex {
+
+    private final NGramIndex index = new NGramIndex();
+
+    @Override
+    public void add(ContactSnapshot contact) {
+        index.add(contact.getId(), contact.getName(), contact.getPhoneNumber(), contact.getEmail());
+    }
+
+    @Override
+    public void remove(ContactSnapshot contact) {
+        index.remove(contact.getId());
+    }
+
+    @Override
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * 返回姓名、电话号码或邮箱包含关键字的联系人ID
+     */
+    public long[] search(String keyword) {
+        return index.search(keyword);
+    }
+
+    public int size() {
+        return index.size();
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.util.ScalableBloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * 电话号码和邮箱的布隆过滤器，放在唯一性检查之前
+ *
+ * 过滤器判定"一定不存在"时可以跳过数据库查询；判定"可能存在"时仍以数据库为准。
+ * 启动时随索引全量重建，写入前由服务层提前登记新值，删除和修改留下的旧值只会增加误判。
+ */
+@Component
+public class ContactUniquenessFilter implements ContactIndex, MeterBinder {
+
+    @Value("${phonebook.bloom.initial-capacity:10000}")
+    private int initialCapacity;
+
+    @Value("${phonebook.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private ScalableBloomFilter phones;
+    private ScalableBloomFilter emails;
+
+    @PostConstruct
+    public void init() {
+        phones = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+        emails = new ScalableBloomFilter(initialCapacity, falsePositiveRate);
+    }
+
+    @Override
+    public void add(ContactSnapshot contact) {
+        record(contact.getPhoneNumber(), contact.getEmail());
+    }
+
+    @Override
+    public void remove(ContactSnapshot contact) {
+        // 布隆过滤器不支持删除，残留值在下次重建时清除
+    }
+
+    @Override
+    public void clear() {
+        phones.clear();
+        emails.clear();
+    }
+
+    /**
+     * 登记即将写入的电话号码和邮箱，在保存之前调用，避免并发写入时漏判
+     */
+    public void record(String phoneNumber, String email) {
+        phones.put(phoneNumber);
+        if (email != null && !email.trim().isEmpty()) {
+            emails.put(email);
+        }
+    }
+
+    public boolean mightContainPhone(String phoneNumber) {
+        return phones.mightContain(phoneNumber);
+    }
+
+    public boolean mightContainEmail(String email) {
+        return emails.mightContain(email);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "phone", phones);
+        bind(registry, "email", emails);
+    }
+
+    private static void bind(MeterRegistry registry, String field, ScalableBloomFilter filter) {
+        Gauge.builder("phonebook.bloom.false.positive.rate", filter, ScalableBloomFilter::expectedFalsePositiveRate)
+                .description("布隆过滤器按当前填充程度估算的误判率")
+                .tag("field", field)
+                .register(registry);
+        Gauge.builder("phonebook.bloom.size", filter, ScalableBloomFilter::sizeInBytes)
+                .description("布隆过滤器位数组占用的字节数")
+                .tag("field", field)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("phonebook.bloom.entries", filter, ScalableBloomFilter::count)
+                .description("布隆过滤器中登记的值个数")
+                .tag("field", field)
+                .register(registry);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.phonebook.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 倒序数字的压缩前缀树（Radix Trie），把“号码以某串数字结尾”转换为前缀查找
+ *
+ * 每条边保存一段数字，单链路径会被合并，节点数约等于号码数的两倍。
+ */
+public class DigitSuffixTrie {
+
+    private final Node root = new Node(new char[0]);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int size;
+
+    /**
+     * 登记号码，非数字字符会被忽略
+     */
+    public void add(String phoneNumber, long id) {
+        char[] key = reversedDigits(phoneNumber);
+        if (key.length == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                int digit = key[i] - '0';
+                Node child = node.child(digit);
+                if (child == null) {
+                    Node leaf = new Node(Arrays.copyOfRange(key, i, key.length));
+                    node.setChild(digit, leaf);
+                    node = leaf;
+                    i = key.length;
+                    break;
+                }
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length) {
+                    Node middle = new Node(Arrays.copyOfRange(child.label, 0, common));
+                    child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                    middle.setChild(child.label[0] - '0', child);
+                    node.setChild(digit, middle);
+                    child = middle;
+                }
+                node = child;
+                i += common;
+            }
+            if (node.addId(id)) {
+                size++;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String phoneNumber, long id) {
+        char[] key = reversedDigits(phoneNumber);
+        if (key.length == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                Node child = node.child(key[i] - '0');
+                if (child == null || commonPrefix(child.label, key, i) < child.label.length) {
+                    return;
+                }
+                path.push(node);
+                node = child;
+                i += child.label.length;
+            }
+            if (node.ids == null || !node.ids.remove(id)) {
+                return;
+            }
+            size--;
+            compact(node, path);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children = null;
+            root.ids = null;
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 查找号码以给定数字结尾的ID，最多返回 limit 个
+     */
+    public long[] findBySuffix(String digits, int limit) {
+        char[] key = reversedDigits(digits);
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                Node child = node.child(key[i] - '0');
+                if (child == null) {
+                    return new long[0];
+                }
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length && i + common < key.length) {
+                    return new long[0];
+                }
+                node = child;
+                i += common;
+            }
+            return collect(node, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static char[] reversedDigits(String text) {
+        if (text == null) {
+            return new char[0];
+        }
+        char[] buffer = new char[text.length()];
+        int length = 0;
+        for (int i = text.length() - 1; i >= 0; i--) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                buffer[length++] = c;
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static long[] collect(Node start, int limit) {
+        long[] result = new long[16];
+        int count = 0;
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty() && count < limit) {
+            Node node = stack.pop();
+            if (node.ids != null) {
+                for (int i = 0; i < node.ids.size() && count < limit; i++) {
+                    if (count == result.length) {
+                        result = Arrays.copyOf(result, result.length * 2);
+                    }
+                    result[count++] = node.ids.get(i);
+                }
+            }
+            if (node.children != null) {
+                for (int digit = 9; digit >= 0; digit--) {
+                    if (node.children[digit] != null) {
+                        stack.push(node.children[digit]);
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    // 删除后剪掉空叶子，并把只剩一个孩子的中间节点重新合并
+    private static void compact(Node node, Deque<Node> path) {
+        while (!path.isEmpty()) {
+            Node parent = path.pop();
+            if (node.hasIds()) {
+                return;
+            }
+            int childCount = node.childCount();
+            if (childCount == 0) {
+                parent.setChild(node.label[0] - '0', null);
+                node = parent;
+                continue;
+            }
+            if (childCount == 1) {
+                Node only = node.firstChild();
+                char[] merged = new char[node.label.length + only.label.length];
+                System.arraycopy(node.label, 0, merged, 0, node.label.length);
+                System.arraycopy(only.label, 0, merged, node.label.length, only.label.length);
+                only.label = merged;
+                parent.setChild(merged[0] - '0', only);
+            }
+            return;
+        }
+    }
+
+    private static int commonPrefix(char[] label, char[] key, int offset) {
+        int max = Math.min(label.length, key.length - offset);
+        int i = 0;
+        while (i < max && label[i] == key[offset + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        char[] label;
+        Node[] children;
+        LongPostingList ids;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        Node child(int digit) {
+            return children == null ? null : children[digit];
+        }
+
+        void setChild(int digit, Node child) {
+            if (children == null) {
+                if (child == null) {
+                    return;
+                }
+                children = new Node[10];
+            }
+            children[digit] = child;
+            if (child == null && childCount() == 0) {
+                children = null;
+            }
+        }
+
+        boolean addId(long id) {
+            if (ids == null) {
+                ids = new LongPostingList();
+            }
+            if (ids.contains(id)) {
+                return false;
+            }
+            ids.add(id);
+            return true;
+        }
+
+        boolean hasIds() {
+            return ids != null && !ids.isEmpty();
+        }
+
+        int childCount() {
+            if (children == null) {
+                return 0;
+            }
+            int count = 0;
+            for (Node child : children) {
+                if (child != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        Node firstChild() {
+            for (Node child : children) {
+                if (child != null) {
+                    return child;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.phonebook.index;
+
+/**
+ * 可替换的全文检索后端，存在时代替内存N-gram索引提供搜索候选集
+ */
+public interface FullTextSearcher {
+
+    /**
+     * 返回与关键字匹配的联系人ID，顺序不限
+     */
+    long[] search(String keyword);
+}
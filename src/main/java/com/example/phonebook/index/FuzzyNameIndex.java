@@ -0,0 +1,101 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 姓名和邮箱的容错索引，支持编辑距离 1~2 的拼写纠错查询
+ *
+ * 收录完整姓名、姓名中按空格分开的单词、完整邮箱以及邮箱 @ 之前的部分。
+ */
+@Component
+public class FuzzyNameIndex implements ContactIndex {
+
+    private final BKTree tree = new BKTree();
+
+    @Override
+    public void add(ContactSnapshot contact) {
+        for (String term : terms(contact)) {
+            tree.add(term, contact.getId());
+        }
+    }
+
+    @Override
+    public void remove(ContactSnapshot contact) {
+        for (String term : terms(contact)) {
+            tree.remove(term, contact.getId());
+        }
+    }
+
+    @Override
+    public void clear() {
+        tree.clear();
+    }
+
+    /**
+     * 返回与关键字相近的联系人ID及其最小编辑距离，允许的距离由关键字长度决定
+     */
+    public Map<Long, Integer> search(String keyword) {
+        String query = normalize(keyword);
+        return tree.search(query, maxDistanceFor(query));
+    }
+
+    /**
+     * 单个联系人是否会被该关键字容错命中，与 search 的判定一致
+     */
+    public static boolean matches(String keyword, ContactSnapshot contact) {
+        String query = normalize(keyword);
+        if (query.isEmpty()) {
+            return false;
+        }
+        int maxDistance = maxDistanceFor(query);
+        for (String term : terms(contact)) {
+            if (BKTree.distance(query, term) <= maxDistance) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 关键字越长允许的错误越多：1个字符不容错，2~5个字符容错1处，更长的容错2处
+     */
+    public static int maxDistanceFor(String keyword) {
+        int length = keyword == null ? 0 : keyword.trim().length();
+        if (length <= 1) {
+            return 0;
+        }
+        return length <= 5 ? 1 : 2;
+    }
+
+    private static Set<String> terms(ContactSnapshot contact) {
+        Set<String> terms = new LinkedHashSet<>();
+        String name = normalize(contact.getName());
+        if (!name.isEmpty()) {
+            terms.add(name);
+            for (String word : name.split("\\s+")) {
+                if (!word.isEmpty()) {
+                    terms.add(word);
+                }
+            }
+        }
+        String email = normalize(contact.getEmail());
+        if (!email.isEmpty()) {
+            terms.add(email);
+            int at = email.indexOf('@');
+            if (at > 0) {
+                terms.add(email.substring(0, at));
+            }
+        }
+        return terms;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.cjk.CJKBigramFilter;
+import org.apache.lucene.analysis.cjk.CJKWidthFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * 基于本地磁盘 Lucene 目录的全文检索后端，phonebook.search.backend=lucene 时启用
+ *
+ * 与内存索引一样由 ContactIndexManager 在事务提交后维护，启动时全量重建。
+ * 中日韩字符按二元组切分（索引时额外保留单字），其余文本按词切分并支持词前缀；
+ * 号码只保留数字，索引它的每个后缀，数字子串查询变成后缀上的前缀查询，不需要前导通配符扫描整个词典。
+ * 语义是"分词全文检索"而不是 LIKE 子串匹配，
+ * 用于和 LIKE、N-gram 两条路径在真实数据量下做对比。
+ */
+@Component
+@ConditionalOnProperty(name = "phonebook.search.backend", havingValue = "lucene")
+public class LuceneContactIndex implements ContactIndex, FullTextSearcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LuceneContactIndex.class);
+
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String EMAIL = "email";
+    // 号码数字的全部后缀，号码最长 20 位，每个联系人至多 20 个词
+    private static final String PHONE_SUFFIX = "phone_suffix";
+
+    private final Analyzer indexAnalyzer = new CjkAnalyzer(true);
+    private final Analyzer queryAnalyzer = new CjkAnalyzer(false);
+
+    @Value("${phonebook.search.lucene.directory:./data/lucene}")
+    private String directoryPath;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    public void open() throws IOException {
+        directory = FSDirectory.open(Paths.get(directoryPath));
+        writer = new IndexWriter(directory, new IndexWriterConfig(indexAnalyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        logger.info("Lucene 全文索引目录: {}", Paths.get(directoryPath).toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    @Override
+    public void add(ContactSnapshot contact) {
+        Document document = new Document();
+        document.add(new StringField(ID, String.valueOf(contact.getId()), Field.Store.NO));
+        document.add(new NumericDocValuesField(ID, contact.getId()));
+        if (contact.getName() != null) {
+            document.add(new TextField(NAME, contact.getName(), Field.Store.NO));
+        }
+        if (contact.getEmail() != null) {
+            document.add(new TextField(EMAIL, contact.getEmail(), Field.Store.NO));
+        }
+        String digits = digitsOf(contact.getPhoneNumber());
+        for (int i = 0; i < digits.length(); i++) {
+            document.add(new StringField(PHONE_SUFFIX, digits.substring(i), Field.Store.NO));
+        }
+        try {
+            writer.updateDocument(new Term(ID, String.valueOf(contact.getId())), document);
+        } catch (IOException e) {
+            throw new RuntimeException("写入全文索引失败，ID: " + contact.getId(), e);
+        }
+    }
+
+    @Override
+    public void remove(ContactSnapshot contact) {
+        try {
+            writer.deleteDocuments(new Term(ID, String.valueOf(contact.getId())));
+        } catch (IOException e) {
+            throw new RuntimeException("删除全文索引失败，ID: " + contact.getId(), e);
+        }
+    }
+
+    @Override
+    public void clear() {
+        try {
+            writer.deleteAll();
+            writer.commit();
+        } catch (IOException e) {
+            throw new RuntimeException("清空全文索引失败", e);
+        }
+    }
+
+    @Override
+    public long[] search(String keyword) {
+        String text = keyword == null ? "" : keyword.trim();
+        if (text.isEmpty()) {
+            return new long[0];
+        }
+        try {
+            // 近实时刷新，保证刚提交的变更可见
+            searcherManager.maybeRefreshBlocking();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                IdCollector collector = new IdCollector();
+                searcher.search(buildQuery(text), collector);
+                return collector.toArray();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("全文检索失败: " + keyword, e);
+        }
+    }
+
+    private Query buildQuery(String text) {
+        QueryBuilder builder = new QueryBuilder(queryAnalyzer);
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        addShould(query, builder.createPhraseQuery(NAME, text));
+        addShould(query, builder.createPhraseQuery(EMAIL, text));
+        // 单个拉丁词额外按词前缀匹配，例如 "zhang" 命中 "zhangsan@example.com"
+        if (text.indexOf(' ') < 0 && !NGramIndex.containsCjk(text)) {
+            String prefix = text.toLowerCase(Locale.ROOT);
+            addShould(query, new PrefixQuery(new Term(NAME, prefix)));
+            addShould(query, new PrefixQuery(new Term(EMAIL, prefix)));
+        }
+        String digits = digitsOf(text);
+        if (!digits.isEmpty()) {
+            // 号码包含 digits，当且仅当它的某个后缀以 digits 开头
+            addShould(query, new PrefixQuery(new Term(PHONE_SUFFIX, digits)));
+        }
+        return query.build();
+    }
+
+    private static void addShould(BooleanQuery.Builder query, Query clause) {
+        if (clause != null) {
+            query.add(clause, BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    private static String digitsOf(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 标准分词 + 全半角归一 + 小写 + CJK二元组；索引时保留单字以便单字查询命中
+     */
+    private static final class CjkAnalyzer extends Analyzer {
+
+        private final boolean outputUnigrams;
+
+        CjkAnalyzer(boolean outputUnigrams) {
+            this.outputUnigrams = outputUnigrams;
+        }
+
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            StandardTokenizer tokenizer = new StandardTokenizer();
+            TokenStream stream = new CJKWidthFilter(tokenizer);
+            stream = new LowerCaseFilter(stream);
+            stream = new CJKBigramFilter(stream, CJKBigramFilter.HAN | CJKBigramFilter.HIRAGANA
+                    | CJKBigramFilter.KATAKANA | CJKBigramFilter.HANGUL, outputUnigrams);
+            return new TokenStreamComponents(tokenizer, stream);
+        }
+    }
+
+    /**
+     * 不计算相关度，只收集命中文档的联系人ID
+     */
+    private static final class IdCollector extends SimpleCollector {
+
+        private long[] ids = new long[16];
+        private int count;
+        private NumericDocValues values;
+
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            values = context.reader().getNumericDocValues(ID);
+        }
+
+        @Override
+        public void collect(int doc) throws IOException {
+            if (values != null && values.advanceExact(doc)) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = values.longValue();
+            }
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        long[] toArray() {
+            long[] result = Arrays.copyOf(ids, count);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.phonebook.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于N-gram的内存倒排索引，用于替代 LIKE '%keyword%' 的子串搜索
+ *
+ * 拉丁字母和数字按三元组切分，中日韩字符按二元组切分；同时收录长度为1、2的片段，
+ * 这样一两个字的短关键字也能直接命中倒排表。倒排表只负责收敛候选集，
+ * 关键字长于片段时会对原文再做一次子串校验，因此结果与 LIKE 完全一致。
+ */
+public class NGramIndex {
+
+    private static final int MAX_GRAM_LENGTH = 3;
+    private static final int MAX_CJK_GRAM_LENGTH = 2;
+    private static final char FIELD_SEPARATOR = '\u0000';
+
+    private final Map<String, LongPostingList> postings = new HashMap<>();
+    private final Map<Long, String> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换文档，多个字段之间的片段互不相连
+     */
+    public void add(long id, String... fields) {
+        String document = toDocument(fields);
+        Set<String> grams = documentGrams(document);
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            documents.put(id, document);
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, key -> new LongPostingList()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 返回任一字段包含关键字（忽略大小写）的文档ID，按ID升序；空关键字返回全部文档
+     */
+    public long[] search(String keyword) {
+        String query = normalize(keyword);
+        lock.readLock().lock();
+        try {
+            if (query.isEmpty()) {
+                long[] all = new long[documents.size()];
+                int i = 0;
+                for (Long id : documents.keySet()) {
+                    all[i++] = id;
+                }
+                Arrays.sort(all);
+                return all;
+            }
+
+            List<LongPostingList> lists = new ArrayList<>();
+            for (String gram : queryGrams(query)) {
+                LongPostingList list = postings.get(gram);
+                if (list == null) {
+                    return new long[0];
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(LongPostingList::size));
+
+            LongPostingList smallest = lists.get(0);
+            boolean verify = query.length() > MAX_CJK_GRAM_LENGTH;
+            long[] result = new long[smallest.size()];
+            int count = 0;
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                if (containsAll(lists, id) && (!verify || documents.get(id).contains(query))) {
+                    result[count++] = id;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void removeInternal(long id) {
+        String document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String gram : documentGrams(document)) {
+            LongPostingList list = postings.get(gram);
+            if (list != null) {
+                list.remove(id);
+                if (list.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static boolean containsAll(List<LongPostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toDocument(String... fields) {
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            if (sb.length() > 0) {
+                sb.append(FIELD_SEPARATOR);
+            }
+            sb.append(field == null ? "" : field.toLowerCase(Locale.ROOT));
+        }
+        return sb.toString();
+    }
+
+    private static Set<String> documentGrams(String document) {
+        Set<String> grams = new LinkedHashSet<>();
+        int start = 0;
+        while (start <= document.length()) {
+            int end = document.indexOf(FIELD_SEPARATOR, start);
+            if (end < 0) {
+                end = document.length();
+            }
+            addFieldGrams(document, start, end, grams);
+            start = end + 1;
+        }
+        return grams;
+    }
+
+    private static void addFieldGrams(String document, int from, int to, Set<String> grams) {
+        for (int i = from; i < to; i++) {
+            for (int length = 1; length <= MAX_GRAM_LENGTH && i + length <= to; length++) {
+                String gram = document.substring(i, i + length);
+                if (length > MAX_CJK_GRAM_LENGTH && containsCjk(gram)) {
+                    break;
+                }
+                grams.add(gram);
+            }
+        }
+    }
+
+    private static List<String> queryGrams(String query) {
+        List<String> grams = new ArrayList<>();
+        if (query.length() <= MAX_CJK_GRAM_LENGTH) {
+            grams.add(query);
+            return grams;
+        }
+        int length = containsCjk(query) ? MAX_CJK_GRAM_LENGTH : MAX_GRAM_LENGTH;
+        for (int i = 0; i + length <= query.length(); i++) {
+            grams.add(query.substring(i, i + length));
+        }
+        return grams;
+    }
+
+    static boolean containsCjk(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isCjk(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
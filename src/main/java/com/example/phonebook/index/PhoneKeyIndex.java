@@ -0,0 +1,134 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.util.OffHeapLongLongMap;
+import com.example.phonebook.util.PhoneNumbers;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 归一化号码（E.164 键）到联系人ID的堆外索引，服务按号码反查和号码唯一性检查
+ *
+ * 查询只做一次堆外哈希探测，不经过 Hibernate，也不产生对象分配。
+ * 历史数据中同一号码的不同写法会归一到同一个键：堆外表保存其中一个ID，其余ID放在堆内的溢出表，
+ * 这种键很少；删除时从溢出表补位，键上的联系人全部删除后才移除这个键。
+ */
+@Component
+public class PhoneKeyIndex implements ContactIndex, MeterBinder {
+
+    public static final long NOT_FOUND = OffHeapLongLongMap.NO_VALUE;
+
+    private final OffHeapLongLongMap map = new OffHeapLongLongMap(1024);
+
+    // 同一个键上除堆外表中那个ID之外的其余ID，数组写时复制，读取不加锁
+    private final Map<Long, long[]> overflow = new ConcurrentHashMap<>();
+
+    @Override
+    public synchronized void add(ContactSnapshot contact) {
+        long key = PhoneNumbers.toKey(contact.getPhoneNumber());
+        if (key == PhoneNumbers.INVALID) {
+            return;
+        }
+        long id = contact.getId();
+        long current = map.get(key);
+        if (current == NOT_FOUND) {
+            map.put(key, id);
+        } else if (current != id) {
+            long[] others = overflow.get(key);
+            if (others == null) {
+                overflow.put(key, new long[]{id});
+            } else if (indexOf(others, id) < 0) {
+                long[] grown = Arrays.copyOf(others, others.length + 1);
+                grown[others.length] = id;
+                overflow.put(key, grown);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void remove(ContactSnapshot contact) {
+        long key = PhoneNumbers.toKey(contact.getPhoneNumber());
+        if (key == PhoneNumbers.INVALID) {
+            return;
+        }
+        long id = contact.getId();
+        long[] others = overflow.get(key);
+        if (map.get(key) == id) {
+            if (others == null) {
+                map.remove(key, id);
+                return;
+            }
+            // 先补位再缩减溢出表，并发查询不会看到这个键暂时为空
+            map.put(key, others[0]);
+            id = others[0];
+        }
+        if (others != null) {
+            int index = indexOf(others, id);
+            if (index >= 0) {
+                if (others.length == 1) {
+                    overflow.remove(key);
+                } else {
+                    long[] shrunk = new long[others.length - 1];
+                    System.arraycopy(others, 0, shrunk, 0, index);
+                    System.arraycopy(others, index + 1, shrunk, index, shrunk.length - index);
+                    overflow.put(key, shrunk);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        map.clear();
+        overflow.clear();
+    }
+
+    /**
+     * 按归一化键查找联系人ID，不存在时返回 NOT_FOUND；键上有多个联系人时返回其中一个
+     */
+    public long find(long phoneKey) {
+        return map.get(phoneKey);
+    }
+
+    /**
+     * 查找同一个键上 excludeId 之外的联系人ID，不存在时返回 NOT_FOUND
+     */
+    public long findOther(long phoneKey, long excludeId) {
+        long id = map.get(phoneKey);
+        if (id != excludeId) {
+            return id;
+        }
+        long[] others = overflow.get(phoneKey);
+        return others == null ? NOT_FOUND : others[0];
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    private static int indexOf(long[] ids, long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("phonebook.phone.index.entries", map, OffHeapLongLongMap::size)
+                .description("号码索引中的条目数")
+                .register(registry);
+        Gauge.builder("phonebook.phone.index.size", map, OffHeapLongLongMap::sizeInBytes)
+                .description("号码索引占用的直接内存")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.springframework.stereotype.Component;
+
+/**
+ * 电话号码后缀索引，用于来电显示式的尾号查找
+ */
+@Component
+public class PhoneSuffixIndex implements ContactIndex {
+
+    /**
+     * 尾号查询要求的最少位数，过短的后缀命中面太大
+     */
+    public static final int MIN_SUFFIX_LENGTH = 4;
+
+    private final DigitSuffixTrie trie = new DigitSuffixTrie();
+
+    @Override
+    public void add(ContactSnapshot contact) {
+        trie.add(contact.getPhoneNumber(), contact.getId());
+    }
+
+    @Override
+    public void remove(ContactSnapshot contact) {
+        if (contact.getPhoneNumber() != null) {
+            trie.remove(contact.getPhoneNumber(), contact.getId());
+        }
+    }
+
+    @Override
+    public void clear() {
+        trie.clear();
+    }
+
+    /**
+     * 返回号码（忽略分隔符）以给定数字结尾的联系人ID
+     */
+    public long[] findBySuffix(String digits, int limit) {
+        return trie.findBySuffix(digits, limit);
+    }
+
+    /**
+     * 判断关键字是否可以走尾号查找
+     */
+    public static boolean isSuffixQuery(String keyword) {
+        if (keyword == null || keyword.length() < MIN_SUFFIX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * 姓名拼音前缀索引，同时收录全拼（zhangsan）和首字母（zs）
+ */
+@Component
+public class PinyinIndex implements ContactIndex {
+
+    private final RadixTree tree = new RadixTree();
+
+    @Override
+    public void add(ContactSnapshot contact) {
+        tree.add(contact.getNamePinyin(), contact.getId());
+        tree.add(contact.getNameInitials(), contact.getId());
+    }
+
+    @Override
+    public void remove(ContactSnapshot contact) {
+        tree.remove(contact.getNamePinyin(), contact.getId());
+        tree.remove(contact.getNameInitials(), contact.getId());
+    }
+
+    @Override
+    public void clear() {
+        tree.clear();
+    }
+
+    /**
+     * 返回全拼或首字母以关键字开头的联系人ID，最多 limit 个
+     */
+    public long[] search(String keyword, int limit) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return new long[0];
+        }
+        return tree.prefixSearch(keyword.trim().toLowerCase(Locale.ROOT), limit);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * 搜索框输入联想使用的前缀索引，词条为小写姓名、纯数字号码和小写邮箱
+ */
+@Component
+public class PrefixSuggestIndex implements ContactIndex {
+
+    private final RadixTree tree = new RadixTree();
+
+    @Override
+    public void add(ContactSnapshot contact) {
+        long id = contact.getId();
+        tree.add(normalize(contact.getName()), id);
+        tree.add(digitsOnly(contact.getPhoneNumber()), id);
+        tree.add(normalize(contact.getEmail()), id);
+    }
+
+    @Override
+    public void remove(ContactSnapshot contact) {
+        long id = contact.getId();
+        tree.remove(normalize(contact.getName()), id);
+        tree.remove(digitsOnly(contact.getPhoneNumber()), id);
+        tree.remove(normalize(contact.getEmail()), id);
+    }
+
+    @Override
+    public void clear() {
+        tree.clear();
+    }
+
+    /**
+     * 返回姓名、号码或邮箱以 prefix 开头的联系人ID，最多 limit 个
+     */
+    public long[] suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (isPhoneLike(normalized)) {
+            normalized = digitsOnly(normalized);
+        }
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        return tree.prefixSearch(normalized, limit);
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    static String digitsOnly(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    // 只由数字和常见分隔符组成的输入按号码处理
+    private static boolean isPhoneLike(String text) {
+        boolean hasDigit = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c != '+' && c != '-' && c != ' ' && c != '(' && c != ')') {
+                return false;
+            }
+        }
+        return hasDigit;
+    }
+}
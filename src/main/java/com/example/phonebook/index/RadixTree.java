@@ -0,0 +1,264 @@
+package com.example.phonebook.index;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 紧凑的字符串前缀树（Radix Tree），词条映射到一组 long ID
+ *
+ * 边标签用 char[] 保存，子节点按首字符排序存放在数组里，单链路径自动合并。
+ * 前缀查询按字典序深度优先遍历，取满 limit 个不同ID即停止，开销只与结果数有关。
+ */
+public class RadixTree {
+
+    private final Node root = new Node(new char[0]);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int termCount;
+
+    public void add(String term, long id) {
+        if (term == null || term.isEmpty()) {
+            return;
+        }
+        char[] key = term.toCharArray();
+        lock.writeLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                int slot = node.find(key[i]);
+                if (slot < 0) {
+                    Node leaf = new Node(Arrays.copyOfRange(key, i, key.length));
+                    node.insert(-slot - 1, leaf);
+                    node = leaf;
+                    break;
+                }
+                Node child = node.children[slot];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length) {
+                    Node middle = new Node(Arrays.copyOfRange(child.label, 0, common));
+                    child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                    middle.insert(0, child);
+                    node.children[slot] = middle;
+                    child = middle;
+                }
+                node = child;
+                i += common;
+            }
+            if (node.ids == null) {
+                node.ids = new LongPostingList();
+                termCount++;
+            }
+            node.ids.add(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String term, long id) {
+        if (term == null || term.isEmpty()) {
+            return;
+        }
+        char[] key = term.toCharArray();
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                int slot = node.find(key[i]);
+                if (slot < 0) {
+                    return;
+                }
+                Node child = node.children[slot];
+                if (commonPrefix(child.label, key, i) < child.label.length) {
+                    return;
+                }
+                path.push(node);
+                node = child;
+                i += child.label.length;
+            }
+            if (node.ids == null || !node.ids.remove(id)) {
+                return;
+            }
+            if (node.ids.isEmpty()) {
+                node.ids = null;
+                termCount--;
+                compact(node, path);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children = null;
+            root.firstChars = null;
+            root.ids = null;
+            termCount = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 不同词条的数量
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return termCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 返回以 prefix 开头的词条所对应的ID，去重后最多 limit 个
+     */
+    public long[] prefixSearch(String prefix, int limit) {
+        if (prefix == null || limit <= 0) {
+            return new long[0];
+        }
+        char[] key = prefix.toCharArray();
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length) {
+                int slot = node.find(key[i]);
+                if (slot < 0) {
+                    return new long[0];
+                }
+                Node child = node.children[slot];
+                int common = commonPrefix(child.label, key, i);
+                if (common < child.label.length && i + common < key.length) {
+                    return new long[0];
+                }
+                node = child;
+                i += common;
+            }
+            return collect(node, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long[] collect(Node start, int limit) {
+        long[] result = new long[Math.min(limit, 16)];
+        int count = 0;
+        Set<Long> seen = new HashSet<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(start);
+        while (!stack.isEmpty() && count < limit) {
+            Node node = stack.pop();
+            if (node.ids != null) {
+                for (int i = 0; i < node.ids.size() && count < limit; i++) {
+                    long id = node.ids.get(i);
+                    if (seen.add(id)) {
+                        if (count == result.length) {
+                            result = Arrays.copyOf(result, Math.min(limit, result.length * 2));
+                        }
+                        result[count++] = id;
+                    }
+                }
+            }
+            if (node.children != null) {
+                for (int c = node.children.length - 1; c >= 0; c--) {
+                    stack.push(node.children[c]);
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static void compact(Node node, Deque<Node> path) {
+        while (!path.isEmpty()) {
+            Node parent = path.pop();
+            if (node.ids != null) {
+                return;
+            }
+            int childCount = node.children == null ? 0 : node.children.length;
+            if (childCount == 0) {
+                parent.delete(parent.find(node.label[0]));
+                node = parent;
+                continue;
+            }
+            if (childCount == 1) {
+                Node only = node.children[0];
+                char[] merged = new char[node.label.length + only.label.length];
+                System.arraycopy(node.label, 0, merged, 0, node.label.length);
+                System.arraycopy(only.label, 0, merged, node.label.length, only.label.length);
+                only.label = merged;
+                parent.children[parent.find(merged[0])] = only;
+            }
+            return;
+        }
+    }
+
+    private static int commonPrefix(char[] label, char[] key, int offset) {
+        int max = Math.min(label.length, key.length - offset);
+        int i = 0;
+        while (i < max && label[i] == key[offset + i]) {
+            i++;
+        }
+        return i;
+    }
+
+    private static final class Node {
+        char[] label;
+        char[] firstChars;
+        Node[] children;
+        LongPostingList ids;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        // 二分查找子节点，未找到时返回 -(插入位置) - 1
+        int find(char c) {
+            if (firstChars == null) {
+                return -1;
+            }
+            return Arrays.binarySearch(firstChars, c);
+        }
+
+        void insert(int position, Node child) {
+            int length = children == null ? 0 : children.length;
+            char[] chars = new char[length + 1];
+            Node[] nodes = new Node[length + 1];
+            if (length > 0) {
+                System.arraycopy(firstChars, 0, chars, 0, position);
+                System.arraycopy(children, 0, nodes, 0, position);
+                System.arraycopy(firstChars, position, chars, position + 1, length - position);
+                System.arraycopy(children, position, nodes, position + 1, length - position);
+            }
+            chars[position] = child.label[0];
+            nodes[position] = child;
+            firstChars = chars;
+            children = nodes;
+        }
+
+        void delete(int position) {
+            int length = children.length;
+            if (length == 1) {
+                firstChars = null;
+                children = null;
+                return;
+            }
+            char[] chars = new char[length - 1];
+            Node[] nodes = new Node[length - 1];
+            System.arraycopy(firstChars, 0, chars, 0, position);
+            System.arraycopy(children, 0, nodes, 0, position);
+            System.arraycopy(firstChars, position + 1, chars, position, length - position - 1);
+            System.arraycopy(children, position + 1, nodes, position, length - position - 1);
+            firstChars = chars;
+            children = nodes;
+        }
+    }
+}
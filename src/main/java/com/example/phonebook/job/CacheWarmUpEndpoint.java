@@ -0,0 +1,30 @@
+package com.example.phonebook.job;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * /actuator/warmup：GET 查看缓存预热进度，POST 手动开始一轮预热
+ */
+@Component
+@Endpoint(id = "warmup")
+public class CacheWarmUpEndpoint {
+
+    @Autowired
+    private CacheWarmUpJob cacheWarmUpJob;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return cacheWarmUpJob.status();
+    }
+
+    @WriteOperation
+    public Map<String, Object> start() {
+        return cacheWarmUpJob.start();
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.phonebook.job;
+
+import com.example.phonebook.config.WarmUpProperties;
+import com.example.phonebook.index.ContactIndexManager;
+import com.example.phonebook.service.ContactService;
+import com.example.phonebook.stats.SearchKeywordStats;
+import com.example.phonebook.util.TopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 启动时预热缓存：统计、各排序的前几页列表、联系人最多的分类、近期热门搜索关键字
+ *
+ * 查询经 ContactService 代理执行，结果按与线上请求相同的缓存键写入缓存。
+ * 各查询在固定大小的独立线程池上并行执行，单个查询失败只记录，不影响其余查询。
+ * 进度和结果通过 actuator 的 warmup 端点查看，也可以从端点手动再触发一轮。
+ */
+@Component
+public class CacheWarmUpJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmUpJob.class);
+
+    private static final int MAX_REPORTED_FAILURES = 20;
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private ContactIndexManager contactIndexManager;
+
+    @Autowired
+    private SearchKeywordStats searchKeywordStats;
+
+    @Autowired
+    private WarmUpProperties properties;
+
+    @Autowired
+    @Qualifier("taskExecutor")
+    private Executor taskExecutor;
+
+    private final AtomicReference<Progress> current = new AtomicReference<>(Progress.idle());
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        awaitIndex();
+        warmUp();
+    }
+
+    /**
+     * 在后台开始一轮预热；已有一轮在执行时不重复开始，返回当前进度
+     */
+    public Map<String, Object> start() {
+        if (!current.get().isRunning()) {
+            try {
+                taskExecutor.execute(this::warmUp);
+            } catch (RejectedExecutionException e) {
+                logger.warn("缓存预热提交失败: {}", e.getMessage());
+            }
+        }
+        return status();
+    }
+
+    public Map<String, Object> status() {
+        return current.get().toMap();
+    }
+
+    /**
+     * 执行一轮预热并等待完成；已有一轮在执行时直接返回 false
+     */
+    public boolean warmUp() {
+        Progress progress = new Progress();
+        Progress previous = current.get();
+        if (previous.isRunning() || !current.compareAndSet(previous, progress)) {
+            return false;
+        }
+        // 分类按联系人数量挑选，先加载统计
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        RuntimeException statisticsError = null;
+        try {
+            statistics = contactService.getContactStatistics();
+        } catch (RuntimeException e) {
+            statisticsError = e;
+        }
+        List<Task> tasks = plan(statistics);
+        progress.begin(tasks.size() + 1);
+        if (statisticsError == null) {
+            progress.succeed();
+        } else {
+            progress.fail("statistics", statisticsError);
+        }
+
+        int parallelism = Math.max(1, properties.getParallelism());
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "CacheWarmUp-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (Task task : tasks) {
+                pool.execute(() -> {
+                    try {
+                        task.action.run();
+                        progress.succeed();
+                    } catch (RuntimeException e) {
+                        progress.fail(task.name, e);
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            progress.finish();
+        }
+        logger.info("缓存预热完成：{} 个查询，失败 {} 个，耗时 {} ms",
+                progress.total, progress.failed.get(), progress.elapsedMillis());
+        return true;
+    }
+
+    List<Task> plan(Map<String, Long> statistics) {
+        List<Task> tasks = new ArrayList<>();
+        int size = properties.getPageSize();
+        for (String spec : properties.getSorts()) {
+            Sort sort;
+            try {
+                sort = parseSort(spec);
+            } catch (IllegalArgumentException e) {
+                logger.warn("忽略无效的预热排序配置 {}: {}", spec, e.getMessage());
+                continue;
+            }
+            for (int page = 0; page < properties.getPages(); page++) {
+                Pageable pageable = PageRequest.of(page, size, sort);
+                tasks.add(new Task("list " + spec + " page " + page, () -> contactService.getAllContacts(pageable)));
+            }
+        }
+        for (String category : topCategories(statistics)) {
+            Pageable pageable = PageRequest.of(0, size, Sort.by("name").ascending());
+            tasks.add(new Task("category " + category, () -> contactService.getContactsByCategory(category, pageable)));
+        }
+        Set<String> keywords = new LinkedHashSet<>(properties.getKeywords());
+        keywords.addAll(searchKeywordStats.topKeywords(properties.getTopKeywords()));
+        for (String keyword : keywords) {
+            Pageable pageable = PageRequest.of(0, size);
+            tasks.add(new Task("search " + keyword, () -> contactService.searchContacts(keyword, pageable)));
+        }
+        return tasks;
+    }
+
+    private List<String> topCategories(Map<String, Long> statistics) {
+        TopK<Map.Entry<String, Long>> top = new TopK<>(properties.getTopCategories(),
+                (a, b) -> Long.compare(b.getValue(), a.getValue()));
+        for (Map.Entry<String, Long> entry : statistics.entrySet()) {
+            if (!"total".equals(entry.getKey())) {
+                top.offer(entry);
+            }
+        }
+        List<String> categories = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : top.toSortedList()) {
+            categories.add(entry.getKey());
+        }
+        return categories;
+    }
+
+    // 与列表接口的 sortBy/sortDir 参数相同的写法，如 name,asc
+    static Sort parseSort(String spec) {
+        String[] parts = spec.split(",");
+        String property = parts[0].trim();
+        if (property.isEmpty() || parts.length > 2) {
+            throw new IllegalArgumentException("排序格式应为 字段,方向");
+        }
+        boolean desc = parts.length == 2 && parts[1].trim().equalsIgnoreCase("desc");
+        return desc ? Sort.by(property).descending() : Sort.by(property).ascending();
+    }
+
+    // 内存索引就绪前搜索会回退到数据库，尽量等索引建好再预热
+    private void awaitIndex() {
+        long deadline = System.currentTimeMillis() + properties.getIndexWaitTimeout().toMillis();
+        while (!contactIndexManager.isReady() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    static final class Task {
+        final String name;
+        final Runnable action;
+
+        Task(String name, Runnable action) {
+            this.name = name;
+            this.action = action;
+        }
+    }
+
+    private static final class Progress {
+        private volatile String state;
+        private volatile int total;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final List<String> failures = new CopyOnWriteArrayList<>();
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+
+        static Progress idle() {
+            Progress progress = new Progress();
+            progress.state = "IDLE";
+            return progress;
+        }
+
+        Progress() {
+            this.state = "RUNNING";
+            this.startedAt = Instant.now();
+        }
+
+        boolean isRunning() {
+            return "RUNNING".equals(state);
+        }
+
+        void begin(int total) {
+            this.total = total;
+        }
+
+        void succeed() {
+            completed.incrementAndGet();
+        }
+
+        void fail(String task, RuntimeException e) {
+            completed.incrementAndGet();
+            failed.incrementAndGet();
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(task + ": " + e.getMessage());
+            }
+            logger.warn("缓存预热查询失败 {}: {}", task, e.getMessage());
+        }
+
+        void finish() {
+            finishedAt = Instant.now();
+            state = "COMPLETED";
+        }
+
+        long elapsedMillis() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            return startedAt != null ? end.toEpochMilli() - startedAt.toEpochMilli() : 0;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("state", state);
+            if (startedAt == null || "IDLE".equals(state)) {
+                return map;
+            }
+            map.put("total", total);
+            map.put("completed", completed.get());
+            map.put("failed", failed.get());
+            map.put("startedAt", startedAt.toString());
+            if (finishedAt != null) {
+                map.put("finishedAt", finishedAt.toString());
+            }
+            map.put("elapsedMs", elapsedMillis());
+            if (!failures.isEmpty()) {
+                map.put("failures", new ArrayList<>(failures));
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.phonebook.job;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 启动时把联系人ID号段表的 last_val 推到现有最大 ID，新号段从其后开始
+ *
+ * Hibernate 首次取号时如果 id_generators 中没有记录，会从 1 开始分配，与自增列时代的历史数据冲突。
+ * 在开始接收请求前补上或校正这一行；只会往前推，不会让其他实例已分配的号段重复。
+ */
+@Component
+public class ContactIdSeeder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactIdSeeder.class);
+
+    static final String SEGMENT = "contacts";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // 等 ddl-auto 建好 id_generators 表之后再执行
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void seed() {
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM contacts", Long.class);
+        if (raiseTo(maxId) == 0 && !exists()) {
+            try {
+                jdbcTemplate.update("INSERT INTO id_generators (name, last_val) VALUES (?, ?)", SEGMENT, maxId);
+            } catch (DuplicateKeyException e) {
+                // 其他实例同时插入了这一行，再校正一次
+                raiseTo(maxId);
+            }
+        }
+        logger.info("联系人ID从 {} 之后分配", maxId);
+    }
+
+    private int raiseTo(long maxId) {
+        return jdbcTemplate.update("UPDATE id_generators SET last_val = ? WHERE name = ? AND last_val < ?",
+                maxId, SEGMENT, maxId);
+    }
+
+    private boolean exists() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM id_generators WHERE name = ?",
+                Integer.class, SEGMENT) > 0;
+    }
+}
@@ -0,0 +1,482 @@
+package com.example.phonebook.job;
+
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.service.ContactService;
+import com.example.phonebook.util.CsvReader;
+import com.example.phonebook.util.VCardReader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 流式导入 CSV 或 vCard 联系人
+ *
+ * 请求线程边读边解析，逐行校验后按 chunk-size 分块放入有界队列；每个导入任务有一个写入线程按顺序取块，
+ * 交给 ContactService.importContacts 在独立事务中批量写入。写入跟不上时队列写满，解析线程阻塞、
+ * 不再读取请求流，上传随之减速，内存中最多只有 queue-capacity + 2 块数据，与文件大小无关。
+ * 块按顺序提交，后面的块查重时，文件中更早的行已在数据库里，跨块的重复号码无需在内存中记录。
+ * 每个任务的进度、计数和前 max-errors 条行级错误按任务ID保留，导入过程中和结束后都可以查询；
+ * 请求结束前拿不到响应，需要在上传过程中查询进度时由客户端指定任务ID；
+ * 错误中的 row 对 CSV 是文件行号（表头为第 1 行），对 vCard 是名片序号。
+ */
+@Component
+public class ContactImportJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactImportJob.class);
+
+    // 表头（不区分大小写）到 ContactDTO 字段的映射
+    private static final Map<String, String> COLUMNS = new HashMap<>();
+
+    static {
+        for (String header : new String[]{"name", "姓名"}) {
+            COLUMNS.put(header, "name");
+        }
+        for (String header : new String[]{"phonenumber", "phone_number", "phone", "电话", "电话号码", "手机"}) {
+            COLUMNS.put(header, "phoneNumber");
+        }
+        for (String header : new String[]{"email", "邮箱"}) {
+            COLUMNS.put(header, "email");
+        }
+        for (String header : new String[]{"address", "地址"}) {
+            COLUMNS.put(header, "address");
+        }
+        for (String header : new String[]{"category", "分类"}) {
+            COLUMNS.put(header, "category");
+        }
+        for (String header : new String[]{"notes", "备注"}) {
+            COLUMNS.put(header, "notes");
+        }
+    }
+
+    // 读取结束的标记
+    private static final List<Row> END = Collections.emptyList();
+
+    private static final Pattern JOB_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    @Autowired
+    private ContactService contactService;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${phonebook.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${phonebook.import.queue-capacity:2}")
+    private int queueCapacity;
+
+    @Value("${phonebook.import.max-concurrent:2}")
+    private int maxConcurrent;
+
+    @Value("${phonebook.import.max-errors:1000}")
+    private int maxErrors;
+
+    @Value("${phonebook.import.max-record-length:65536}")
+    private int maxRecordLength;
+
+    private final Cache<String, Progress> jobs = Caffeine.newBuilder().maximumSize(100).build();
+    private Semaphore permits;
+    private ExecutorService writers;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+        AtomicInteger threads = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(maxConcurrent, runnable -> {
+            Thread thread = new Thread(runnable, "ContactImport-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * 从输入流读取 CSV 并导入，读完并全部写入后返回任务结果；jobId 为空时生成任务ID
+     *
+     * @throws IllegalStateException    同时进行的导入任务已达上限
+     * @throws IllegalArgumentException 表头缺少姓名或电话列，或任务ID格式不对、已被使用
+     */
+    public Map<String, Object> importCsv(InputStream input, Charset charset, String jobId) throws IOException {
+        String id = jobIdOf(jobId);
+        acquire();
+        try {
+            CsvReader csv = new CsvReader(new InputStreamReader(input, charset), maxRecordLength);
+            String[] columns = columnsOf(csv.next());
+            return run(id, "csv", new Source() {
+                @Override
+                public ContactDTO next() throws IOException {
+                    List<String> record = csv.next();
+                    return record != null ? toContact(record, columns) : null;
+                }
+
+                @Override
+                public long position() {
+                    return csv.getRecordNumber();
+                }
+            });
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * 从输入流读取 vCard 名片并导入，读完并全部写入后返回任务结果；jobId 为空时生成任务ID
+     *
+     * @throws IllegalStateException    同时进行的导入任务已达上限
+     * @throws IllegalArgumentException 任务ID格式不对或已被使用
+     */
+    public Map<String, Object> importVCard(InputStream input, Charset charset, String jobId) {
+        String id = jobIdOf(jobId);
+        acquire();
+        try {
+            VCardReader vcf = new VCardReader(new InputStreamReader(input, charset), maxRecordLength);
+            return run(id, "vcard", new Source() {
+                @Override
+                public ContactDTO next() throws IOException {
+                    return vcf.next();
+                }
+
+                @Override
+                public long position() {
+                    return vcf.getCardNumber();
+                }
+            });
+        } finally {
+            permits.release();
+        }
+    }
+
+    public Optional<Map<String, Object>> status(String jobId) {
+        Progress progress = jobs.getIfPresent(jobId);
+        return progress != null ? Optional.of(progress.toMap(true)) : Optional.empty();
+    }
+
+    /**
+     * 最近的导入任务，不含行级错误明细
+     */
+    public List<Map<String, Object>> recent() {
+        List<Progress> all = new ArrayList<>(jobs.asMap().values());
+        all.sort((a, b) -> b.startedAt.compareTo(a.startedAt));
+        List<Map<String, Object>> result = new ArrayList<>(all.size());
+        for (Progress progress : all) {
+            result.add(progress.toMap(false));
+        }
+        return result;
+    }
+
+    private void acquire() {
+        if (!permits.tryAcquire()) {
+            throw new IllegalStateException("同时进行的导入任务过多，请稍后重试");
+        }
+    }
+
+    // 客户端指定的任务ID在读取请求体之前检查，避免上传完才发现冲突
+    private String jobIdOf(String requested) {
+        if (requested == null || requested.isEmpty()) {
+            return UUID.randomUUID().toString();
+        }
+        if (!JOB_ID.matcher(requested).matches()) {
+            throw new IllegalArgumentException("任务ID只能包含字母、数字、下划线和连字符，最长 64 个字符");
+        }
+        if (jobs.getIfPresent(requested) != null) {
+            throw new IllegalArgumentException("导入任务ID已被使用: " + requested);
+        }
+        return requested;
+    }
+
+    private Map<String, Object> run(String id, String format, Source source) {
+        Progress progress = new Progress(id, format);
+        if (jobs.asMap().putIfAbsent(id, progress) != null) {
+            throw new IllegalArgumentException("导入任务ID已被使用: " + id);
+        }
+        logger.info("开始导入联系人（{}），任务 {}", format, progress.id);
+        read(source, progress);
+        logger.info("联系人导入结束，任务 {}：读取 {} 条，创建 {} 个，跳过 {} 条",
+                progress.id, progress.rows.get(), progress.created.get(), progress.rejected.get());
+        return progress.toMap(true);
+    }
+
+    private void read(Source source, Progress progress) {
+        BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        Future<?> writer = writers.submit(() -> write(queue, progress));
+        try {
+            List<Row> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                ContactDTO contactDTO;
+                try {
+                    contactDTO = source.next();
+                } catch (VCardReader.CardException e) {
+                    // 读取器已跳过这张名片，记为该行错误后继续
+                    progress.rows.incrementAndGet();
+                    progress.reject(source.position(), e.getMessage());
+                    continue;
+                }
+                if (contactDTO == null) {
+                    break;
+                }
+                long rowNumber = source.position();
+                progress.rows.incrementAndGet();
+                String error = validate(contactDTO);
+                if (error != null) {
+                    progress.reject(rowNumber, error);
+                    continue;
+                }
+                chunk.add(new Row(rowNumber, contactDTO));
+                if (chunk.size() == chunkSize) {
+                    put(queue, chunk, writer);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                put(queue, chunk, writer);
+            }
+        } catch (IOException e) {
+            progress.fail("读取失败: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            progress.fail("导入被中断");
+        } catch (RuntimeException e) {
+            progress.fail(e.getMessage());
+        } finally {
+            finish(queue, writer, progress);
+        }
+    }
+
+    // 队列满时阻塞，写入线程意外退出时不再等待
+    private static void put(BlockingQueue<List<Row>> queue, List<Row> chunk, Future<?> writer) throws InterruptedException {
+        while (!queue.offer(chunk, 1, TimeUnit.SECONDS)) {
+            if (writer.isDone()) {
+                throw new IllegalStateException("写入线程已停止");
+            }
+        }
+    }
+
+    // 通知写入线程结束并等待已读取的块全部写完
+    private static void finish(BlockingQueue<List<Row>> queue, Future<?> writer, Progress progress) {
+        try {
+            put(queue, END, writer);
+            writer.get();
+        } catch (InterruptedException e) {
+            writer.cancel(true);
+            Thread.currentThread().interrupt();
+            progress.fail("导入被中断");
+        } catch (ExecutionException | RuntimeException e) {
+            progress.fail("写入失败: " + e.getMessage());
+        }
+        progress.finish();
+    }
+
+    private void write(BlockingQueue<List<Row>> queue, Progress progress) {
+        while (true) {
+            List<Row> chunk;
+            try {
+                chunk = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (chunk == END) {
+                return;
+            }
+            List<ContactDTO> contacts = new ArrayList<>(chunk.size());
+            for (Row row : chunk) {
+                contacts.add(row.contact);
+            }
+            try {
+                List<String> errors = contactService.importContacts(contacts);
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (errors.get(i) == null) {
+                        progress.created.incrementAndGet();
+                    } else {
+                        progress.reject(chunk.get(i).number, errors.get(i));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // 整块回滚，块内各行都记为失败，继续写后面的块
+                logger.warn("导入任务 {} 写入失败: {}", progress.id, e.getMessage());
+                for (Row row : chunk) {
+                    progress.reject(row.number, "写入失败: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // 按表头确定每一列对应的字段，不认识的列忽略
+    static String[] columnsOf(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("文件为空");
+        }
+        String[] columns = new String[header.size()];
+        for (int i = 0; i < header.size(); i++) {
+            columns[i] = COLUMNS.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+        }
+        List<String> present = Arrays.asList(columns);
+        if (!present.contains("name") || !present.contains("phoneNumber")) {
+            throw new IllegalArgumentException("表头必须包含姓名（name）和电话（phoneNumber）列");
+        }
+        return columns;
+    }
+
+    static ContactDTO toContact(List<String> record, String[] columns) {
+        ContactDTO contactDTO = new ContactDTO();
+        for (int i = 0; i < columns.length && i < record.size(); i++) {
+            if (columns[i] == null) {
+                continue;
+            }
+            String value = record.get(i).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns[i]) {
+                case "name":
+                    contactDTO.setName(value);
+                    break;
+                case "phoneNumber":
+                    contactDTO.setPhoneNumber(value);
+                    break;
+                case "email":
+                    contactDTO.setEmail(value);
+                    break;
+                case "address":
+                    contactDTO.setAddress(value);
+                    break;
+                case "category":
+                    contactDTO.setCategory(value);
+                    break;
+                default:
+                    contactDTO.setNotes(value);
+                    break;
+            }
+        }
+        return contactDTO;
+    }
+
+    private String validate(ContactDTO contactDTO) {
+        Set<ConstraintViolation<ContactDTO>> violations = validator.validate(contactDTO);
+        return violations.isEmpty() ? null : violations.iterator().next().getMessage();
+    }
+
+    // 逐条读取的导入来源，next 返回 null 表示结束
+    private interface Source {
+        ContactDTO next() throws IOException;
+
+        // 刚读取的一条在文件中的位置
+        long position();
+    }
+
+    private static final class Row {
+        final long number;
+        final ContactDTO contact;
+
+        Row(long number, ContactDTO contact) {
+            this.number = number;
+            this.contact = contact;
+        }
+    }
+
+    private final class Progress {
+        private final String id;
+        private final String format;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private volatile String state = "RUNNING";
+        private volatile String failure;
+        private volatile Instant finishedAt;
+
+        Progress(String id, String format) {
+            this.id = id;
+            this.format = format;
+        }
+
+        void reject(long row, String message) {
+            rejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    Map<String, Object> error = new LinkedHashMap<>();
+                    error.put("row", row);
+                    error.put("message", message);
+                    errors.add(error);
+                }
+            }
+        }
+
+        void fail(String message) {
+            if (failure == null) {
+                failure = message;
+            }
+        }
+
+        void finish() {
+            finishedAt = Instant.now();
+            state = failure == null ? "COMPLETED" : "FAILED";
+        }
+
+        Map<String, Object> toMap(boolean withErrors) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("jobId", id);
+            map.put("format", format);
+            map.put("state", state);
+            map.put("rows", rows.get());
+            map.put("created", created.get());
+            map.put("rejected", rejected.get());
+            map.put("startedAt", startedAt.toString());
+            if (finishedAt != null) {
+                map.put("finishedAt", finishedAt.toString());
+            }
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            map.put("elapsedMs", end.toEpochMilli() - startedAt.toEpochMilli());
+            if (failure != null) {
+                map.put("error", failure);
+            }
+            if (withErrors) {
+                synchronized (errors) {
+                    map.put("errors", new ArrayList<>(errors));
+                }
+            }
+            return map;
+        }
+    }
+}
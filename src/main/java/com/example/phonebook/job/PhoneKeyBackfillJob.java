@@ -0,0 +1,77 @@
+package com.example.phonebook.job;
+
+import com.example.phonebook.util.PhoneNumbers;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * 为历史数据回填 phone_key
+ *
+ * 按ID顺序分块，每块在独立事务中用 JDBC 批量更新，同样绕开 @UpdateTimestamp。
+ * 内存号码索引直接由 phone_number 计算键，不依赖回填结果；回填只服务于索引就绪前的数据库查询。
+ */
+@Component
+public class PhoneKeyBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhoneKeyBackfillJob.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${phonebook.phone-key.backfill-chunk-size:1000}")
+    private int chunkSize;
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        long start = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int updated = 0;
+        int batch;
+        do {
+            batch = transactionTemplate.execute(status -> backfillChunk());
+            updated += batch;
+        } while (batch == chunkSize);
+        if (updated > 0) {
+            evictSecondLevelCache();
+            logger.info("号码归一化键回填完成，更新 {} 行，耗时 {} ms", updated, System.currentTimeMillis() - start);
+        }
+    }
+
+    // 每块都会把 phone_key 写成非空值（无法识别的号码写 0），所以下一块自然从剩余的行开始
+    private int backfillChunk() {
+        List<Object[]> batchArgs = jdbcTemplate.query(
+                "SELECT id, phone_number FROM contacts WHERE phone_key IS NULL ORDER BY id LIMIT ?",
+                (rs, rowNum) -> new Object[]{PhoneNumbers.toKey(rs.getString("phone_number")), rs.getLong("id")},
+                chunkSize);
+        if (batchArgs.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE contacts SET phone_key = ? WHERE id = ?", batchArgs);
+        return batchArgs.size();
+    }
+
+    // JDBC 更新绕过了 Hibernate，清除二级缓存中的旧实体和查询结果
+    private void evictSecondLevelCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.phonebook.job;
+
+import com.example.phonebook.util.PinyinUtils;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 为历史数据回填 name_pinyin / name_initials
+ *
+ * 按ID区间切块，每块在独立事务中用 JDBC 批量更新。块在本次回填专用的线程上执行，
+ * 同时最多 backfill-parallelism 块，前面的块完成后才提交后面的块，不占用 taskExecutor 上的其他后台任务。
+ * 直接走 JDBC 是为了不触发 @UpdateTimestamp，回填不应改变联系人的更新时间。
+ */
+@Component
+public class PinyinBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinyinBackfillJob.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${phonebook.pinyin.backfill-chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${phonebook.pinyin.backfill-parallelism:2}")
+    private int parallelism;
+
+    @Async("taskExecutor")
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        Long missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM contacts WHERE name_pinyin IS NULL", Long.class);
+        if (missing != null && missing > 0) {
+            run(false);
+        }
+    }
+
+    /**
+     * 执行回填，force 为 true 时重算所有行，返回更新的行数
+     */
+    public int run(boolean force) {
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM contacts");
+        Number minId = (Number) range.get("min_id");
+        Number maxId = (Number) range.get("max_id");
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long start = System.currentTimeMillis();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int threads = Math.max(1, parallelism);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "PinyinBackfill-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<CompletableFuture<Integer>> inFlight = new ArrayDeque<>(threads);
+        int chunks = 0;
+        int updated = 0;
+        try {
+            for (long from = minId.longValue(); from <= maxId.longValue(); from += chunkSize) {
+                if (inFlight.size() == threads) {
+                    updated += inFlight.poll().join();
+                }
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + chunkSize - 1, maxId.longValue());
+                inFlight.add(CompletableFuture.supplyAsync(
+                        () -> transactionTemplate.execute(status -> backfillChunk(chunkFrom, chunkTo, force)), pool));
+                chunks++;
+            }
+            while (!inFlight.isEmpty()) {
+                updated += inFlight.poll().join();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (updated > 0) {
+            evictSecondLevelCache();
+        }
+        logger.info("拼音字段回填完成，共 {} 块，更新 {} 行，耗时 {} ms",
+                chunks, updated, System.currentTimeMillis() - start);
+        return updated;
+    }
+
+    private int backfillChunk(long from, long to, boolean force) {
+        String sql = "SELECT id, name FROM contacts WHERE id BETWEEN ? AND ?"
+                + (force ? "" : " AND name_pinyin IS NULL");
+        List<Object[]> batchArgs = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            String name = rs.getString("name");
+            return new Object[]{PinyinUtils.toPinyin(name), PinyinUtils.toInitials(name), rs.getLong("id")};
+        }, from, to);
+        if (batchArgs.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate("UPDATE contacts SET name_pinyin = ?, name_initials = ? WHERE id = ?", batchArgs);
+        return batchArgs.size();
+    }
+
+    // JDBC 更新绕过了 Hibernate，清除二级缓存中的旧实体和查询结果
+    private void evictSecondLevelCache() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
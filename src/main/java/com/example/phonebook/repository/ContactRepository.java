@@ -1,8 +1,10 @@
 package com.example.phonebook.repository;
 
+import com.example.phonebook.dto.ContactDTO;
 import com.example.phonebook.entity.Contact;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
@@ -10,6 +12,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +33,13 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
     })
     Optional<Contact> findByPhoneNumber(String phoneNumber);
     
+    // 按归一化号码键查找，兼容同一号码的不同写法，仅在号码索引未就绪时使用
+    Optional<Contact> findFirstByPhoneKey(Long phoneKey);
+    
+    // 检查归一化号码键是否已被其他联系人使用（排除指定ID）
+    @Query("SELECT COUNT(c) > 0 FROM Contact c WHERE c.phoneKey = :phoneKey AND (:id IS NULL OR c.id <> :id)")
+    boolean existsByPhoneKeyAndIdNot(@Param("phoneKey") Long phoneKey, @Param("id") Long id);
+    
     // 根据分类查找联系人 - 使用索引优化
     @QueryHints({
         @QueryHint(name = "org.hibernate.cacheable", value = "true")
@@ -113,6 +124,16 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
     })
     List<Object[]> countByCategory();
     
+    // 批量创建前一次查出号码、归一化号码或邮箱与本批冲突的已有联系人；
+    // 三个条件分别走各自的索引，写成 OR 会退化为全表扫描
+    @Query(value = "SELECT phone_number, phone_key, email FROM contacts WHERE phone_number IN (:phoneNumbers) " +
+                   "UNION ALL SELECT phone_number, phone_key, email FROM contacts WHERE phone_key IN (:phoneKeys) " +
+                   "UNION ALL SELECT phone_number, phone_key, email FROM contacts WHERE email IN (:emails)",
+           nativeQuery = true)
+    List<Object[]> findConflicts(@Param("phoneNumbers") Collection<String> phoneNumbers,
+                                 @Param("phoneKeys") Collection<Long> phoneKeys,
+                                 @Param("emails") Collection<String> emails);
+    
     // 检查电话号码是否已存在（排除指定ID）
     @Query("SELECT COUNT(c) > 0 FROM Contact c WHERE c.phoneNumber = :phoneNumber AND c.id <> :id")
     boolean existsByPhoneNumberAndIdNot(@Param("phoneNumber") String phoneNumber, @Param("id") Long id);
@@ -153,6 +174,24 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
            "     ELSE 3 END")
     Page<Contact> searchByKeyword(@Param("keyword") String keyword, Pageable pageable);
     
+    // 同 searchByKeyword，但只多取一行判断是否有下一页，不附带 COUNT 查询
+    @Query("SELECT c FROM Contact c WHERE " +
+           "LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "c.phoneNumber LIKE CONCAT('%', :keyword, '%') OR " +
+           "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "ORDER BY " +
+           "CASE WHEN c.phoneNumber = :keyword THEN 1 " +
+           "     WHEN LOWER(c.name) = LOWER(:keyword) THEN 2 " +
+           "     ELSE 3 END")
+    Slice<Contact> searchSliceByKeyword(@Param("keyword") String keyword, Pageable pageable);
+    
+    // 关键字搜索的命中数，结果由 ContactCounters 缓存
+    @Query("SELECT COUNT(c) FROM Contact c WHERE " +
+           "LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "c.phoneNumber LIKE CONCAT('%', :keyword, '%') OR " +
+           "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%'))")
+    long countByKeyword(@Param("keyword") String keyword);
+    
     // 检查电话号码是否存在
     boolean existsByPhoneNumber(String phoneNumber);
     
@@ -173,6 +212,9 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
     
     List<Contact> findByPhoneNumberContaining(String phoneNumber);
     
+    // 按号码尾号查找，仅在内存后缀索引未就绪时使用
+    List<Contact> findByPhoneNumberEndingWith(String suffix, Pageable pageable);
+    
     List<Contact> findByEmailContainingIgnoreCase(String email);
     
     @Query("SELECT c FROM Contact c WHERE " +
@@ -183,4 +225,69 @@ public interface ContactRepository extends JpaRepository<Contact, Long> {
     List<Contact> findByKeyword(@Param("keyword") String keyword);
     
     long countByCategory(String category);
-}
\ No newline at end of file
+    
+    // 姓名前缀查询，可以使用 idx_name 索引，仅在内存前缀索引未就绪时使用
+    List<Contact> findByNameStartingWithOrderByNameAsc(String prefix, Pageable pageable);
+    
+    // 按ID顺序分块读取，用于重建内存索引；全表扫描不读写二级缓存，避免冲掉热点实体
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheMode", value = "IGNORE")
+    })
+    List<Contact> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    // 按ID顺序分块导出：直接构造 DTO，结果不进入持久化上下文，也不读写二级缓存
+    @Query("SELECT new com.example.phonebook.dto.ContactDTO(c.id, c.name, c.phoneNumber, c.email, c.address, " +
+           "c.category, c.notes, c.createdAt, c.updatedAt) FROM Contact c WHERE c.id > :id ORDER BY c.id ASC")
+    List<ContactDTO> findExportChunk(@Param("id") Long id, Pageable pageable);
+    
+    // 按ID顺序分块读取某分类的联系人，批量修改时逐块加载后修改
+    @Query("SELECT c FROM Contact c WHERE c.category = :category AND c.id > :id ORDER BY c.id ASC")
+    List<Contact> findCategoryChunk(@Param("category") String category, @Param("id") Long id, Pageable pageable);
+    
+    // 键集分页第一页：排序由 pageable 决定，不做 COUNT 查询
+    List<Contact> findAllBy(Pageable pageable);
+    
+    // 不带 COUNT 的分页查询，总数由 ContactCounters 提供
+    Slice<Contact> findSliceBy(Pageable pageable);
+    
+    Slice<Contact> findSliceByCategory(String category, Pageable pageable);
+    
+    // 键集分页：按姓名升序，从上一页最后一行之后继续，使用 idx_name 索引
+    @Query("SELECT c FROM Contact c WHERE c.name > :name OR (c.name = :name AND c.id > :id) " +
+           "ORDER BY c.name ASC, c.id ASC")
+    List<Contact> findByNameAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+    
+    // 键集分页：按姓名降序
+    @Query("SELECT c FROM Contact c WHERE c.name < :name OR (c.name = :name AND c.id < :id) " +
+           "ORDER BY c.name DESC, c.id DESC")
+    List<Contact> findByNameBefore(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+    
+    // 键集分页：按创建时间升序，使用 idx_created_at 索引
+    @Query("SELECT c FROM Contact c WHERE c.createdAt > :createdAt OR (c.createdAt = :createdAt AND c.id > :id) " +
+           "ORDER BY c.createdAt ASC, c.id ASC")
+    List<Contact> findByCreatedAtAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    // 键集分页：按创建时间降序
+    @Query("SELECT c FROM Contact c WHERE c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Contact> findByCreatedAtBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    // 键集分页：分类内按姓名升序，使用 idx_category_name 索引
+    List<Contact> findByCategoryOrderByNameAscIdAsc(String category, Pageable pageable);
+    
+    @Query("SELECT c FROM Contact c WHERE c.category = :category " +
+           "AND (c.name > :name OR (c.name = :name AND c.id > :id)) " +
+           "ORDER BY c.name ASC, c.id ASC")
+    List<Contact> findByCategoryAndNameAfter(@Param("category") String category, @Param("name") String name,
+                                             @Param("id") Long id, Pageable pageable);
+    
+    // 键集分页搜索，仅在内存索引未就绪时使用；第一页传空姓名和ID 0
+    @Query("SELECT c FROM Contact c WHERE " +
+           "(LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "c.phoneNumber LIKE CONCAT('%', :keyword, '%') OR " +
+           "LOWER(c.email) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+           "AND (c.name > :name OR (c.name = :name AND c.id > :id)) " +
+           "ORDER BY c.name ASC, c.id ASC")
+    List<Contact> searchByKeywordAndNameAfter(@Param("keyword") String keyword, @Param("name") String name,
+                                              @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.example.phonebook.repository;
+
+import com.example.phonebook.entity.ContactStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ContactStatRepository extends JpaRepository<ContactStat, String> {
+}
@@ -0,0 +1,9 @@
+package com.example.phonebook.repository;
+
+import com.example.phonebook.entity.HotKeyword;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HotKeywordRepository extends JpaRepository<HotKeyword, String> {
+}
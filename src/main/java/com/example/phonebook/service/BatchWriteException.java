@@ -0,0 +1,27 @@
+package com.example.phonebook.service;
+
+/**
+ * 分块批量写入中途失败：失败之前的块已提交，不会回滚
+ *
+ * completed 是已提交的条数；failedIndex 是失败块第一项在请求中的下标（从 0 开始），
+ * 这一项及之后的项都没有写入，调用方可以从这里重试。按条件修改没有请求下标，failedIndex 为 null。
+ */
+public class BatchWriteException extends RuntimeException {
+
+    private final int completed;
+    private final Integer failedIndex;
+
+    public BatchWriteException(int completed, Integer failedIndex, RuntimeException cause) {
+        super(cause.getMessage(), cause);
+        this.completed = completed;
+        this.failedIndex = failedIndex;
+    }
+
+    public int getCompleted() {
+        return completed;
+    }
+
+    public Integer getFailedIndex() {
+        return failedIndex;
+    }
+}
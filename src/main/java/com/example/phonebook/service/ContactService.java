@@ -1,13 +1,17 @@
 package com.example.phonebook.service;
 
 import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.dto.ContactSuggestionDTO;
+import com.example.phonebook.dto.CursorPage;
 import com.example.phonebook.entity.Contact;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface ContactService {
     
@@ -16,6 +20,23 @@ public interface ContactService {
      */
     ContactDTO createContact(ContactDTO contactDTO);
     
+    /**
+     * 批量创建联系人：整批校验唯一性后分块提交，每块内批量 INSERT。
+     * 某块失败时抛出 BatchWriteException，带已创建条数和失败块的起始下标
+     */
+    List<ContactDTO> createContacts(List<ContactDTO> contactDTOs);
+    
+    /**
+     * 导入一块联系人：号码或邮箱与已有联系人、与块内前面的行重复的跳过，其余在一个事务内写入；
+     * 返回与输入一一对应的错误信息，写入成功的行为 null
+     */
+    List<String> importContacts(List<ContactDTO> contactDTOs);
+    
+    /**
+     * 按ID顺序分块读取全部联系人，依次交给 consumer；每块一次查询，不在内存中保留整表
+     */
+    void exportContacts(Consumer<List<ContactDTO>> consumer);
+    
     /**
      * 根据ID获取联系人
      */
@@ -27,10 +48,20 @@ public interface ContactService {
     List<ContactDTO> getAllContacts();
     
     /**
-     * 分页获取所有联系人
+     * 分页获取所有联系人，总数取自计数缓存
      */
     Page<ContactDTO> getAllContacts(Pageable pageable);
     
+    /**
+     * 分页获取所有联系人，只返回是否有下一页，不计算总数
+     */
+    Slice<ContactDTO> getAllContactsSlice(Pageable pageable);
+    
+    /**
+     * 键集分页获取联系人，sortBy 支持 name / createdAt；after 为上一页返回的游标，为空时取第一页
+     */
+    CursorPage<ContactDTO> getContactsAfter(String sortBy, String sortDir, String after, int size);
+    
     /**
      * 更新联系人信息
      */
@@ -57,20 +88,55 @@ public interface ContactService {
     List<ContactDTO> getContactsByCategory(String category);
     
     /**
-     * 分页根据分类获取联系人
+     * 分页根据分类获取联系人，总数取自计数缓存
      */
     Page<ContactDTO> getContactsByCategory(String category, Pageable pageable);
     
+    /**
+     * 分页根据分类获取联系人，不计算总数
+     */
+    Slice<ContactDTO> getContactsByCategorySlice(String category, Pageable pageable);
+    
+    /**
+     * 键集分页根据分类获取联系人，按姓名排序
+     */
+    CursorPage<ContactDTO> getContactsByCategoryAfter(String category, String after, int size);
+    
     /**
      * 模糊搜索联系人
      */
     List<ContactDTO> searchContacts(String keyword);
     
     /**
-     * 分页模糊搜索联系人
+     * 根据电话号码尾号查找联系人（来电显示）
+     */
+    List<ContactDTO> findByPhoneSuffix(String digits, int limit);
+    
+    /**
+     * 分页模糊搜索联系人，纯数字关键字优先按号码尾号匹配；结果按相关度分数降序
      */
     Page<ContactDTO> searchContacts(String keyword, Pageable pageable);
     
+    /**
+     * 分页搜索联系人，不计算总数
+     */
+    Slice<ContactDTO> searchContactsSlice(String keyword, Pageable pageable);
+    
+    /**
+     * 键集分页搜索联系人，排序与 searchContacts 一致，每页开销与页码无关
+     */
+    CursorPage<ContactDTO> searchContactsAfter(String keyword, String after, int size);
+    
+    /**
+     * 容错分页搜索：在子串匹配之外，再返回姓名或邮箱与关键字编辑距离在 1~2 以内的联系人
+     */
+    Page<ContactDTO> fuzzySearchContacts(String keyword, Pageable pageable);
+    
+    /**
+     * 输入联想：返回姓名、号码或邮箱以 prefix 开头的前 limit 个联系人
+     */
+    List<ContactSuggestionDTO> suggest(String prefix, int limit);
+    
     /**
      * 获取联系人统计信息
      */
@@ -90,4 +156,16 @@ public interface ContactService {
      * 批量删除联系人
      */
     void deleteContacts(List<Long> ids);
+    
+    /**
+     * 按ID批量修改联系人，每项只修改非空字段；分块提交，每块一次查询加批量 UPDATE，返回实际修改的条数。
+     * 某块失败时抛出 BatchWriteException，带已修改条数和失败块的起始下标
+     */
+    int updateContacts(List<ContactDTO> updates);
+    
+    /**
+     * 把某个分类下的联系人改成同样的字段值（不能改号码和邮箱）；按ID顺序分块提交，返回实际修改的条数。
+     * 某块失败时抛出 BatchWriteException，带已修改条数
+     */
+    int updateContactsByCategory(String category, ContactDTO changes);
 }
\ No newline at end of file
@@ -1,60 +1,243 @@
 package com.example.phonebook.service.impl;
 
+import com.example.phonebook.cache.NegativeLookupCache;
 import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.dto.ContactSuggestionDTO;
+import com.example.phonebook.dto.CursorPage;
 import com.example.phonebook.entity.Contact;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.index.ContactIndexManager;
+import com.example.phonebook.index.ContactRanker;
+import com.example.phonebook.index.ContactSearchIndex;
+import com.example.phonebook.index.ContactUniquenessFilter;
+import com.example.phonebook.index.FullTextSearcher;
+import com.example.phonebook.index.FuzzyNameIndex;
+import com.example.phonebook.index.PhoneKeyIndex;
+import com.example.phonebook.index.PhoneSuffixIndex;
+import com.example.phonebook.index.PinyinIndex;
+import com.example.phonebook.index.PrefixSuggestIndex;
 import com.example.phonebook.repository.ContactRepository;
+import com.example.phonebook.service.BatchWriteException;
 import com.example.phonebook.service.ContactService;
+import com.example.phonebook.stats.ContactCounters;
+import com.example.phonebook.util.PageCursor;
+import com.example.phonebook.util.PhoneNumbers;
+import com.example.phonebook.util.PinyinUtils;
+import com.example.phonebook.util.TopK;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class ContactServiceImpl implements ContactService {
     
+    // 游标中记录的排序方式
+    private static final String CATEGORY_BY_NAME = "category_name";
+    private static final String SEARCH_BY_SCORE = "search_score";
+    private static final String SEARCH_BY_NAME = "search_name";
+    
     @Autowired
     private ContactRepository contactRepository;
     
+    @Autowired
+    private ContactIndexManager contactIndexManager;
+    
+    @Autowired
+    private ContactSearchIndex contactSearchIndex;
+    
+    @Autowired
+    private PhoneSuffixIndex phoneSuffixIndex;
+    
+    @Autowired
+    private PrefixSuggestIndex prefixSuggestIndex;
+    
+    @Autowired
+    private PinyinIndex pinyinIndex;
+    
+    @Autowired
+    private FuzzyNameIndex fuzzyNameIndex;
+    
+    @Autowired
+    private ContactCounters contactCounters;
+    
+    @Autowired
+    private ContactUniquenessFilter uniquenessFilter;
+    
+    @Autowired
+    private PhoneKeyIndex phoneKeyIndex;
+    
+    @Autowired
+    private NegativeLookupCache negativeLookupCache;
+    
+    // phonebook.search.backend=lucene 时存在，代替N-gram索引提供候选集
+    @Autowired(required = false)
+    private FullTextSearcher fullTextSearcher;
+    
+    // memory | lucene | like，like 表示关键字搜索始终走数据库 LIKE 查询
+    @Value("${phonebook.search.backend:memory}")
+    private String searchBackend;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // 批量创建时每个事务写入的条数，以及单次请求的上限
+    @Value("${phonebook.batch.chunk-size:1000}")
+    private int batchChunkSize;
+    
+    @Value("${phonebook.batch.max-contacts:10000}")
+    private int batchMaxContacts;
+    
+    // 导出时每次查询读取的条数
+    @Value("${phonebook.export.chunk-size:1000}")
+    private int exportChunkSize;
+    
     @Override
-    @CacheEvict(value = {"contacts", "searchResults", "categoryStats"}, allEntries = true)
     public ContactDTO createContact(ContactDTO contactDTO) {
-        // 检查电话号码是否已存在
-        if (contactRepository.findByPhoneNumber(contactDTO.getPhoneNumber()).isPresent()) {
-            throw new RuntimeException("电话号码已存在: " + contactDTO.getPhoneNumber());
-        }
-        
-        // 检查邮箱是否已存在（如果提供了邮箱）
-        if (contactDTO.getEmail() != null && !contactDTO.getEmail().trim().isEmpty()) {
-            if (contactRepository.findByEmail(contactDTO.getEmail()).isPresent()) {
-                throw new RuntimeException("邮箱已存在: " + contactDTO.getEmail());
-            }
+        // 号码和邮箱原样重复由唯一索引拒绝，只有同一号码的其他写法需要先查
+        if (isPhoneKeyTaken(contactDTO.getPhoneNumber(), null)) {
+            throw new DuplicateKeyException("电话号码已存在");
         }
         
-        Contact contact = convertToEntity(contactDTO);
+        Contact contact = new Contact();
+        updateContactFields(contact, contactDTO);
+        uniquenessFilter.record(contact.getPhoneNumber(), contact.getEmail());
         Contact savedContact = contactRepository.save(contact);
+        // 号段主键不会在 save 时立即 INSERT，刷新后才有创建时间，唯一索引冲突也在这里抛出
+        flushUnique("电话号码已存在", "邮箱已存在");
+        eventPublisher.publishEvent(ContactChangedEvent.created(ContactSnapshot.of(savedContact)));
         return convertToDTO(savedContact);
     }
     
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<ContactDTO> createContacts(List<ContactDTO> contactDTOs) {
+        if (contactDTOs == null || contactDTOs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (contactDTOs.size() > batchMaxContacts) {
+            throw new IllegalArgumentException("单次最多创建 " + batchMaxContacts + " 个联系人");
+        }
+        checkBatchUniqueness(contactDTOs);
+        
+        // 每块一个事务，某块失败时之前的块已提交，异常带上已创建条数和失败块的起始下标
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<ContactDTO> created = new ArrayList<>(contactDTOs.size());
+        for (int from = 0; from < contactDTOs.size(); from += batchChunkSize) {
+            List<ContactDTO> chunk = contactDTOs.subList(from, Math.min(from + batchChunkSize, contactDTOs.size()));
+            try {
+                created.addAll(transaction.execute(status -> insertChunk(chunk)));
+            } catch (RuntimeException e) {
+                throw new BatchWriteException(created.size(), from, e);
+            }
+        }
+        return created;
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<String> importContacts(List<ContactDTO> contactDTOs) {
+        List<String> errors = new ArrayList<>(Collections.nCopies(contactDTOs.size(), (String) null));
+        Conflicts conflicts = findConflicts(contactDTOs);
+        Set<Object> phones = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<ContactDTO> accepted = new ArrayList<>(contactDTOs.size());
+        for (int i = 0; i < contactDTOs.size(); i++) {
+            ContactDTO contactDTO = contactDTOs.get(i);
+            String error = conflicts.of(contactDTO);
+            Object phone = phoneIdentity(contactDTO);
+            if (error == null && phones.contains(phone)) {
+                error = "电话号码重复: " + contactDTO.getPhoneNumber();
+            }
+            if (error == null && hasEmail(contactDTO) && emails.contains(contactDTO.getEmail())) {
+                error = "邮箱重复: " + contactDTO.getEmail();
+            }
+            if (error != null) {
+                errors.set(i, error);
+                continue;
+            }
+            phones.add(phone);
+            if (hasEmail(contactDTO)) {
+                emails.add(contactDTO.getEmail());
+            }
+            accepted.add(contactDTO);
+        }
+        if (!accepted.isEmpty()) {
+            new TransactionTemplate(transactionManager).execute(status -> insertChunk(accepted));
+        }
+        return errors;
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void exportContacts(Consumer<List<ContactDTO>> consumer) {
+        long lastId = 0L;
+        List<ContactDTO> chunk;
+        do {
+            chunk = contactRepository.findExportChunk(lastId, PageRequest.of(0, exportChunkSize));
+            if (!chunk.isEmpty()) {
+                consumer.accept(chunk);
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == exportChunkSize);
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public Optional<ContactDTO> getContactById(Long id) {
-        return contactRepository.findById(id)
-                .map(this::convertToDTO);
+        if (negativeLookupCache.isMissingId(id)) {
+            return Optional.empty();
+        }
+        long token = negativeLookupCache.begin();
+        Optional<ContactDTO> contact = contactRepository.findById(id).map(this::convertToDTO);
+        if (!contact.isPresent()) {
+            negativeLookupCache.recordMissingId(id, token);
+        }
+        return contact;
     }
     
     @Override
@@ -68,60 +251,179 @@ public class ContactServiceImpl implements ContactService {
     
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "contacts", key = "#pageable.pageNumber + '_' + #pageable.pageSize + '_' + #pageable.sort.toString()")
+    @Cacheable(value = "contacts", key = "T(com.example.phonebook.cache.ContactCacheKey).list('page', #pageable)", sync = true)
     public Page<ContactDTO> getAllContacts(Pageable pageable) {
-        Page<Contact> contacts = contactRepository.findAll(pageable);
+        // 总数取自写入时维护的计数器，不再附带 COUNT(*) 查询
+        Slice<Contact> contacts = contactRepository.findSliceBy(pageable);
         List<ContactDTO> contactDTOs = contacts.getContent().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
-        return new PageImpl<>(contactDTOs, pageable, contacts.getTotalElements());
+        return new PageImpl<>(contactDTOs, pageable, contactCounters.total());
     }
     
     @Override
-    @CacheEvict(value = {"contacts", "searchResults", "categoryStats"}, allEntries = true)
-    @CachePut(value = "contact", key = "#id")
-    public ContactDTO updateContact(Long id, ContactDTO contactDTO) {
-        Contact existingContact = contactRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("联系人不存在，ID: " + id));
+    @Transactional(readOnly = true)
+    @Cacheable(value = "contacts", key = "T(com.example.phonebook.cache.ContactCacheKey).list('slice', #pageable)", sync = true)
+    public Slice<ContactDTO> getAllContactsSlice(Pageable pageable) {
+        return contactRepository.findSliceBy(pageable).map(this::convertToDTO);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ContactDTO> getContactsAfter(String sortBy, String sortDir, String after, int size) {
+        requirePageSize(size);
+        boolean byCreatedAt = "createdAt".equals(sortBy);
+        if (!byCreatedAt && !"name".equals(sortBy)) {
+            throw new IllegalArgumentException("游标分页只支持按 name 或 createdAt 排序");
+        }
+        boolean desc = "desc".equalsIgnoreCase(sortDir);
+        String sort = sortBy + (desc ? "_desc" : "_asc");
+        Pageable limit = PageRequest.of(0, size + 1);
         
-        // 检查电话号码是否被其他联系人使用
-        if (!existingContact.getPhoneNumber().equals(contactDTO.getPhoneNumber())) {
-            if (isPhoneNumberExists(contactDTO.getPhoneNumber(), id)) {
-                throw new RuntimeException("电话号码已被其他联系人使用: " + contactDTO.getPhoneNumber());
+        List<Contact> rows;
+        if (after == null || after.isEmpty()) {
+            Sort.Direction direction = desc ? Sort.Direction.DESC : Sort.Direction.ASC;
+            rows = contactRepository.findAllBy(PageRequest.of(0, size + 1, Sort.by(direction, sortBy, "id")));
+        } else {
+            PageCursor cursor = PageCursor.decode(after).require(sort, 1);
+            if (byCreatedAt) {
+                LocalDateTime createdAt = parseDateTime(cursor.getKey(0));
+                rows = desc
+                        ? contactRepository.findByCreatedAtBefore(createdAt, cursor.getId(), limit)
+                        : contactRepository.findByCreatedAtAfter(createdAt, cursor.getId(), limit);
+            } else {
+                rows = desc
+                        ? contactRepository.findByNameBefore(cursor.getKey(0), cursor.getId(), limit)
+                        : contactRepository.findByNameAfter(cursor.getKey(0), cursor.getId(), limit);
             }
         }
+        return toCursorPage(rows, size, contact -> new PageCursor(sort, contact.getId(),
+                byCreatedAt ? String.valueOf(contact.getCreatedAt()) : contact.getName()));
+    }
+    
+    @Override
+    @CachePut(value = "contact", key = "#id")
+    public ContactDTO updateContact(Long id, ContactDTO contactDTO) {
+        Contact existingContact = contactRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("联系人不存在，ID: " + id));
         
-        // 检查邮箱是否被其他联系人使用
-        if (contactDTO.getEmail() != null && !contactDTO.getEmail().trim().isEmpty()) {
-            if (!contactDTO.getEmail().equals(existingContact.getEmail())) {
-                if (isEmailExists(contactDTO.getEmail(), id)) {
-                    throw new RuntimeException("邮箱已被其他联系人使用: " + contactDTO.getEmail());
-                }
-            }
+        // 号码改成另一种写法时才需要按归一化键查重，其余冲突由唯一索引拒绝
+        if (!existingContact.getPhoneNumber().equals(contactDTO.getPhoneNumber())
+                && isPhoneKeyTaken(contactDTO.getPhoneNumber(), id)) {
+            throw new DuplicateKeyException("电话号码已被其他联系人使用");
         }
         
         // 更新联系人信息
+        ContactSnapshot before = ContactSnapshot.of(existingContact);
         updateContactFields(existingContact, contactDTO);
+        uniquenessFilter.record(existingContact.getPhoneNumber(), existingContact.getEmail());
         Contact updatedContact = contactRepository.save(existingContact);
+        flushUnique("电话号码已被其他联系人使用", "邮箱已被其他联系人使用");
+        eventPublisher.publishEvent(ContactChangedEvent.updated(before, ContactSnapshot.of(updatedContact)));
         return convertToDTO(updatedContact);
     }
     
     @Override
-    @CacheEvict(value = {"contacts", "searchResults", "categoryStats", "contact"}, allEntries = true)
     public void deleteContact(Long id) {
-        if (!contactRepository.existsById(id)) {
-            throw new RuntimeException("联系人不存在，ID: " + id);
-        }
-        contactRepository.deleteById(id);
+        // 按实体删除，二级缓存只失效这一条；缓存命中时只发一条 DELETE
+        Contact contact = contactRepository.findById(id)
+                .orElseThrow(() -> new NoSuchElementException("联系人不存在，ID: " + id));
+        contactRepository.delete(contact);
+        eventPublisher.publishEvent(ContactChangedEvent.deleted(ContactSnapshot.of(contact)));
     }
     
     @Override
-    @CacheEvict(value = {"contacts", "searchResults", "categoryStats", "contact"}, allEntries = true)
     public void deleteContacts(List<Long> ids) {
         if (ids == null || ids.isEmpty()) {
             return;
         }
         contactRepository.deleteAllById(ids);
+        for (Long id : ids) {
+            eventPublisher.publishEvent(ContactChangedEvent.deleted(snapshotOf(id)));
+        }
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int updateContacts(List<ContactDTO> updates) {
+        if (updates == null || updates.isEmpty()) {
+            return 0;
+        }
+        if (updates.size() > batchMaxContacts) {
+            throw new IllegalArgumentException("单次最多修改 " + batchMaxContacts + " 个联系人");
+        }
+        // 批内ID、号码（按归一化键）或邮箱重复时直接拒绝
+        Map<Long, ContactDTO> changesById = new LinkedHashMap<>();
+        Set<Object> phones = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            ContactDTO changes = updates.get(i);
+            if (changes == null || changes.getId() == null) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 项缺少联系人ID");
+            }
+            if (changesById.put(changes.getId(), changes) != null) {
+                throw new IllegalArgumentException("联系人ID重复: " + changes.getId());
+            }
+            if (changes.getPhoneNumber() != null && !phones.add(phoneIdentity(changes))) {
+                throw new RuntimeException("电话号码重复: " + changes.getPhoneNumber());
+            }
+            if (hasEmail(changes) && !emails.add(changes.getEmail())) {
+                throw new RuntimeException("邮箱重复: " + changes.getEmail());
+            }
+        }
+        
+        // 每块一个事务，某块失败时之前的块已提交，异常带上已修改条数和失败块的起始下标；不存在的ID跳过
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Long> ids = new ArrayList<>(changesById.keySet());
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += batchChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchChunkSize, ids.size()));
+            try {
+                updated += transaction.execute(status -> applyChanges(
+                        contactRepository.findAllById(chunk), contact -> changesById.get(contact.getId())));
+            } catch (RuntimeException e) {
+                throw new BatchWriteException(updated, from, e);
+            }
+        }
+        return updated;
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int updateContactsByCategory(String category, ContactDTO changes) {
+        if (category == null || changes == null) {
+            throw new IllegalArgumentException("筛选条件和修改内容不能为空");
+        }
+        // 同一个号码或邮箱不能写给多个联系人
+        if (changes.getPhoneNumber() != null || changes.getEmail() != null) {
+            throw new IllegalArgumentException("按条件批量修改不能修改电话号码和邮箱");
+        }
+        
+        // 按ID键集分块：改了分类的行离开筛选范围也不影响后续分块；某块失败时之前的块已提交，异常带上已修改条数
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Pageable limit = PageRequest.of(0, batchChunkSize);
+        AtomicInteger chunkUpdated = new AtomicInteger();
+        int updated = 0;
+        long lastId = 0;
+        List<Contact> chunk;
+        do {
+            long after = lastId;
+            try {
+                chunk = transaction.execute(status -> {
+                    List<Contact> contacts = contactRepository.findCategoryChunk(category, after, limit);
+                    chunkUpdated.set(applyChanges(contacts, contact -> changes));
+                    return contacts;
+                });
+            } catch (RuntimeException e) {
+                throw new BatchWriteException(updated, null, e);
+            }
+            // 提交成功后才计入
+            updated += chunkUpdated.get();
+            if (!chunk.isEmpty()) {
+                lastId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == batchChunkSize);
+        return updated;
     }
     
     @Override
@@ -136,8 +438,26 @@ public class ContactServiceImpl implements ContactService {
     @Override
     @Transactional(readOnly = true)
     public Optional<ContactDTO> findByPhoneNumber(String phoneNumber) {
-        return contactRepository.findByPhoneNumber(phoneNumber)
-                .map(this::convertToDTO);
+        long phoneKey = PhoneNumbers.toKey(phoneNumber);
+        if (phoneKey != PhoneNumbers.INVALID && contactIndexManager.isReady()) {
+            // 号码索引未命中时不访问数据库，命中后按主键加载
+            long id = phoneKeyIndex.find(phoneKey);
+            return id == PhoneKeyIndex.NOT_FOUND
+                    ? Optional.empty()
+                    : contactRepository.findById(id).map(this::convertToDTO);
+        }
+        if (negativeLookupCache.isMissingPhone(phoneNumber)) {
+            return Optional.empty();
+        }
+        long token = negativeLookupCache.begin();
+        Optional<Contact> contact = contactRepository.findByPhoneNumber(phoneNumber);
+        if (!contact.isPresent() && phoneKey != PhoneNumbers.INVALID) {
+            contact = contactRepository.findFirstByPhoneKey(phoneKey);
+        }
+        if (!contact.isPresent()) {
+            negativeLookupCache.recordMissingPhone(phoneNumber, token);
+        }
+        return contact.map(this::convertToDTO);
     }
     
     @Override
@@ -151,13 +471,36 @@ public class ContactServiceImpl implements ContactService {
     
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "contacts", key = "'category_' + #category + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(value = "contacts", key = "T(com.example.phonebook.cache.ContactCacheKey).category('page', #category, #pageable)", sync = true)
     public Page<ContactDTO> getContactsByCategory(String category, Pageable pageable) {
-        Page<Contact> contacts = contactRepository.findByCategory(category, pageable);
+        Slice<Contact> contacts = contactRepository.findSliceByCategory(category, pageable);
         List<ContactDTO> contactDTOs = contacts.getContent().stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
-        return new PageImpl<>(contactDTOs, pageable, contacts.getTotalElements());
+        return new PageImpl<>(contactDTOs, pageable, contactCounters.category(category));
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "contacts", key = "T(com.example.phonebook.cache.ContactCacheKey).category('slice', #category, #pageable)", sync = true)
+    public Slice<ContactDTO> getContactsByCategorySlice(String category, Pageable pageable) {
+        return contactRepository.findSliceByCategory(category, pageable).map(this::convertToDTO);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ContactDTO> getContactsByCategoryAfter(String category, String after, int size) {
+        requirePageSize(size);
+        List<Contact> rows;
+        if (after == null || after.isEmpty()) {
+            rows = contactRepository.findByCategoryOrderByNameAscIdAsc(category, PageRequest.of(0, size + 1));
+        } else {
+            PageCursor cursor = PageCursor.decode(after).require(CATEGORY_BY_NAME, 2);
+            requireSameKey(cursor.getKey(0), category);
+            rows = contactRepository.findByCategoryAndNameAfter(category, cursor.getKey(1), cursor.getId(),
+                    PageRequest.of(0, size + 1));
+        }
+        return toCursorPage(rows, size, contact -> new PageCursor(CATEGORY_BY_NAME, contact.getId(), category, contact.getName()));
     }
     
     @Override
@@ -171,42 +514,220 @@ public class ContactServiceImpl implements ContactService {
     
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "searchResults", key = "'search_' + #keyword + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Cacheable(value = "searchResults", key = "T(com.example.phonebook.cache.ContactCacheKey).keyword('page', #keyword, #pageable)", sync = true)
     public Page<ContactDTO> searchContacts(String keyword, Pageable pageable) {
-        Page<Contact> contacts = contactRepository.findByNameContainingIgnoreCaseOrPhoneNumberContaining(keyword, keyword, pageable);
-        List<ContactDTO> contactDTOs = contacts.getContent().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
-        return new PageImpl<>(contactDTOs, pageable, contacts.getTotalElements());
+        if (!searchFromIndex()) {
+            // 索引重建完成前（或配置为 like 后端时）回退到数据库查询，总数使用按关键字缓存的估算值
+            Slice<Contact> contacts = contactRepository.searchSliceByKeyword(keyword, pageable);
+            List<ContactDTO> contactDTOs = contacts.getContent().stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+            long total = contactCounters.estimateKeyword(keyword, () -> contactRepository.countByKeyword(keyword));
+            return new PageImpl<>(contactDTOs, pageable, total);
+        }
+        
+        // 打分后用有界堆取前 (page + 1) * size 个，不对全部命中排序
+        ContactRanker ranker = new ContactRanker(keyword);
+        TopK<ContactRanker.Scored> top = new TopK<>(topLimit(pageable), ContactRanker.BEST_FIRST);
+        int total = 0;
+        for (long id : searchCandidates(keyword)) {
+            ContactSnapshot snapshot = contactIndexManager.getSnapshot(id);
+            if (snapshot != null) {
+                top.offer(ranker.rank(snapshot));
+                total++;
+            }
+        }
+        return pageOf(top.toSortedList(), pageable, total);
     }
     
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "categoryStats", key = "'stats'")
-    public Map<String, Long> getContactStatistics() {
-        Map<String, Long> statistics = new HashMap<>();
-        statistics.put("total", contactRepository.count());
+    @Cacheable(value = "searchResults", key = "T(com.example.phonebook.cache.ContactCacheKey).keyword('slice', #keyword, #pageable)", sync = true)
+    public Slice<ContactDTO> searchContactsSlice(String keyword, Pageable pageable) {
+        if (!searchFromIndex()) {
+            return contactRepository.searchSliceByKeyword(keyword, pageable).map(this::convertToDTO);
+        }
+        // 内存索引给出的总数是精确的，且没有额外开销
+        return searchContacts(keyword, pageable);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<ContactDTO> searchContactsAfter(String keyword, String after, int size) {
+        requirePageSize(size);
+        PageCursor cursor = after == null || after.isEmpty() ? null : PageCursor.decode(after);
+        boolean byScore = cursor == null ? searchFromIndex() : SEARCH_BY_SCORE.equals(cursor.getSort());
+        
+        if (!byScore) {
+            // 索引未就绪时按姓名做键集分页
+            String name = "";
+            long lastId = 0L;
+            if (cursor != null) {
+                cursor.require(SEARCH_BY_NAME, 2);
+                requireSameKey(cursor.getKey(0), keyword);
+                name = cursor.getKey(1);
+                lastId = cursor.getId();
+            }
+            List<Contact> rows = contactRepository.searchByKeywordAndNameAfter(keyword, name, lastId, PageRequest.of(0, size + 1));
+            return toCursorPage(rows, size, contact -> new PageCursor(SEARCH_BY_NAME, contact.getId(), keyword, contact.getName()));
+        }
+        if (!searchFromIndex()) {
+            throw new IllegalArgumentException("搜索索引正在重建，分页游标已失效，请重新搜索");
+        }
+        
+        // 只保留排在游标之后的候选，每页开销与页码无关
+        ContactRanker.Scored boundary = null;
+        if (cursor != null) {
+            cursor.require(SEARCH_BY_SCORE, 3);
+            requireSameKey(cursor.getKey(0), keyword);
+            boundary = new ContactRanker.Scored(
+                    new ContactSnapshot(cursor.getId(), cursor.getKey(2), null, null, null, null, null),
+                    parseScore(cursor.getKey(1)));
+        }
+        ContactRanker ranker = new ContactRanker(keyword);
+        TopK<ContactRanker.Scored> top = new TopK<>(size + 1, ContactRanker.BEST_FIRST);
+        for (long id : searchCandidates(keyword)) {
+            ContactSnapshot snapshot = contactIndexManager.getSnapshot(id);
+            if (snapshot == null) {
+                continue;
+            }
+            ContactRanker.Scored scored = ranker.rank(snapshot);
+            if (boundary == null || ContactRanker.BEST_FIRST.compare(scored, boundary) > 0) {
+                top.offer(scored);
+            }
+        }
+        
+        List<ContactRanker.Scored> ranked = top.toSortedList();
+        String nextCursor = null;
+        if (ranked.size() > size) {
+            ranked = ranked.subList(0, size);
+            ContactRanker.Scored last = ranked.get(size - 1);
+            nextCursor = new PageCursor(SEARCH_BY_SCORE, last.getSnapshot().getId(), keyword,
+                    String.valueOf(last.getScore()), last.getSnapshot().getName()).encode();
+        }
+        return new CursorPage<>(loadScored(ranked), nextCursor);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "searchResults", key = "T(com.example.phonebook.cache.ContactCacheKey).fuzzy(#keyword, #pageable)", sync = true)
+    public Page<ContactDTO> fuzzySearchContacts(String keyword, Pageable pageable) {
+        if (!contactIndexManager.isReady() || keyword == null || keyword.trim().isEmpty()) {
+            return searchContacts(keyword, pageable);
+        }
         
-        // 获取按分类统计的数据
-        List<Object[]> categoryStats = contactRepository.countByCategory();
-        for (Object[] stat : categoryStats) {
-            String category = (String) stat[0];
-            Long count = (Long) stat[1];
-            if (category != null && !category.trim().isEmpty()) {
-                statistics.put(category, count);
+        // 子串命中按常规规则打分，仅靠容错命中的按编辑距离递减给低分
+        Map<Long, Integer> distances = fuzzyNameIndex.search(keyword);
+        long[] ids = union(contactSearchIndex.search(keyword), distances.keySet().stream()
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray());
+        
+        ContactRanker ranker = new ContactRanker(keyword);
+        TopK<ContactRanker.Scored> top = new TopK<>(topLimit(pageable), ContactRanker.BEST_FIRST);
+        int total = 0;
+        for (long id : ids) {
+            ContactSnapshot snapshot = contactIndexManager.getSnapshot(id);
+            if (snapshot == null) {
+                continue;
+            }
+            int score = ranker.score(snapshot);
+            Integer distance = distances.get(id);
+            if (distance != null) {
+                score = Math.max(score, ContactRanker.FUZZY_MATCH - distance);
+            }
+            top.offer(new ContactRanker.Scored(snapshot, score));
+            total++;
+        }
+        return pageOf(top.toSortedList(), pageable, total);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<ContactDTO> findByPhoneSuffix(String digits, int limit) {
+        if (!contactIndexManager.isReady()) {
+            return contactRepository.findByPhoneNumberEndingWith(digits, PageRequest.of(0, limit)).stream()
+                    .map(this::convertToDTO)
+                    .collect(Collectors.toList());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (long id : phoneSuffixIndex.findBySuffix(digits, limit)) {
+            ids.add(id);
+        }
+        return loadInOrder(ids);
+    }
+    
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<ContactSuggestionDTO> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.trim().isEmpty()) {
+            return new ArrayList<>();
+        }
+        if (!contactIndexManager.isReady()) {
+            return contactRepository.findByNameStartingWithOrderByNameAsc(prefix.trim(), PageRequest.of(0, limit)).stream()
+                    .map(contact -> new ContactSuggestionDTO(contact.getId(), contact.getName(), contact.getPhoneNumber()))
+                    .collect(Collectors.toList());
+        }
+        
+        // 完全在内存中完成，不开启事务也不访问数据库
+        Set<Long> ids = new LinkedHashSet<>();
+        for (long id : prefixSuggestIndex.suggest(prefix, limit)) {
+            ids.add(id);
+        }
+        if (ids.size() < limit && PinyinUtils.isPinyinQuery(prefix.trim())) {
+            for (long id : pinyinIndex.search(prefix, limit)) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                ids.add(id);
             }
         }
         
-        return statistics;
+        List<ContactSuggestionDTO> suggestions = new ArrayList<>();
+        for (Long id : ids) {
+            ContactSnapshot snapshot = contactIndexManager.getSnapshot(id);
+            if (snapshot != null) {
+                suggestions.add(new ContactSuggestionDTO(snapshot.getId(), snapshot.getName(), snapshot.getPhoneNumber()));
+            }
+        }
+        return suggestions;
+    }
+    
+    @Override
+    public Map<String, Long> getContactStatistics() {
+        // 写入时增量维护的计数，不随数据量增长
+        return contactCounters.statistics();
     }
     
     @Override
     @Transactional(readOnly = true)
     public boolean isPhoneNumberExists(String phoneNumber, Long excludeId) {
-        if (excludeId == null) {
-            return contactRepository.findByPhoneNumber(phoneNumber).isPresent();
+        long phoneKey = PhoneNumbers.toKey(phoneNumber);
+        if (contactIndexManager.isReady()) {
+            // 可归一化的号码直接查堆外号码索引，结果是精确的
+            if (phoneKey != PhoneNumbers.INVALID) {
+                return findPhoneOwner(phoneKey, excludeId) != PhoneKeyIndex.NOT_FOUND;
+            }
+            // 过滤器判定一定不存在时直接返回，索引重建期间过滤器不完整，仍查数据库
+            if (!uniquenessFilter.mightContainPhone(phoneNumber)) {
+                return false;
+            }
         }
-        return contactRepository.existsByPhoneNumberAndIdNot(phoneNumber, excludeId);
+        // 不存在的结果与 excludeId 无关，可以共用
+        if (negativeLookupCache.isMissingPhone(phoneNumber)) {
+            return false;
+        }
+        long token = negativeLookupCache.begin();
+        boolean exists = excludeId == null
+                ? contactRepository.findByPhoneNumber(phoneNumber).isPresent()
+                : contactRepository.existsByPhoneNumberAndIdNot(phoneNumber, excludeId);
+        // 同一号码的其他写法也算重复
+        exists = exists || phoneKey != PhoneNumbers.INVALID
+                && contactRepository.existsByPhoneKeyAndIdNot(phoneKey, excludeId);
+        if (!exists && excludeId == null) {
+            negativeLookupCache.recordMissingPhone(phoneNumber, token);
+        }
+        return exists;
     }
     
     @Override
@@ -215,10 +736,196 @@ public class ContactServiceImpl implements ContactService {
         if (email == null || email.trim().isEmpty()) {
             return false;
         }
-        if (excludeId == null) {
-            return contactRepository.findByEmail(email).isPresent();
+        if (contactIndexManager.isReady() && !uniquenessFilter.mightContainEmail(email)) {
+            return false;
+        }
+        if (negativeLookupCache.isMissingEmail(email)) {
+            return false;
+        }
+        if (excludeId != null) {
+            return contactRepository.existsByEmailAndIdNot(email, excludeId);
+        }
+        long token = negativeLookupCache.begin();
+        boolean exists = contactRepository.findByEmail(email).isPresent();
+        if (!exists) {
+            negativeLookupCache.recordMissingEmail(email, token);
+        }
+        return exists;
+    }
+    
+    // 在当前事务内修改一块已加载的联系人：脏检查只为有变化的行生成 UPDATE，flush 时按 jdbc.batch_size 成批发送，
+    // 二级缓存只更新这些实体；变更事件在刷新后发出，快照带上重新计算的拼音字段
+    private int applyChanges(List<Contact> contacts, Function<Contact, ContactDTO> changesOf) {
+        List<Contact> changed = new ArrayList<>(contacts.size());
+        List<ContactSnapshot> befores = new ArrayList<>(contacts.size());
+        for (Contact contact : contacts) {
+            ContactSnapshot before = ContactSnapshot.of(contact);
+            if (!patchContactFields(contact, changesOf.apply(contact))) {
+                continue;
+            }
+            if (!Objects.equals(before.getPhoneNumber(), contact.getPhoneNumber())
+                    && isPhoneKeyTaken(contact.getPhoneNumber(), contact.getId())) {
+                throw new DuplicateKeyException("电话号码已被其他联系人使用: " + contact.getPhoneNumber());
+            }
+            uniquenessFilter.record(contact.getPhoneNumber(), contact.getEmail());
+            changed.add(contact);
+            befores.add(before);
+        }
+        flushUnique("电话号码已被其他联系人使用", "邮箱已被其他联系人使用");
+        for (int i = 0; i < changed.size(); i++) {
+            eventPublisher.publishEvent(ContactChangedEvent.updated(befores.get(i), ContactSnapshot.of(changed.get(i))));
+        }
+        return changed.size();
+    }
+    
+    // 同一号码的其他写法是否已被占用：索引就绪时查堆外号码索引，否则查一次数据库；无法归一化的号码交给唯一索引
+    private boolean isPhoneKeyTaken(String phoneNumber, Long excludeId) {
+        long phoneKey = PhoneNumbers.toKey(phoneNumber);
+        if (phoneKey == PhoneNumbers.INVALID) {
+            return false;
+        }
+        if (contactIndexManager.isReady()) {
+            return findPhoneOwner(phoneKey, excludeId) != PhoneKeyIndex.NOT_FOUND;
+        }
+        return contactRepository.existsByPhoneKeyAndIdNot(phoneKey, excludeId);
+    }
+    
+    // 号码索引中使用该号码的联系人，排除 excludeId；历史数据里同一号码可能对应多个联系人
+    private long findPhoneOwner(long phoneKey, Long excludeId) {
+        long id = phoneKeyIndex.find(phoneKey);
+        if (excludeId != null && id == excludeId) {
+            return phoneKeyIndex.findOther(phoneKey, excludeId);
+        }
+        return id;
+    }
+    
+    // 刷新写入，把唯一索引冲突转换成对应的重复错误；错误信息直接返回给调用方，不带底层异常
+    private void flushUnique(String phoneMessage, String emailMessage) {
+        try {
+            contactRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(NestedExceptionUtils.getMostSpecificCause(e).getMessage()).toLowerCase();
+            if (cause.contains("idx_phone_number")) {
+                throw new DuplicateKeyException(phoneMessage);
+            }
+            if (cause.contains("idx_email")) {
+                throw new DuplicateKeyException(emailMessage);
+            }
+            throw e;
+        }
+    }
+    
+    // 批内号码（按归一化键）或邮箱重复时直接拒绝；与已有联系人的冲突每块用一条 IN 查询查出
+    private void checkBatchUniqueness(List<ContactDTO> contactDTOs) {
+        Set<Object> phones = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < contactDTOs.size(); i++) {
+            ContactDTO contactDTO = contactDTOs.get(i);
+            if (contactDTO == null) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 个联系人为空");
+            }
+            if (!phones.add(phoneIdentity(contactDTO))) {
+                throw new RuntimeException("电话号码重复: " + contactDTO.getPhoneNumber());
+            }
+            if (hasEmail(contactDTO) && !emails.add(contactDTO.getEmail())) {
+                throw new RuntimeException("邮箱重复: " + contactDTO.getEmail());
+            }
+        }
+        
+        for (int from = 0; from < contactDTOs.size(); from += batchChunkSize) {
+            List<ContactDTO> chunk = contactDTOs.subList(from, Math.min(from + batchChunkSize, contactDTOs.size()));
+            Conflicts conflicts = findConflicts(chunk);
+            for (ContactDTO contactDTO : chunk) {
+                String error = conflicts.of(contactDTO);
+                if (error != null) {
+                    throw new RuntimeException(error);
+                }
+            }
+        }
+    }
+    
+    // 一条查询查出与这些联系人的号码、归一化号码或邮箱冲突的已有联系人
+    private Conflicts findConflicts(List<ContactDTO> contactDTOs) {
+        List<String> phoneNumbers = new ArrayList<>(contactDTOs.size());
+        Set<Long> phoneKeys = new HashSet<>();
+        List<String> emails = new ArrayList<>();
+        for (ContactDTO contactDTO : contactDTOs) {
+            phoneNumbers.add(contactDTO.getPhoneNumber());
+            long phoneKey = PhoneNumbers.toKey(contactDTO.getPhoneNumber());
+            if (phoneKey != PhoneNumbers.INVALID) {
+                phoneKeys.add(phoneKey);
+            }
+            if (hasEmail(contactDTO)) {
+                emails.add(contactDTO.getEmail());
+            }
+        }
+        Conflicts conflicts = new Conflicts();
+        for (Object[] row : contactRepository.findConflicts(phoneNumbers, nonEmpty(phoneKeys), nonEmpty(emails))) {
+            conflicts.phoneNumbers.add((String) row[0]);
+            if (row[1] instanceof Number && ((Number) row[1]).longValue() != PhoneNumbers.INVALID) {
+                conflicts.phoneKeys.add(((Number) row[1]).longValue());
+            }
+            if (row[2] != null) {
+                conflicts.emails.add((String) row[2]);
+            }
+        }
+        return conflicts;
+    }
+    
+    // 已被占用的号码、归一化号码和邮箱
+    private static final class Conflicts {
+        final Set<String> phoneNumbers = new HashSet<>();
+        final Set<Long> phoneKeys = new HashSet<>();
+        final Set<String> emails = new HashSet<>();
+        
+        // 冲突时返回原因，否则返回 null
+        String of(ContactDTO contactDTO) {
+            long phoneKey = PhoneNumbers.toKey(contactDTO.getPhoneNumber());
+            if (phoneNumbers.contains(contactDTO.getPhoneNumber())
+                    || phoneKey != PhoneNumbers.INVALID && phoneKeys.contains(phoneKey)) {
+                return "电话号码已存在: " + contactDTO.getPhoneNumber();
+            }
+            if (hasEmail(contactDTO) && emails.contains(contactDTO.getEmail())) {
+                return "邮箱已存在: " + contactDTO.getEmail();
+            }
+            return null;
+        }
+    }
+    
+    // 可归一化的号码按 E.164 键判重，同一号码的不同写法视为重复
+    private static Object phoneIdentity(ContactDTO contactDTO) {
+        long phoneKey = PhoneNumbers.toKey(contactDTO.getPhoneNumber());
+        return phoneKey != PhoneNumbers.INVALID ? (Object) phoneKey : contactDTO.getPhoneNumber();
+    }
+    
+    // 在一个事务内写入一块：flush 时 Hibernate 按 jdbc.batch_size 成批发送 INSERT，事件在提交后处理
+    private List<ContactDTO> insertChunk(List<ContactDTO> chunk) {
+        List<Contact> contacts = new ArrayList<>(chunk.size());
+        for (ContactDTO contactDTO : chunk) {
+            // 逐字段赋值，省去 BeanUtils 按反射复制的开销
+            Contact contact = new Contact();
+            updateContactFields(contact, contactDTO);
+            uniquenessFilter.record(contact.getPhoneNumber(), contact.getEmail());
+            contacts.add(contact);
+        }
+        List<Contact> savedContacts = contactRepository.saveAll(contacts);
+        // 预查之后被并发写入占用的号码或邮箱由唯一索引拒绝
+        flushUnique("电话号码已存在", "邮箱已存在");
+        List<ContactDTO> created = new ArrayList<>(savedContacts.size());
+        for (Contact savedContact : savedContacts) {
+            eventPublisher.publishEvent(ContactChangedEvent.created(ContactSnapshot.of(savedContact)));
+            created.add(convertToDTO(savedContact));
         }
-        return contactRepository.existsByEmailAndIdNot(email, excludeId);
+        return created;
+    }
+    
+    private static boolean hasEmail(ContactDTO contactDTO) {
+        return contactDTO.getEmail() != null && !contactDTO.getEmail().trim().isEmpty();
+    }
+    
+    // IN 列表不能为空，用 null 占位，null 不匹配任何行
+    private static <T> Collection<T> nonEmpty(Collection<T> values) {
+        return values.isEmpty() ? Collections.<T>singletonList(null) : values;
     }
     
     // 异步方法：批量处理联系人
@@ -228,12 +935,129 @@ public class ContactServiceImpl implements ContactService {
         return CompletableFuture.completedFuture(null);
     }
     
-    // 异步方法：预热缓存
-    @Async("taskExecutor")
-    public CompletableFuture<Void> warmUpCache() {
-        // 预热常用查询的缓存
-        getContactStatistics();
-        return CompletableFuture.completedFuture(null);
+    // 从排好序的前 k 个候选中截取当前页，回表加载并附上分数
+    private Page<ContactDTO> pageOf(List<ContactRanker.Scored> ranked, Pageable pageable, int total) {
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        return new PageImpl<>(loadScored(ranked.subList(from, ranked.size())), pageable, total);
+    }
+    
+    // 按排名顺序回表加载联系人并附上分数
+    private List<ContactDTO> loadScored(List<ContactRanker.Scored> ranked) {
+        List<Long> ids = new ArrayList<>(ranked.size());
+        Map<Long, Integer> scores = new HashMap<>();
+        for (ContactRanker.Scored scored : ranked) {
+            ids.add(scored.getSnapshot().getId());
+            scores.put(scored.getSnapshot().getId(), scored.getScore());
+        }
+        List<ContactDTO> contacts = loadInOrder(ids);
+        for (ContactDTO contact : contacts) {
+            contact.setScore(scores.get(contact.getId()));
+        }
+        return contacts;
+    }
+    
+    private boolean searchFromIndex() {
+        return !"like".equals(searchBackend) && contactIndexManager.isReady();
+    }
+    
+    // 全文后端或N-gram子串索引的命中，纯数字关键字再并上尾号命中；尾号只是补充候选，号码中间包含关键字的联系人不能丢
+    private long[] searchCandidates(String keyword) {
+        long[] ids = fullTextSearcher != null ? fullTextSearcher.search(keyword) : contactSearchIndex.search(keyword);
+        if (PhoneSuffixIndex.isSuffixQuery(keyword)) {
+            ids = union(ids, phoneSuffixIndex.findBySuffix(keyword, Integer.MAX_VALUE));
+        }
+        // 纯字母关键字同时按拼音全拼/首字母前缀匹配
+        if (PinyinUtils.isPinyinQuery(keyword)) {
+            ids = union(ids, pinyinIndex.search(keyword, Integer.MAX_VALUE));
+        }
+        return ids;
+    }
+    
+    // 多取的一行用来判断是否还有下一页，游标指向本页最后一行
+    private CursorPage<ContactDTO> toCursorPage(List<Contact> rows, int size, Function<Contact, PageCursor> cursorOf) {
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            nextCursor = cursorOf.apply(rows.get(size - 1)).encode();
+        }
+        List<ContactDTO> contacts = rows.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new CursorPage<>(contacts, nextCursor);
+    }
+    
+    // 游标分页按 size + 1 取数并以第 size 行生成游标，size 至少为 1
+    private static void requirePageSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("每页条数必须大于 0");
+        }
+    }
+    
+    private static void requireSameKey(String expected, String actual) {
+        if (!Objects.equals(expected, actual)) {
+            throw new IllegalArgumentException("分页游标与当前查询条件不匹配");
+        }
+    }
+    
+    private static LocalDateTime parseDateTime(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("分页游标无效", e);
+        }
+    }
+    
+    private static int parseScore(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("分页游标无效", e);
+        }
+    }
+    
+    // 当前页及之前各页的结果总数
+    private static int topLimit(Pageable pageable) {
+        return (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+    }
+    
+    // 按给定ID顺序回表加载联系人
+    private List<ContactDTO> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Contact> byId = contactRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Contact::getId, Function.identity()));
+        List<ContactDTO> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Contact contact = byId.get(id);
+            if (contact != null) {
+                result.add(convertToDTO(contact));
+            }
+        }
+        return result;
+    }
+    
+    // 合并两个ID集合，结果升序去重
+    private static long[] union(long[] a, long[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        long[] merged = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, merged, a.length, b.length);
+        Arrays.sort(merged);
+        int count = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (count == 0 || merged[count - 1] != merged[i]) {
+                merged[count++] = merged[i];
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+    
+    // 删除前从索引中取快照，索引未就绪时只携带ID
+    private ContactSnapshot snapshotOf(Long id) {
+        ContactSnapshot snapshot = contactIndexManager.getSnapshot(id);
+        return snapshot != null ? snapshot : ContactSnapshot.ofId(id);
     }
     
     // 优化的实体转换方法
@@ -248,21 +1072,36 @@ public class ContactServiceImpl implements ContactService {
         return dto;
     }
     
-    private Contact convertToEntity(ContactDTO contactDTO) {
-        if (contactDTO == null) {
-            return null;
+    // 只修改给出的非空字段，返回是否有字段变化；邮箱给空串表示清空
+    private static boolean patchContactFields(Contact contact, ContactDTO changes) {
+        boolean changed = patch(changes.getName(), contact.getName(), contact::setName);
+        changed |= patch(changes.getPhoneNumber(), contact.getPhoneNumber(), contact::setPhoneNumber);
+        if (changes.getEmail() != null) {
+            String email = hasEmail(changes) ? changes.getEmail() : null;
+            if (!Objects.equals(email, contact.getEmail())) {
+                contact.setEmail(email);
+                changed = true;
+            }
         }
-        
-        Contact contact = new Contact();
-        BeanUtils.copyProperties(contactDTO, contact);
-        return contact;
+        changed |= patch(changes.getAddress(), contact.getAddress(), contact::setAddress);
+        changed |= patch(changes.getCategory(), contact.getCategory(), contact::setCategory);
+        changed |= patch(changes.getNotes(), contact.getNotes(), contact::setNotes);
+        return changed;
+    }
+    
+    private static boolean patch(String value, String current, Consumer<String> setter) {
+        if (value == null || value.equals(current)) {
+            return false;
+        }
+        setter.accept(value);
+        return true;
     }
     
-    // 优化的字段更新方法
+    // 优化的字段更新方法，空邮箱存为 NULL，不占用邮箱唯一索引
     private void updateContactFields(Contact existingContact, ContactDTO contactDTO) {
         existingContact.setName(contactDTO.getName());
         existingContact.setPhoneNumber(contactDTO.getPhoneNumber());
-        existingContact.setEmail(contactDTO.getEmail());
+        existingContact.setEmail(hasEmail(contactDTO) ? contactDTO.getEmail() : null);
         existingContact.setAddress(contactDTO.getAddress());
         existingContact.setCategory(contactDTO.getCategory());
         existingContact.setNotes(contactDTO.getNotes());
@@ -0,0 +1,350 @@
+package com.example.phonebook.stats;
+
+import com.example.phonebook.cache.RedisCacheStore;
+import com.example.phonebook.entity.ContactStat;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.repository.ContactRepository;
+import com.example.phonebook.repository.ContactStatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 联系人总数和分类统计的内存计数，替代分页附带的 COUNT(*) 和统计接口的 GROUP BY
+ *
+ * 首次使用时从汇总表 contact_stats 恢复（表为空时从数据库统计），之后在写事务提交后增量维护；
+ * 启用 Redis 时其他实例的变更也经失效通知同步过来。计数定期写回汇总表，并定期与数据库对账：
+ * 对账期间有写入时跳过本轮，避免用对账开始前的结果覆盖新的计数。
+ * 关键字搜索的总数无法增量维护，按关键字缓存一段时间，作为估算值返回。
+ */
+@Component
+public class ContactCounters implements RedisCacheStore.InvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContactCounters.class);
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private ContactStatRepository contactStatRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private RedisCacheStore redisCacheStore;
+
+    @Value("${phonebook.count-cache.keyword-ttl-seconds:60}")
+    private long keywordTtlSeconds;
+
+    @Value("${phonebook.count-cache.keyword-max-entries:1000}")
+    private int keywordMaxEntries;
+
+    private final Map<String, Long> categories = new HashMap<>();
+    private final Map<String, KeywordCount> keywordCounts = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long total;
+    private boolean loaded;
+    private boolean restoreAttempted;
+    private boolean categoriesStale;
+    // 每应用一次变更加一，对账据此判断查询期间是否有写入
+    private long generation;
+    // 内存计数与汇总表不一致，需要写回
+    private boolean dirty;
+
+    @PostConstruct
+    public void subscribe() {
+        if (redisCacheStore != null) {
+            redisCacheStore.addListener(this);
+        }
+    }
+
+    /**
+     * 联系人总数
+     */
+    public synchronized long total() {
+        ensureLoaded();
+        return total;
+    }
+
+    /**
+     * 指定分类的联系人数量
+     */
+    public synchronized long category(String category) {
+        ensureLoaded();
+        if (categoriesStale) {
+            loadCategories();
+        }
+        Long count = categories.get(category);
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * 统计接口的结果：total 为总数，其余为各非空分类的数量
+     */
+    public synchronized Map<String, Long> statistics() {
+        ensureLoaded();
+        if (categoriesStale) {
+            loadCategories();
+        }
+        Map<String, Long> statistics = new HashMap<>();
+        statistics.put("total", total);
+        for (Map.Entry<String, Long> entry : categories.entrySet()) {
+            if (!entry.getKey().trim().isEmpty() && entry.getValue() > 0) {
+                statistics.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * 关键字搜索的估算总数：缓存未命中或过期时调用 counter 实际计数
+     */
+    public long estimateKeyword(String keyword, Supplier<Long> counter) {
+        String key = keyword == null ? "" : keyword;
+        long now = System.currentTimeMillis();
+        synchronized (keywordCounts) {
+            KeywordCount cached = keywordCounts.get(key);
+            if (cached != null && now - cached.countedAt < keywordTtlSeconds * 1000) {
+                return cached.count;
+            }
+        }
+        long count = counter.get();
+        synchronized (keywordCounts) {
+            keywordCounts.put(key, new KeywordCount(count, now));
+            if (keywordCounts.size() > keywordMaxEntries) {
+                keywordCounts.remove(keywordCounts.keySet().iterator().next());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 丢弃内存中的计数，下次使用时重新从数据库加载
+     */
+    public synchronized void reset() {
+        loaded = false;
+        restoreAttempted = true;
+        synchronized (keywordCounts) {
+            keywordCounts.clear();
+        }
+    }
+
+    /**
+     * 与数据库对账，内存计数有偏差时以数据库为准；查询期间有写入时放弃本轮，返回是否完成
+     */
+    @Scheduled(fixedDelayString = "${phonebook.stats.reconcile-interval:PT10M}",
+            initialDelayString = "${phonebook.stats.reconcile-initial-delay:PT1M}")
+    public boolean reconcile() {
+        long startGeneration;
+        synchronized (this) {
+            startGeneration = generation;
+        }
+        // 查询在锁外执行，不阻塞读取和增量维护
+        long dbTotal = contactRepository.count();
+        Map<String, Long> dbCategories = categoryCounts();
+        synchronized (this) {
+            if (generation != startGeneration) {
+                logger.debug("统计对账期间有写入，跳过本轮");
+                return false;
+            }
+            boolean changed = !loaded || total != dbTotal || !sameCounts(categories, dbCategories);
+            if (loaded && changed) {
+                logger.warn("联系人统计与数据库不一致，已校正：总数 {} -> {}", total, dbTotal);
+            }
+            dirty |= changed;
+            total = dbTotal;
+            categories.clear();
+            categories.putAll(dbCategories);
+            categoriesStale = false;
+            loaded = true;
+            restoreAttempted = true;
+        }
+        return true;
+    }
+
+    /**
+     * 计数有变化时写回汇总表，整表替换
+     */
+    @Scheduled(fixedDelayString = "${phonebook.stats.persist-interval:PT30S}")
+    @PreDestroy
+    public void persist() {
+        List<ContactStat> rows;
+        synchronized (this) {
+            if (!loaded || !dirty || categoriesStale) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            rows = new ArrayList<>(categories.size() + 1);
+            rows.add(new ContactStat(ContactStat.TOTAL_KEY, total, now));
+            for (Map.Entry<String, Long> entry : categories.entrySet()) {
+                rows.add(new ContactStat(ContactStat.CATEGORY_PREFIX + entry.getKey(), entry.getValue(), now));
+            }
+            dirty = false;
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                contactStatRepository.deleteAllInBatch();
+                contactStatRepository.saveAll(rows);
+            });
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                dirty = true;
+            }
+            logger.warn("联系人统计写回汇总表失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onRemoteChange(ContactChangedEvent event) {
+        onContactChanged(event);
+    }
+
+    @Override
+    public void onRemoteClear(String cacheName) {
+        // 可能漏收的变更由定期对账校正
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onContactChanged(ContactChangedEvent event) {
+        generation++;
+        if (!loaded) {
+            // 尚未加载时无需维护，首次使用时会读到包含本次变更的数据
+            return;
+        }
+        dirty = true;
+        ContactSnapshot before = event.getBefore();
+        ContactSnapshot after = event.getAfter();
+        if (event.isCreated()) {
+            total++;
+        } else if (event.isDeleted()) {
+            total--;
+        }
+        if (before != null && after != null && Objects.equals(before.getCategory(), after.getCategory())) {
+            return;
+        }
+        if (before != null) {
+            if (before.getName() == null) {
+                // 只有ID的快照不知道原分类，下次读取时重新统计
+                categoriesStale = true;
+            } else {
+                adjust(before.getCategory(), -1);
+            }
+        }
+        if (after != null) {
+            adjust(after.getCategory(), 1);
+        }
+    }
+
+    private void adjust(String category, long delta) {
+        if (category != null) {
+            categories.merge(category, delta, Long::sum);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        if (!restoreAttempted) {
+            restoreAttempted = true;
+            if (restore()) {
+                return;
+            }
+        }
+        total = contactRepository.count();
+        loadCategories();
+        loaded = true;
+        dirty = true;
+    }
+
+    // 从汇总表恢复上次写回的计数，表中没有总数行时返回 false
+    private boolean restore() {
+        List<ContactStat> rows;
+        try {
+            rows = contactStatRepository.findAll();
+        } catch (RuntimeException e) {
+            logger.warn("读取联系人统计汇总表失败，改为从数据库统计: {}", e.getMessage());
+            return false;
+        }
+        Long restoredTotal = null;
+        Map<String, Long> restored = new HashMap<>();
+        for (ContactStat row : rows) {
+            if (ContactStat.TOTAL_KEY.equals(row.getKey())) {
+                restoredTotal = row.getValue();
+            } else if (row.getKey().startsWith(ContactStat.CATEGORY_PREFIX)) {
+                restored.put(row.getKey().substring(ContactStat.CATEGORY_PREFIX.length()), row.getValue());
+            }
+        }
+        if (restoredTotal == null) {
+            return false;
+        }
+        total = restoredTotal;
+        categories.clear();
+        categories.putAll(restored);
+        categoriesStale = false;
+        loaded = true;
+        logger.info("从汇总表恢复联系人统计：总数 {}，{} 个分类", total, categories.size());
+        return true;
+    }
+
+    private void loadCategories() {
+        categories.clear();
+        categories.putAll(categoryCounts());
+        categoriesStale = false;
+    }
+
+    private Map<String, Long> categoryCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        List<Object[]> rows = contactRepository.countByCategory();
+        for (Object[] row : rows) {
+            if (row[0] != null) {
+                counts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return counts;
+    }
+
+    // 计数为 0 的分类与不存在的分类视为相同
+    private static boolean sameCounts(Map<String, Long> a, Map<String, Long> b) {
+        for (Map.Entry<String, Long> entry : a.entrySet()) {
+            if (entry.getValue() != 0 && !entry.getValue().equals(b.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        for (Map.Entry<String, Long> entry : b.entrySet()) {
+            if (entry.getValue() != 0 && !entry.getValue().equals(a.get(entry.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class KeywordCount {
+        final long count;
+        final long countedAt;
+
+        KeywordCount(long count, long countedAt) {
+            this.count = count;
+            this.countedAt = countedAt;
+        }
+    }
+}
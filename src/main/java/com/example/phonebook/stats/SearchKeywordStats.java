@@ -0,0 +1,149 @@
+package com.example.phonebook.stats;
+
+import com.example.phonebook.entity.HotKeyword;
+import com.example.phonebook.repository.HotKeywordRepository;
+import com.example.phonebook.util.TopK;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 近期搜索关键字的频次统计，供启动预热挑选热门关键字
+ *
+ * 计数定期减半，使排名反映近期而不是全部历史；跟踪的关键字数达到上限时提前减半并淘汰归零的。
+ * 排名靠前的关键字定期写入 hot_keywords 表，重启后首次读取时合并回来。
+ */
+@Component
+public class SearchKeywordStats {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchKeywordStats.class);
+
+    @Autowired
+    private HotKeywordRepository hotKeywordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${phonebook.hot-keywords.max-tracked:10000}")
+    private int maxTracked;
+
+    @Value("${phonebook.hot-keywords.persisted:100}")
+    private int persisted;
+
+    private final ConcurrentMap<String, AtomicLong> hits = new ConcurrentHashMap<>();
+    private volatile boolean restored;
+    private volatile boolean dirty;
+
+    /**
+     * 记录一次搜索，空白和超长的关键字不统计
+     */
+    public void record(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty() || keyword.length() > HotKeyword.MAX_LENGTH) {
+            return;
+        }
+        AtomicLong counter = hits.get(keyword);
+        if (counter == null) {
+            if (hits.size() >= maxTracked) {
+                decay();
+            }
+            counter = hits.computeIfAbsent(keyword, k -> new AtomicLong());
+        }
+        counter.incrementAndGet();
+        dirty = true;
+    }
+
+    /**
+     * 按近期搜索次数从高到低返回前 n 个关键字
+     */
+    public List<String> topKeywords(int n) {
+        restore();
+        TopK<Map.Entry<String, Long>> top = new TopK<>(n,
+                (a, b) -> Long.compare(b.getValue(), a.getValue()));
+        for (Map.Entry<String, AtomicLong> entry : hits.entrySet()) {
+            long count = entry.getValue().get();
+            if (count > 0) {
+                top.offer(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), count));
+            }
+        }
+        List<String> keywords = new ArrayList<>(top.size());
+        for (Map.Entry<String, Long> entry : top.toSortedList()) {
+            keywords.add(entry.getKey());
+        }
+        return keywords;
+    }
+
+    /**
+     * 所有计数减半，归零的关键字不再跟踪
+     */
+    @Scheduled(fixedDelayString = "${phonebook.hot-keywords.decay-interval:PT1H}",
+            initialDelayString = "${phonebook.hot-keywords.decay-interval:PT1H}")
+    public synchronized void decay() {
+        for (Map.Entry<String, AtomicLong> entry : hits.entrySet()) {
+            if (entry.getValue().updateAndGet(count -> count / 2) == 0) {
+                hits.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * 排名靠前的关键字整表替换写入 hot_keywords
+     */
+    @Scheduled(fixedDelayString = "${phonebook.hot-keywords.persist-interval:PT5M}")
+    @PreDestroy
+    public void persist() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        LocalDateTime now = LocalDateTime.now();
+        List<HotKeyword> rows = new ArrayList<>();
+        for (String keyword : topKeywords(persisted)) {
+            AtomicLong count = hits.get(keyword);
+            rows.add(new HotKeyword(keyword, count != null ? count.get() : 0L, now));
+        }
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                hotKeywordRepository.deleteAllInBatch();
+                hotKeywordRepository.saveAll(rows);
+            });
+        } catch (RuntimeException e) {
+            dirty = true;
+            logger.warn("热门搜索关键字写入失败: {}", e.getMessage());
+        }
+    }
+
+    // 首次读取时合并上次写入的计数
+    private void restore() {
+        if (restored) {
+            return;
+        }
+        synchronized (this) {
+            if (restored) {
+                return;
+            }
+            restored = true;
+            try {
+                for (HotKeyword row : hotKeywordRepository.findAll()) {
+                    hits.computeIfAbsent(row.getKeyword(), k -> new AtomicLong()).addAndGet(row.getHits());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("读取热门搜索关键字失败: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.phonebook.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按 RFC 4180 逐条读取 CSV 记录，不缓冲整个文件
+ *
+ * 支持逗号分隔、双引号包裹（字段内的逗号、换行、"" 转义）、LF / CRLF 换行，跳过开头的 BOM 和空行。
+ * 单条记录超过 maxRecordLength 个字符时抛出 IOException，避免未闭合的引号把剩余内容全部读进内存。
+ */
+public final class CsvReader implements Closeable {
+
+    private static final int EOF = -1;
+    private static final char BOM = '\uFEFF';
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean started;
+    private long recordNumber;
+
+    public CsvReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * 读取下一条记录，到达末尾时返回 null
+     */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == BOM) {
+                c = read();
+            }
+        }
+        // 空行不算记录
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c == EOF) {
+            return null;
+        }
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        int length = 0;
+        boolean quoted = false;
+        while (true) {
+            if (++length > maxRecordLength) {
+                throw new IOException("第 " + (recordNumber + 1) + " 条记录超过 " + maxRecordLength + " 个字符");
+            }
+            if (quoted) {
+                if (c == EOF) {
+                    throw new IOException("第 " + (recordNumber + 1) + " 条记录的引号未闭合");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == EOF) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        unread();
+                    }
+                }
+                fields.add(field.toString());
+                recordNumber++;
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * 已读取的记录数
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position++];
+    }
+
+    // 只在刚读过一个字符之后调用，该字符仍在缓冲区内
+    private void unread() {
+        if (limit > 0) {
+            position--;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.phonebook.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 堆外的 long → long 开放寻址哈希表，查询过程不分配任何对象
+ *
+ * 槽位连续存放在直接内存中（每槽 16 字节：键 + 值），线性探测，键 0 表示空槽，
+ * 删除采用后移回填而不是墓碑，装载因子不超过 0.5，满了按 2 倍扩容。
+ * 读操作走 StampedLock 乐观读，只有与写操作冲突时才退化为读锁。
+ */
+public class OffHeapLongLongMap {
+
+    public static final long NO_VALUE = -1L;
+
+    private static final int SLOT_BYTES = 16;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private final StampedLock lock = new StampedLock();
+    private ByteBuffer table;
+    private int mask;
+    private int size;
+
+    public OffHeapLongLongMap(int expectedSize) {
+        table = allocate(capacityFor(expectedSize));
+        mask = table.capacity() / SLOT_BYTES - 1;
+    }
+
+    /**
+     * 查询键对应的值，不存在时返回 NO_VALUE
+     */
+    public long get(long key) {
+        if (key == 0) {
+            return NO_VALUE;
+        }
+        long stamp = lock.tryOptimisticRead();
+        long value = find(table, key);
+        if (lock.validate(stamp)) {
+            return value;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(table, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 写入或覆盖，返回旧值，原先不存在时返回 NO_VALUE
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("键不能为0");
+        }
+        long stamp = lock.writeLock();
+        try {
+            if ((size + 1) * 2 > mask + 1) {
+                resize((mask + 1) * 2);
+            }
+            int slot = slotOf(key, mask);
+            while (true) {
+                long current = table.getLong(slot * SLOT_BYTES);
+                if (current == 0) {
+                    table.putLong(slot * SLOT_BYTES, key);
+                    table.putLong(slot * SLOT_BYTES + 8, value);
+                    size++;
+                    return NO_VALUE;
+                }
+                if (current == key) {
+                    long previous = table.getLong(slot * SLOT_BYTES + 8);
+                    table.putLong(slot * SLOT_BYTES + 8, value);
+                    return previous;
+                }
+                slot = (slot + 1) & mask;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 仅当键当前映射到 expected 时删除，返回是否删除
+     */
+    public boolean remove(long key, long expected) {
+        if (key == 0) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(key, mask);
+            while (true) {
+                long current = table.getLong(slot * SLOT_BYTES);
+                if (current == 0) {
+                    return false;
+                }
+                if (current == key) {
+                    if (table.getLong(slot * SLOT_BYTES + 8) != expected) {
+                        return false;
+                    }
+                    shiftBack(slot);
+                    size--;
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = allocate(MIN_CAPACITY);
+            mask = MIN_CAPACITY - 1;
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 占用的直接内存字节数
+     */
+    public long sizeInBytes() {
+        long stamp = lock.readLock();
+        try {
+            return table.capacity();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // 掩码由同一个 table 推出，避免乐观读时看到新表配旧掩码；
+    // 探测步数以容量为上限：乐观读可能看到写到一半的表，不能依赖空槽终止
+    private static long find(ByteBuffer table, long key) {
+        int mask = table.capacity() / SLOT_BYTES - 1;
+        int slot = slotOf(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            long current = table.getLong(slot * SLOT_BYTES);
+            if (current == key) {
+                return table.getLong(slot * SLOT_BYTES + 8);
+            }
+            if (current == 0) {
+                return NO_VALUE;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    // 删除后把后续探测链上的元素前移，保持"从理想槽位到实际槽位之间没有空槽"
+    private void shiftBack(int hole) {
+        int slot = (hole + 1) & mask;
+        while (true) {
+            long key = table.getLong(slot * SLOT_BYTES);
+            if (key == 0) {
+                break;
+            }
+            int ideal = slotOf(key, mask);
+            boolean movable = hole <= slot ? (ideal <= hole || ideal > slot) : (ideal <= hole && ideal > slot);
+            if (movable) {
+                table.putLong(hole * SLOT_BYTES, key);
+                table.putLong(hole * SLOT_BYTES + 8, table.getLong(slot * SLOT_BYTES + 8));
+                hole = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table.putLong(hole * SLOT_BYTES, 0L);
+        table.putLong(hole * SLOT_BYTES + 8, 0L);
+    }
+
+    private void resize(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("哈希表容量超出上限: " + MAX_CAPACITY);
+        }
+        ByteBuffer old = table;
+        int oldCapacity = mask + 1;
+        table = allocate(capacity);
+        mask = capacity - 1;
+        for (int i = 0; i < oldCapacity; i++) {
+            long key = old.getLong(i * SLOT_BYTES);
+            if (key != 0) {
+                int slot = slotOf(key, mask);
+                while (table.getLong(slot * SLOT_BYTES) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table.putLong(slot * SLOT_BYTES, key);
+                table.putLong(slot * SLOT_BYTES + 8, old.getLong(i * SLOT_BYTES + 8));
+            }
+        }
+    }
+
+    private static int slotOf(long key, int mask) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2L && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static ByteBuffer allocate(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * SLOT_BYTES).order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.phonebook.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * 键集分页（seek）游标：排序方式 + 上一页最后一行的排序键 + ID
+ *
+ * 对外是不透明的 URL 安全 Base64 字符串；排序方式写进游标，换了排序的旧游标会被拒绝。
+ */
+public final class PageCursor {
+
+    private static final int MAX_KEYS = 8;
+
+    private final String sort;
+    private final String[] keys;
+    private final long id;
+
+    public PageCursor(String sort, long id, String... keys) {
+        this.sort = Objects.requireNonNull(sort);
+        this.id = id;
+        this.keys = keys.clone();
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 第 index 个排序键，可能为 null
+     */
+    public String getKey(int index) {
+        return keys[index];
+    }
+
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeUTF(sort);
+            out.writeByte(keys.length);
+            for (String key : keys) {
+                out.writeBoolean(key != null);
+                if (key != null) {
+                    out.writeUTF(key);
+                }
+            }
+            out.writeLong(id);
+            out.flush();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 解析游标
+     *
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static PageCursor decode(String token) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(token)));
+            String sort = in.readUTF();
+            int count = in.readByte();
+            if (count < 0 || count > MAX_KEYS) {
+                throw new IllegalArgumentException("分页游标无效");
+            }
+            String[] keys = new String[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = in.readBoolean() ? in.readUTF() : null;
+            }
+            return new PageCursor(sort, in.readLong(), keys);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("分页游标无效", e);
+        }
+    }
+
+    /**
+     * 校验游标的排序方式和键个数与当前查询一致
+     *
+     * @throws IllegalArgumentException 不一致时抛出
+     */
+    public PageCursor require(String expectedSort, int expectedKeys) {
+        if (!sort.equals(expectedSort) || keys.length != expectedKeys) {
+            throw new IllegalArgumentException("分页游标与当前排序方式不匹配");
+        }
+        return this;
+    }
+}
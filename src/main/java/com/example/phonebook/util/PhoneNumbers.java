@@ -0,0 +1,59 @@
+package com.example.phonebook.util;
+
+/**
+ * 电话号码归一化：把各种书写格式转换为 E.164 数字串对应的 long 键
+ *
+ * "+86 138-0013-8000"、"0086 13800138000"、"13800138000" 都归一为 8613800138000。
+ * 没有国际前缀（+ 或 00）的号码按中国大陆号码处理：去掉长途区号前的 0，补上国家码 86。
+ * E.164 最多 15 位数字，long 足以容纳；无法识别的号码返回 INVALID。
+ */
+public final class PhoneNumbers {
+
+    public static final long INVALID = 0L;
+
+    private static final String DEFAULT_COUNTRY_CODE = "86";
+    private static final int MAX_DIGITS = 15;
+
+    private PhoneNumbers() {
+    }
+
+    /**
+     * 归一化为 E.164 键，含字母等无法识别的字符、或位数超出 E.164 范围时返回 INVALID
+     */
+    public static long toKey(String phoneNumber) {
+        if (phoneNumber == null) {
+            return INVALID;
+        }
+        String text = phoneNumber.trim();
+        boolean international = text.startsWith("+");
+        StringBuilder digits = new StringBuilder(MAX_DIGITS + 2);
+        for (int i = international ? 1 : 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            } else if (c != ' ' && c != '-' && c != '(' && c != ')' && c != '.') {
+                return INVALID;
+            }
+        }
+
+        String e164;
+        if (international) {
+            e164 = digits.toString();
+        } else if (digits.length() > 2 && digits.charAt(0) == '0' && digits.charAt(1) == '0') {
+            e164 = digits.substring(2);
+        } else if (digits.length() == 13 && digits.indexOf(DEFAULT_COUNTRY_CODE + "1") == 0) {
+            // 省略了 + 的 86 开头手机号
+            e164 = digits.toString();
+        } else if (digits.length() > 1 && digits.charAt(0) == '0') {
+            e164 = DEFAULT_COUNTRY_CODE + digits.substring(1);
+        } else {
+            e164 = DEFAULT_COUNTRY_CODE + digits;
+        }
+
+        if (e164.isEmpty() || e164.length() > MAX_DIGITS || e164.charAt(0) == '0'
+                || e164.length() == DEFAULT_COUNTRY_CODE.length() && !international) {
+            return INVALID;
+        }
+        return Long.parseLong(e164);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.phonebook.util;
+
+import net.sourceforge.pinyin4j.PinyinHelper;
+import net.sourceforge.pinyin4j.format.HanyuPinyinCaseType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinOutputFormat;
+import net.sourceforge.pinyin4j.format.HanyuPinyinToneType;
+import net.sourceforge.pinyin4j.format.HanyuPinyinVCharType;
+import net.sourceforge.pinyin4j.format.exception.BadHanyuPinyinOutputFormatCombination;
+
+/**
+ * 中文姓名的拼音与首字母转换
+ *
+ * 汉字取第一个读音（不带声调，ü 写作 v）；ASCII 字母和数字转小写保留，其他字符作为分词符丢弃。
+ * 例如 "张三" 转为 "zhangsan" / "zs"，"John Smith" 转为 "johnsmith" / "js"。
+ */
+public final class PinyinUtils {
+
+    private static final HanyuPinyinOutputFormat FORMAT = new HanyuPinyinOutputFormat();
+
+    static {
+        FORMAT.setCaseType(HanyuPinyinCaseType.LOWERCASE);
+        FORMAT.setToneType(HanyuPinyinToneType.WITHOUT_TONE);
+        FORMAT.setVCharType(HanyuPinyinVCharType.WITH_V);
+    }
+
+    private PinyinUtils() {
+    }
+
+    /**
+     * 全拼，例如 "zhangsan"
+     */
+    public static String toPinyin(String text) {
+        return convert(text, false);
+    }
+
+    /**
+     * 首字母，例如 "zs"
+     */
+    public static String toInitials(String text) {
+        return convert(text, true);
+    }
+
+    /**
+     * 关键字是否可能是拼音或首字母（只包含ASCII字母）
+     */
+    public static boolean isPinyinQuery(String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = keyword.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String convert(String text, boolean initialsOnly) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text.length() * (initialsOnly ? 1 : 4));
+        boolean wordStart = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            String reading = reading(c);
+            if (reading != null) {
+                sb.append(initialsOnly ? reading.charAt(0) : reading);
+                wordStart = true;
+            } else if (c < 128 && Character.isLetterOrDigit(c)) {
+                if (!initialsOnly || wordStart) {
+                    sb.append(Character.toLowerCase(c));
+                }
+                wordStart = false;
+            } else {
+                wordStart = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String reading(char c) {
+        if (c < 128) {
+            return null;
+        }
+        try {
+            String[] readings = PinyinHelper.toHanyuPinyinStringArray(c, FORMAT);
+            return readings != null && readings.length > 0 && !readings[0].isEmpty() ? readings[0] : null;
+        } catch (BadHanyuPinyinOutputFormatCombination e) {
+            return null;
+        }
+    }
+}
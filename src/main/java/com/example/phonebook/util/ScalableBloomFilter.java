@@ -0,0 +1,209 @@
+package com.example.phonebook.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 可扩容的布隆过滤器（Scalable Bloom Filter），用于"一定不存在"的快速判断
+ *
+ * 由若干级普通布隆过滤器组成：当前级写满容量后追加新的一级，容量翻倍、误判率减半，
+ * 整体误判率收敛于配置值，不需要预先知道数据量。不支持删除，删除产生的残留只会
+ * 增加误判（多查一次数据库），不会漏判。
+ */
+public class ScalableBloomFilter {
+
+    private static final int GROWTH = 2;
+    private static final double TIGHTENING = 0.5;
+
+    private final int initialCapacity;
+    private final double falsePositiveRate;
+    private final List<Stage> stages = new ArrayList<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private long count;
+
+    public ScalableBloomFilter(int initialCapacity, double falsePositiveRate) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于0");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("误判率必须在0和1之间");
+        }
+        this.initialCapacity = initialCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+        clear();
+    }
+
+    public void put(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        lock.writeLock().lock();
+        try {
+            // 已可能存在的值不再占用容量
+            for (Stage stage : stages) {
+                if (stage.mightContain(hash1, hash2)) {
+                    return;
+                }
+            }
+            Stage current = stages.get(stages.size() - 1);
+            if (current.count >= current.capacity) {
+                current = new Stage(current.capacity * GROWTH, current.falsePositiveRate * TIGHTENING);
+                stages.add(current);
+            }
+            current.put(hash1, hash2);
+            count++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 返回 false 表示一定不存在，返回 true 表示可能存在
+     */
+    public boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        lock.readLock().lock();
+        try {
+            for (Stage stage : stages) {
+                if (stage.mightContain(hash1, hash2)) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            stages.clear();
+            // 各级误判率之和 p0 / (1 - r) 不超过配置值
+            stages.add(new Stage(initialCapacity, falsePositiveRate * (1 - TIGHTENING)));
+            count = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按当前填充程度估算的误判率
+     */
+    public double expectedFalsePositiveRate() {
+        lock.readLock().lock();
+        try {
+            double none = 1.0;
+            for (Stage stage : stages) {
+                none *= 1 - stage.expectedFalsePositiveRate();
+            }
+            return 1 - none;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 已写入的不同值个数（近似，误判的写入不计数）
+     */
+    public long count() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 位数组占用的字节数
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (Stage stage : stages) {
+                bytes += stage.bits.length * 8L;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int stageCount() {
+        lock.readLock().lock();
+        try {
+            return stages.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // FNV-1a 后接 murmur3 的 fmix64 打散
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Stage {
+        final long capacity;
+        final double falsePositiveRate;
+        final long[] bits;
+        final long bitCount;
+        final int hashCount;
+        long count;
+
+        Stage(long capacity, double falsePositiveRate) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new long[(int) Math.max(1, (m + 63) / 64)];
+            this.bitCount = bits.length * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+        }
+
+        // 双重哈希 h1 + i * h2 生成 k 个位置
+        void put(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+            count++;
+        }
+
+        boolean mightContain(long hash1, long hash2) {
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveRate() {
+            return Math.pow(1 - Math.exp(-(double) hashCount * count / bitCount), hashCount);
+        }
+    }
+}
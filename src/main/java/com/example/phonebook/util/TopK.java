@@ -0,0 +1,55 @@
+package com.example.phonebook.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 有界小顶堆，只保留最优的 k 个元素
+ *
+ * 堆顶是当前保留元素中最差的一个，新元素只有优于堆顶时才入堆，
+ * 从 n 个候选中取前 k 个的开销为 O(n log k)，无需对全部候选排序。
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private final Comparator<? super T> order;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * @param k     保留的元素个数
+     * @param order 排序规则，越靠前越优
+     */
+    public TopK(int k, Comparator<? super T> order) {
+        this.k = Math.max(k, 0);
+        this.order = order;
+        this.heap = new PriorityQueue<>(Math.max(1, Math.min(this.k, 1024)), Collections.reverseOrder(order));
+    }
+
+    public void offer(T item) {
+        if (k == 0) {
+            return;
+        }
+        if (heap.size() < k) {
+            heap.add(item);
+        } else if (order.compare(item, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(item);
+        }
+    }
+
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * 按从优到劣的顺序返回保留的元素
+     */
+    public List<T> toSortedList() {
+        List<T> result = new ArrayList<>(heap);
+        result.sort(order);
+        return result;
+    }
+}
@@ -0,0 +1,464 @@
+package com.example.phonebook.util;
+
+import com.example.phonebook.dto.ContactDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 逐张读取 vCard（.vcf）名片并映射为 ContactDTO，不缓冲整个文件
+ *
+ * 支持 3.0 / 4.0 的折行、反斜杠转义和结构化值，也兼容手机导出的 2.1 格式（QUOTED-PRINTABLE 编码和软换行）。
+ * 只保留用到的属性：FN / N、TEL、EMAIL、ADR、CATEGORIES、NOTE；多个电话或邮箱时取标记为首选的，否则取第一个。
+ * PHOTO 等其余属性边读边丢弃，不受 maxLineLength 限制。用到的属性折行合并后超过 maxLineLength 个字符，
+ * 或名片缺少 END:VCARD 时，跳到该名片末尾后抛出 CardException，调用方可以记下这张名片继续读下一张。
+ */
+public final class VCardReader implements Closeable {
+
+    private static final int EOF = -1;
+    private static final char BOM = '\uFEFF';
+
+    private static final Set<String> PROPERTIES = new HashSet<>(Arrays.asList(
+            "BEGIN", "END", "FN", "N", "TEL", "EMAIL", "ADR", "CATEGORIES", "NOTE"));
+
+    private final Reader reader;
+    private final int maxLineLength;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean started;
+    private long cardNumber;
+
+    // 预读的下一物理行及其是否被截断
+    private String pending;
+    private boolean pendingTruncated;
+    private boolean truncated;
+
+    // 刚读取的逻辑行超长时为其属性名
+    private String overlong;
+
+    public VCardReader(Reader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * 读取下一张名片，到达末尾时返回 null
+     *
+     * @throws CardException 这张名片无法读取，已跳过，可以继续调用 next
+     */
+    public ContactDTO next() throws IOException {
+        String line;
+        do {
+            line = nextLine();
+            overlong = null;
+            if (line == null) {
+                return null;
+            }
+        } while (!line.trim().equalsIgnoreCase("BEGIN:VCARD"));
+        cardNumber++;
+
+        Card card = new Card();
+        String error = null;
+        while ((line = nextLine()) != null) {
+            if (overlong != null) {
+                if (error == null) {
+                    error = "第 " + cardNumber + " 张名片的 " + overlong + " 超过 " + maxLineLength + " 个字符";
+                }
+                overlong = null;
+            } else if (line.trim().equalsIgnoreCase("END:VCARD")) {
+                if (error != null) {
+                    throw new CardException(error);
+                }
+                return card.toContact();
+            } else if (error == null) {
+                Property property = Property.parse(line);
+                if (property != null) {
+                    card.add(property);
+                }
+            }
+        }
+        throw new CardException("第 " + cardNumber + " 张名片缺少 END:VCARD");
+    }
+
+    /**
+     * 已读取的名片数
+     */
+    public long getCardNumber() {
+        return cardNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // 读取一个逻辑行：合并以空格或制表符开头的折行，以及 QUOTED-PRINTABLE 值末尾 = 的软换行
+    // 合并时最多保留 maxLineLength 个字符，超出时照常读完折行，返回属性名并设置 overlong
+    private String nextLine() throws IOException {
+        String line;
+        boolean lineTruncated;
+        if (pending != null) {
+            line = pending;
+            lineTruncated = pendingTruncated;
+            pending = null;
+        } else {
+            line = readPhysicalLine();
+            lineTruncated = truncated;
+        }
+        while (line != null && line.isEmpty()) {
+            line = readPhysicalLine();
+            lineTruncated = truncated;
+        }
+        if (line == null) {
+            return null;
+        }
+
+        boolean keep = PROPERTIES.contains(nameOf(line));
+        StringBuilder logical = new StringBuilder(keep ? line : "");
+        String last = line;
+        while (true) {
+            String following = readPhysicalLine();
+            boolean followingTruncated = truncated;
+            if (following != null && !following.isEmpty()
+                    && (following.charAt(0) == ' ' || following.charAt(0) == '\t')) {
+                if (keep && !lineTruncated) {
+                    lineTruncated = !append(logical, following, 1);
+                }
+            } else if (following != null && keep && isSoftLineBreak(line, last)) {
+                if (!lineTruncated) {
+                    logical.setLength(logical.length() - 1);
+                    lineTruncated = !append(logical, following, 0);
+                }
+            } else {
+                pending = following;
+                pendingTruncated = followingTruncated;
+                break;
+            }
+            last = following;
+            lineTruncated |= followingTruncated;
+        }
+        if (!keep) {
+            // 不需要的属性只返回属性名，值已丢弃
+            return nameOf(line) + ":";
+        }
+        if (lineTruncated) {
+            overlong = nameOf(line);
+            return overlong + ":";
+        }
+        return logical.toString();
+    }
+
+    // 追加 segment 从 from 开始的部分，放不下时不追加并返回 false
+    private boolean append(StringBuilder logical, String segment, int from) {
+        if (logical.length() + segment.length() - from > maxLineLength) {
+            return false;
+        }
+        logical.append(segment, from, segment.length());
+        return true;
+    }
+
+    // 读取一个物理行（不含换行符），超过 maxLineLength 的部分丢弃并标记 truncated
+    private String readPhysicalLine() throws IOException {
+        int c = read();
+        if (!started) {
+            started = true;
+            if (c == BOM) {
+                c = read();
+            }
+        }
+        if (c == EOF) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        truncated = false;
+        while (c != EOF && c != '\n' && c != '\r') {
+            if (line.length() < maxLineLength) {
+                line.append((char) c);
+            } else {
+                truncated = true;
+            }
+            c = read();
+        }
+        if (c == '\r') {
+            int following = read();
+            if (following != '\n' && following != EOF) {
+                position--;
+            }
+        }
+        return line.toString();
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position++];
+    }
+
+    // 属性名：去掉分组前缀，转为大写
+    private static String nameOf(CharSequence line) {
+        int end = 0;
+        while (end < line.length() && line.charAt(end) != ';' && line.charAt(end) != ':') {
+            end++;
+        }
+        String name = line.subSequence(0, end).toString();
+        int dot = name.lastIndexOf('.');
+        return name.substring(dot + 1).trim().toUpperCase(Locale.ROOT);
+    }
+
+    // first 是逻辑行的第一个物理行（含参数），last 是最近读入的物理行
+    private static boolean isSoftLineBreak(String first, String last) {
+        if (last.isEmpty() || last.charAt(last.length() - 1) != '=') {
+            return false;
+        }
+        int colon = first.indexOf(':');
+        return colon > 0 && first.substring(0, colon).toUpperCase(Locale.ROOT).contains("QUOTED-PRINTABLE");
+    }
+
+    /**
+     * 一张名片无法读取：属性超长或缺少 END:VCARD，读取位置已移到这张名片之后
+     */
+    public static final class CardException extends IOException {
+
+        public CardException(String message) {
+            super(message);
+        }
+    }
+
+    private static final class Card {
+        private String formattedName;
+        private String structuredName;
+        private String phone;
+        private boolean phonePreferred;
+        private String email;
+        private boolean emailPreferred;
+        private String address;
+        private String category;
+        private String notes;
+
+        void add(Property property) {
+            switch (property.name) {
+                case "FN":
+                    if (formattedName == null) {
+                        formattedName = nonEmpty(unescape(property.value));
+                    }
+                    break;
+                case "N":
+                    if (structuredName == null) {
+                        structuredName = nameFromComponents(split(property.value, ';'));
+                    }
+                    break;
+                case "TEL": {
+                    String value = nonEmpty(stripUri(unescape(property.value)));
+                    if (value != null && (phone == null || property.preferred && !phonePreferred)) {
+                        phone = value;
+                        phonePreferred = property.preferred;
+                    }
+                    break;
+                }
+                case "EMAIL": {
+                    String value = nonEmpty(unescape(property.value));
+                    if (value != null && (email == null || property.preferred && !emailPreferred)) {
+                        email = value;
+                        emailPreferred = property.preferred;
+                    }
+                    break;
+                }
+                case "ADR":
+                    if (address == null) {
+                        address = join(split(property.value, ';'));
+                    }
+                    break;
+                case "CATEGORIES":
+                    if (category == null) {
+                        List<String> categories = split(property.value, ',');
+                        category = categories.isEmpty() ? null : nonEmpty(categories.get(0));
+                    }
+                    break;
+                case "NOTE":
+                    if (notes == null) {
+                        notes = nonEmpty(unescape(property.value));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        ContactDTO toContact() {
+            ContactDTO contactDTO = new ContactDTO();
+            contactDTO.setName(formattedName != null ? formattedName : structuredName);
+            contactDTO.setPhoneNumber(phone);
+            contactDTO.setEmail(email);
+            contactDTO.setAddress(address);
+            contactDTO.setCategory(category);
+            contactDTO.setNotes(notes);
+            return contactDTO;
+        }
+
+        // N 的各部分为 姓;名;中间名;前缀;后缀，中文姓名不加空格
+        private static String nameFromComponents(List<String> parts) {
+            String family = parts.size() > 0 ? parts.get(0).trim() : "";
+            String given = parts.size() > 1 ? parts.get(1).trim() : "";
+            if (family.isEmpty() || given.isEmpty()) {
+                return nonEmpty(family + given);
+            }
+            boolean latin = (family + given).chars().allMatch(c -> c < 0x2E80);
+            return latin ? given + " " + family : family + given;
+        }
+
+        // ADR 的各部分为 邮政信箱;扩展地址;街道;城市;省/州;邮编;国家
+        private static String join(List<String> parts) {
+            StringBuilder sb = new StringBuilder();
+            for (String part : parts) {
+                String value = part.trim();
+                if (!value.isEmpty()) {
+                    if (sb.length() > 0) {
+                        sb.append(' ');
+                    }
+                    sb.append(value);
+                }
+            }
+            return nonEmpty(sb.toString());
+        }
+
+        // 4.0 的 TEL 可以是 tel: URI
+        private static String stripUri(String value) {
+            if (value.regionMatches(true, 0, "tel:", 0, 4)) {
+                value = value.substring(4);
+                int parameters = value.indexOf(';');
+                return parameters >= 0 ? value.substring(0, parameters) : value;
+            }
+            return value;
+        }
+
+        private static String nonEmpty(String value) {
+            return value == null || value.trim().isEmpty() ? null : value.trim();
+        }
+    }
+
+    private static final class Property {
+        final String name;
+        final String value;
+        final boolean preferred;
+
+        private Property(String name, String value, boolean preferred) {
+            this.name = name;
+            this.value = value;
+            this.preferred = preferred;
+        }
+
+        // name;param=value;...:value，参数值可以带双引号
+        static Property parse(String line) {
+            int colon = -1;
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == ':' && !quoted) {
+                    colon = i;
+                    break;
+                }
+            }
+            if (colon < 0) {
+                return null;
+            }
+            String[] head = line.substring(0, colon).split(";");
+            String name = nameOf(head[0]);
+            boolean preferred = false;
+            boolean quotedPrintable = false;
+            Charset charset = StandardCharsets.UTF_8;
+            for (int i = 1; i < head.length; i++) {
+                String parameter = head[i].trim().toUpperCase(Locale.ROOT);
+                if (parameter.startsWith("PREF") || parameter.startsWith("TYPE=") && parameter.contains("PREF")) {
+                    preferred = true;
+                } else if (parameter.equals("ENCODING=QUOTED-PRINTABLE") || parameter.equals("QUOTED-PRINTABLE")) {
+                    quotedPrintable = true;
+                } else if (parameter.startsWith("CHARSET=")) {
+                    try {
+                        charset = Charset.forName(head[i].trim().substring("CHARSET=".length()));
+                    } catch (IllegalArgumentException e) {
+                        // 不认识的字符集按 UTF-8 解码
+                    }
+                }
+            }
+            String value = line.substring(colon + 1);
+            if (quotedPrintable) {
+                value = decodeQuotedPrintable(value, charset);
+            }
+            return new Property(name, value, preferred);
+        }
+
+        private static String decodeQuotedPrintable(String value, Charset charset) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '=' && i + 2 < value.length() && isHex(value.charAt(i + 1)) && isHex(value.charAt(i + 2))) {
+                    bytes.write(Character.digit(value.charAt(i + 1), 16) * 16 + Character.digit(value.charAt(i + 2), 16));
+                    i += 2;
+                } else {
+                    byte[] encoded = String.valueOf(c).getBytes(charset);
+                    bytes.write(encoded, 0, encoded.length);
+                }
+            }
+            return new String(bytes.toByteArray(), charset);
+        }
+
+        private static boolean isHex(char c) {
+            return Character.digit(c, 16) >= 0;
+        }
+    }
+
+    // 按未转义的分隔符拆分结构化值，各部分再反转义
+    private static List<String> split(String value, char separator) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                part.append(c).append(value.charAt(++i));
+            } else if (c == separator) {
+                parts.add(unescape(part.toString()));
+                part.setLength(0);
+            } else {
+                part.append(c);
+            }
+        }
+        parts.add(unescape(part.toString()));
+        return parts;
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char escaped = value.charAt(++i);
+                sb.append(escaped == 'n' || escaped == 'N' ? '\n' : escaped);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
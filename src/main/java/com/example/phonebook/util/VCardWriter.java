@@ -0,0 +1,113 @@
+package com.example.phonebook.util;
+
+import com.example.phonebook.dto.ContactDTO;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 把联系人逐个写成 vCard 3.0 名片
+ *
+ * 文本值按规范转义反斜杠、逗号、分号和换行，超过 75 字节（UTF-8）的行折行，换行一律为 CRLF。
+ * 姓名同时写入 FN 和 N（整体放在姓的位置），地址整体写入 ADR 的街道部分，读回时字段不变。
+ */
+public final class VCardWriter implements Closeable, Flushable {
+
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer writer;
+
+    public VCardWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void write(ContactDTO contact) throws IOException {
+        writeLine("BEGIN:VCARD");
+        writeLine("VERSION:3.0");
+        String name = escape(contact.getName());
+        writeLine("FN:" + name);
+        writeLine("N:" + name + ";;;;");
+        if (hasText(contact.getPhoneNumber())) {
+            writeLine("TEL;TYPE=CELL:" + escape(contact.getPhoneNumber()));
+        }
+        if (hasText(contact.getEmail())) {
+            writeLine("EMAIL;TYPE=INTERNET:" + escape(contact.getEmail()));
+        }
+        if (hasText(contact.getAddress())) {
+            writeLine("ADR:;;" + escape(contact.getAddress()) + ";;;;");
+        }
+        if (hasText(contact.getCategory())) {
+            writeLine("CATEGORIES:" + escape(contact.getCategory()));
+        }
+        if (hasText(contact.getNotes())) {
+            writeLine("NOTE:" + escape(contact.getNotes()));
+        }
+        writeLine("END:VCARD");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    // 按 UTF-8 字节数折行，不拆开代理对
+    private void writeLine(String line) throws IOException {
+        int octets = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            boolean pair = Character.isHighSurrogate(c) && i + 1 < line.length();
+            int size = pair ? 4 : c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+            if (octets + size > MAX_LINE_OCTETS) {
+                writer.write("\r\n ");
+                octets = 1;
+            }
+            writer.write(c);
+            if (pair) {
+                writer.write(line.charAt(++i));
+            }
+            octets += size;
+        }
+        writer.write("\r\n");
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case ',':
+                case ';':
+                    sb.append('\\').append(c);
+                    break;
+                case '\r':
+                    if (i + 1 < value.length() && value.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    sb.append("\\n");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                default:
+                    sb.append(c);
+                    break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,8 @@
+-- 姓名拼音派生列，支持全拼（zhangsan）和首字母（zs）前缀搜索
+-- 历史数据由应用启动时的 PinyinBackfillJob 分块并行回填
+
+ALTER TABLE contacts ADD COLUMN IF NOT EXISTS name_pinyin VARCHAR(600);
+ALTER TABLE contacts ADD COLUMN IF NOT EXISTS name_initials VARCHAR(100);
+
+CREATE INDEX IF NOT EXISTS idx_name_pinyin ON contacts(name_pinyin);
+CREATE INDEX IF NOT EXISTS idx_name_initials ON contacts(name_initials);
@@ -0,0 +1,6 @@
+-- 号码归一化后的 E.164 键（如 +86 138-0013-8000 -> 8613800138000），无法识别的号码为 0
+-- 历史数据由应用启动时的 PhoneKeyBackfillJob 分块回填
+
+ALTER TABLE contacts ADD COLUMN IF NOT EXISTS phone_key BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_phone_key ON contacts(phone_key);
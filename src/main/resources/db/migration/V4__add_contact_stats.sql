@@ -0,0 +1,8 @@
+-- 联系人统计汇总表：总数（stat_key = 'total'）和各分类数量（stat_key = 'category:<分类>'）
+-- 由 ContactCounters 定期写入，应用重启时直接读取，无需对 contacts 全表 GROUP BY
+
+CREATE TABLE IF NOT EXISTS contact_stats (
+    stat_key VARCHAR(64) PRIMARY KEY,
+    stat_value BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,7 @@
+-- 近期热门搜索关键字，由 SearchKeywordStats 定期写入，重启后用于缓存预热
+
+CREATE TABLE IF NOT EXISTS hot_keywords (
+    keyword VARCHAR(100) PRIMARY KEY,
+    hits BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
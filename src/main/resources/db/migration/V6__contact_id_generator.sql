@@ -0,0 +1,12 @@
+-- 联系人主键改由 id_generators 表按号段分配（每次 50 个，Hibernate pooled-lo 优化器），INSERT 不再依赖自增列，可按 JDBC 批量写入
+-- 生产环境是 MySQL，没有序列，所以用表记录号段；last_val 是已分配的最大 ID，新号段从 last_val + 1 开始，不能小于现有最大 ID
+-- 应用启动时 ContactIdSeeder 会做同样的校正，这里只是让表和起点在部署前就绪
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    name VARCHAR(255) NOT NULL PRIMARY KEY,
+    last_val BIGINT
+);
+
+INSERT INTO id_generators (name, last_val)
+SELECT 'contacts', COALESCE(MAX(id), 0) FROM contacts
+ON DUPLICATE KEY UPDATE last_val = GREATEST(last_val, VALUES(last_val));
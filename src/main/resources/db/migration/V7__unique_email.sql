@@ -0,0 +1,12 @@
+-- 邮箱改为唯一索引，写接口不再逐条预查重复，由数据库拒绝冲突的 INSERT / UPDATE
+-- 空字符串统一改为 NULL，NULL 不参与唯一约束
+-- 已有重复邮箱时本脚本会在 ALTER TABLE 处报 Duplicate entry 错误并中止，原有的普通索引 idx_email 保持不变；
+-- 先用下面的查询找出重复邮箱并合并对应联系人，再重新执行：
+--   SELECT email, COUNT(*) FROM contacts WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1;
+
+UPDATE contacts SET email = NULL WHERE TRIM(email) = '';
+
+-- 删除和重建放在同一条语句里，失败时不会留下没有邮箱索引的表
+ALTER TABLE contacts
+    DROP INDEX idx_email,
+    ADD UNIQUE INDEX idx_email (email);
@@ -2,7 +2,9 @@
 let currentPage = 0;
 let pageSize = 10;
 let totalPages = 0;
+let pageCursors = [''];  // 第 i 页对应的分页游标，第一页为空串
 let currentKeyword = '';
+let fuzzySearch = false;
 let currentCategory = '';
 let contactToDelete = null;
 let isEditing = false;
@@ -25,6 +27,7 @@ const elements = {
     
     // 输入框和选择框
     searchInput: document.getElementById('searchInput'),
+    searchSuggestions: document.getElementById('searchSuggestions'),
     categoryFilter: document.getElementById('categoryFilter'),
     pageSizeSelect: document.getElementById('pageSizeSelect'),
     
@@ -79,7 +82,12 @@ function initializeEventListeners() {
     elements.contactForm.addEventListener('submit', handleFormSubmit);
     
     // 搜索和筛选
-    elements.searchInput.addEventListener('input', debounce(handleSearch, 300));
+    // 输入时只请求轻量的联想接口，回车或选中联想项时才执行完整搜索
+    elements.searchInput.addEventListener('input', debounce(handleSuggest, 150));
+    elements.searchInput.addEventListener('change', handleSearch);
+    elements.searchInput.addEventListener('keydown', (e) => {
+        if (e.key === 'Enter') handleSearch();
+    });
     elements.categoryFilter.addEventListener('change', handleCategoryFilter);
     elements.pageSizeSelect.addEventListener('change', handlePageSizeChange);
     
@@ -113,21 +121,39 @@ async function loadContacts() {
     try {
         showLoading(true);
         
-        let url = `${API_BASE_URL}?page=${currentPage}&size=${pageSize}`;
+        // 使用游标分页，翻到很深的页也不会变慢；容错搜索仍按页码分页
+        const after = encodeURIComponent(pageCursors[currentPage] || '');
+        let url = `${API_BASE_URL}?size=${pageSize}&after=${after}`;
         
-        if (currentKeyword) {
-            url = `${API_BASE_URL}/search?keyword=${encodeURIComponent(currentKeyword)}&page=${currentPage}&size=${pageSize}`;
+        if (currentKeyword && fuzzySearch) {
+            url = `${API_BASE_URL}/search?keyword=${encodeURIComponent(currentKeyword)}&page=${currentPage}&size=${pageSize}&fuzzy=true`;
+        } else if (currentKeyword) {
+            url = `${API_BASE_URL}/search?keyword=${encodeURIComponent(currentKeyword)}&size=${pageSize}&after=${after}`;
         } else if (currentCategory) {
-            url = `${API_BASE_URL}/category/${encodeURIComponent(currentCategory)}?page=${currentPage}&size=${pageSize}`;
+            url = `${API_BASE_URL}/category/${encodeURIComponent(currentCategory)}?size=${pageSize}&after=${after}`;
         }
         
         const response = await fetch(url);
         const data = await response.json();
         
         if (response.ok) {
-            displayContacts(data.contacts);
+            const contacts = data.contacts || data.content;
+            // 精确搜索无结果时自动改用容错搜索重试一次
+            if (currentKeyword && !fuzzySearch && currentPage === 0 && contacts.length === 0) {
+                fuzzySearch = true;
+                await loadContacts();
+                return;
+            }
+            if (data.nextCursor) {
+                pageCursors[currentPage + 1] = data.nextCursor;
+            }
+            displayContacts(contacts);
             updatePagination(data);
-            updateContactCount(data.totalItems);
+            if (data.totalItems !== undefined) {
+                updateContactCount(data.totalItems);
+            } else if (!currentKeyword && !currentCategory && currentPage === 0) {
+                loadContactCount();
+            }
         } else {
             showToast('加载联系人失败', 'error');
         }
@@ -216,10 +242,12 @@ function displayContacts(contacts) {
 
 // 更新分页控件
 function updatePagination(data) {
-    totalPages = data.totalPages;
+    const hasNext = data.nextCursor ? true : currentPage + 1 < (data.totalPages || 0);
+    const hasPrevious = currentPage > 0;
+    totalPages = hasNext ? currentPage + 2 : currentPage + 1;
     const container = elements.paginationContainer;
     
-    if (totalPages <= 1) {
+    if (!hasNext && !hasPrevious) {
         container.innerHTML = '';
         return;
     }
@@ -227,8 +255,7 @@ function updatePagination(data) {
     let paginationHTML = `
         <div class="flex items-center justify-between">
             <div class="text-sm text-gray-700">
-                显示第 ${currentPage * pageSize + 1} - ${Math.min((currentPage + 1) * pageSize, data.totalItems)} 条，
-                共 ${data.totalItems} 条记录
+                第 ${currentPage + 1} 页
             </div>
             <div class="flex items-center space-x-2">
     `;
@@ -236,24 +263,15 @@ function updatePagination(data) {
     // 上一页按钮
     paginationHTML += `
         <button onclick="changePage(${currentPage - 1})" 
-                ${!data.hasPrevious ? 'disabled' : ''} 
-                class="px-3 py-1 text-sm border border-gray-300 rounded ${!data.hasPrevious ? 'bg-gray-100 text-gray-400 cursor-not-allowed' : 'bg-white text-gray-700 hover:bg-gray-50'}">
+                ${!hasPrevious ? 'disabled' : ''} 
+                class="px-3 py-1 text-sm border border-gray-300 rounded ${!hasPrevious ? 'bg-gray-100 text-gray-400 cursor-not-allowed' : 'bg-white text-gray-700 hover:bg-gray-50'}">
             上一页
         </button>
     `;
     
-    // 页码按钮
+    // 已经访问过的页码可以直接跳回，游标分页不支持跳到未访问的页
     const startPage = Math.max(0, currentPage - 2);
-    const endPage = Math.min(totalPages - 1, currentPage + 2);
-    
-    if (startPage > 0) {
-        paginationHTML += `<button onclick="changePage(0)" class="px-3 py-1 text-sm border border-gray-300 rounded bg-white text-gray-700 hover:bg-gray-50">1</button>`;
-        if (startPage > 1) {
-            paginationHTML += `<span class="px-2 text-gray-500">...</span>`;
-        }
-    }
-    
-    for (let i = startPage; i <= endPage; i++) {
+    for (let i = startPage; i < totalPages; i++) {
         paginationHTML += `
             <button onclick="changePage(${i})" 
                     class="px-3 py-1 text-sm border rounded ${i === currentPage ? 'bg-blue-600 text-white border-blue-600' : 'bg-white text-gray-700 border-gray-300 hover:bg-gray-50'}">
@@ -262,18 +280,11 @@ function updatePagination(data) {
         `;
     }
     
-    if (endPage < totalPages - 1) {
-        if (endPage < totalPages - 2) {
-            paginationHTML += `<span class="px-2 text-gray-500">...</span>`;
-        }
-        paginationHTML += `<button onclick="changePage(${totalPages - 1})" class="px-3 py-1 text-sm border border-gray-300 rounded bg-white text-gray-700 hover:bg-gray-50">${totalPages}</button>`;
-    }
-    
     // 下一页按钮
     paginationHTML += `
         <button onclick="changePage(${currentPage + 1})" 
-                ${!data.hasNext ? 'disabled' : ''} 
-                class="px-3 py-1 text-sm border border-gray-300 rounded ${!data.hasNext ? 'bg-gray-100 text-gray-400 cursor-not-allowed' : 'bg-white text-gray-700 hover:bg-gray-50'}">
+                ${!hasNext ? 'disabled' : ''} 
+                class="px-3 py-1 text-sm border border-gray-300 rounded ${!hasNext ? 'bg-gray-100 text-gray-400 cursor-not-allowed' : 'bg-white text-gray-700 hover:bg-gray-50'}">
             下一页
         </button>
     `;
@@ -291,6 +302,19 @@ function updateContactCount(total) {
     elements.contactCount.textContent = `总计: ${total} 个联系人`;
 }
 
+// 游标分页不返回总数，未筛选时从统计接口读取
+async function loadContactCount() {
+    try {
+        const response = await fetch(`${API_BASE_URL}/statistics`);
+        if (response.ok) {
+            const statistics = await response.json();
+            updateContactCount(statistics.total);
+        }
+    } catch (error) {
+        console.error('Error loading contact count:', error);
+    }
+}
+
 // 显示/隐藏加载动画
 function showLoading(show) {
     elements.loadingSpinner.style.display = show ? 'flex' : 'none';
@@ -304,24 +328,58 @@ function changePage(page) {
     }
 }
 
+// 回到第一页并丢弃已记录的游标
+function resetPaging() {
+    currentPage = 0;
+    pageCursors = [''];
+}
+
 // 处理搜索
 function handleSearch() {
-    currentKeyword = elements.searchInput.value.trim();
-    currentPage = 0;
+    const keyword = elements.searchInput.value.trim();
+    if (keyword === currentKeyword) return;
+    currentKeyword = keyword;
+    fuzzySearch = false;
+    resetPaging();
     loadContacts();
 }
 
+// 输入联想
+async function handleSuggest() {
+    const prefix = elements.searchInput.value.trim();
+    if (!prefix) {
+        elements.searchSuggestions.innerHTML = '';
+        handleSearch();
+        return;
+    }
+    
+    try {
+        const response = await fetch(`${API_BASE_URL}/suggest?prefix=${encodeURIComponent(prefix)}&limit=8`);
+        if (!response.ok) return;
+        const suggestions = await response.json();
+        elements.searchSuggestions.innerHTML = '';
+        suggestions.forEach(suggestion => {
+            const option = document.createElement('option');
+            option.value = suggestion.name;
+            option.textContent = suggestion.phoneNumber;
+            elements.searchSuggestions.appendChild(option);
+        });
+    } catch (error) {
+        console.error('Error loading suggestions:', error);
+    }
+}
+
 // 处理分类筛选
 function handleCategoryFilter() {
     currentCategory = elements.categoryFilter.value;
-    currentPage = 0;
+    resetPaging();
     loadContacts();
 }
 
 // 处理页面大小变化
 function handlePageSizeChange() {
     pageSize = parseInt(elements.pageSizeSelect.value);
-    currentPage = 0;
+    resetPaging();
     loadContacts();
 }
 
@@ -331,7 +389,7 @@ function clearFilters() {
     elements.categoryFilter.value = '';
     currentKeyword = '';
     currentCategory = '';
-    currentPage = 0;
+    resetPaging();
     loadContacts();
 }
 
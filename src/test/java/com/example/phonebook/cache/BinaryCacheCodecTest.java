@@ -0,0 +1,112 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryCacheCodecTest {
+
+    @Test
+    void page_RoundTripsContentPagingAndSort() {
+        PageRequest pageable = PageRequest.of(2, 20, Sort.by(Sort.Order.desc("createdAt"), Sort.Order.asc("name")));
+        Page<ContactDTO> page = new PageImpl<>(Arrays.asList(contact(1L, "张三"), contact(2L, "李四")), pageable, 123);
+
+        BinaryCacheCodec.Entry entry = BinaryCacheCodec.decode(BinaryCacheCodec.encode(page, 42));
+
+        assertThat(entry.getStamp()).isEqualTo(42);
+        Page<?> decoded = (Page<?>) entry.getValue();
+        assertThat(decoded.getTotalElements()).isEqualTo(123);
+        assertThat(decoded.getPageable()).isEqualTo(pageable);
+        ContactDTO first = (ContactDTO) decoded.getContent().get(0);
+        assertThat(first.getId()).isEqualTo(1L);
+        assertThat(first.getName()).isEqualTo("张三");
+        assertThat(first.getPhoneNumber()).isEqualTo("13800138000");
+        assertThat(first.getEmail()).isNull();
+        assertThat(first.getCreatedAt()).isEqualTo(LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123000000));
+        assertThat(first.getScore()).isEqualTo(-3);
+    }
+
+    @Test
+    void sliceAndCounts_RoundTrip() {
+        Slice<ContactDTO> slice = new SliceImpl<>(Collections.singletonList(contact(7L, "王五")), PageRequest.of(0, 1), true);
+        Map<String, Long> counts = new LinkedHashMap<>();
+        counts.put("total", 10L);
+        counts.put("work", 4L);
+
+        Slice<?> decodedSlice = (Slice<?>) BinaryCacheCodec.decode(BinaryCacheCodec.encode(slice, 0)).getValue();
+        Object decodedCounts = BinaryCacheCodec.decode(BinaryCacheCodec.encode(counts, 0)).getValue();
+
+        assertThat(decodedSlice.hasNext()).isTrue();
+        assertThat(((ContactDTO) decodedSlice.getContent().get(0)).getName()).isEqualTo("王五");
+        assertThat(decodedCounts).isEqualTo(counts);
+    }
+
+    @Test
+    void encode_IsCompactAndRejectsUnsupportedValues() {
+        byte[] bytes = BinaryCacheCodec.encode(contact(1L, "张三"), 1);
+
+        assertThat(bytes.length).isLessThan(64);
+        assertThat(BinaryCacheCodec.encode(Collections.singletonList("text"), 1)).isNull();
+        assertThat(BinaryCacheCodec.encode(new Object(), 1)).isNull();
+        assertThrows(IllegalArgumentException.class, () -> BinaryCacheCodec.decode(Arrays.copyOf(bytes, 8)));
+    }
+
+    @Test
+    void changeMessage_RoundTripsSnapshots() {
+        ContactSnapshot before = new ContactSnapshot(5L, "张三", "13800138000", null, "work", "zhangsan", "zs");
+        ContactSnapshot after = new ContactSnapshot(5L, "张三", "13800138001", "a@b.com", "family", "zhangsan", "zs");
+
+        BinaryCacheCodec.Message message = BinaryCacheCodec.decodeMessage(
+                BinaryCacheCodec.encodeChange(-9L, 17, ContactChangedEvent.updated(before, after)));
+
+        assertThat(message.getNodeId()).isEqualTo(-9L);
+        assertThat(message.getSequence()).isEqualTo(17);
+        assertThat(message.isClear()).isFalse();
+        assertThat(message.getEvents()).hasSize(1);
+        assertThat(message.getEvents().get(0).getBefore().getCategory()).isEqualTo("work");
+        assertThat(message.getEvents().get(0).getAfter().getEmail()).isEqualTo("a@b.com");
+        assertThat(BinaryCacheCodec.decodeMessage(BinaryCacheCodec.encodeClear(1L, 2, null)).getClearedCache()).isNull();
+    }
+
+    @Test
+    void changesMessage_RoundTripsBatchInOrder() {
+        ContactSnapshot created = new ContactSnapshot(6L, "李四", "13900139000", null, "family", null, null);
+        ContactSnapshot deleted = ContactSnapshot.ofId(7L);
+
+        BinaryCacheCodec.Message message = BinaryCacheCodec.decodeMessage(BinaryCacheCodec.encodeChanges(3L, 18,
+                Arrays.asList(ContactChangedEvent.created(created), ContactChangedEvent.deleted(deleted))));
+
+        assertThat(message.isClear()).isFalse();
+        assertThat(message.getSequence()).isEqualTo(18);
+        assertThat(message.getEvents()).extracting(ContactChangedEvent::getContactId).containsExactly(6L, 7L);
+        assertThat(message.getEvents().get(0).isCreated()).isTrue();
+        assertThat(message.getEvents().get(1).isDeleted()).isTrue();
+    }
+
+    private static ContactDTO contact(Long id, String name) {
+        ContactDTO dto = new ContactDTO();
+        dto.setId(id);
+        dto.setName(name);
+        dto.setPhoneNumber("13800138000");
+        dto.setCategory("work");
+        dto.setCreatedAt(LocalDateTime.of(2024, 3, 1, 8, 30, 15, 123000000));
+        dto.setScore(-3);
+        return dto;
+    }
+}
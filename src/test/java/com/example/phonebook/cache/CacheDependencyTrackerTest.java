@@ -0,0 +1,63 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.dto.ContactDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheDependencyTrackerTest {
+
+    private final CacheDependencyTracker tracker = new CacheDependencyTracker();
+
+    @Test
+    void put_LoadInvalidatedMeanwhile_IsDiscarded() {
+        long version = tracker.beginLoad("contacts", "page_0");
+        List<Object> evicted = new ArrayList<>();
+        tracker.invalidate("contacts", (key, ids) -> false, evicted::add);
+
+        AtomicBoolean written = new AtomicBoolean();
+        boolean stored = tracker.put("contacts", "page_0", Collections.emptyList(), version, () -> written.set(true));
+
+        assertThat(stored).isFalse();
+        assertThat(written).isFalse();
+        assertThat(evicted).containsExactly("page_0");
+    }
+
+    @Test
+    void invalidate_OnlyEvictsEntriesMatchingTheirIds() {
+        long first = tracker.beginLoad("contacts", "page_0");
+        tracker.put("contacts", "page_0", Arrays.asList(contact(1L), contact(2L)), first, () -> { });
+        long second = tracker.beginLoad("contacts", "page_1");
+        tracker.put("contacts", "page_1", Arrays.asList(contact(3L), contact(4L)), second, () -> { });
+
+        List<Object> evicted = new ArrayList<>();
+        int count = tracker.invalidate("contacts", (key, ids) -> CacheDependencyTracker.contains(ids, 3L), evicted::add);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(evicted).containsExactly("page_1");
+        assertThat(tracker.trackedCount("contacts")).isEqualTo(1);
+    }
+
+    @Test
+    void prune_ForgetsEntriesNoLongerCached() {
+        tracker.put("contacts", "page_0", Collections.emptyList(), null, () -> { });
+        tracker.put("contacts", "page_1", Collections.emptyList(), null, () -> { });
+        tracker.beginLoad("contacts", "page_2");
+
+        tracker.prune("contacts", "page_1"::equals);
+
+        assertThat(tracker.trackedCount("contacts")).isEqualTo(2);
+    }
+
+    private static ContactDTO contact(Long id) {
+        ContactDTO dto = new ContactDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactCacheInvalidatorTest {
+
+    private static final Pageable BY_NAME = PageRequest.of(0, 10, Sort.by("name"));
+    private static final Pageable BY_CREATED = PageRequest.of(0, 10, Sort.by("createdAt"));
+
+    private final CacheDependencyTracker tracker = new CacheDependencyTracker();
+    private final ContactCacheInvalidator invalidator = new ContactCacheInvalidator();
+    private Cache contacts;
+    private Cache searchResults;
+
+    @BeforeEach
+    void setUp() {
+        contacts = cache("contacts");
+        searchResults = cache("searchResults");
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(Arrays.asList(contacts, searchResults, cache("contact")));
+        cacheManager.afterPropertiesSet();
+        ReflectionTestUtils.setField(invalidator, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(invalidator, "tracker", tracker);
+
+        load(contacts, ContactCacheKey.list("page", BY_CREATED), 1L, 2L);
+        load(contacts, ContactCacheKey.list("page", PageRequest.of(1, 10, Sort.by("createdAt"))), 3L, 4L);
+        load(contacts, ContactCacheKey.category("page", "family", BY_NAME), 1L);
+        load(contacts, ContactCacheKey.category("page", "work", BY_NAME), 3L);
+        load(searchResults, ContactCacheKey.keyword("page", "张", BY_NAME), 1L);
+        load(searchResults, ContactCacheKey.keyword("page", "王五", BY_NAME), 5L);
+        load(searchResults, ContactCacheKey.fuzzy("zhangsna", BY_NAME));
+    }
+
+    @Test
+    void update_NonSortFieldChange_EvictsOnlyPagesContainingContact() {
+        invalidator.onContactChanged(ContactChangedEvent.updated(
+                snapshot(3L, "李四", "13900139000", "work"),
+                snapshot(3L, "李四", "13900139001", "work")));
+
+        assertThat(contacts.get(ContactCacheKey.list("page", BY_CREATED))).isNotNull();
+        assertThat(contacts.get(ContactCacheKey.list("page", PageRequest.of(1, 10, Sort.by("createdAt"))))).isNull();
+        assertThat(contacts.get(ContactCacheKey.category("page", "family", BY_NAME))).isNotNull();
+        assertThat(contacts.get(ContactCacheKey.category("page", "work", BY_NAME))).isNull();
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "张", BY_NAME))).isNotNull();
+    }
+
+    @Test
+    void create_EvictsListsAffectedCategoryAndMatchingSearches() {
+        invalidator.onContactChanged(ContactChangedEvent.created(snapshot(9L, "张三丰", "13700137000", "family")));
+
+        assertThat(contacts.get(ContactCacheKey.list("page", BY_CREATED))).isNull();
+        assertThat(contacts.get(ContactCacheKey.category("page", "family", BY_NAME))).isNull();
+        assertThat(contacts.get(ContactCacheKey.category("page", "work", BY_NAME))).isNotNull();
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "张", BY_NAME))).isNull();
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "王五", BY_NAME))).isNotNull();
+    }
+
+    @Test
+    void create_FuzzyEntryEvictedWhenNameWithinEditDistance() {
+        invalidator.onContactChanged(ContactChangedEvent.created(
+                new ContactSnapshot(9L, "zhangsan", "13700137000", null, "family", "zhangsan", "z")));
+
+        assertThat(searchResults.get(ContactCacheKey.fuzzy("zhangsna", BY_NAME))).isNull();
+    }
+
+    @Test
+    void delete_WithIdOnlySnapshot_EvictsConservatively() {
+        invalidator.onContactChanged(ContactChangedEvent.deleted(ContactSnapshot.ofId(7L)));
+
+        assertThat(contacts.get(ContactCacheKey.category("page", "work", BY_NAME))).isNull();
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "王五", BY_NAME))).isNull();
+    }
+
+    @Test
+    void staleLoad_AfterInvalidation_IsNotCached() {
+        ContactCacheKey key = ContactCacheKey.keyword("page", "李", BY_NAME);
+        assertThat(searchResults.get(key)).isNull();
+
+        // 加载尚未写入时发生了相关写操作
+        invalidator.onContactChanged(ContactChangedEvent.created(snapshot(8L, "李雷", "13600136000", "work")));
+        searchResults.put(key, page());
+
+        assertThat(searchResults.get(key)).isNull();
+    }
+
+    @Test
+    void eventsInTransaction_AppliedTogetherAfterCommit() {
+        inTransaction(true, () -> {
+            invalidator.onContactChanged(ContactChangedEvent.updated(
+                    snapshot(3L, "李四", "13900139000", "work"), snapshot(3L, "李四", "13900139001", "work")));
+            invalidator.onContactChanged(ContactChangedEvent.updated(
+                    snapshot(5L, "王五", "13500135000", "work"), snapshot(5L, "王五", "13500135001", "work")));
+
+            // 提交前不失效
+            assertThat(contacts.get(ContactCacheKey.category("page", "work", BY_NAME))).isNotNull();
+            assertThat(searchResults.get(ContactCacheKey.keyword("page", "王五", BY_NAME))).isNotNull();
+        });
+
+        assertThat(contacts.get(ContactCacheKey.category("page", "work", BY_NAME))).isNull();
+        assertThat(contacts.get(ContactCacheKey.list("page", PageRequest.of(1, 10, Sort.by("createdAt"))))).isNull();
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "王五", BY_NAME))).isNull();
+        assertThat(contacts.get(ContactCacheKey.category("page", "family", BY_NAME))).isNotNull();
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "张", BY_NAME))).isNotNull();
+        assertThat(TransactionSynchronizationManager.getResource(invalidator)).isNull();
+    }
+
+    @Test
+    void eventsInRolledBackTransaction_Discarded() {
+        inTransaction(false, () -> invalidator.onContactChanged(
+                ContactChangedEvent.created(snapshot(9L, "张三丰", "13700137000", "family"))));
+
+        assertThat(contacts.get(ContactCacheKey.list("page", BY_CREATED))).isNotNull();
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "张", BY_NAME))).isNotNull();
+        assertThat(TransactionSynchronizationManager.getResource(invalidator)).isNull();
+    }
+
+    @Test
+    void bulkChangeOverScoringLimit_EvictsAllSearchResults() {
+        inTransaction(true, () -> {
+            for (long id = 100; id <= 100 + ContactCacheInvalidator.MAX_SCORED_CHANGES; id++) {
+                invalidator.onContactChanged(ContactChangedEvent.updated(
+                        snapshot(id, "批量" + id, "13600136000", "work"), snapshot(id, "批量" + id, "13600136001", "work")));
+            }
+        });
+
+        assertThat(searchResults.get(ContactCacheKey.keyword("page", "张", BY_NAME))).isNull();
+        assertThat(searchResults.get(ContactCacheKey.fuzzy("zhangsna", BY_NAME))).isNull();
+        // 列表页仍按汇总后的变更精确判断
+        assertThat(contacts.get(ContactCacheKey.category("page", "family", BY_NAME))).isNotNull();
+    }
+
+    @Test
+    void contactPut_OlderVersionDoesNotOverwriteNewer() {
+        Cache contact = cache("contact");
+        ContactDTO newer = new ContactDTO();
+        newer.setId(1L);
+        newer.setUpdatedAt(java.time.LocalDateTime.of(2024, 1, 2, 0, 0));
+        ContactDTO older = new ContactDTO();
+        older.setId(1L);
+        older.setUpdatedAt(java.time.LocalDateTime.of(2024, 1, 1, 0, 0));
+
+        contact.put(1L, newer);
+        contact.put(1L, older);
+
+        assertThat(contact.get(1L).get()).isSameAs(newer);
+    }
+
+    // 模拟一个事务：执行 body 后按 commit 提交或回滚，触发已注册的同步回调
+    private static void inTransaction(boolean commit, Runnable body) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            body.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            for (TransactionSynchronization synchronization : synchronizations) {
+                if (commit) {
+                    synchronization.afterCommit();
+                }
+                synchronization.afterCompletion(commit
+                        ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private Cache cache(String name) {
+        return new TrackingCaffeineCache(name, Caffeine.newBuilder().build(), false, tracker);
+    }
+
+    // 模拟 @Cacheable：先未命中再写入
+    private static void load(Cache cache, Object key, Long... ids) {
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, page(ids));
+    }
+
+    private static PageImpl<ContactDTO> page(Long... ids) {
+        List<ContactDTO> content = new ArrayList<>();
+        for (Long id : ids) {
+            ContactDTO dto = new ContactDTO();
+            dto.setId(id);
+            content.add(dto);
+        }
+        return new PageImpl<>(content);
+    }
+
+    private static ContactSnapshot snapshot(Long id, String name, String phone, String category) {
+        return new ContactSnapshot(id, name, phone, null, category, null, null);
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.phonebook.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * 测试用的进程内 Redis 协议（RESP2）服务端
+ *
+ * 只实现二级缓存用到的命令：GET、SET（PX）、DEL、INCR、PUBLISH、SUBSCRIBE 以及握手时的 PING/HELLO。
+ * HELLO 回复错误，客户端会退回 RESP2。
+ */
+class EmbeddedRedisServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Value> data = new ConcurrentHashMap<>();
+    private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Client> clients = new CopyOnWriteArraySet<>();
+    private volatile boolean running = true;
+
+    EmbeddedRedisServer() throws IOException {
+        this(0);
+    }
+
+    EmbeddedRedisServer(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "embedded-redis");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    byte[] rawGet(String key) {
+        Value value = data.get(key);
+        return value == null || value.expired() ? null : value.bytes;
+    }
+
+    void rawSet(String key, byte[] bytes) {
+        data.put(key, new Value(bytes, 0));
+    }
+
+    /**
+     * 断开所有客户端连接，模拟网络闪断
+     */
+    void dropConnections() {
+        for (Client client : clients) {
+            client.close();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        dropConnections();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Client client = new Client(socket);
+                clients.add(client);
+                Thread thread = new Thread(client::serve, "embedded-redis-client");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private static final class Value {
+        final byte[] bytes;
+        final long expiresAt;
+
+        Value(byte[] bytes, long expiresAt) {
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean expired() {
+            return expiresAt > 0 && System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private final class Client {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void serve() {
+            try {
+                while (true) {
+                    List<byte[]> command = readCommand();
+                    if (command == null) {
+                        break;
+                    }
+                    execute(command);
+                }
+            } catch (IOException e) {
+                // 连接断开
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            clients.remove(this);
+            for (Set<Client> channel : subscribers.values()) {
+                channel.remove(this);
+            }
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // 已关闭
+            }
+        }
+
+        private void execute(List<byte[]> command) throws IOException {
+            String name = text(command.get(0)).toUpperCase();
+            switch (name) {
+                case "PING":
+                    simple("PONG");
+                    break;
+                case "GET": {
+                    byte[] value = rawGet(text(command.get(1)));
+                    bulk(value);
+                    break;
+                }
+                case "SET": {
+                    long expiresAt = 0;
+                    for (int i = 3; i + 1 < command.size(); i += 2) {
+                        if ("PX".equalsIgnoreCase(text(command.get(i)))) {
+                            expiresAt = System.currentTimeMillis() + Long.parseLong(text(command.get(i + 1)));
+                        }
+                    }
+                    data.put(text(command.get(1)), new Value(command.get(2), expiresAt));
+                    simple("OK");
+                    break;
+                }
+                case "DEL": {
+                    long removed = 0;
+                    for (int i = 1; i < command.size(); i++) {
+                        if (data.remove(text(command.get(i))) != null) {
+                            removed++;
+                        }
+                    }
+                    integer(removed);
+                    break;
+                }
+                case "INCR": {
+                    long next;
+                    synchronized (data) {
+                        byte[] current = rawGet(text(command.get(1)));
+                        next = (current == null ? 0 : Long.parseLong(text(current))) + 1;
+                        data.put(text(command.get(1)), new Value(String.valueOf(next).getBytes(StandardCharsets.US_ASCII), 0));
+                    }
+                    integer(next);
+                    break;
+                }
+                case "PUBLISH":
+                    integer(publish(text(command.get(1)), command.get(2)));
+                    break;
+                case "SUBSCRIBE":
+                    for (int i = 1; i < command.size(); i++) {
+                        String channel = text(command.get(i));
+                        subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(this);
+                        push("subscribe".getBytes(StandardCharsets.US_ASCII), command.get(i), null, i);
+                    }
+                    break;
+                default:
+                    error("ERR unknown command '" + name + "'");
+            }
+        }
+
+        private int publish(String channel, byte[] message) throws IOException {
+            Set<Client> targets = subscribers.get(channel);
+            if (targets == null) {
+                return 0;
+            }
+            for (Client target : targets) {
+                target.push("message".getBytes(StandardCharsets.US_ASCII),
+                        channel.getBytes(StandardCharsets.UTF_8), message, 0);
+            }
+            return targets.size();
+        }
+
+        // 订阅确认（第三项为整数）或消息推送（第三项为内容）
+        private synchronized void push(byte[] kind, byte[] channel, byte[] payload, long count) throws IOException {
+            out.write("*3\r\n".getBytes(StandardCharsets.US_ASCII));
+            writeBulk(kind);
+            writeBulk(channel);
+            if (payload != null) {
+                writeBulk(payload);
+            } else {
+                out.write((":" + count + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            }
+            out.flush();
+        }
+
+        private synchronized void simple(String s) throws IOException {
+            out.write(("+" + s + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private synchronized void error(String s) throws IOException {
+            out.write(("-" + s + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private synchronized void integer(long value) throws IOException {
+            out.write((":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private synchronized void bulk(byte[] value) throws IOException {
+            writeBulk(value);
+            out.flush();
+        }
+
+        private void writeBulk(byte[] value) throws IOException {
+            if (value == null) {
+                out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(value);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private List<byte[]> readCommand() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return null;
+            }
+            if (first != '*') {
+                throw new IOException("只支持数组形式的命令");
+            }
+            int count = Integer.parseInt(readLine());
+            List<byte[]> args = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("只支持批量字符串参数");
+                }
+                int length = Integer.parseInt(readLine());
+                byte[] arg = new byte[length];
+                int read = 0;
+                while (read < length) {
+                    int n = in.read(arg, read, length - read);
+                    if (n < 0) {
+                        throw new EOFException();
+                    }
+                    read += n;
+                }
+                in.read();
+                in.read();
+                args.add(arg);
+            }
+            return args;
+        }
+
+        private String readLine() throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b < 0) {
+                    throw new EOFException();
+                }
+                line.write(b);
+            }
+            in.read();
+            return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+        }
+
+        private String text(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeLookupCacheTest {
+
+    private final NegativeLookupCache cache = new NegativeLookupCache();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cache, "maxEntries", 100L);
+        cache.init();
+    }
+
+    @Test
+    void create_EvictsMatchingPhoneInAnyFormatEmailAndId() {
+        cache.recordMissingPhone("13800138000", cache.begin());
+        cache.recordMissingPhone("13900139000", cache.begin());
+        cache.recordMissingEmail("new@example.com", cache.begin());
+        cache.recordMissingId(9L, cache.begin());
+        cache.recordMissingId(10L, cache.begin());
+
+        cache.onContactChanged(ContactChangedEvent.created(
+                new ContactSnapshot(9L, "张三", "+86 138-0013-8000", "new@example.com", "work", null, null)));
+
+        assertThat(cache.isMissingPhone("13800138000")).isFalse();
+        assertThat(cache.isMissingEmail("new@example.com")).isFalse();
+        assertThat(cache.isMissingId(9L)).isFalse();
+        assertThat(cache.isMissingPhone("13900139000")).isTrue();
+        assertThat(cache.isMissingId(10L)).isTrue();
+    }
+
+    @Test
+    void record_ChangeDuringLookup_NotCached() {
+        long token = cache.begin();
+        // 查询进行中另一个事务提交了新增
+        cache.onContactChanged(ContactChangedEvent.created(
+                new ContactSnapshot(9L, "张三", "13800138000", null, "work", null, null)));
+
+        cache.recordMissingPhone("13800138000", token);
+
+        assertThat(cache.isMissingPhone("13800138000")).isFalse();
+    }
+
+    @Test
+    void remoteClearAfterReconnect_DropsEverything() {
+        cache.recordMissingEmail("a@example.com", cache.begin());
+
+        cache.onRemoteClear(null);
+
+        assertThat(cache.isMissingEmail("a@example.com")).isFalse();
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.phonebook.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TrackingCaffeineCacheTest {
+
+    private static final int CALLERS = 8;
+
+    private final CacheDependencyTracker tracker = new CacheDependencyTracker();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void get_ConcurrentMisses_RunLoaderOnce() throws Exception {
+        TrackingCaffeineCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> cache.get("stats", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "counts";
+            })));
+        }
+        awaitCoalesced(cache, CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("counts");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(cache.getCoalescedLoads()).isEqualTo(CALLERS - 1);
+        assertThat(cache.get("stats").get()).isEqualTo("counts");
+    }
+
+    @Test
+    void get_LeaderFails_WaitersReceiveSameFailure() throws Exception {
+        TrackingCaffeineCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("数据库不可用");
+
+        Future<Object> leader = executor.submit(() -> cache.get("stats", () -> {
+            loading.countDown();
+            release.await();
+            throw failure;
+        }));
+        awaitLoading(loading);
+        Future<Object> waiter = executor.submit(() -> cache.get("stats", () -> "never"));
+        awaitCoalesced(cache, 1);
+        release.countDown();
+
+        for (Future<Object> result : new Future[]{leader, waiter}) {
+            Exception e = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(e.getCause()).isInstanceOf(Cache.ValueRetrievalException.class).hasCause(failure);
+        }
+        assertThat(cache.get("stats")).isNull();
+    }
+
+    @Test
+    void get_WaitTimesOut_CallerLoadsItself() throws Exception {
+        TrackingCaffeineCache cache = cache(Duration.ofMillis(50));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> cache.get("stats", () -> {
+            loading.countDown();
+            release.await();
+            return "slow";
+        }));
+        awaitLoading(loading);
+
+        assertThat(cache.get("stats", () -> "fast")).isEqualTo("fast");
+        assertThat(cache.getLoadWaitTimeouts()).isEqualTo(1);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow");
+        assertThat(cache.get("stats").get()).isEqualTo("slow");
+    }
+
+    @Test
+    void get_InvalidatedWhileLoading_ResultNotCached() throws Exception {
+        TrackingCaffeineCache cache = cache(Duration.ofSeconds(5));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> cache.get("stats", () -> {
+            loading.countDown();
+            release.await();
+            return "stale";
+        }));
+        awaitLoading(loading);
+        tracker.invalidate("categoryStats", (key, ids) -> true, cache::evict);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("stale");
+        assertThat(cache.get("stats")).isNull();
+    }
+
+    @Test
+    void get_EvictedWithMaxStale_ServesStaleAndRefreshesInBackground() {
+        Queue<Runnable> background = new ConcurrentLinkedQueue<>();
+        TrackingCaffeineCache cache = staleCache(Caffeine.newBuilder(),
+                new RefreshPolicy(null, Duration.ofMinutes(1), null, background::add));
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("stats", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        tracker.invalidate("categoryStats", (key, ids) -> true, cache::evict);
+
+        assertThat(cache.get("stats", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.get("stats", () -> "v" + loads.incrementAndGet())).isEqualTo("v1");
+        assertThat(cache.getStaleServed()).isEqualTo(2);
+        assertThat(background).hasSize(1);
+
+        background.poll().run();
+        assertThat(cache.get("stats", () -> "v" + loads.incrementAndGet())).isEqualTo("v2");
+        assertThat(cache.getRefreshes()).isEqualTo(1);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_PastTtlWithinMaxStale_ServesStale() {
+        AtomicLong now = new AtomicLong();
+        Queue<Runnable> background = new ConcurrentLinkedQueue<>();
+        // 与 CacheConfig 一致：物理过期时间为 ttl + maxStale
+        TrackingCaffeineCache cache = staleCache(Caffeine.newBuilder().ticker(now::get).expireAfterWrite(Duration.ofSeconds(70)),
+                new RefreshPolicy(Duration.ofSeconds(60), Duration.ofSeconds(10), null, background::add));
+        cache.get("stats", () -> "old");
+
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        assertThat(cache.get("stats")).isNull();
+        assertThat(cache.get("stats", () -> "blocking")).isEqualTo("old");
+        assertThat(cache.getStaleServed()).isEqualTo(1);
+
+        background.poll().run();
+        assertThat(cache.get("stats").get()).isEqualTo("blocking");
+    }
+
+    @Test
+    void get_PastMaxStale_LoadsSynchronously() throws Exception {
+        Queue<Runnable> background = new ConcurrentLinkedQueue<>();
+        TrackingCaffeineCache cache = staleCache(Caffeine.newBuilder(),
+                new RefreshPolicy(null, Duration.ofMillis(20), null, background::add));
+        cache.get("stats", () -> "old");
+        cache.evict("stats");
+
+        Thread.sleep(50);
+        assertThat(cache.get("stats", () -> "new")).isEqualTo("new");
+        assertThat(cache.getStaleServed()).isZero();
+        assertThat(background).isEmpty();
+    }
+
+    @Test
+    void get_PastRefreshAfterWrite_RefreshesAhead() {
+        AtomicLong now = new AtomicLong();
+        Queue<Runnable> background = new ConcurrentLinkedQueue<>();
+        TrackingCaffeineCache cache = staleCache(Caffeine.newBuilder().ticker(now::get).expireAfterWrite(Duration.ofMinutes(10)),
+                new RefreshPolicy(Duration.ofMinutes(10), null, Duration.ofMinutes(8), background::add));
+        cache.get("stats", () -> "old");
+
+        now.addAndGet(Duration.ofMinutes(9).toNanos());
+        assertThat(cache.get("stats", () -> "new")).isEqualTo("old");
+        assertThat(cache.get("stats", () -> "new")).isEqualTo("old");
+        assertThat(background).hasSize(1);
+
+        background.poll().run();
+        assertThat(cache.get("stats").get()).isEqualTo("new");
+        assertThat(cache.getStaleServed()).isZero();
+    }
+
+    @Test
+    void refresh_InvalidatedWhileLoading_KeepsServingStale() {
+        Queue<Runnable> background = new ConcurrentLinkedQueue<>();
+        TrackingCaffeineCache cache = staleCache(Caffeine.newBuilder(),
+                new RefreshPolicy(null, Duration.ofMinutes(1), null, background::add));
+        cache.get("stats", () -> "v1");
+        cache.evict("stats");
+
+        assertThat(cache.get("stats", () -> {
+            // 后台加载期间又发生了一次失效
+            tracker.invalidate("categoryStats", (key, ids) -> true, cache::evict);
+            return "v2";
+        })).isEqualTo("v1");
+        background.poll().run();
+
+        assertThat(cache.get("stats")).isNull();
+        assertThat(cache.get("stats", () -> "v3")).isEqualTo("v1");
+    }
+
+    @Test
+    void refresh_LoaderFails_CountsFailureAndKeepsStale() {
+        Queue<Runnable> background = new ConcurrentLinkedQueue<>();
+        TrackingCaffeineCache cache = staleCache(Caffeine.newBuilder(),
+                new RefreshPolicy(null, Duration.ofMinutes(1), null, background::add));
+        cache.get("stats", () -> "v1");
+        cache.evict("stats");
+
+        Callable<String> failing = () -> {
+            throw new IllegalStateException("数据库不可用");
+        };
+        assertThat(cache.get("stats", failing)).isEqualTo("v1");
+        background.poll().run();
+
+        assertThat(cache.getRefreshFailures()).isEqualTo(1);
+        assertThat(cache.get("stats", () -> "v2")).isEqualTo("v1");
+    }
+
+    private TrackingCaffeineCache staleCache(Caffeine<Object, Object> builder, RefreshPolicy policy) {
+        return new TrackingCaffeineCache("categoryStats", builder.build(), false, tracker, Duration.ofSeconds(5), policy);
+    }
+
+    private TrackingCaffeineCache cache(Duration loadWaitTimeout) {
+        return new TrackingCaffeineCache("categoryStats", Caffeine.newBuilder().build(), false, tracker, loadWaitTimeout);
+    }
+
+    private static void awaitCoalesced(TrackingCaffeineCache cache, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getCoalescedLoads() < expected) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("等待超时：合并的加载数 " + cache.getCoalescedLoads() + "，期望 " + expected);
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    // 加载函数开始执行时，领头线程已登记为加载中
+    private static void awaitLoading(CountDownLatch loading) throws InterruptedException {
+        if (!loading.await(5, TimeUnit.SECONDS)) {
+            throw new AssertionError("等待超时：加载函数未开始执行");
+        }
+    }
+}
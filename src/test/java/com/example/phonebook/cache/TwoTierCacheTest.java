@@ -0,0 +1,200 @@
+package com.example.phonebook.cache;
+
+import com.example.phonebook.config.CacheConfig;
+import com.example.phonebook.config.CacheSpecProperties;
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoTierCacheTest {
+
+    private static final Pageable BY_NAME = PageRequest.of(0, 10, Sort.by("name"));
+    private static final ContactCacheKey ZHANG = ContactCacheKey.keyword("page", "张", BY_NAME);
+
+    private EmbeddedRedisServer server;
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EmbeddedRedisServer();
+        nodeA = new Node(server.getPort());
+        nodeB = new Node(server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        nodeA.store.stop();
+        nodeB.store.stop();
+        server.close();
+    }
+
+    @Test
+    void get_LocalMiss_ServedFromSharedCacheAndBackfilled() {
+        load(nodeA.searchResults, ZHANG, page(1L, "张三"));
+
+        Cache.ValueWrapper value = nodeB.searchResults.get(ZHANG);
+
+        assertThat(value).isNotNull();
+        assertThat(((Page<?>) value.get()).getContent()).extracting("name").containsExactly("张三");
+        assertThat(((TwoTierCache) nodeB.searchResults).getNativeCache().getIfPresent(ZHANG)).isNotNull();
+    }
+
+    @Test
+    void change_OnOneNode_EvictsLocalCopiesOnOtherNodes() {
+        load(nodeA.searchResults, ZHANG, page(1L, "张三"));
+        // 写入 L2 是异步的
+        awaitTrue(() -> server.rawGet("phonebook:cache:searchResults:" + ZHANG) != null);
+        assertThat(nodeB.searchResults.get(ZHANG)).isNotNull();
+
+        nodeA.invalidator.onContactChanged(ContactChangedEvent.created(
+                new ContactSnapshot(9L, "张三丰", "13700137000", null, "family", null, null)));
+
+        awaitTrue(() -> ((TwoTierCache) nodeB.searchResults).getNativeCache().getIfPresent(ZHANG) == null);
+        assertThat(nodeB.searchResults.get(ZHANG)).isNull();
+        assertThat(nodeB.store.currentSequence()).isEqualTo(1);
+    }
+
+    @Test
+    void get_SharedEntryOlderThanLatestChange_IsIgnored() {
+        ContactCacheKey other = ContactCacheKey.keyword("page", "王五", BY_NAME);
+        load(nodeA.searchResults, other, page(5L, "王五"));
+        nodeA.invalidator.onContactChanged(ContactChangedEvent.created(
+                new ContactSnapshot(9L, "赵六", "13700137000", null, "family", null, null)));
+        awaitTrue(() -> nodeB.store.currentSequence() == 1);
+
+        // 其他实例在变更前写入的值仍留在 Redis 中，但序号已过期
+        assertThat(server.rawGet("phonebook:cache:searchResults:" + other)).isNotNull();
+        assertThat(nodeB.searchResults.get(other)).isNull();
+    }
+
+    @Test
+    void reconnect_ClearsLocalCachesBecauseNotificationsMayBeLost() {
+        load(nodeB.searchResults, ZHANG, page(1L, "张三"));
+
+        server.dropConnections();
+
+        awaitTrue(() -> ((TwoTierCache) nodeB.searchResults).getNativeCache().getIfPresent(ZHANG) == null);
+    }
+
+    @Test
+    void redisUnavailable_FallsBackToLocalCache() throws Exception {
+        load(nodeA.searchResults, ZHANG, page(1L, "张三"));
+        server.close();
+
+        assertThat(nodeA.searchResults.get(ZHANG)).isNotNull();
+        ContactCacheKey missing = ContactCacheKey.keyword("page", "李", BY_NAME);
+        assertThat(nodeA.searchResults.get(missing)).isNull();
+        nodeA.searchResults.put(missing, page(2L, "李四"));
+        assertThat(nodeA.searchResults.get(missing)).isNotNull();
+    }
+
+    @Test
+    void redisUnreachableAtStartup_StartsWithLocalCacheAndConnectsLater() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        Node late = new Node(port, false);
+        try {
+            // 启动不因 Redis 不可达而失败，读写按未命中处理
+            assertThat(late.store.isConnected()).isFalse();
+            load(late.searchResults, ZHANG, page(1L, "张三"));
+            assertThat(late.searchResults.get(ZHANG)).isNotNull();
+
+            try (EmbeddedRedisServer lateServer = new EmbeddedRedisServer(port)) {
+                awaitTrue(late.store::isConnected);
+                // 未连上期间可能漏收了其他实例的通知
+                awaitTrue(() -> ((TwoTierCache) late.searchResults).getNativeCache().getIfPresent(ZHANG) == null);
+                load(late.searchResults, ZHANG, page(1L, "张三"));
+                awaitTrue(() -> lateServer.rawGet("phonebook:cache:searchResults:" + ZHANG) != null);
+            }
+        } finally {
+            late.store.stop();
+        }
+    }
+
+    // 模拟 @Cacheable：未命中后写入
+    private static void load(Cache cache, Object key, Object value) {
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, value);
+    }
+
+    private static PageImpl<ContactDTO> page(Long id, String name) {
+        ContactDTO dto = new ContactDTO();
+        dto.setId(id);
+        dto.setName(name);
+        return new PageImpl<>(Collections.singletonList(dto), BY_NAME, 1);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("等待超时");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    // 一个应用实例：独立的本地缓存、依赖跟踪和失效处理，共用同一个 Redis
+    private static final class Node {
+        final RedisCacheStore store = new RedisCacheStore();
+        final ContactCacheInvalidator invalidator = new ContactCacheInvalidator();
+        final Cache searchResults;
+
+        Node(int port) {
+            this(port, true);
+        }
+
+        Node(int port, boolean awaitConnected) {
+            CacheSpecProperties properties = new CacheSpecProperties();
+            properties.getRedis().setEnabled(true);
+            properties.getRedis().setHost("127.0.0.1");
+            properties.getRedis().setPort(port);
+            properties.getRedis().setTimeout(java.time.Duration.ofSeconds(1));
+            properties.getRedis().setConnectRetryInterval(java.time.Duration.ofMillis(100));
+            ReflectionTestUtils.setField(store, "cacheSpecProperties", properties);
+            store.start();
+            if (awaitConnected) {
+                awaitTrue(store::isConnected);
+            }
+
+            CacheDependencyTracker tracker = new CacheDependencyTracker();
+            CacheConfig config = new CacheConfig();
+            ReflectionTestUtils.setField(config, "cacheSpecProperties", properties);
+            ReflectionTestUtils.setField(config, "cacheDependencyTracker", tracker);
+            ReflectionTestUtils.setField(config, "redisCacheStore", store);
+            CacheManager cacheManager = config.cacheManager();
+
+            ReflectionTestUtils.setField(invalidator, "cacheManager", cacheManager);
+            ReflectionTestUtils.setField(invalidator, "tracker", tracker);
+            ReflectionTestUtils.setField(invalidator, "redisCacheStore", store);
+            invalidator.subscribe();
+            searchResults = cacheManager.getCache("searchResults");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.phonebook.config;
+
+import com.example.phonebook.cache.CacheDependencyTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheConfigTest {
+
+    @Test
+    void cacheManager_BoundsCachesByConfiguredWeight() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setMaximumWeight(10);
+        spec.setExpireAfterWrite(Duration.ofMinutes(1));
+        properties.getSpecs().put("searchResults", spec);
+        CacheConfig config = new CacheConfig();
+        ReflectionTestUtils.setField(config, "cacheSpecProperties", properties);
+        ReflectionTestUtils.setField(config, "cacheDependencyTracker", new CacheDependencyTracker());
+
+        CacheManager cacheManager = config.cacheManager();
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache("searchResults");
+        for (int i = 0; i < 20; i++) {
+            cache.put("search_" + i, new PageImpl<>(Arrays.asList("a", "b", "c")));
+        }
+        cache.get("search_missing");
+        cache.getNativeCache().cleanUp();
+
+        assertThat(cache.getNativeCache().policy().eviction().get().getMaximum()).isEqualTo(10);
+        assertThat(cache.getNativeCache().policy().eviction().get().weightedSize().getAsLong()).isLessThanOrEqualTo(10);
+        assertThat(cache.getNativeCache().stats().evictionCount()).isPositive();
+        assertThat(cache.getNativeCache().stats().missCount()).isEqualTo(1);
+        assertThat(cacheManager.getCacheNames()).contains("contacts", "contact", "searchResults");
+    }
+
+    @Test
+    void applicationYml_ListAndSearchCachesDoNotServeStaleAfterWrites() throws IOException {
+        List<PropertySource<?>> sources = new YamlPropertySourceLoader()
+                .load("application", new ClassPathResource("application.yml"));
+        Map<String, CacheSpecProperties.Spec> specs = new Binder(ConfigurationPropertySources.from(sources.get(0)))
+                .bind("phonebook.cache.specs", Bindable.mapOf(String.class, CacheSpecProperties.Spec.class))
+                .get();
+
+        // 失效时会保留旧值，列表页和搜索结果写后需立即可见
+        assertThat(specs.get("contacts").getMaxStale()).isNull();
+        assertThat(specs.get("searchResults").getMaxStale()).isNull();
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.phonebook.controller;
 
 import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.dto.ContactSuggestionDTO;
+import com.example.phonebook.job.ContactImportJob;
+import com.example.phonebook.service.BatchWriteException;
 import com.example.phonebook.service.ContactService;
+import com.example.phonebook.stats.SearchKeywordStats;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -34,6 +39,12 @@ class ContactControllerTest {
     @MockBean
     private MeterRegistry meterRegistry;
 
+    @MockBean
+    private SearchKeywordStats searchKeywordStats;
+
+    @MockBean
+    private ContactImportJob contactImportJob;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -54,8 +65,6 @@ class ContactControllerTest {
     @Test
     void createContact_ValidInput_ReturnsCreated() throws Exception {
         // Given
-        when(contactService.isPhoneNumberExists(anyString(), any())).thenReturn(false);
-        when(contactService.isEmailExists(anyString(), any())).thenReturn(false);
         when(contactService.createContact(any(ContactDTO.class))).thenReturn(testContactDTO);
 
         // When & Then
@@ -72,7 +81,7 @@ class ContactControllerTest {
     @Test
     void createContact_DuplicatePhoneNumber_ReturnsBadRequest() throws Exception {
         // Given
-        when(contactService.isPhoneNumberExists(anyString(), any())).thenReturn(true);
+        when(contactService.createContact(any(ContactDTO.class))).thenThrow(new DuplicateKeyException("电话号码已存在"));
 
         // When & Then
         mockMvc.perform(post("/api/contacts")
@@ -81,14 +90,13 @@ class ContactControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("电话号码已存在"));
 
-        verify(contactService, never()).createContact(any(ContactDTO.class));
+        verify(contactService, never()).isPhoneNumberExists(anyString(), any());
     }
 
     @Test
     void createContact_DuplicateEmail_ReturnsBadRequest() throws Exception {
         // Given
-        when(contactService.isPhoneNumberExists(anyString(), any())).thenReturn(false);
-        when(contactService.isEmailExists(anyString(), any())).thenReturn(true);
+        when(contactService.createContact(any(ContactDTO.class))).thenThrow(new DuplicateKeyException("邮箱已存在"));
 
         // When & Then
         mockMvc.perform(post("/api/contacts")
@@ -97,7 +105,7 @@ class ContactControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("邮箱已存在"));
 
-        verify(contactService, never()).createContact(any(ContactDTO.class));
+        verify(contactService, never()).isEmailExists(anyString(), any());
     }
 
     @Test
@@ -168,8 +176,6 @@ class ContactControllerTest {
         updatedContact.setName("李四");
         updatedContact.setPhoneNumber("13900139000");
 
-        when(contactService.getContactById(1L)).thenReturn(Optional.of(testContactDTO));
-        when(contactService.isPhoneNumberExists(anyString(), eq(1L))).thenReturn(false);
         when(contactService.updateContact(eq(1L), any(ContactDTO.class))).thenReturn(updatedContact);
 
         // When & Then
@@ -181,12 +187,39 @@ class ContactControllerTest {
                 .andExpect(jsonPath("$.phoneNumber").value("13900139000"));
 
         verify(contactService, times(1)).updateContact(eq(1L), any(ContactDTO.class));
+        verify(contactService, never()).getContactById(anyLong());
+    }
+
+    @Test
+    void updateContact_NonExistingContact_ReturnsNotFound() throws Exception {
+        // Given
+        when(contactService.updateContact(eq(999L), any(ContactDTO.class)))
+                .thenThrow(new NoSuchElementException("联系人不存在，ID: 999"));
+
+        // When & Then
+        mockMvc.perform(put("/api/contacts/999")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testContactDTO)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void updateContact_EmailTaken_ReturnsBadRequest() throws Exception {
+        // Given
+        when(contactService.updateContact(eq(1L), any(ContactDTO.class)))
+                .thenThrow(new DuplicateKeyException("邮箱已被其他联系人使用"));
+
+        // When & Then
+        mockMvc.perform(put("/api/contacts/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testContactDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("邮箱已被其他联系人使用"));
     }
 
     @Test
     void deleteContact_ExistingContact_ReturnsNoContent() throws Exception {
         // Given
-        when(contactService.getContactById(1L)).thenReturn(Optional.of(testContactDTO));
         doNothing().when(contactService).deleteContact(1L);
 
         // When & Then
@@ -196,6 +229,74 @@ class ContactControllerTest {
         verify(contactService, times(1)).deleteContact(1L);
     }
 
+    @Test
+    void batchUpdateContacts_ByIds_ReturnsUpdatedCount() throws Exception {
+        // Given
+        when(contactService.updateContacts(anyList())).thenReturn(2);
+
+        // When & Then
+        mockMvc.perform(patch("/api/contacts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"updates\":[{\"id\":1,\"category\":\"同事\"},{\"id\":2,\"notes\":\"备注\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(2));
+
+        verify(contactService, never()).updateContactsByCategory(anyString(), any(ContactDTO.class));
+    }
+
+    @Test
+    void batchUpdateContacts_ByFilter_ReturnsUpdatedCount() throws Exception {
+        // Given
+        when(contactService.updateContactsByCategory(eq("同学"), any(ContactDTO.class))).thenReturn(50000);
+
+        // When & Then
+        mockMvc.perform(patch("/api/contacts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"filter\":{\"category\":\"同学\"},\"changes\":{\"category\":\"朋友\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(50000));
+    }
+
+    @Test
+    void batchUpdateContacts_PartialFailure_ReportsUpdatedCountAndFailedIndex() throws Exception {
+        // Given
+        when(contactService.updateContacts(anyList()))
+                .thenThrow(new BatchWriteException(1000, 1000, new DuplicateKeyException("邮箱已被其他联系人使用")));
+
+        // When & Then
+        mockMvc.perform(patch("/api/contacts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"updates\":[{\"id\":1,\"email\":\"a@test.com\"}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("批量修改失败: 邮箱已被其他联系人使用"))
+                .andExpect(jsonPath("$.updated").value(1000))
+                .andExpect(jsonPath("$.failedIndex").value(1000));
+    }
+
+    @Test
+    void getAllContacts_CursorSizeZero_ReturnsBadRequest() throws Exception {
+        // Given
+        when(contactService.getContactsAfter("name", "asc", "", 0))
+                .thenThrow(new IllegalArgumentException("每页条数必须大于 0"));
+
+        // When & Then
+        mockMvc.perform(get("/api/contacts").param("after", "").param("size", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("每页条数必须大于 0"));
+    }
+
+    @Test
+    void batchUpdateContacts_InvalidField_ReturnsBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/contacts/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"updates\":[{\"id\":1,\"category\":\"同事\"},{\"id\":2,\"email\":\"not-an-email\"}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("第 2 项: 邮箱格式不正确"));
+
+        verify(contactService, never()).updateContacts(anyList());
+    }
+
     @Test
     void searchContacts_ReturnsMatchingContacts() throws Exception {
         // Given
@@ -214,6 +315,44 @@ class ContactControllerTest {
         verify(contactService, times(1)).searchContacts(eq("张"), any());
     }
 
+    @Test
+    void getContactsByPhoneSuffix_ValidDigits_ReturnsContacts() throws Exception {
+        // Given
+        when(contactService.findByPhoneSuffix("8000", 20)).thenReturn(Arrays.asList(testContactDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/contacts/phone-suffix/8000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.contacts[0].phoneNumber").value("13800138000"))
+                .andExpect(jsonPath("$.digits").value("8000"));
+
+        verify(contactService, times(1)).findByPhoneSuffix("8000", 20);
+    }
+
+    @Test
+    void getContactsByPhoneSuffix_TooShort_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/contacts/phone-suffix/80"))
+                .andExpect(status().isBadRequest());
+
+        verify(contactService, never()).findByPhoneSuffix(anyString(), anyInt());
+    }
+
+    @Test
+    void suggestContacts_ReturnsSuggestions() throws Exception {
+        // Given
+        when(contactService.suggest("zh", 8)).thenReturn(Arrays.asList(
+                new ContactSuggestionDTO(1L, "张三", "13800138000")));
+
+        // When & Then
+        mockMvc.perform(get("/api/contacts/suggest")
+                .param("prefix", "zh"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("张三"));
+
+        verify(contactService, times(1)).suggest("zh", 8);
+    }
+
     @Test
     void getContactStatistics_ReturnsStatistics() throws Exception {
         // Given
@@ -87,6 +87,32 @@ class ContactTest {
         assertThat(entity.getUpdatedAt()).isEqualTo(now);
     }
 
+    @Test
+    void setName_DerivesPinyinAndInitials() {
+        contact.setName("张三丰");
+
+        assertThat(contact.getNamePinyin()).isEqualTo("zhangsanfeng");
+        assertThat(contact.getNameInitials()).isEqualTo("zsf");
+    }
+
+    @Test
+    void refreshNameDerivedFields_ConstructorAssignedName_FillsPinyin() {
+        Contact entity = new Contact("李四", "13900139000", null, null, "personal", null);
+        entity.refreshNameDerivedFields();
+
+        assertThat(entity.getNamePinyin()).isEqualTo("lisi");
+        assertThat(entity.getNameInitials()).isEqualTo("ls");
+    }
+
+    @Test
+    void refreshDerivedFields_ConstructorAssignedPhone_FillsPhoneKey() {
+        Contact entity = new Contact("李四", "139-0013-9000", null, null, "personal", null);
+        entity.refreshDerivedFields();
+
+        assertThat(entity.getPhoneKey()).isEqualTo(8613900139000L);
+        assertThat(entity.getNamePinyin()).isEqualTo("lisi");
+    }
+
     @Test
     void testEqualsAndHashCode() {
         Contact contact1 = new Contact();
@@ -0,0 +1,84 @@
+package com.example.phonebook.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BKTreeTest {
+
+    private BKTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new BKTree();
+        tree.add("zhangsan", 1L);
+        tree.add("zhangshan", 2L);
+        tree.add("lisi", 3L);
+        tree.add("张三", 4L);
+        tree.add("john", 5L);
+    }
+
+    @Test
+    void search_FindsTermsWithinDistance() {
+        Map<Long, Integer> result = tree.search("zhangsna", 2);
+
+        assertThat(result).containsEntry(1L, 2).containsEntry(2L, 2).hasSize(2);
+        assertThat(tree.search("zhangsan", 1)).containsEntry(1L, 0).containsEntry(2L, 1).hasSize(2);
+        assertThat(tree.search("张四", 1)).containsOnlyKeys(4L);
+        assertThat(tree.search("jhon", 1)).isEmpty();
+    }
+
+    @Test
+    void remove_DropsIdButKeepsOtherTerms() {
+        tree.remove("zhangsan", 1L);
+
+        assertThat(tree.search("zhangsan", 1)).containsOnlyKeys(2L);
+        assertThat(tree.termCount()).isEqualTo(4);
+
+        tree.add("zhangsan", 6L);
+        assertThat(tree.search("zhangsan", 0)).containsOnlyKeys(6L);
+    }
+
+    @Test
+    void distance_ComputesLevenshtein() {
+        assertThat(BKTree.distance("kitten", "sitting")).isEqualTo(3);
+        assertThat(BKTree.distance("", "abc")).isEqualTo(3);
+        assertThat(BKTree.distance("abc", "abc")).isZero();
+    }
+
+    @Test
+    void search_MatchesBruteForce() {
+        Random random = new Random(42);
+        BKTree randomTree = new BKTree();
+        String[] terms = new String[2000];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = randomWord(random);
+            randomTree.add(terms[i], i);
+        }
+        for (int q = 0; q < 50; q++) {
+            String query = randomWord(random);
+            Map<Long, Integer> result = randomTree.search(query, 2);
+            for (int i = 0; i < terms.length; i++) {
+                int distance = BKTree.distance(query, terms[i]);
+                if (distance <= 2) {
+                    assertThat(result.get((long) i)).isEqualTo(distance);
+                } else {
+                    assertThat(result).doesNotContainKey((long) i);
+                }
+            }
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 3 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(4)));
+        }
+        return sb.toString();
+    }
+}
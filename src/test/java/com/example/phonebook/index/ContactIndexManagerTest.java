@@ -0,0 +1,73 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.util.PhoneNumbers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactIndexManagerTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final PhoneKeyIndex phoneKeyIndex = new PhoneKeyIndex();
+    private final ContactIndexManager manager = new ContactIndexManager();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(manager, "indexes", Collections.<ContactIndex>singletonList(phoneKeyIndex));
+    }
+
+    @Test
+    void onContactChanged_OlderUpdateArrivesLate_KeepsNewerSnapshot() {
+        ContactSnapshot created = contact(1L, "13800138000", T0);
+        ContactSnapshot first = contact(1L, "13900139000", T0.plusSeconds(1));
+        ContactSnapshot second = contact(1L, "13700137000", T0.plusSeconds(2));
+        manager.onContactChanged(ContactChangedEvent.created(created));
+
+        // 两个事务先后提交，但提交后回调以相反顺序执行
+        manager.onContactChanged(ContactChangedEvent.updated(first, second));
+        manager.onContactChanged(ContactChangedEvent.updated(created, first));
+
+        assertThat(manager.getSnapshot(1L).getPhoneNumber()).isEqualTo("13700137000");
+        assertThat(phoneKeyIndex.find(PhoneNumbers.toKey("13700137000"))).isEqualTo(1L);
+        assertThat(phoneKeyIndex.find(PhoneNumbers.toKey("13900139000"))).isEqualTo(PhoneKeyIndex.NOT_FOUND);
+        assertThat(phoneKeyIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    void onContactChanged_UpdateArrivesAfterDelete_DoesNotResurrect() {
+        ContactSnapshot created = contact(1L, "13800138000", T0);
+        ContactSnapshot updated = contact(1L, "13900139000", T0.plusSeconds(1));
+        manager.onContactChanged(ContactChangedEvent.created(created));
+
+        manager.onContactChanged(ContactChangedEvent.deleted(updated));
+        manager.onContactChanged(ContactChangedEvent.updated(created, updated));
+
+        assertThat(manager.getSnapshot(1L)).isNull();
+        assertThat(manager.size()).isZero();
+        assertThat(phoneKeyIndex.size()).isZero();
+    }
+
+    @Test
+    void onContactChanged_WithoutTimestamps_AppliesInArrivalOrder() {
+        ContactSnapshot created = contact(1L, "13800138000", null);
+        ContactSnapshot updated = contact(1L, "13900139000", null);
+        manager.onContactChanged(ContactChangedEvent.created(created));
+
+        manager.onContactChanged(ContactChangedEvent.updated(created, updated));
+
+        assertThat(manager.getSnapshot(1L).getPhoneNumber()).isEqualTo("13900139000");
+        assertThat(phoneKeyIndex.find(PhoneNumbers.toKey("13900139000"))).isEqualTo(1L);
+    }
+
+    private static ContactSnapshot contact(long id, String phoneNumber, LocalDateTime updatedAt) {
+        return new ContactSnapshot(id, "联系人" + id, phoneNumber, null, null, null, null, updatedAt);
+    }
+}
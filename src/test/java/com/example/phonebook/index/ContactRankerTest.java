@@ -0,0 +1,36 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContactRankerTest {
+
+    private final ContactSnapshot zhangsan = new ContactSnapshot(1L, "张三", "138-0013-8000",
+            "zhangsan@example.com", "personal", "zhangsan", "zs");
+    private final ContactSnapshot john = new ContactSnapshot(2L, "John Smith", "13900139000",
+            "js@example.com", "work", "johnsmith", "js");
+
+    @Test
+    void score_AppliesRulesInPriorityOrder() {
+        assertThat(new ContactRanker("13800138000").score(zhangsan)).isEqualTo(ContactRanker.EXACT_PHONE);
+        assertThat(new ContactRanker("张三").score(zhangsan)).isEqualTo(ContactRanker.EXACT_NAME);
+        assertThat(new ContactRanker("john").score(john)).isEqualTo(ContactRanker.NAME_PREFIX);
+        assertThat(new ContactRanker("zs").score(zhangsan)).isEqualTo(ContactRanker.PINYIN_PREFIX);
+        assertThat(new ContactRanker("139").score(john)).isEqualTo(ContactRanker.PHONE_PREFIX);
+        assertThat(new ContactRanker("smith").score(john)).isEqualTo(ContactRanker.NAME_CONTAINS);
+        assertThat(new ContactRanker("0013").score(zhangsan)).isEqualTo(ContactRanker.PHONE_CONTAINS);
+        assertThat(new ContactRanker("js@").score(john)).isEqualTo(ContactRanker.EMAIL_PREFIX);
+        assertThat(new ContactRanker("example").score(john)).isEqualTo(ContactRanker.EMAIL_CONTAINS);
+        assertThat(new ContactRanker("nothing").score(john)).isZero();
+    }
+
+    @Test
+    void bestFirst_BreaksTiesByName() {
+        ContactRanker ranker = new ContactRanker("example");
+
+        assertThat(ContactRanker.BEST_FIRST.compare(ranker.rank(john), ranker.rank(zhangsan))).isNegative();
+        assertThat(ContactRanker.BEST_FIRST.compare(new ContactRanker.Scored(zhangsan, 90), ranker.rank(john))).isNegative();
+    }
+}
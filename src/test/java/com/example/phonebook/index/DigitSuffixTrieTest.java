@@ -0,0 +1,48 @@
+package com.example.phonebook.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DigitSuffixTrieTest {
+
+    private DigitSuffixTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = new DigitSuffixTrie();
+        trie.add("13800138001", 1L);
+        trie.add("+86 139-0013-8001", 2L);
+        trie.add("13700137003", 3L);
+    }
+
+    @Test
+    void findBySuffix_IgnoresSeparators() {
+        assertThat(trie.findBySuffix("38001", 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(trie.findBySuffix("7003", 10)).containsExactly(3L);
+    }
+
+    @Test
+    void findBySuffix_StopsAtLimit() {
+        assertThat(trie.findBySuffix("8001", 1)).hasSize(1);
+    }
+
+    @Test
+    void findBySuffix_UnknownSuffix_ReturnsEmpty() {
+        assertThat(trie.findBySuffix("9003", 10)).isEmpty();
+        assertThat(trie.findBySuffix("1238001", 10)).isEmpty();
+    }
+
+    @Test
+    void remove_PrunesAndKeepsSiblings() {
+        trie.remove("13800138001", 1L);
+
+        assertThat(trie.findBySuffix("8001", 10)).containsExactly(2L);
+        assertThat(trie.size()).isEqualTo(2);
+
+        trie.remove("+86 139-0013-8001", 2L);
+        assertThat(trie.findBySuffix("8001", 10)).isEmpty();
+        assertThat(trie.findBySuffix("7003", 10)).containsExactly(3L);
+    }
+}
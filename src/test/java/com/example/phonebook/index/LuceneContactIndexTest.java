@@ -0,0 +1,85 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LuceneContactIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private LuceneContactIndex index;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        index = new LuceneContactIndex();
+        ReflectionTestUtils.setField(index, "directoryPath", directory.toString());
+        index.open();
+        index.add(snapshot(1L, "张三丰", "138-0013-8000", "zhangsanfeng@example.com"));
+        index.add(snapshot(2L, "李四", "13900139000", "lisi@example.com"));
+        index.add(snapshot(3L, "John Smith", "13700137000", "john.smith@test.org"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        index.close();
+    }
+
+    @Test
+    void search_MatchesChineseSubstrings() {
+        assertThat(index.search("张三")).containsExactly(1L);
+        assertThat(index.search("三丰")).containsExactly(1L);
+        assertThat(index.search("四")).containsExactly(2L);
+        assertThat(index.search("王五")).isEmpty();
+    }
+
+    @Test
+    void search_MatchesWordPrefixesAndPhoneDigits() {
+        assertThat(index.search("john")).containsExactly(3L);
+        assertThat(index.search("SMI")).containsExactly(3L);
+        assertThat(index.search("lisi")).containsExactly(2L);
+        assertThat(index.search("00138")).containsExactly(1L);
+        assertThat(index.search("  ")).isEmpty();
+    }
+
+    @Test
+    void search_PhoneDigitsMatchAnywhereInNumber() {
+        assertThat(index.search("1380")).containsExactly(1L);
+        assertThat(index.search("3800")).containsExactly(1L);
+        assertThat(index.search("8000")).containsExactly(1L);
+        assertThat(index.search("00139")).containsExactly(2L);
+        assertThat(index.search("000")).containsExactly(1L, 2L, 3L);
+        assertThat(index.search("13800138000")).containsExactly(1L);
+        assertThat(index.search("1380013800012")).isEmpty();
+
+        // 换号后旧号码的后缀随文档一起替换
+        index.add(snapshot(1L, "张三丰", "13600136000", null));
+        assertThat(index.search("8000")).isEmpty();
+        assertThat(index.search("6000")).containsExactly(1L);
+    }
+
+    @Test
+    void addAndRemove_ReplaceDocumentsById() {
+        index.add(snapshot(2L, "李小四", "13900139000", null));
+        assertThat(index.search("小四")).containsExactly(2L);
+        assertThat(index.search("lisi")).isEmpty();
+
+        index.remove(ContactSnapshot.ofId(2L));
+        assertThat(index.search("小四")).isEmpty();
+
+        index.clear();
+        assertThat(index.search("张三")).isEmpty();
+    }
+
+    private static ContactSnapshot snapshot(Long id, String name, String phone, String email) {
+        return new ContactSnapshot(id, name, phone, email, null, null, null);
+    }
+}
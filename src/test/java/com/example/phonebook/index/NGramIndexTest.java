@@ -0,0 +1,56 @@
+package com.example.phonebook.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NGramIndexTest {
+
+    private NGramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NGramIndex();
+        index.add(1L, "张三", "13800138001", "zhangsan@example.com");
+        index.add(2L, "李四", "13900139002", "lisi@example.com");
+        index.add(3L, "张三丰", "13700137003", null);
+    }
+
+    @Test
+    void search_SingleCjkCharacter_UsesUnigram() {
+        assertThat(index.search("张")).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void search_LongCjkKeyword_IntersectsBigrams() {
+        assertThat(index.search("张三丰")).containsExactly(3L);
+    }
+
+    @Test
+    void search_DigitsAndEmail_AreCaseInsensitiveSubstrings() {
+        assertThat(index.search("0013")).containsExactly(1L, 2L, 3L);
+        assertThat(index.search("EXAMPLE.com")).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_DoesNotMatchAcrossFields() {
+        assertThat(index.search("8001zh")).isEmpty();
+    }
+
+    @Test
+    void search_AfterRemoveAndReplace_ReflectsLatestDocument() {
+        index.remove(1L);
+        index.add(2L, "王五", "13900139002", "wangwu@example.com");
+
+        assertThat(index.search("张")).containsExactly(3L);
+        assertThat(index.search("lisi")).isEmpty();
+        assertThat(index.search("wangwu")).containsExactly(2L);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void search_BlankKeyword_ReturnsAllDocuments() {
+        assertThat(index.search(" ")).containsExactly(1L, 2L, 3L);
+    }
+}
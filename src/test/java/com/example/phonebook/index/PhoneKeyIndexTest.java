@@ -0,0 +1,58 @@
+package com.example.phonebook.index;
+
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.util.PhoneNumbers;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhoneKeyIndexTest {
+
+    private static final long KEY = PhoneNumbers.toKey("13800138000");
+
+    private final PhoneKeyIndex index = new PhoneKeyIndex();
+
+    @Test
+    void find_DifferentSpellings_ShareOneKey() {
+        index.add(contact(1L, "+86 138-0013-8000"));
+
+        assertThat(index.find(KEY)).isEqualTo(1L);
+        assertThat(index.findOther(KEY, 1L)).isEqualTo(PhoneKeyIndex.NOT_FOUND);
+        assertThat(index.find(PhoneNumbers.toKey("13900139000"))).isEqualTo(PhoneKeyIndex.NOT_FOUND);
+    }
+
+    @Test
+    void remove_LegacyDuplicates_KeyStaysUntilLastContactRemoved() {
+        // 历史数据：同一号码的三种写法属于三个联系人
+        index.add(contact(1L, "13800138000"));
+        index.add(contact(2L, "+86 138 0013 8000"));
+        index.add(contact(3L, "0086-138-0013-8000"));
+        index.add(contact(2L, "+86 138 0013 8000"));
+
+        assertThat(index.findOther(KEY, 1L)).isIn(2L, 3L);
+
+        index.remove(contact(1L, "13800138000"));
+        assertThat(index.find(KEY)).isIn(2L, 3L);
+
+        index.remove(contact(3L, "0086-138-0013-8000"));
+        assertThat(index.find(KEY)).isEqualTo(2L);
+        assertThat(index.findOther(KEY, 2L)).isEqualTo(PhoneKeyIndex.NOT_FOUND);
+
+        index.remove(contact(2L, "+86 138 0013 8000"));
+        assertThat(index.find(KEY)).isEqualTo(PhoneKeyIndex.NOT_FOUND);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void remove_ContactNotOnKey_LeavesKeyUntouched() {
+        index.add(contact(1L, "13800138000"));
+
+        index.remove(contact(9L, "13800138000"));
+
+        assertThat(index.find(KEY)).isEqualTo(1L);
+    }
+
+    private static ContactSnapshot contact(long id, String phoneNumber) {
+        return new ContactSnapshot(id, "联系人" + id, phoneNumber, null, null, null, null);
+    }
+}
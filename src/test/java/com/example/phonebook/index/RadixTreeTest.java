@@ -0,0 +1,51 @@
+package com.example.phonebook.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RadixTreeTest {
+
+    private RadixTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new RadixTree();
+        tree.add("zhangsan@example.com", 1L);
+        tree.add("zhangsanfeng@example.com", 2L);
+        tree.add("zhaoliu@example.com", 3L);
+        tree.add("张三", 1L);
+        tree.add("张三丰", 2L);
+    }
+
+    @Test
+    void prefixSearch_ReturnsIdsInLexicographicOrder() {
+        assertThat(tree.prefixSearch("zha", 10)).containsExactly(1L, 2L, 3L);
+        assertThat(tree.prefixSearch("zhangsan", 10)).containsExactly(1L, 2L);
+        assertThat(tree.prefixSearch("张三丰", 10)).containsExactly(2L);
+    }
+
+    @Test
+    void prefixSearch_StopsAtLimitAndDeduplicates() {
+        tree.add("zhangsan", 1L);
+
+        assertThat(tree.prefixSearch("zhang", 10)).containsExactly(1L, 2L);
+        assertThat(tree.prefixSearch("z", 2)).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void prefixSearch_PrefixEndingInsideEdge_MatchesSubtree() {
+        assertThat(tree.prefixSearch("zhaol", 10)).containsExactly(3L);
+        assertThat(tree.prefixSearch("zhaox", 10)).isEmpty();
+    }
+
+    @Test
+    void remove_MergesPathAndKeepsOtherTerms() {
+        tree.remove("zhangsan@example.com", 1L);
+
+        assertThat(tree.prefixSearch("zhangsan", 10)).containsExactly(2L);
+        assertThat(tree.prefixSearch("张", 10)).containsExactly(1L, 2L);
+        assertThat(tree.termCount()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.phonebook.job;
+
+import com.example.phonebook.config.WarmUpProperties;
+import com.example.phonebook.index.ContactIndexManager;
+import com.example.phonebook.service.ContactService;
+import com.example.phonebook.stats.SearchKeywordStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmUpJobTest {
+
+    @Mock
+    private ContactService contactService;
+
+    @Mock
+    private ContactIndexManager contactIndexManager;
+
+    @Mock
+    private SearchKeywordStats searchKeywordStats;
+
+    @InjectMocks
+    private CacheWarmUpJob cacheWarmUpJob;
+
+    private final WarmUpProperties properties = new WarmUpProperties();
+
+    @BeforeEach
+    void setUp() {
+        properties.setParallelism(2);
+        properties.setPageSize(10);
+        properties.setPages(2);
+        properties.setSorts(Arrays.asList("name,asc", "createdAt,desc"));
+        properties.setTopCategories(2);
+        properties.setTopKeywords(3);
+        properties.setKeywords(Collections.singletonList("张"));
+        ReflectionTestUtils.setField(cacheWarmUpJob, "properties", properties);
+        ReflectionTestUtils.setField(cacheWarmUpJob, "taskExecutor", (Executor) Runnable::run);
+    }
+
+    @Test
+    void warmUp_RunsPlannedQueriesThroughService() {
+        // Given
+        when(contactService.getContactStatistics()).thenReturn(statistics());
+        when(searchKeywordStats.topKeywords(3)).thenReturn(Arrays.asList("李", "张"));
+
+        // When
+        assertTrue(cacheWarmUpJob.warmUp());
+
+        // Then
+        verify(contactService).getAllContacts(PageRequest.of(0, 10, Sort.by("name").ascending()));
+        verify(contactService).getAllContacts(PageRequest.of(1, 10, Sort.by("name").ascending()));
+        verify(contactService).getAllContacts(PageRequest.of(0, 10, Sort.by("createdAt").descending()));
+        verify(contactService).getAllContacts(PageRequest.of(1, 10, Sort.by("createdAt").descending()));
+        Pageable byName = PageRequest.of(0, 10, Sort.by("name").ascending());
+        verify(contactService).getContactsByCategory("工作", byName);
+        verify(contactService).getContactsByCategory("家人", byName);
+        verify(contactService, never()).getContactsByCategory(eq("朋友"), any());
+        verify(contactService).searchContacts("张", PageRequest.of(0, 10));
+        verify(contactService).searchContacts("李", PageRequest.of(0, 10));
+
+        Map<String, Object> status = cacheWarmUpJob.status();
+        assertEquals("COMPLETED", status.get("state"));
+        // 统计 1 + 列表 4 + 分类 2 + 搜索 2
+        assertEquals(9, status.get("total"));
+        assertEquals(9, status.get("completed"));
+        assertEquals(0, status.get("failed"));
+    }
+
+    @Test
+    void warmUp_FailedQueryIsReportedAndOthersStillRun() {
+        // Given
+        properties.setSorts(Collections.emptyList());
+        when(contactService.getContactStatistics()).thenReturn(statistics());
+        when(searchKeywordStats.topKeywords(3)).thenReturn(Collections.emptyList());
+        // 分类查询在线程池上并行执行，另一个分类可能先查，按参数不匹配的严格检查会误报
+        lenient().when(contactService.getContactsByCategory(eq("工作"), any())).thenThrow(new RuntimeException("数据库不可用"));
+
+        // When
+        cacheWarmUpJob.start();
+
+        // Then
+        verify(contactService).getContactsByCategory(eq("家人"), any());
+        verify(contactService).searchContacts(anyString(), any());
+        Map<String, Object> status = cacheWarmUpJob.status();
+        assertEquals("COMPLETED", status.get("state"));
+        assertEquals(4, status.get("completed"));
+        assertEquals(1, status.get("failed"));
+        assertEquals(Collections.singletonList("category 工作: 数据库不可用"), status.get("failures"));
+    }
+
+    @Test
+    void plan_SkipsInvalidSortSpecs() {
+        // Given
+        properties.setSorts(Arrays.asList("name", "createdAt, DESC", ",asc"));
+
+        // When
+        List<CacheWarmUpJob.Task> tasks = cacheWarmUpJob.plan(new LinkedHashMap<>());
+
+        // Then
+        assertEquals(5, tasks.size());
+        assertEquals(Sort.by("createdAt").descending(), CacheWarmUpJob.parseSort("createdAt, DESC"));
+        assertThrows(IllegalArgumentException.class, () -> CacheWarmUpJob.parseSort(",asc"));
+    }
+
+    private static Map<String, Long> statistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("total", 100L);
+        statistics.put("工作", 50L);
+        statistics.put("家人", 30L);
+        statistics.put("朋友", 20L);
+        return statistics;
+    }
+}
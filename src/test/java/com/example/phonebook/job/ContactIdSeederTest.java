@@ -0,0 +1,69 @@
+package com.example.phonebook.job;
+
+import com.example.phonebook.entity.Contact;
+import com.example.phonebook.repository.ContactRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 生产环境的方言（MySQL8Dialect，没有序列）下的ID分配：号段表记录起点，历史自增数据之后继续分配
+ *
+ * 沙箱里没有 MySQL，用 H2 的 MySQL 兼容模式执行 MySQL8Dialect 生成的 DDL 和取号语句。
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:mysql_ids;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.MySQL8Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ContactIdSeeder.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContactIdSeederTest {
+
+    @Autowired
+    private ContactIdSeeder contactIdSeeder;
+
+    @Autowired
+    private ContactRepository contactRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void seed_NewIdsStartAfterLegacyRows() {
+        // Given：自增列时代留下的数据，ID 1..120
+        for (long id = 1; id <= 120; id++) {
+            jdbcTemplate.update("INSERT INTO contacts (id, name, phone_number, category) VALUES (?, ?, ?, 'legacy')",
+                    id, "历史" + id, String.format("135%08d", id));
+        }
+
+        // When
+        contactIdSeeder.seed();
+        List<Contact> contacts = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            contacts.add(new Contact("新" + i, String.format("136%08d", i), null, null, "new", null));
+        }
+        List<Contact> saved = contactRepository.saveAll(contacts);
+
+        // Then
+        assertThat(saved).extracting(Contact::getId).startsWith(121L).allSatisfy(id -> assertThat(id).isGreaterThan(120L));
+        assertThat(contactRepository.count()).isEqualTo(180);
+        assertThat(jdbcTemplate.queryForObject("SELECT last_val FROM id_generators WHERE name = 'contacts'", Long.class))
+                .isEqualTo(220L);
+
+        // 再次启动不会把已分配过的起点往回拨
+        contactIdSeeder.seed();
+        assertThat(jdbcTemplate.queryForObject("SELECT last_val FROM id_generators WHERE name = 'contacts'", Long.class))
+                .isEqualTo(220L);
+    }
+}
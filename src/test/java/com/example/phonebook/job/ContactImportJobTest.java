@@ -0,0 +1,220 @@
+package com.example.phonebook.job;
+
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.service.ContactService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactImportJobTest {
+
+    @Mock
+    private ContactService contactService;
+
+    @InjectMocks
+    private ContactImportJob contactImportJob;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(contactImportJob, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(contactImportJob, "chunkSize", 2);
+        ReflectionTestUtils.setField(contactImportJob, "queueCapacity", 1);
+        ReflectionTestUtils.setField(contactImportJob, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(contactImportJob, "maxErrors", 10);
+        ReflectionTestUtils.setField(contactImportJob, "maxRecordLength", 1000);
+        contactImportJob.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        contactImportJob.shutdown();
+    }
+
+    @Test
+    void importCsv_WritesChunksAndReportsRowErrors() throws IOException {
+        // Given
+        List<List<String>> chunks = new ArrayList<>();
+        when(contactService.importContacts(anyList())).thenAnswer(invocation -> {
+            List<ContactDTO> chunk = invocation.getArgument(0);
+            List<String> names = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            for (ContactDTO contactDTO : chunk) {
+                names.add(contactDTO.getName());
+                errors.add("13800138000".equals(contactDTO.getPhoneNumber()) ? "电话号码已存在: 13800138000" : null);
+            }
+            chunks.add(names);
+            return errors;
+        });
+        String csv = "姓名,电话,邮箱,分类\n"
+                + "张三,13800138001,a@example.com,work\n"
+                + ",13800138002,,\n"
+                + "李四,13800138000,,\n"
+                + "王五,13800138003,not-an-email,\n"
+                + "赵六,13800138004,,\n";
+
+        // When
+        Map<String, Object> result = contactImportJob.importCsv(stream(csv), StandardCharsets.UTF_8, null);
+
+        // Then
+        assertEquals("COMPLETED", result.get("state"));
+        assertEquals(5L, result.get("rows"));
+        assertEquals(2L, result.get("created"));
+        assertEquals(3L, result.get("rejected"));
+        assertEquals(Arrays.asList(Arrays.asList("张三", "李四"), Collections.singletonList("赵六")), chunks);
+        List<?> errors = (List<?>) result.get("errors");
+        assertEquals(3, errors.size());
+        assertTrue(errors.stream().anyMatch(e -> ((Map<?, ?>) e).get("row").equals(4L)
+                && "电话号码已存在: 13800138000".equals(((Map<?, ?>) e).get("message"))));
+        assertEquals(result.get("jobId"), contactImportJob.status((String) result.get("jobId")).get().get("jobId"));
+    }
+
+    @Test
+    void importCsv_ChunkWriteFails_RowsMarkedAndImportContinues() throws IOException {
+        // Given
+        when(contactService.importContacts(anyList()))
+                .thenThrow(new RuntimeException("连接断开"))
+                .thenReturn(Collections.singletonList(null));
+        String csv = "name,phoneNumber\n张三,13800138001\n李四,13800138002\n王五,13800138003\n";
+
+        // When
+        Map<String, Object> result = contactImportJob.importCsv(stream(csv), StandardCharsets.UTF_8, null);
+
+        // Then
+        assertEquals("COMPLETED", result.get("state"));
+        assertEquals(1L, result.get("created"));
+        assertEquals(2L, result.get("rejected"));
+        verify(contactService, times(2)).importContacts(anyList());
+    }
+
+    @Test
+    void importVCard_ReportsCardNumbers() {
+        // Given
+        when(contactService.importContacts(anyList())).thenReturn(Collections.singletonList(null));
+        String vcf = "BEGIN:VCARD\r\nVERSION:3.0\r\nFN:张三\r\nTEL:13800138001\r\nEND:VCARD\r\n"
+                + "BEGIN:VCARD\r\nVERSION:3.0\r\nFN:李四\r\nEND:VCARD\r\n";
+
+        // When
+        Map<String, Object> result = contactImportJob.importVCard(stream(vcf), StandardCharsets.UTF_8, null);
+
+        // Then
+        assertEquals("vcard", result.get("format"));
+        assertEquals(2L, result.get("rows"));
+        assertEquals(1L, result.get("created"));
+        assertEquals(((Map<?, ?>) ((List<?>) result.get("errors")).get(0)).get("row"), 2L);
+    }
+
+    @Test
+    void importVCard_OverlongCard_ReportedAndImportContinues() {
+        // Given
+        when(contactService.importContacts(anyList())).thenReturn(Arrays.asList(null, null));
+        String vcf = "BEGIN:VCARD\r\nFN:张三\r\nTEL:13800138001\r\nEND:VCARD\r\n"
+                + "BEGIN:VCARD\r\nFN:李四\r\nNOTE:" + String.join("", Collections.nCopies(1200, "x")) + "\r\nEND:VCARD\r\n"
+                + "BEGIN:VCARD\r\nFN:王五\r\nTEL:13800138003\r\nEND:VCARD\r\n";
+
+        // When
+        Map<String, Object> result = contactImportJob.importVCard(stream(vcf), StandardCharsets.UTF_8, null);
+
+        // Then
+        assertEquals("COMPLETED", result.get("state"));
+        assertEquals(3L, result.get("rows"));
+        assertEquals(2L, result.get("created"));
+        assertEquals(1L, result.get("rejected"));
+        Map<?, ?> error = (Map<?, ?>) ((List<?>) result.get("errors")).get(0);
+        assertEquals(2L, error.get("row"));
+        assertEquals("第 2 张名片的 NOTE 超过 1000 个字符", error.get("message"));
+    }
+
+    @Test
+    void importCsv_ClientJobId_StatusPollableWhileChunkIsWritten() throws Exception {
+        // Given：第一块写入时阻塞，直到轮询完成
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(contactService.importContacts(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Arrays.asList(null, null);
+        });
+        String csv = "姓名,电话\n张三,13800138001\n李四,13800138002\n";
+        ExecutorService uploader = Executors.newSingleThreadExecutor();
+        try {
+            Future<Map<String, Object>> upload = uploader.submit(
+                    () -> contactImportJob.importCsv(stream(csv), StandardCharsets.UTF_8, "upload-1"));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+            // When：上传请求还没有返回
+            Map<String, Object> running = contactImportJob.status("upload-1").get();
+
+            // Then
+            assertEquals("RUNNING", running.get("state"));
+            assertEquals(2L, running.get("rows"));
+            assertEquals(0L, running.get("created"));
+            assertFalse(upload.isDone());
+
+            release.countDown();
+            Map<String, Object> result = upload.get(5, TimeUnit.SECONDS);
+            assertEquals("upload-1", result.get("jobId"));
+            assertEquals("COMPLETED", result.get("state"));
+            assertEquals(2L, result.get("created"));
+        } finally {
+            release.countDown();
+            uploader.shutdownNow();
+        }
+    }
+
+    @Test
+    void importCsv_InvalidOrUsedJobId_RejectedBeforeReading() throws IOException {
+        when(contactService.importContacts(anyList())).thenReturn(Collections.singletonList(null));
+        contactImportJob.importCsv(stream("姓名,电话\n张三,13800138001\n"), StandardCharsets.UTF_8, "job-1");
+
+        IllegalArgumentException used = assertThrows(IllegalArgumentException.class,
+                () -> contactImportJob.importCsv(stream("姓名,电话\n"), StandardCharsets.UTF_8, "job-1"));
+        assertEquals("导入任务ID已被使用: job-1", used.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> contactImportJob.importVCard(stream(""), StandardCharsets.UTF_8, "../job"));
+        assertEquals(1, contactImportJob.recent().size());
+    }
+
+    @Test
+    void importCsv_MissingPhoneColumn_Rejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> contactImportJob.importCsv(stream("name,email\n张三,a@example.com\n"), StandardCharsets.UTF_8, null));
+        assertEquals("表头必须包含姓名（name）和电话（phoneNumber）列", e.getMessage());
+        assertTrue(contactImportJob.recent().isEmpty());
+    }
+
+    private static InputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
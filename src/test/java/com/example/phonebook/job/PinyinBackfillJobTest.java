@@ -0,0 +1,51 @@
+package com.example.phonebook.job;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 拼音回填：多个块在专用线程上分批执行，不依赖 taskExecutor
+ */
+@DataJpaTest(properties = {
+        "phonebook.pinyin.backfill-chunk-size=10",
+        "phonebook.pinyin.backfill-parallelism=2"
+})
+@Import(PinyinBackfillJob.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PinyinBackfillJobTest {
+
+    @Autowired
+    private PinyinBackfillJob pinyinBackfillJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void run_ManyChunks_BackfillsEveryRowWithBoundedParallelism() {
+        // Given：95 行，共 10 块，同时最多 2 块
+        jdbcTemplate.update("DELETE FROM contacts");
+        for (long id = 1; id <= 95; id++) {
+            jdbcTemplate.update("INSERT INTO contacts (id, name, phone_number, category) VALUES (?, ?, ?, 'legacy')",
+                    id, id % 2 == 0 ? "张三" : "李四", String.format("135%08d", id));
+        }
+
+        // When
+        int updated = pinyinBackfillJob.run(false);
+
+        // Then
+        assertThat(updated).isEqualTo(95);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM contacts WHERE name_pinyin IS NULL", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT name_pinyin FROM contacts WHERE id = 2", String.class)).isEqualTo("zhangsan");
+        // 已回填的行不再更新
+        assertThat(pinyinBackfillJob.run(false)).isZero();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.phonebook.performance;
+
+import com.example.phonebook.entity.Contact;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 批量 INSERT 基准：主键按号段分配后，同一事务内的 INSERT 按 jdbc.batch_size 成批发送
+ *
+ * 自增主键下每次 persist 都要立即执行 INSERT 取回 ID，SQL 条数等于行数。
+ */
+@DisplayName("批量INSERT基准测试")
+class BatchInsertBenchmarkTest extends JpaStatisticsTestSupport {
+
+    private static final int CONTACTS = 5000;
+    private static final int CHUNK_SIZE = 1000;
+    private static final int JDBC_BATCH_SIZE = 50;
+
+    @Test
+    @DisplayName("分块事务内 saveAll：INSERT 成批发送，号段表按段访问")
+    void saveAll_InChunks_UsesJdbcBatches() {
+        startCounting();
+
+        for (int from = 0; from < CONTACTS; from += CHUNK_SIZE) {
+            List<Contact> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (int i = from; i < from + CHUNK_SIZE; i++) {
+                chunk.add(new Contact("批量测试" + i, String.format("137%08d", i), "batch" + i + "@test.com", null, "bench", null));
+            }
+            inTransaction(() -> contactRepository.saveAll(chunk));
+        }
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(CONTACTS);
+        // 每批一条 INSERT 语句，每个号段一次取号
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2L * CONTACTS / JDBC_BATCH_SIZE + 5);
+        assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(CONTACTS / CHUNK_SIZE);
+        assertThat(contactRepository.count()).isEqualTo(CONTACTS);
+    }
+
+    @Test
+    @DisplayName("批量创建前的冲突查询：原号码、同一号码的其他写法、邮箱")
+    void findConflicts_MatchesPhoneNumberPhoneKeyAndEmail() {
+        contactRepository.save(new Contact("张三", "13800138001", "zhangsan@example.com", null, "personal", null));
+        contactRepository.save(new Contact("李四", "13900139002", "lisi@example.com", null, "business", null));
+        startCounting();
+
+        List<Object[]> byPhone = contactRepository.findConflicts(
+                Arrays.asList("13800138001", "13600000000"), Collections.singletonList(null), Collections.singletonList(null));
+        List<Object[]> byPhoneKey = contactRepository.findConflicts(
+                Collections.singletonList("+86 139-0013-9002"), Collections.singletonList(8613900139002L),
+                Collections.singletonList(null));
+        List<Object[]> byEmail = contactRepository.findConflicts(
+                Collections.singletonList("13600000000"), Collections.singletonList(null),
+                Arrays.asList("lisi@example.com", "new@example.com"));
+        List<Object[]> none = contactRepository.findConflicts(
+                Collections.singletonList("13600000000"), Collections.singletonList(null), Collections.singletonList(null));
+
+        assertThat(byPhone).hasSize(1);
+        assertThat(byPhone.get(0)[0]).isEqualTo("13800138001");
+        assertThat(byPhoneKey).hasSize(1);
+        assertThat(byPhoneKey.get(0)[0]).isEqualTo("13900139002");
+        assertThat(byEmail).hasSize(1);
+        assertThat(byEmail.get(0)[2]).isEqualTo("lisi@example.com");
+        assertThat(none).isEmpty();
+        // 每次检查一条 SQL，与批内条数无关
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+}
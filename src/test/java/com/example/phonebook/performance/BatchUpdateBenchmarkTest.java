@@ -0,0 +1,80 @@
+package com.example.phonebook.performance;
+
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.entity.Contact;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 批量修改基准：分块事务内每块一次查询，块内的 UPDATE 共用一条预编译语句，按 jdbc.batch_size 成批执行
+ *
+ * 逐个 PUT 时每个联系人至少一次查询加一条 UPDATE，各自一个事务。
+ */
+@TestPropertySource(properties = "phonebook.batch.chunk-size=100")
+@DisplayName("批量修改基准测试")
+class BatchUpdateBenchmarkTest extends ContactServiceJpaTestSupport {
+
+    private static final int CONTACTS = 250;
+    private static final int CHUNK_SIZE = 100;
+
+    private List<ContactDTO> created;
+
+    private ContactDTO untouched;
+
+    @BeforeEach
+    void setUp() {
+        List<ContactDTO> batch = new ArrayList<>(CONTACTS);
+        for (int i = 0; i < CONTACTS; i++) {
+            batch.add(new ContactDTO("批量修改" + i, String.format("136%08d", i), null, null, "同学", null));
+        }
+        created = contactService.createContacts(batch);
+        untouched = contactService.createContact(new ContactDTO("其他分类", "13599999999", null, null, "家人", null));
+        startCounting();
+    }
+
+    @Test
+    @DisplayName("按分类修改：每块一次查询加成批 UPDATE，其他联系人的实体缓存不受影响")
+    void updateContactsByCategory_ChunkedBatchedUpdates() {
+        ContactDTO changes = new ContactDTO();
+        changes.setCategory("朋友");
+
+        int updated = contactService.updateContactsByCategory("同学", changes);
+
+        int chunks = (CONTACTS + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        assertThat(updated).isEqualTo(CONTACTS);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(CONTACTS);
+        // 每块一条 SELECT 和一条 UPDATE 语句，与块内行数无关
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2L * chunks);
+        assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(chunks);
+        assertThat(contactRepository.findByCategory("朋友")).hasSize(CONTACTS);
+        // 逐个实体更新，二级缓存不会像 JPQL 批量 UPDATE 那样整个区域失效
+        assertThat(entityManagerFactory.getCache().contains(Contact.class, untouched.getId())).isTrue();
+    }
+
+    @Test
+    @DisplayName("按ID修改：每块一次 IN 查询加成批 UPDATE，没有变化的行不发 UPDATE")
+    void updateContacts_ChunkedBatchedUpdates() {
+        List<ContactDTO> updates = new ArrayList<>(CONTACTS);
+        for (int i = 0; i < CONTACTS; i++) {
+            ContactDTO changes = new ContactDTO();
+            changes.setId(created.get(i).getId());
+            changes.setNotes(i < 200 ? "已核对" : null);
+            updates.add(changes);
+        }
+
+        int updated = contactService.updateContacts(updates);
+
+        assertThat(updated).isEqualTo(200);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(200);
+        // 3 块各一条 IN 查询，前两块各一条 UPDATE 语句，最后一块没有变化
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3 + 2);
+        assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(3);
+    }
+}
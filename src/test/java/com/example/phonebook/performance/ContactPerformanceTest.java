@@ -63,11 +63,7 @@ public class ContactPerformanceTest {
 
         // 执行批量创建并测量时间
         stopWatch.start("批量创建" + BATCH_SIZE + "个联系人");
-        List<ContactDTO> createdContacts = new ArrayList<>();
-        for (ContactDTO contact : contacts) {
-            ContactDTO created = contactService.createContact(contact);
-            createdContacts.add(created);
-        }
+        List<ContactDTO> createdContacts = contactService.createContacts(contacts);
         stopWatch.stop();
 
         // 验证结果
@@ -0,0 +1,80 @@
+package com.example.phonebook.performance;
+
+import com.example.phonebook.cache.NegativeLookupCache;
+import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.index.ContactIndexManager;
+import com.example.phonebook.index.ContactSearchIndex;
+import com.example.phonebook.index.ContactUniquenessFilter;
+import com.example.phonebook.index.FuzzyNameIndex;
+import com.example.phonebook.index.PhoneKeyIndex;
+import com.example.phonebook.index.PhoneSuffixIndex;
+import com.example.phonebook.index.PinyinIndex;
+import com.example.phonebook.index.PrefixSuggestIndex;
+import com.example.phonebook.service.ContactService;
+import com.example.phonebook.service.impl.ContactServiceImpl;
+import com.example.phonebook.stats.ContactCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * 在真实数据库上统计 ContactService 写路径 SQL 条数的测试基类
+ *
+ * 服务实现和号码索引是真实的，其余索引、计数器和过滤器都是 mock，索引按已就绪处理。
+ * 每次服务调用使用自己的事务。号码索引不随事件更新，需要时用 indexed 登记已有联系人。
+ */
+@Import({ContactServiceImpl.class, PhoneKeyIndex.class})
+abstract class ContactServiceJpaTestSupport extends JpaStatisticsTestSupport {
+
+    @Autowired
+    protected ContactService contactService;
+
+    @Autowired
+    protected PhoneKeyIndex phoneKeyIndex;
+
+    @MockBean
+    protected ContactIndexManager contactIndexManager;
+
+    @MockBean
+    private ContactSearchIndex contactSearchIndex;
+
+    @MockBean
+    private PhoneSuffixIndex phoneSuffixIndex;
+
+    @MockBean
+    private PrefixSuggestIndex prefixSuggestIndex;
+
+    @MockBean
+    private PinyinIndex pinyinIndex;
+
+    @MockBean
+    private FuzzyNameIndex fuzzyNameIndex;
+
+    @MockBean
+    private ContactCounters contactCounters;
+
+    @MockBean
+    private ContactUniquenessFilter uniquenessFilter;
+
+    @MockBean
+    private NegativeLookupCache negativeLookupCache;
+
+    @BeforeEach
+    void resetIndex() {
+        phoneKeyIndex.clear();
+        when(contactIndexManager.isReady()).thenReturn(true);
+    }
+
+    /**
+     * 把已创建的联系人登记到号码索引，相当于索引收到了创建事件
+     */
+    protected ContactDTO indexed(ContactDTO contact) {
+        phoneKeyIndex.add(new ContactSnapshot(contact.getId(), contact.getName(), contact.getPhoneNumber(),
+                contact.getEmail(), contact.getCategory(), null, null));
+        return contact;
+    }
+}
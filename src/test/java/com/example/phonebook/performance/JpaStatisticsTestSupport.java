@@ -0,0 +1,59 @@
+package com.example.phonebook.performance;
+
+import com.example.phonebook.config.HibernateCacheConfig;
+import com.example.phonebook.repository.ContactRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 用 Hibernate 统计断言 SQL 条数和缓存命中数的测试基类
+ *
+ * 测试方法不开事务，每次仓库调用使用自己的 EntityManager，一级缓存不会掩盖二级缓存和批量写入的效果。
+ * 只断言条数，不计时也不打印：耗时随机器波动，条数才是回归信号。
+ */
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+abstract class JpaStatisticsTestSupport {
+
+    @Autowired
+    protected ContactRepository contactRepository;
+
+    @Autowired
+    protected EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    protected Statistics statistics;
+
+    @BeforeEach
+    void resetDatabase() {
+        contactRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * 准备数据之后调用，之后的计数只包含被测调用
+     */
+    protected void startCounting() {
+        statistics.clear();
+    }
+
+    /**
+     * 在一个事务内执行，用于准备数据或模拟服务的分块事务
+     */
+    protected void inTransaction(Runnable action) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> action.run());
+    }
+}
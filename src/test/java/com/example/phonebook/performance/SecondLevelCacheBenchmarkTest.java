@@ -0,0 +1,99 @@
+package com.example.phonebook.performance;
+
+import com.example.phonebook.config.HibernateCacheConfig;
+import com.example.phonebook.entity.Contact;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hibernate 二级缓存基准：同一批 findById / findByPhoneNumber 在冷缓存和热缓存下的 SQL 条数与命中数
+ */
+@DisplayName("Hibernate二级缓存基准测试")
+class SecondLevelCacheBenchmarkTest extends JpaStatisticsTestSupport {
+
+    private static final int CONTACTS = 500;
+    private static final int WARM_ROUNDS = 5;
+
+    private final List<Long> ids = new ArrayList<>();
+    private final List<String> phones = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ids.clear();
+        phones.clear();
+        inTransaction(() -> {
+            for (int i = 0; i < CONTACTS; i++) {
+                Contact contact = new Contact("缓存测试" + i, String.format("139%08d", i), null, null, "bench", null);
+                Contact saved = contactRepository.save(contact);
+                ids.add(saved.getId());
+                phones.add(saved.getPhoneNumber());
+            }
+        });
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        startCounting();
+    }
+
+    @Test
+    @DisplayName("findById：热缓存不访问数据库")
+    void findById_WarmCache_ServedFromEntityRegion() {
+        for (Long id : ids) {
+            assertThat(contactRepository.findById(id)).isPresent();
+        }
+        long coldStatements = statistics.getPrepareStatementCount();
+        startCounting();
+
+        for (int round = 0; round < WARM_ROUNDS; round++) {
+            for (Long id : ids) {
+                assertThat(contactRepository.findById(id)).isPresent();
+            }
+        }
+
+        assertThat(coldStatements).isEqualTo(CONTACTS);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.ENTITY_REGION).getHitCount())
+                .isEqualTo((long) CONTACTS * WARM_ROUNDS);
+    }
+
+    @Test
+    @DisplayName("findByPhoneNumber：查询缓存 + 实体缓存")
+    void findByPhoneNumber_WarmCache_ServedFromQueryAndEntityRegions() {
+        for (String phone : phones) {
+            assertThat(contactRepository.findByPhoneNumber(phone)).isPresent();
+        }
+        long coldStatements = statistics.getPrepareStatementCount();
+        startCounting();
+
+        for (int round = 0; round < WARM_ROUNDS; round++) {
+            for (String phone : phones) {
+                assertThat(contactRepository.findByPhoneNumber(phone)).isPresent();
+            }
+        }
+
+        assertThat(coldStatements).isEqualTo(CONTACTS);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo((long) CONTACTS * WARM_ROUNDS);
+        assertThat(statistics.getQueryRegionStatistics("default-query-results-region").getHitCount())
+                .isEqualTo((long) CONTACTS * WARM_ROUNDS);
+    }
+
+    @Test
+    @DisplayName("写入后查询缓存失效")
+    void save_InvalidatesCachedQueryResults() {
+        String phone = phones.get(0);
+        assertThat(contactRepository.findByPhoneNumber(phone)).isPresent();
+
+        Contact contact = contactRepository.findById(ids.get(0)).orElseThrow(IllegalStateException::new);
+        contact.setPhoneNumber("13700000000");
+        contactRepository.save(contact);
+
+        assertThat(contactRepository.findByPhoneNumber(phone)).isEmpty();
+        assertThat(contactRepository.findById(ids.get(0)).map(Contact::getPhoneNumber)).contains("13700000000");
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.phonebook.performance;
+
+import com.example.phonebook.dto.ContactDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 单个联系人写接口的 SQL 条数：号码和邮箱的唯一性由唯一索引判定，不再逐项预查
+ *
+ * 号码索引就绪时，创建只有一条 INSERT，更新和删除最多一条主键查询加一条写语句，每次写一个事务。
+ */
+@DisplayName("写接口SQL条数测试")
+class WriteStatementCountTest extends ContactServiceJpaTestSupport {
+
+    private ContactDTO existing;
+
+    private ContactDTO other;
+
+    @BeforeEach
+    void setUp() {
+        // 先写两条，号段在这里取到，后面的计数里不含取号的语句
+        existing = indexed(contactService.createContact(contact("已有联系人", "13700000000", "existing@test.com")));
+        other = indexed(contactService.createContact(contact("另一个", "13700000003", "other@test.com")));
+        startCounting();
+    }
+
+    @Test
+    @DisplayName("创建：一条 INSERT")
+    void createContact_SingleInsert() {
+        ContactDTO created = contactService.createContact(contact("新联系人", "13700000001", "new@test.com"));
+
+        assertThat(created.getId()).isNotNull();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("创建：邮箱或号码重复由唯一索引拒绝，只发一条 INSERT")
+    void createContact_Duplicate_RejectedByUniqueIndex() {
+        assertThatThrownBy(() -> contactService.createContact(contact("重复邮箱", "13700000002", "existing@test.com")))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessage("邮箱已存在");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        assertThatThrownBy(() -> contactService.createContact(contact("重复号码", "13700000000", null)))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessage("电话号码已存在");
+        assertThat(contactRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("创建和更新：同一号码的其他写法由号码索引拒绝，不发写语句")
+    void phoneKeyDuplicate_RejectedByPhoneIndex() {
+        assertThatThrownBy(() -> contactService.createContact(contact("换个写法", "+86 137-0000-0000", null)))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessage("电话号码已存在");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+
+        assertThatThrownBy(() -> contactService.updateContact(other.getId(), contact("另一个", "0086 137 0000 0000", null)))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessage("电话号码已被其他联系人使用");
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+
+        // 自己的号码换一种写法不算冲突
+        ContactDTO updated = contactService.updateContact(existing.getId(),
+                contact("已有联系人", "+86 137 0000 0000", "existing@test.com"));
+        assertThat(updated.getPhoneNumber()).isEqualTo("+86 137 0000 0000");
+        assertThat(contactRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("更新：缓存未命中时一条主键查询加一条 UPDATE，命中时只有 UPDATE")
+    void updateContact_AtMostSelectAndUpdate() {
+        entityManagerFactory.getCache().evictAll();
+        contactService.updateContact(existing.getId(), contact("改名一次", "13700000000", "existing@test.com"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+
+        statistics.clear();
+        contactService.updateContact(existing.getId(), contact("改名两次", "13700000000", "existing@test.com"));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getSuccessfulTransactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("更新：邮箱被占用时由唯一索引拒绝，不存在时只有一条主键查询")
+    void updateContact_EmailTakenOrMissing() {
+        assertThatThrownBy(() -> contactService.updateContact(other.getId(), contact("另一个", "13700000003", "existing@test.com")))
+                .isInstanceOf(DuplicateKeyException.class)
+                .hasMessage("邮箱已被其他联系人使用");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThatThrownBy(() -> contactService.updateContact(-1L, contact("不存在", "13700000004", null)))
+                .isInstanceOf(NoSuchElementException.class);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("删除：缓存未命中时一条主键查询加一条 DELETE")
+    void deleteContact_AtMostSelectAndDelete() {
+        entityManagerFactory.getCache().evictAll();
+        contactService.deleteContact(existing.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(1);
+        assertThat(contactRepository.existsById(existing.getId())).isFalse();
+    }
+
+    private static ContactDTO contact(String name, String phoneNumber, String email) {
+        return new ContactDTO(name, phoneNumber, email, null, "test", null);
+    }
+}
@@ -1,22 +1,44 @@
 package com.example.phonebook.service;
 
+import com.example.phonebook.cache.NegativeLookupCache;
 import com.example.phonebook.dto.ContactDTO;
+import com.example.phonebook.dto.CursorPage;
 import com.example.phonebook.entity.Contact;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.index.ContactIndexManager;
+import com.example.phonebook.index.ContactSearchIndex;
+import com.example.phonebook.index.ContactUniquenessFilter;
+import com.example.phonebook.index.FuzzyNameIndex;
+import com.example.phonebook.index.PhoneKeyIndex;
+import com.example.phonebook.index.PhoneSuffixIndex;
+import com.example.phonebook.index.PinyinIndex;
 import com.example.phonebook.repository.ContactRepository;
+import com.example.phonebook.service.BatchWriteException;
 import com.example.phonebook.service.impl.ContactServiceImpl;
+import com.example.phonebook.stats.ContactCounters;
+import com.example.phonebook.util.PageCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,6 +50,39 @@ class ContactServiceTest {
     @Mock
     private ContactRepository contactRepository;
 
+    @Mock
+    private ContactIndexManager contactIndexManager;
+
+    @Mock
+    private ContactSearchIndex contactSearchIndex;
+
+    @Mock
+    private PhoneSuffixIndex phoneSuffixIndex;
+
+    @Mock
+    private PinyinIndex pinyinIndex;
+
+    @Mock
+    private FuzzyNameIndex fuzzyNameIndex;
+
+    @Mock
+    private ContactCounters contactCounters;
+
+    @Mock
+    private ContactUniquenessFilter uniquenessFilter;
+
+    @Mock
+    private PhoneKeyIndex phoneKeyIndex;
+
+    @Mock
+    private NegativeLookupCache negativeLookupCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ContactServiceImpl contactService;
 
@@ -55,6 +110,10 @@ class ContactServiceTest {
         testContactDTO.setAddress("北京市朝阳区");
         testContactDTO.setCategory("personal");
         testContactDTO.setNotes("测试联系人");
+
+        ReflectionTestUtils.setField(contactService, "batchChunkSize", 2);
+        ReflectionTestUtils.setField(contactService, "batchMaxContacts", 100);
+        ReflectionTestUtils.setField(contactService, "exportChunkSize", 2);
     }
 
     @Test
@@ -71,6 +130,7 @@ class ContactServiceTest {
         assertEquals(testContactDTO.getPhoneNumber(), result.getPhoneNumber());
         assertEquals(testContactDTO.getEmail(), result.getEmail());
         verify(contactRepository, times(1)).save(any(Contact.class));
+        verify(eventPublisher, times(1)).publishEvent(any(ContactChangedEvent.class));
     }
 
     @Test
@@ -108,6 +168,20 @@ class ContactServiceTest {
         // Then
         assertFalse(result.isPresent());
         verify(contactRepository, times(1)).findById(999L);
+        verify(negativeLookupCache).recordMissingId(eq(999L), anyLong());
+    }
+
+    @Test
+    void getContactById_KnownMissing_SkipsRepository() {
+        // Given
+        when(negativeLookupCache.isMissingId(999L)).thenReturn(true);
+
+        // When
+        Optional<ContactDTO> result = contactService.getContactById(999L);
+
+        // Then
+        assertFalse(result.isPresent());
+        verify(contactRepository, never()).findById(any());
     }
 
     @Test
@@ -131,8 +205,9 @@ class ContactServiceTest {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
         List<Contact> contacts = Arrays.asList(testContact);
-        Page<Contact> contactPage = new PageImpl<>(contacts, pageable, 1);
-        when(contactRepository.findAll(pageable)).thenReturn(contactPage);
+        Slice<Contact> contactSlice = new SliceImpl<>(contacts, pageable, false);
+        when(contactRepository.findSliceBy(pageable)).thenReturn(contactSlice);
+        when(contactCounters.total()).thenReturn(1L);
 
         // When
         Page<ContactDTO> result = contactService.getAllContacts(pageable);
@@ -141,7 +216,24 @@ class ContactServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(testContact.getName(), result.getContent().get(0).getName());
-        verify(contactRepository, times(1)).findAll(pageable);
+        verify(contactRepository, times(1)).findSliceBy(pageable);
+        verify(contactRepository, never()).findAll(pageable);
+    }
+
+    @Test
+    void getAllContactsSlice_DoesNotCount() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 1);
+        Slice<Contact> contactSlice = new SliceImpl<>(Arrays.asList(testContact), pageable, true);
+        when(contactRepository.findSliceBy(pageable)).thenReturn(contactSlice);
+
+        // When
+        Slice<ContactDTO> result = contactService.getAllContactsSlice(pageable);
+
+        // Then
+        assertTrue(result.hasNext());
+        assertEquals(testContact.getName(), result.getContent().get(0).getName());
+        verifyNoInteractions(contactCounters);
     }
 
     @Test
@@ -178,7 +270,7 @@ class ContactServiceTest {
         when(contactRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThrows(RuntimeException.class, () -> {
+        assertThrows(NoSuchElementException.class, () -> {
             contactService.updateContact(999L, testContactDTO);
         });
         verify(contactRepository, times(1)).findById(999L);
@@ -188,26 +280,27 @@ class ContactServiceTest {
     @Test
     void deleteContact_ExistingContact_Success() {
         // Given
-        when(contactRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(contactRepository).deleteById(1L);
+        when(contactRepository.findById(1L)).thenReturn(Optional.of(testContact));
 
         // When
         contactService.deleteContact(1L);
 
         // Then
-        verify(contactRepository, times(1)).deleteById(1L);
+        verify(contactRepository, times(1)).delete(testContact);
+        verify(contactRepository, never()).existsById(anyLong());
+        verify(eventPublisher, times(1)).publishEvent(any(ContactChangedEvent.class));
     }
 
     @Test
     void deleteContact_NonExistingContact_ThrowsException() {
         // Given
-        when(contactRepository.existsById(999L)).thenReturn(false);
+        when(contactRepository.findById(999L)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThrows(RuntimeException.class, () -> {
+        assertThrows(NoSuchElementException.class, () -> {
             contactService.deleteContact(999L);
         });
-        verify(contactRepository, never()).deleteById(anyLong());
+        verify(contactRepository, never()).delete(any(Contact.class));
     }
 
     @Test
@@ -261,8 +354,9 @@ class ContactServiceTest {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
         List<Contact> contacts = Arrays.asList(testContact);
-        Page<Contact> contactPage = new PageImpl<>(contacts, pageable, 1);
-        when(contactRepository.findByCategory("personal", pageable)).thenReturn(contactPage);
+        Slice<Contact> contactSlice = new SliceImpl<>(contacts, pageable, false);
+        when(contactRepository.findSliceByCategory("personal", pageable)).thenReturn(contactSlice);
+        when(contactCounters.category("personal")).thenReturn(1L);
 
         // When
         Page<ContactDTO> result = contactService.getContactsByCategory("personal", pageable);
@@ -271,7 +365,7 @@ class ContactServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals("personal", result.getContent().get(0).getCategory());
-        verify(contactRepository, times(1)).findByCategory("personal", pageable);
+        verify(contactRepository, times(1)).findSliceByCategory("personal", pageable);
     }
 
     @Test
@@ -294,8 +388,9 @@ class ContactServiceTest {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
         List<Contact> contacts = Arrays.asList(testContact);
-        Page<Contact> contactPage = new PageImpl<>(contacts, pageable, 1);
-        when(contactRepository.searchByKeyword("张", pageable)).thenReturn(contactPage);
+        Slice<Contact> contactSlice = new SliceImpl<>(contacts, pageable, false);
+        when(contactRepository.searchSliceByKeyword("张", pageable)).thenReturn(contactSlice);
+        when(contactCounters.estimateKeyword(eq("张"), any())).thenReturn(1L);
 
         // When
         Page<ContactDTO> result = contactService.searchContacts("张", pageable);
@@ -303,18 +398,198 @@ class ContactServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(contactRepository, times(1)).searchByKeyword("张", pageable);
+        verify(contactRepository, times(1)).searchSliceByKeyword("张", pageable);
+    }
+
+    @Test
+    void searchContacts_IndexReady_ServesFromIndex() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        Contact other = new Contact();
+        other.setId(2L);
+        other.setName("张三丰");
+        other.setPhoneNumber("13700137003");
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(contactSearchIndex.search("张")).thenReturn(new long[]{1L, 2L});
+        when(contactIndexManager.getSnapshot(1L)).thenReturn(ContactSnapshot.of(testContact));
+        when(contactIndexManager.getSnapshot(2L)).thenReturn(ContactSnapshot.of(other));
+        when(contactRepository.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(other, testContact));
+
+        // When
+        Page<ContactDTO> result = contactService.searchContacts("张", pageable);
+
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals("张三", result.getContent().get(0).getName());
+        assertEquals("张三丰", result.getContent().get(1).getName());
+        verify(contactRepository, never()).searchSliceByKeyword(anyString(), any(Pageable.class));
+    }
+
+    @Test
+    void searchContacts_DigitKeyword_UsesPhoneSuffixIndex() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(contactSearchIndex.search("8000")).thenReturn(new long[0]);
+        when(phoneSuffixIndex.findBySuffix("8000", Integer.MAX_VALUE)).thenReturn(new long[]{1L});
+        when(contactIndexManager.getSnapshot(1L)).thenReturn(ContactSnapshot.of(testContact));
+        when(contactRepository.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(testContact));
+
+        // When
+        Page<ContactDTO> result = contactService.searchContacts("8000", pageable);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+        assertEquals("13800138000", result.getContent().get(0).getPhoneNumber());
+    }
+
+    @Test
+    void searchContacts_DigitKeyword_KeepsInfixMatchesAlongsideSuffixHits() {
+        // Given：13800138000 以 8000 结尾，13980001234 只在中间包含 8000
+        Contact infix = new Contact("李四", "13980001234", null, null, "personal", null);
+        infix.setId(2L);
+        Pageable pageable = PageRequest.of(0, 10);
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(contactSearchIndex.search("8000")).thenReturn(new long[]{1L, 2L});
+        when(phoneSuffixIndex.findBySuffix("8000", Integer.MAX_VALUE)).thenReturn(new long[]{1L});
+        when(contactIndexManager.getSnapshot(1L)).thenReturn(ContactSnapshot.of(testContact));
+        when(contactIndexManager.getSnapshot(2L)).thenReturn(ContactSnapshot.of(infix));
+        when(contactRepository.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(testContact, infix));
+
+        // When
+        Page<ContactDTO> result = contactService.searchContacts("8000", pageable);
+
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals(Arrays.asList("13800138000", "13980001234"),
+                result.getContent().stream().map(ContactDTO::getPhoneNumber).collect(Collectors.toList()));
+    }
+
+    @Test
+    void fuzzySearchContacts_Misspelling_RanksExactMatchesFirst() {
+        // Given
+        Contact other = new Contact("张山", "13900139000", null, null, "personal", null);
+        other.setId(2L);
+        Pageable pageable = PageRequest.of(0, 10);
+        Map<Long, Integer> distances = new HashMap<>();
+        distances.put(1L, 1);
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(fuzzyNameIndex.search("张山")).thenReturn(distances);
+        when(contactSearchIndex.search("张山")).thenReturn(new long[]{2L});
+        when(contactIndexManager.getSnapshot(1L)).thenReturn(ContactSnapshot.of(testContact));
+        when(contactIndexManager.getSnapshot(2L)).thenReturn(ContactSnapshot.of(other));
+        when(contactRepository.findAllById(Arrays.asList(2L, 1L))).thenReturn(Arrays.asList(testContact, other));
+
+        // When
+        Page<ContactDTO> result = contactService.fuzzySearchContacts("张山", pageable);
+
+        // Then
+        assertEquals(2, result.getTotalElements());
+        assertEquals("张山", result.getContent().get(0).getName());
+        assertEquals("张三", result.getContent().get(1).getName());
+    }
+
+    @Test
+    void getContactsAfter_NameCursor_SeeksPastLastRow() {
+        // Given
+        Contact second = new Contact("李四", "13900139000", null, null, "personal", null);
+        second.setId(2L);
+        Contact third = new Contact("王五", "13700137000", null, null, "personal", null);
+        third.setId(3L);
+        String after = new PageCursor("name_asc", 1L, "张三").encode();
+        when(contactRepository.findByNameAfter("张三", 1L, PageRequest.of(0, 2)))
+                .thenReturn(Arrays.asList(second, third));
+
+        // When
+        CursorPage<ContactDTO> result = contactService.getContactsAfter("name", "asc", after, 1);
+
+        // Then
+        assertEquals(1, result.getContent().size());
+        assertEquals("李四", result.getContent().get(0).getName());
+        assertTrue(result.hasNext());
+        PageCursor next = PageCursor.decode(result.getNextCursor()).require("name_asc", 1);
+        assertEquals(2L, next.getId());
+        assertEquals("李四", next.getKey(0));
+    }
+
+    @Test
+    void getContactsAfter_UnsupportedSort_ThrowsException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> contactService.getContactsAfter("phoneNumber", "asc", "", 10));
+    }
+
+    @Test
+    void cursorPages_SizeBelowOne_ThrowsException() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> contactService.getContactsAfter("name", "asc", "", 0));
+        assertEquals("每页条数必须大于 0", e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> contactService.getContactsByCategoryAfter("personal", "", 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> contactService.searchContactsAfter("张", "", -1));
+
+        verifyNoInteractions(contactRepository, contactSearchIndex);
+    }
+
+    @Test
+    void searchContactsAfter_IndexReady_PagesByRankWithCursor() {
+        // Given
+        Contact other = new Contact("张四", "13900139000", null, null, "personal", null);
+        other.setId(2L);
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(contactSearchIndex.search("张")).thenReturn(new long[]{1L, 2L});
+        when(contactIndexManager.getSnapshot(1L)).thenReturn(ContactSnapshot.of(testContact));
+        when(contactIndexManager.getSnapshot(2L)).thenReturn(ContactSnapshot.of(other));
+        when(contactRepository.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(testContact));
+        when(contactRepository.findAllById(Arrays.asList(2L))).thenReturn(Arrays.asList(other));
+
+        // When
+        CursorPage<ContactDTO> first = contactService.searchContactsAfter("张", "", 1);
+        CursorPage<ContactDTO> second = contactService.searchContactsAfter("张", first.getNextCursor(), 1);
+
+        // Then
+        assertEquals("张三", first.getContent().get(0).getName());
+        assertTrue(first.hasNext());
+        assertEquals("张四", second.getContent().get(0).getName());
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void searchContactsAfter_CursorFromOtherKeyword_ThrowsException() {
+        when(contactIndexManager.isReady()).thenReturn(true);
+        String after = new PageCursor("search_score", 1L, "李", "80", "李四").encode();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> contactService.searchContactsAfter("张", after, 10));
+    }
+
+    @Test
+    void searchContacts_PinyinKeyword_MergesPinyinMatches() {
+        // Given
+        Pageable pageable = PageRequest.of(0, 10);
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(contactSearchIndex.search("zs")).thenReturn(new long[0]);
+        when(pinyinIndex.search("zs", Integer.MAX_VALUE)).thenReturn(new long[]{1L});
+        when(contactIndexManager.getSnapshot(1L)).thenReturn(ContactSnapshot.of(testContact));
+        when(contactRepository.findAllById(Arrays.asList(1L))).thenReturn(Arrays.asList(testContact));
+
+        // When
+        Page<ContactDTO> result = contactService.searchContacts("zs", pageable);
+
+        // Then
+        assertEquals(1, result.getTotalElements());
+        assertEquals("张三", result.getContent().get(0).getName());
     }
 
     @Test
     void getContactStatistics_ReturnsStatisticsMap() {
         // Given
-        when(contactRepository.countAllContacts()).thenReturn(10L);
-        when(contactRepository.countByCategory()).thenReturn(Arrays.asList(
-            new Object[]{"personal", 5L},
-            new Object[]{"business", 3L},
-            new Object[]{"family", 2L}
-        ));
+        Map<String, Long> statistics = new HashMap<>();
+        statistics.put("total", 10L);
+        statistics.put("personal", 5L);
+        statistics.put("business", 3L);
+        statistics.put("family", 2L);
+        when(contactCounters.statistics()).thenReturn(statistics);
 
         // When
         Map<String, Long> result = contactService.getContactStatistics();
@@ -325,8 +600,7 @@ class ContactServiceTest {
         assertEquals(5L, result.get("personal"));
         assertEquals(3L, result.get("business"));
         assertEquals(2L, result.get("family"));
-        verify(contactRepository, times(1)).countAllContacts();
-        verify(contactRepository, times(1)).countByCategory();
+        verify(contactRepository, never()).countByCategory();
     }
 
     @Test
@@ -381,6 +655,349 @@ class ContactServiceTest {
         verify(contactRepository, times(1)).existsByEmailAndIdNot("test@example.com", 1L);
     }
 
+    @Test
+    void isPhoneNumberExists_NormalizedKey_UsesPhoneIndexOnly() {
+        // Given
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(phoneKeyIndex.find(8613800138000L)).thenReturn(1L);
+        when(phoneKeyIndex.findOther(8613800138000L, 1L)).thenReturn(PhoneKeyIndex.NOT_FOUND);
+        when(phoneKeyIndex.find(8613900139000L)).thenReturn(PhoneKeyIndex.NOT_FOUND);
+
+        // When & Then
+        assertTrue(contactService.isPhoneNumberExists("+86 138-0013-8000", null));
+        assertTrue(contactService.isPhoneNumberExists("13800138000", 2L));
+        assertFalse(contactService.isPhoneNumberExists("13800138000", 1L));
+        assertFalse(contactService.isPhoneNumberExists("13900139000", null));
+        verifyNoInteractions(contactRepository, uniquenessFilter);
+    }
+
+    @Test
+    void isPhoneNumberExists_UnrecognizedNumber_FilterNegativeSkipsDatabase() {
+        // Given
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(uniquenessFilter.mightContainPhone("ext-1234")).thenReturn(false);
+
+        // When & Then
+        assertFalse(contactService.isPhoneNumberExists("ext-1234", null));
+        verifyNoInteractions(contactRepository, phoneKeyIndex);
+    }
+
+    @Test
+    void findByPhoneNumber_IndexMiss_SkipsDatabase() {
+        // Given
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(phoneKeyIndex.find(8613800138000L)).thenReturn(PhoneKeyIndex.NOT_FOUND);
+
+        // When & Then
+        assertFalse(contactService.findByPhoneNumber("0086 138 0013 8000").isPresent());
+        verifyNoInteractions(contactRepository);
+    }
+
+    @Test
+    void findByPhoneNumber_IndexHit_LoadsByPrimaryKey() {
+        // Given
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(phoneKeyIndex.find(8613800138000L)).thenReturn(1L);
+        when(contactRepository.findById(1L)).thenReturn(Optional.of(testContact));
+
+        // When
+        Optional<ContactDTO> result = contactService.findByPhoneNumber("+8613800138000");
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(contactRepository, never()).findByPhoneNumber(anyString());
+    }
+
+    @Test
+    void isEmailExists_FilterPositive_ChecksDatabase() {
+        // Given
+        when(contactIndexManager.isReady()).thenReturn(true);
+        when(uniquenessFilter.mightContainEmail("test@example.com")).thenReturn(true);
+        when(contactRepository.existsByEmailAndIdNot("test@example.com", 1L)).thenReturn(true);
+
+        // When & Then
+        assertTrue(contactService.isEmailExists("test@example.com", 1L));
+    }
+
+    @Test
+    void createContact_RecordsValuesInFilterBeforeSave() {
+        // Given
+        when(contactRepository.save(any(Contact.class))).thenReturn(testContact);
+
+        // When
+        contactService.createContact(testContactDTO);
+
+        // Then
+        verify(uniquenessFilter).record(testContactDTO.getPhoneNumber(), testContactDTO.getEmail());
+    }
+
+    @Test
+    void createContact_EmailIndexViolation_ThrowsDuplicateKey() {
+        // Given
+        when(contactRepository.save(any(Contact.class))).thenReturn(testContact);
+        doThrow(new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.IDX_EMAIL_INDEX_C ON PUBLIC.CONTACTS(EMAIL)\"")))
+                .when(contactRepository).flush();
+
+        // When
+        DuplicateKeyException e = assertThrows(DuplicateKeyException.class,
+                () -> contactService.createContact(testContactDTO));
+
+        // Then
+        assertEquals("邮箱已存在", e.getMessage());
+        verify(contactRepository, never()).findByEmail(anyString());
+        verify(eventPublisher, never()).publishEvent(any(ContactChangedEvent.class));
+    }
+
+    @Test
+    void updateContact_BlankEmail_StoredAsNull() {
+        // Given
+        testContactDTO.setEmail("  ");
+        when(contactRepository.findById(1L)).thenReturn(Optional.of(testContact));
+        when(contactRepository.save(any(Contact.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        contactService.updateContact(1L, testContactDTO);
+
+        // Then
+        assertNull(testContact.getEmail());
+        verify(contactRepository, never()).existsByEmailAndIdNot(anyString(), anyLong());
+    }
+
+    @Test
+    void createContacts_InsertsInChunkTransactions() {
+        // Given
+        List<ContactDTO> batch = Arrays.asList(
+                new ContactDTO("张三", "13800138001", "a@example.com", null, null, null),
+                new ContactDTO("李四", "13800138002", null, null, null, null),
+                new ContactDTO("王五", "13800138003", "c@example.com", null, null, null));
+        when(contactRepository.findConflicts(anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(contactRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<ContactDTO> created = contactService.createContacts(batch);
+
+        // Then
+        assertEquals(3, created.size());
+        assertEquals("王五", created.get(2).getName());
+        verify(contactRepository, times(2)).findConflicts(anyCollection(), anyCollection(), anyCollection());
+        verify(contactRepository, times(2)).saveAll(anyList());
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher, times(3)).publishEvent(any(ContactChangedEvent.class));
+    }
+
+    @Test
+    void createContacts_LaterChunkFails_ReportsCreatedCountAndFailedIndex() {
+        // Given：第一块提交，第二块刷新时号码被并发写入的联系人占用
+        List<ContactDTO> batch = Arrays.asList(
+                new ContactDTO("张三", "13800138001", null, null, null, null),
+                new ContactDTO("李四", "13800138002", null, null, null, null),
+                new ContactDTO("王五", "13800138003", null, null, null, null));
+        when(contactRepository.findConflicts(anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(contactRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doNothing().doThrow(new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Duplicate entry '13800138003' for key 'contacts.idx_phone_number'")))
+                .when(contactRepository).flush();
+
+        // When
+        BatchWriteException e = assertThrows(BatchWriteException.class, () -> contactService.createContacts(batch));
+
+        // Then
+        assertEquals("电话号码已存在", e.getMessage());
+        assertEquals(2, e.getCompleted());
+        assertEquals(2, e.getFailedIndex());
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void createContacts_SamePhoneTwiceInBatch_RejectedWithoutQuery() {
+        // Given
+        List<ContactDTO> batch = Arrays.asList(
+                new ContactDTO("张三", "13800138001", null, null, null, null),
+                new ContactDTO("李四", "+86 138-0013-8001", null, null, null, null));
+
+        // When & Then
+        RuntimeException e = assertThrows(RuntimeException.class, () -> contactService.createContacts(batch));
+        assertEquals("电话号码重复: +86 138-0013-8001", e.getMessage());
+        verifyNoInteractions(contactRepository, transactionManager);
+    }
+
+    @Test
+    void createContacts_EmailTakenByExistingContact_NothingInserted() {
+        // Given
+        List<ContactDTO> batch = Arrays.asList(
+                new ContactDTO("张三", "13800138001", null, null, null, null),
+                new ContactDTO("李四", "13800138002", "zhangsan@example.com", null, null, null));
+        when(contactRepository.findConflicts(anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(Collections.singletonList(new Object[]{"13900000000", 8613900000000L, "zhangsan@example.com"}));
+
+        // When & Then
+        RuntimeException e = assertThrows(RuntimeException.class, () -> contactService.createContacts(batch));
+        assertEquals("邮箱已存在: zhangsan@example.com", e.getMessage());
+        verify(contactRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void importContacts_SkipsDuplicatesAndInsertsTheRest() {
+        // Given
+        List<ContactDTO> chunk = Arrays.asList(
+                new ContactDTO("张三", "13800138001", null, null, null, null),
+                new ContactDTO("李四", "13900000000", null, null, null, null),
+                new ContactDTO("王五", "+86 138-0013-8001", null, null, null, null),
+                new ContactDTO("赵六", "13800138004", "d@example.com", null, null, null));
+        when(contactRepository.findConflicts(anyCollection(), anyCollection(), anyCollection()))
+                .thenReturn(Collections.singletonList(new Object[]{"13900000000", 8613900000000L, null}));
+        when(contactRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<String> errors = contactService.importContacts(chunk);
+
+        // Then
+        assertEquals(Arrays.asList(null, "电话号码已存在: 13900000000", "电话号码重复: +86 138-0013-8001", null), errors);
+        verify(contactRepository, times(1)).saveAll(argThat(contacts -> ((List<?>) contacts).size() == 2));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void exportContacts_ReadsByIdUntilShortChunk() {
+        // Given
+        ContactDTO first = new ContactDTO(1L, "张三", "13800138001", null, null, null, null, null, null);
+        ContactDTO second = new ContactDTO(5L, "李四", "13800138002", null, null, null, null, null, null);
+        ContactDTO third = new ContactDTO(9L, "王五", "13800138003", null, null, null, null, null, null);
+        when(contactRepository.findExportChunk(eq(0L), any(Pageable.class))).thenReturn(Arrays.asList(first, second));
+        when(contactRepository.findExportChunk(eq(5L), any(Pageable.class))).thenReturn(Collections.singletonList(third));
+        List<List<ContactDTO>> chunks = new ArrayList<>();
+
+        // When
+        contactService.exportContacts(chunks::add);
+
+        // Then
+        assertEquals(Arrays.asList(Arrays.asList(first, second), Collections.singletonList(third)), chunks);
+        verify(contactRepository, times(2)).findExportChunk(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void updateContacts_AppliesGivenFieldsInChunkTransactions() {
+        // Given
+        Contact first = contact(1L, "张三", "13800138001", "work");
+        Contact second = contact(2L, "李四", "13800138002", "work");
+        Contact third = contact(3L, "王五", "13800138003", "family");
+        when(contactRepository.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(first, second));
+        when(contactRepository.findAllById(Arrays.asList(3L, 4L))).thenReturn(Collections.singletonList(third));
+        ContactDTO renamed = new ContactDTO();
+        renamed.setId(1L);
+        renamed.setName("张三丰");
+        ContactDTO unchanged = new ContactDTO();
+        unchanged.setId(2L);
+        unchanged.setCategory("work");
+        ContactDTO moved = new ContactDTO();
+        moved.setId(3L);
+        moved.setCategory("work");
+        moved.setEmail("");
+        ContactDTO missing = new ContactDTO();
+        missing.setId(4L);
+        missing.setNotes("不存在");
+
+        // When
+        int updated = contactService.updateContacts(Arrays.asList(renamed, unchanged, moved, missing));
+
+        // Then
+        assertEquals(2, updated);
+        assertEquals("张三丰", first.getName());
+        assertEquals("13800138001", first.getPhoneNumber());
+        assertEquals("work", third.getCategory());
+        assertNull(third.getEmail());
+        verify(contactRepository, times(2)).flush();
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher, times(2)).publishEvent(any(ContactChangedEvent.class));
+        verify(contactRepository, never()).save(any(Contact.class));
+    }
+
+    @Test
+    void updateContacts_SameEmailTwice_RejectedWithoutQuery() {
+        // Given
+        ContactDTO first = new ContactDTO();
+        first.setId(1L);
+        first.setEmail("same@example.com");
+        ContactDTO second = new ContactDTO();
+        second.setId(2L);
+        second.setEmail("same@example.com");
+
+        // When & Then
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> contactService.updateContacts(Arrays.asList(first, second)));
+        assertEquals("邮箱重复: same@example.com", e.getMessage());
+        verifyNoInteractions(contactRepository, transactionManager);
+    }
+
+    @Test
+    void updateContacts_LaterChunkFails_ReportsCommittedCountAndFailedIndex() {
+        // Given：第一块提交，第二块刷新时邮箱与已有联系人冲突
+        Contact first = contact(1L, "张三", "13800138001", "work");
+        Contact second = contact(2L, "李四", "13800138002", "work");
+        Contact third = contact(3L, "王五", "13800138003", "work");
+        when(contactRepository.findAllById(Arrays.asList(1L, 2L))).thenReturn(Arrays.asList(first, second));
+        when(contactRepository.findAllById(Collections.singletonList(3L))).thenReturn(Collections.singletonList(third));
+        doNothing().doThrow(new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Duplicate entry 'taken@example.com' for key 'contacts.idx_email'")))
+                .when(contactRepository).flush();
+        List<ContactDTO> updates = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            ContactDTO changes = new ContactDTO();
+            changes.setId(id);
+            changes.setEmail(id == 3 ? "taken@example.com" : "new" + id + "@example.com");
+            updates.add(changes);
+        }
+
+        // When
+        BatchWriteException e = assertThrows(BatchWriteException.class, () -> contactService.updateContacts(updates));
+
+        // Then
+        assertEquals("邮箱已被其他联系人使用", e.getMessage());
+        assertEquals(2, e.getCompleted());
+        assertEquals(2, e.getFailedIndex());
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void updateContactsByCategory_ReadsByIdUntilShortChunk() {
+        // Given
+        Contact first = contact(1L, "张三", "13800138001", "同学");
+        Contact second = contact(5L, "李四", "13800138002", "同学");
+        Contact third = contact(9L, "王五", "13800138003", "同学");
+        when(contactRepository.findCategoryChunk(eq("同学"), eq(0L), any(Pageable.class)))
+                .thenReturn(Arrays.asList(first, second));
+        when(contactRepository.findCategoryChunk(eq("同学"), eq(5L), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(third));
+        ContactDTO changes = new ContactDTO();
+        changes.setCategory("朋友");
+
+        // When
+        int updated = contactService.updateContactsByCategory("同学", changes);
+
+        // Then
+        assertEquals(3, updated);
+        assertEquals("朋友", third.getCategory());
+        verify(contactRepository, times(2)).findCategoryChunk(anyString(), anyLong(), any(Pageable.class));
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher, times(3)).publishEvent(any(ContactChangedEvent.class));
+    }
+
+    @Test
+    void updateContactsByCategory_PhoneChange_Rejected() {
+        // Given
+        ContactDTO changes = new ContactDTO();
+        changes.setPhoneNumber("13800138000");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> contactService.updateContactsByCategory("同学", changes));
+        verifyNoInteractions(contactRepository);
+    }
+
     @Test
     void deleteContacts_BatchDelete_Success() {
         // Given
@@ -416,4 +1033,10 @@ class ContactServiceTest {
             contactService.deleteContacts(null);
         });
     }
-}
\ No newline at end of file
+
+    private static Contact contact(Long id, String name, String phoneNumber, String category) {
+        Contact contact = new Contact(name, phoneNumber, null, null, category, null);
+        contact.setId(id);
+        return contact;
+    }
+}
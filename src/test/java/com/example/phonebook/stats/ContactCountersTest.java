@@ -0,0 +1,177 @@
+package com.example.phonebook.stats;
+
+import com.example.phonebook.entity.ContactStat;
+import com.example.phonebook.event.ContactChangedEvent;
+import com.example.phonebook.event.ContactSnapshot;
+import com.example.phonebook.repository.ContactRepository;
+import com.example.phonebook.repository.ContactStatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ContactCountersTest {
+
+    @Mock
+    private ContactRepository contactRepository;
+
+    @Mock
+    private ContactStatRepository contactStatRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private ContactCounters contactCounters;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(contactCounters, "keywordTtlSeconds", 60L);
+        ReflectionTestUtils.setField(contactCounters, "keywordMaxEntries", 2);
+    }
+
+    @Test
+    void writes_AdjustCountersWithoutQueryingAgain() {
+        // Given
+        List<Object[]> categories = new ArrayList<>();
+        categories.add(new Object[]{"work", 2L});
+        categories.add(new Object[]{"personal", 3L});
+        when(contactRepository.count()).thenReturn(5L);
+        when(contactRepository.countByCategory()).thenReturn(categories);
+        assertEquals(5L, contactCounters.total());
+
+        // When
+        contactCounters.onContactChanged(ContactChangedEvent.created(snapshot(6L, "work")));
+        contactCounters.onContactChanged(ContactChangedEvent.updated(snapshot(1L, "personal"), snapshot(1L, "family")));
+        contactCounters.onContactChanged(ContactChangedEvent.deleted(snapshot(2L, "personal")));
+
+        // Then
+        assertEquals(5L, contactCounters.total());
+        assertEquals(3L, contactCounters.category("work"));
+        assertEquals(1L, contactCounters.category("personal"));
+        assertEquals(1L, contactCounters.category("family"));
+        verify(contactRepository, times(1)).count();
+        verify(contactRepository, times(1)).countByCategory();
+    }
+
+    @Test
+    void deleteWithUnknownCategory_ReloadsCategories() {
+        when(contactRepository.count()).thenReturn(1L);
+        when(contactRepository.countByCategory())
+                .thenReturn(Collections.singletonList(new Object[]{"work", 1L}))
+                .thenReturn(Collections.<Object[]>emptyList());
+        assertEquals(1L, contactCounters.category("work"));
+
+        contactCounters.onContactChanged(ContactChangedEvent.deleted(ContactSnapshot.ofId(1L)));
+
+        assertEquals(0L, contactCounters.total());
+        assertEquals(0L, contactCounters.category("work"));
+        verify(contactRepository, times(2)).countByCategory();
+    }
+
+    @Test
+    void estimateKeyword_CachesCountsPerKeyword() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(7L, contactCounters.estimateKeyword("张", () -> { calls.incrementAndGet(); return 7L; }));
+        assertEquals(7L, contactCounters.estimateKeyword("张", () -> { calls.incrementAndGet(); return 8L; }));
+        assertEquals(3L, contactCounters.estimateKeyword("李", () -> { calls.incrementAndGet(); return 3L; }));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void statistics_RestoredFromSummaryTable_NoFullTableQueries() {
+        LocalDateTime now = LocalDateTime.now();
+        when(contactStatRepository.findAll()).thenReturn(Arrays.asList(
+                new ContactStat(ContactStat.TOTAL_KEY, 5L, now),
+                new ContactStat(ContactStat.CATEGORY_PREFIX + "work", 3L, now),
+                new ContactStat(ContactStat.CATEGORY_PREFIX + "", 2L, now)));
+
+        contactCounters.onContactChanged(ContactChangedEvent.created(snapshot(6L, "work")));
+        Map<String, Long> statistics = contactCounters.statistics();
+        contactCounters.onContactChanged(ContactChangedEvent.created(snapshot(7L, "family")));
+
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("total", 5L);
+        expected.put("work", 3L);
+        assertEquals(expected, statistics);
+        assertEquals(6L, contactCounters.statistics().get("total"));
+        assertEquals(1L, contactCounters.statistics().get("family"));
+        verify(contactRepository, never()).count();
+        verify(contactRepository, never()).countByCategory();
+    }
+
+    @Test
+    void reconcile_DriftedCounters_CorrectedAndPersisted() {
+        when(contactRepository.count()).thenReturn(5L, 4L);
+        when(contactRepository.countByCategory())
+                .thenReturn(Collections.singletonList(new Object[]{"work", 5L}))
+                .thenReturn(Collections.singletonList(new Object[]{"work", 4L}));
+        contactCounters.statistics();
+        // 模拟漏收了一次删除
+        assertTrue(contactCounters.reconcile());
+
+        contactCounters.persist();
+
+        assertEquals(4L, contactCounters.statistics().get("total"));
+        assertEquals(4L, contactCounters.statistics().get("work"));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ContactStat>> rows = ArgumentCaptor.forClass(List.class);
+        verify(contactStatRepository).deleteAllInBatch();
+        verify(contactStatRepository).saveAll(rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertEquals(ContactStat.TOTAL_KEY, rows.getValue().get(0).getKey());
+        assertEquals(4L, rows.getValue().get(0).getValue());
+    }
+
+    @Test
+    void reconcile_WriteDuringQuery_SkipsRound() {
+        when(contactRepository.count()).thenReturn(5L);
+        when(contactRepository.countByCategory()).thenAnswer(invocation -> {
+            contactCounters.onContactChanged(ContactChangedEvent.created(snapshot(6L, "work")));
+            return Collections.singletonList(new Object[]{"work", 5L});
+        });
+
+        assertFalse(contactCounters.reconcile());
+    }
+
+    @Test
+    void persist_Unchanged_SkipsWrite() {
+        when(contactStatRepository.findAll()).thenReturn(Collections.singletonList(
+                new ContactStat(ContactStat.TOTAL_KEY, 0L, LocalDateTime.now())));
+        contactCounters.total();
+
+        contactCounters.persist();
+
+        verify(contactStatRepository, never()).saveAll(anyList());
+    }
+
+    private static ContactSnapshot snapshot(Long id, String category) {
+        return new ContactSnapshot(id, "联系人" + id, "1380000000" + id, null, category, null, null);
+    }
+}
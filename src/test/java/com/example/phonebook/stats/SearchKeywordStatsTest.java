@@ -0,0 +1,84 @@
+package com.example.phonebook.stats;
+
+import com.example.phonebook.entity.HotKeyword;
+import com.example.phonebook.repository.HotKeywordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchKeywordStatsTest {
+
+    @Mock
+    private HotKeywordRepository hotKeywordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SearchKeywordStats searchKeywordStats;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(searchKeywordStats, "maxTracked", 3);
+        ReflectionTestUtils.setField(searchKeywordStats, "persisted", 10);
+    }
+
+    @Test
+    void topKeywords_RankedByRecentSearches() {
+        // Given
+        when(hotKeywordRepository.findAll()).thenReturn(Collections.emptyList());
+        searchKeywordStats.record("张");
+        searchKeywordStats.record("李");
+        searchKeywordStats.record("李");
+        searchKeywordStats.record(" ");
+        searchKeywordStats.record(null);
+
+        // When & Then
+        assertEquals(Arrays.asList("李", "张"), searchKeywordStats.topKeywords(5));
+        assertEquals(Collections.singletonList("李"), searchKeywordStats.topKeywords(1));
+    }
+
+    @Test
+    void decay_DropsKeywordsCountedOnce() {
+        // Given
+        when(hotKeywordRepository.findAll()).thenReturn(Collections.emptyList());
+        searchKeywordStats.record("张");
+        searchKeywordStats.record("李");
+        searchKeywordStats.record("李");
+
+        // When
+        searchKeywordStats.decay();
+
+        // Then
+        assertEquals(Collections.singletonList("李"), searchKeywordStats.topKeywords(5));
+    }
+
+    @Test
+    void topKeywords_MergesPersistedCountsOnFirstRead() {
+        // Given
+        when(hotKeywordRepository.findAll()).thenReturn(Arrays.asList(
+                new HotKeyword("王", 5L, LocalDateTime.now()),
+                new HotKeyword("张", 1L, LocalDateTime.now())));
+        searchKeywordStats.record("张");
+        searchKeywordStats.record("张");
+        searchKeywordStats.record("张");
+        searchKeywordStats.record("张");
+        searchKeywordStats.record("张");
+
+        // When & Then
+        assertEquals(Arrays.asList("张", "王"), searchKeywordStats.topKeywords(5));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.phonebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void next_ParsesQuotedFieldsAndLineEndings() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader(
+                "\uFEFFname,notes\r\n\"张,三\",\"说 \"\"你好\"\"\n第二行\"\r\n\n李四,\n王五"), 1000);
+
+        assertThat(csv.next()).containsExactly("name", "notes");
+        assertThat(csv.next()).containsExactly("张,三", "说 \"你好\"\n第二行");
+        assertThat(csv.next()).containsExactly("李四", "");
+        assertThat(csv.next()).containsExactly("王五");
+        assertThat(csv.next()).isNull();
+        assertThat(csv.getRecordNumber()).isEqualTo(4);
+    }
+
+    @Test
+    void next_RecordTooLong_Throws() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("a,b\n\"" + repeat('x', 100) + "\n"), 50);
+
+        assertThat(csv.next()).containsExactly("a", "b");
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessageContaining("第 2 条记录");
+    }
+
+    @Test
+    void next_UnclosedQuote_Throws() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("\"abc"), 1000);
+
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class).hasMessageContaining("引号未闭合");
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.phonebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OffHeapLongLongMapTest {
+
+    @Test
+    void putGetRemove_BasicOperations() {
+        OffHeapLongLongMap map = new OffHeapLongLongMap(4);
+
+        assertThat(map.put(8613800138000L, 1L)).isEqualTo(OffHeapLongLongMap.NO_VALUE);
+        assertThat(map.put(8613800138000L, 2L)).isEqualTo(1L);
+        assertThat(map.get(8613800138000L)).isEqualTo(2L);
+        assertThat(map.get(8613900139000L)).isEqualTo(OffHeapLongLongMap.NO_VALUE);
+
+        assertThat(map.remove(8613800138000L, 1L)).isFalse();
+        assertThat(map.remove(8613800138000L, 2L)).isTrue();
+        assertThat(map.get(8613800138000L)).isEqualTo(OffHeapLongLongMap.NO_VALUE);
+        assertThat(map.size()).isZero();
+        assertThatThrownBy(() -> map.put(0L, 1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void randomOperations_MatchHashMapAcrossResizes() {
+        OffHeapLongLongMap map = new OffHeapLongLongMap(16);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            // 键空间较小，制造大量探测冲突和删除后移
+            long key = 1 + random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                Long value = expected.get(key);
+                if (value != null) {
+                    assertThat(map.remove(key, value)).isTrue();
+                    expected.remove(key);
+                }
+            } else {
+                map.put(key, i);
+                expected.put(key, (long) i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 5000; key++) {
+            Long value = expected.get(key);
+            assertThat(map.get(key)).isEqualTo(value == null ? OffHeapLongLongMap.NO_VALUE : value);
+        }
+        map.clear();
+        assertThat(map.get(1L)).isEqualTo(OffHeapLongLongMap.NO_VALUE);
+    }
+}
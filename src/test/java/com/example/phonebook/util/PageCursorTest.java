@@ -0,0 +1,40 @@
+package com.example.phonebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void encodeAndDecode_RoundTrips() {
+        String token = new PageCursor("search_score", 42L, "张三", "80", null).encode();
+
+        PageCursor cursor = PageCursor.decode(token).require("search_score", 3);
+
+        assertThat(token).doesNotContain("+", "/", "=");
+        assertThat(cursor.getId()).isEqualTo(42L);
+        assertThat(cursor.getKey(0)).isEqualTo("张三");
+        assertThat(cursor.getKey(1)).isEqualTo("80");
+        assertThat(cursor.getKey(2)).isNull();
+    }
+
+    @Test
+    void require_DifferentSort_ThrowsException() {
+        PageCursor cursor = PageCursor.decode(new PageCursor("name_asc", 1L, "a").encode());
+
+        assertThatThrownBy(() -> cursor.require("name_desc", 1))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cursor.require("name_asc", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decode_Garbage_ThrowsException() {
+        assertThatThrownBy(() -> PageCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PageCursor.decode("AAAA"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
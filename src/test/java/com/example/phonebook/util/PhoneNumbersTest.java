@@ -0,0 +1,27 @@
+package com.example.phonebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhoneNumbersTest {
+
+    @Test
+    void toKey_NormalizesCommonFormatsToE164() {
+        assertThat(PhoneNumbers.toKey("13800138000")).isEqualTo(8613800138000L);
+        assertThat(PhoneNumbers.toKey("+86 138-0013-8000")).isEqualTo(8613800138000L);
+        assertThat(PhoneNumbers.toKey("0086 (138) 0013 8000")).isEqualTo(8613800138000L);
+        assertThat(PhoneNumbers.toKey("8613800138000")).isEqualTo(8613800138000L);
+        assertThat(PhoneNumbers.toKey("010-12345678")).isEqualTo(861012345678L);
+        assertThat(PhoneNumbers.toKey("+1 (415) 555-0100")).isEqualTo(14155550100L);
+    }
+
+    @Test
+    void toKey_RejectsUnrecognizedNumbers() {
+        assertThat(PhoneNumbers.toKey(null)).isEqualTo(PhoneNumbers.INVALID);
+        assertThat(PhoneNumbers.toKey("")).isEqualTo(PhoneNumbers.INVALID);
+        assertThat(PhoneNumbers.toKey("+")).isEqualTo(PhoneNumbers.INVALID);
+        assertThat(PhoneNumbers.toKey("138-0013-8000 ext 12")).isEqualTo(PhoneNumbers.INVALID);
+        assertThat(PhoneNumbers.toKey("+1234567890123456")).isEqualTo(PhoneNumbers.INVALID);
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.phonebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PinyinUtilsTest {
+
+    @Test
+    void toPinyin_ChineseName_ReturnsFullPinyin() {
+        assertThat(PinyinUtils.toPinyin("张三")).isEqualTo("zhangsan");
+        assertThat(PinyinUtils.toPinyin("吕布")).isEqualTo("lvbu");
+    }
+
+    @Test
+    void toInitials_ChineseName_ReturnsInitials() {
+        assertThat(PinyinUtils.toInitials("张三丰")).isEqualTo("zsf");
+    }
+
+    @Test
+    void convert_LatinName_KeepsLettersAndUsesWordInitials() {
+        assertThat(PinyinUtils.toPinyin("John Smith")).isEqualTo("johnsmith");
+        assertThat(PinyinUtils.toInitials("John Smith")).isEqualTo("js");
+        assertThat(PinyinUtils.toInitials("王John")).isEqualTo("wj");
+    }
+
+    @Test
+    void convert_Null_ReturnsNull() {
+        assertThat(PinyinUtils.toPinyin(null)).isNull();
+        assertThat(PinyinUtils.toInitials(null)).isNull();
+    }
+
+    @Test
+    void isPinyinQuery_OnlyAcceptsAsciiLetters() {
+        assertThat(PinyinUtils.isPinyinQuery("zs")).isTrue();
+        assertThat(PinyinUtils.isPinyinQuery("ZhangSan")).isTrue();
+        assertThat(PinyinUtils.isPinyinQuery("zs1")).isFalse();
+        assertThat(PinyinUtils.isPinyinQuery("张")).isFalse();
+        assertThat(PinyinUtils.isPinyinQuery("")).isFalse();
+    }
+}
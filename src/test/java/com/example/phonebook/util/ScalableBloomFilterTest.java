@@ -0,0 +1,56 @@
+package com.example.phonebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void mightContain_NeverMissesInsertedValues() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(100, 0.01);
+        for (int i = 0; i < 5000; i++) {
+            filter.put("138" + i);
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertThat(filter.mightContain("138" + i)).isTrue();
+        }
+        assertThat(filter.count()).isBetween(4900L, 5000L);
+        assertThat(filter.stageCount()).isGreaterThan(1);
+        assertThat(filter.mightContain(null)).isFalse();
+    }
+
+    @Test
+    void falsePositiveRate_StaysNearConfiguredValueAfterGrowth() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1000, 0.01);
+        for (int i = 0; i < 20000; i++) {
+            filter.put("user" + i + "@example.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 20000; i++) {
+            if (filter.mightContain("other" + i + "@example.com")) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 20000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.02);
+        assertThat(filter.sizeInBytes()).isPositive();
+    }
+
+    @Test
+    void clear_ResetsToSingleEmptyStage() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(10, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.put(String.valueOf(i));
+        }
+        filter.clear();
+
+        assertThat(filter.mightContain("1")).isFalse();
+        assertThat(filter.count()).isZero();
+        assertThat(filter.stageCount()).isEqualTo(1);
+        assertThatThrownBy(() -> new ScalableBloomFilter(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.phonebook.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TopKTest {
+
+    @Test
+    void toSortedList_KeepsBestKInOrder() {
+        TopK<Integer> top = new TopK<>(3, Comparator.reverseOrder());
+        for (int value : new int[]{5, 1, 9, 3, 7, 9, 2}) {
+            top.offer(value);
+        }
+
+        assertThat(top.toSortedList()).containsExactly(9, 9, 7);
+    }
+
+    @Test
+    void toSortedList_FewerItemsThanK_ReturnsAll() {
+        TopK<Integer> top = new TopK<>(10, Comparator.naturalOrder());
+        top.offer(2);
+        top.offer(1);
+
+        assertThat(top.toSortedList()).containsExactly(1, 2);
+        assertThat(new TopK<Integer>(0, Comparator.naturalOrder()).toSortedList()).isEmpty();
+    }
+
+    @Test
+    void toSortedList_MatchesFullSort() {
+        Random random = new Random(7);
+        List<Integer> values = new ArrayList<>();
+        TopK<Integer> top = new TopK<>(50, Comparator.naturalOrder());
+        for (int i = 0; i < 10000; i++) {
+            int value = random.nextInt(1000);
+            values.add(value);
+            top.offer(value);
+        }
+        Collections.sort(values);
+
+        assertThat(top.toSortedList()).isEqualTo(values.subList(0, 50));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.phonebook.util;
+
+import com.example.phonebook.dto.ContactDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VCardReaderTest {
+
+    @Test
+    void next_ReadsVersion3And4Cards() throws IOException {
+        String vcf = "BEGIN:VCARD\r\n"
+                + "VERSION:3.0\r\n"
+                + "N:张;三;;;\r\n"
+                + "TEL;TYPE=WORK:010-12345678\r\n"
+                + "item1.TEL;TYPE=CELL,PREF:138 0013 8000\r\n"
+                + "EMAIL;TYPE=INTERNET:zhang\\,san@example.com\r\n"
+                + "ADR;TYPE=HOME:;;望京街10号;北京;;100102;中国\r\n"
+                + "CATEGORIES:work,family\r\n"
+                + "NOTE:第一行\\n第二行，很长的备注需要\r\n"
+                + "  折行\r\n"
+                + "PHOTO;ENCODING=b;TYPE=JPEG:" + repeat('A', 200) + "\r\n"
+                + " " + repeat('B', 200) + "\r\n"
+                + "END:VCARD\r\n"
+                + "\r\n"
+                + "BEGIN:VCARD\n"
+                + "VERSION:4.0\n"
+                + "FN:John Smith\n"
+                + "N:Smith;John;;;\n"
+                + "TEL;VALUE=uri;PREF=1:tel:+1-555-555-0100;ext=12\n"
+                + "END:VCARD\n";
+        VCardReader reader = new VCardReader(new StringReader(vcf), 100);
+
+        ContactDTO first = reader.next();
+        assertThat(first.getName()).isEqualTo("张三");
+        assertThat(first.getPhoneNumber()).isEqualTo("138 0013 8000");
+        assertThat(first.getEmail()).isEqualTo("zhang,san@example.com");
+        assertThat(first.getAddress()).isEqualTo("望京街10号 北京 100102 中国");
+        assertThat(first.getCategory()).isEqualTo("work");
+        assertThat(first.getNotes()).isEqualTo("第一行\n第二行，很长的备注需要 折行");
+
+        ContactDTO second = reader.next();
+        assertThat(second.getName()).isEqualTo("John Smith");
+        assertThat(second.getPhoneNumber()).isEqualTo("+1-555-555-0100");
+        assertThat(reader.next()).isNull();
+        assertThat(reader.getCardNumber()).isEqualTo(2);
+    }
+
+    @Test
+    void next_DecodesQuotedPrintableVersion21() throws IOException {
+        String vcf = "BEGIN:VCARD\r\n"
+                + "VERSION:2.1\r\n"
+                + "N;CHARSET=UTF-8;ENCODING=QUOTED-PRINTABLE:=E6=9D=8E;=E5=9B=9B;;;\r\n"
+                + "NOTE;CHARSET=UTF-8;ENCODING=QUOTED-PRINTABLE:=E5=A4=87=\r\n"
+                + "=E6=B3=A8\r\n"
+                + "TEL;CELL:13900000000\r\n"
+                + "END:VCARD\r\n";
+
+        ContactDTO contact = new VCardReader(new StringReader(vcf), 100).next();
+
+        assertThat(contact.getName()).isEqualTo("李四");
+        assertThat(contact.getNotes()).isEqualTo("备注");
+        assertThat(contact.getPhoneNumber()).isEqualTo("13900000000");
+    }
+
+    @Test
+    void next_RoundTripsWriterOutput() throws IOException {
+        ContactDTO contact = new ContactDTO("王五; Jr.", "+86 138-0013-8000", "w@example.com",
+                "上海市浦东新区世纪大道100号, 环球金融中心", "客户", "多行备注\r\n" + repeat('长', 60));
+        StringWriter out = new StringWriter();
+        VCardWriter writer = new VCardWriter(out);
+        writer.write(contact);
+        writer.write(new ContactDTO("赵六", "13800000000", null, null, null, null));
+        writer.flush();
+
+        VCardReader reader = new VCardReader(new StringReader(out.toString()), 1000);
+        ContactDTO read = reader.next();
+
+        assertThat(read.getName()).isEqualTo(contact.getName());
+        assertThat(read.getPhoneNumber()).isEqualTo(contact.getPhoneNumber());
+        assertThat(read.getEmail()).isEqualTo(contact.getEmail());
+        assertThat(read.getAddress()).isEqualTo(contact.getAddress());
+        assertThat(read.getCategory()).isEqualTo(contact.getCategory());
+        assertThat(read.getNotes()).isEqualTo("多行备注\n" + repeat('长', 60));
+        assertThat(reader.next().getName()).isEqualTo("赵六");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void next_MissingEnd_Throws() throws IOException {
+        VCardReader reader = new VCardReader(new StringReader("BEGIN:VCARD\nFN:张三\n"), 100);
+
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class).hasMessageContaining("缺少 END:VCARD");
+    }
+
+    @Test
+    void next_UsedPropertyTooLong_Throws() throws IOException {
+        VCardReader reader = new VCardReader(new StringReader(
+                "BEGIN:VCARD\nNOTE:" + repeat('x', 80) + "\n " + repeat('y', 80) + "\nEND:VCARD\n"), 100);
+
+        assertThatThrownBy(reader::next).isInstanceOf(IOException.class).hasMessageContaining("NOTE 超过 100 个字符");
+    }
+
+    @Test
+    void next_UsedPropertyTooLong_SkipsToNextCard() throws IOException {
+        // 折行很多的 NOTE：合并时即截止，不会把整段值读进内存
+        StringBuilder folded = new StringBuilder("BEGIN:VCARD\nFN:张三\nNOTE:x\n");
+        for (int i = 0; i < 1000; i++) {
+            folded.append(' ').append(repeat('y', 50)).append('\n');
+        }
+        folded.append("TEL:13800138001\nEND:VCARD\n")
+                .append("BEGIN:VCARD\nFN:李四\nTEL:13800138002\nEND:VCARD\n");
+        VCardReader reader = new VCardReader(new StringReader(folded.toString()), 100);
+
+        assertThatThrownBy(reader::next).isInstanceOf(VCardReader.CardException.class)
+                .hasMessage("第 1 张名片的 NOTE 超过 100 个字符");
+        ContactDTO next = reader.next();
+        assertThat(reader.getCardNumber()).isEqualTo(2);
+        assertThat(next.getName()).isEqualTo("李四");
+        assertThat(next.getPhoneNumber()).isEqualTo("13800138002");
+        assertThat(reader.next()).isNull();
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.phonebook.util;
+
+import com.example.phonebook.dto.ContactDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VCardWriterTest {
+
+    @Test
+    void write_EscapesValuesAndSkipsEmptyFields() throws IOException {
+        StringWriter out = new StringWriter();
+        new VCardWriter(out).write(new ContactDTO("张三", "13800138000", "", null, "work", "a,b;c\\d\ne"));
+
+        assertThat(out.toString()).isEqualTo("BEGIN:VCARD\r\n"
+                + "VERSION:3.0\r\n"
+                + "FN:张三\r\n"
+                + "N:张三;;;;\r\n"
+                + "TEL;TYPE=CELL:13800138000\r\n"
+                + "CATEGORIES:work\r\n"
+                + "NOTE:a\\,b\\;c\\\\d\\ne\r\n"
+                + "END:VCARD\r\n");
+    }
+
+    @Test
+    void write_FoldsLinesAt75Octets() throws IOException {
+        StringBuilder notes = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            notes.append(i % 2 == 0 ? "备" : "😀");
+        }
+        StringWriter out = new StringWriter();
+        new VCardWriter(out).write(new ContactDTO("张三", "13800138000", null, null, null, notes.toString()));
+
+        for (String line : out.toString().split("\r\n")) {
+            assertThat(line.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(75);
+            assertThat(Character.isHighSurrogate(line.charAt(line.length() - 1))).isFalse();
+        }
+    }
+}